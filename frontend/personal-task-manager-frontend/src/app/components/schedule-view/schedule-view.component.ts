@@ -1,4 +1,5 @@
-import { Component, OnInit, ChangeDetectorRef, ViewChild, AfterViewInit } from '@angular/core';
+import { Component, OnInit, OnDestroy, ChangeDetectorRef, ViewChild, AfterViewInit } from '@angular/core';
+import { Subscription, debounceTime } from 'rxjs';
 import { MatCalendar } from '@angular/material/datepicker';
 import { CommonModule } from '@angular/common';
 import { MatCardModule } from '@angular/material/card';
@@ -13,6 +14,7 @@ import { ScheduleService } from '../../services/schedule.service';
 import { Schedule, DayOfWeek } from '../../models/schedule.model';
 import { ScheduleDialogComponent, ScheduleDialogData } from '../schedule-dialog/schedule-dialog.component';
 import { NotificationService } from '../../services/notification.service';
+import { ChangeStreamService } from '../../services/change-stream.service';
 
 @Component({
   selector: 'app-schedule-view',
@@ -29,13 +31,14 @@ import { NotificationService } from '../../services/notification.service';
   templateUrl: './schedule-view.component.html',
   styleUrl: './schedule-view.component.scss'
 })
-export class ScheduleViewComponent implements OnInit, AfterViewInit {
+export class ScheduleViewComponent implements OnInit, OnDestroy, AfterViewInit {
   @ViewChild('calendar', { static: false }) calendar!: MatCalendar<Date>;
   
   schedules: Schedule[] = [];
   selectedDate: Date = new Date();
   // Cache des dates avec plannings pour un accès rapide
   private datesWithSchedules = new Set<string>();
+  private changeSubscription?: Subscription;
   
   weekDays = [
     { name: 'Lundi', value: DayOfWeek.MONDAY },
@@ -52,14 +55,21 @@ export class ScheduleViewComponent implements OnInit, AfterViewInit {
     private dialog: MatDialog,
     private snackBar: MatSnackBar,
     private notificationService: NotificationService,
+    private changeStream: ChangeStreamService,
     private cdr: ChangeDetectorRef
   ) {}
 
   ngOnInit(): void {
     this.loadSchedules();
-    // Vérifier les notifications toutes les minutes
-    setInterval(() => this.checkUpcomingSchedules(), 60000);
-    this.checkUpcomingSchedules();
+    // Recharger quand un planning change (ici ou sur un autre appareil) ;
+    // loadSchedules revérifie ensuite les plannings à venir
+    this.changeSubscription = this.changeStream.changesOf('SCHEDULE')
+      .pipe(debounceTime(500))
+      .subscribe(() => this.loadSchedules());
+  }
+
+  ngOnDestroy(): void {
+    this.changeSubscription?.unsubscribe();
   }
 
   ngAfterViewInit(): void {
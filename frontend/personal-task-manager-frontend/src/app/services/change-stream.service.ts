@@ -0,0 +1,115 @@
+import { Injectable, NgZone, OnDestroy } from '@angular/core';
+import { Observable, Subject, Subscription, filter } from 'rxjs';
+import { environment } from '../../environments/environment';
+import { AuthService } from './auth.service';
+
+export type EntityKind = 'TASK' | 'NOTE' | 'DOCUMENT' | 'SCHEDULE' | 'COMMENT' | string;
+
+export interface ChangeEvent {
+  id?: number;
+  entity?: EntityKind;
+  entityId?: number;
+  action?: 'CREATED' | 'UPDATED' | 'DELETED' | string;
+  at?: string;
+  // true quand le serveur n'a plus l'historique : tout recharger
+  resync?: boolean;
+}
+
+/**
+ * Flux des modifications poussé par le serveur sur /api/events (Server-Sent Events).
+ * Remplace le polling périodique des services : les composants rechargent uniquement
+ * quand une entité qui les concerne a changé.
+ */
+@Injectable({
+  providedIn: 'root'
+})
+export class ChangeStreamService implements OnDestroy {
+  private changesSubject = new Subject<ChangeEvent>();
+  public changes$ = this.changesSubject.asObservable();
+  private source: EventSource | null = null;
+  private lastEventId: string | null = null;
+  private userSubscription: Subscription;
+
+  constructor(
+    private authService: AuthService,
+    private zone: NgZone
+  ) {
+    // Ouvrir le flux à la connexion, le fermer à la déconnexion
+    this.userSubscription = this.authService.currentUser$.subscribe(user => {
+      if (user) {
+        this.connect();
+      } else {
+        this.disconnect();
+      }
+    });
+  }
+
+  /** Modifications d'un type d'entité, plus les demandes de resynchronisation. */
+  changesOf(...kinds: EntityKind[]): Observable<ChangeEvent> {
+    return this.changes$.pipe(
+      filter(change => !!change.resync || (!!change.entity && kinds.includes(change.entity)))
+    );
+  }
+
+  private connect(): void {
+    const token = this.authService.getToken();
+    if (!token || this.source) {
+      return;
+    }
+
+    // EventSource n'envoie pas d'en-tête Authorization : le jeton passe en access_token.
+    // Le navigateur renvoie lui-même Last-Event-ID lors de ses reconnexions automatiques ;
+    // lastEventId ne sert qu'après une fermeture explicite du flux.
+    let url = `${environment.apiUrl}/events?access_token=${encodeURIComponent(token)}`;
+    if (this.lastEventId) {
+      url += `&lastEventId=${encodeURIComponent(this.lastEventId)}`;
+    }
+
+    this.source = new EventSource(url);
+    this.source.addEventListener('change', event => this.onChange(event as MessageEvent));
+    this.source.addEventListener('resync', event => this.onResync(event as MessageEvent));
+    this.source.onerror = () => {
+      // Jeton refusé ou expiré : le navigateur abandonne, inutile de garder le flux
+      if (this.source?.readyState === EventSource.CLOSED) {
+        this.source = null;
+      }
+    };
+  }
+
+  private disconnect(): void {
+    if (this.source) {
+      this.source.close();
+      this.source = null;
+    }
+    this.lastEventId = null;
+  }
+
+  private onChange(event: MessageEvent): void {
+    if (event.lastEventId) {
+      this.lastEventId = event.lastEventId;
+    }
+    try {
+      const change: ChangeEvent = JSON.parse(event.data);
+      this.emit(change);
+    } catch (error) {
+      console.error('Événement illisible sur /api/events:', error);
+    }
+  }
+
+  private onResync(event: MessageEvent): void {
+    if (event.lastEventId) {
+      this.lastEventId = event.lastEventId;
+    }
+    this.emit({ resync: true });
+  }
+
+  // EventSource est ouvert hors de la zone Angular dans certains navigateurs
+  private emit(change: ChangeEvent): void {
+    this.zone.run(() => this.changesSubject.next(change));
+  }
+
+  ngOnDestroy(): void {
+    this.userSubscription.unsubscribe();
+    this.disconnect();
+  }
+}
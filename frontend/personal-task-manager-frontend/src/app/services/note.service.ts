@@ -1,6 +1,7 @@
 import { Injectable } from '@angular/core';
-import { HttpClient } from '@angular/common/http';
-import { Observable } from 'rxjs';
+import { HttpClient, HttpParams } from '@angular/common/http';
+import { EMPTY, Observable } from 'rxjs';
+import { expand, reduce } from 'rxjs/operators';
 import { Note } from '../models/note.model';
 import { AuthService } from './auth.service';
 
@@ -9,6 +10,8 @@ import { AuthService } from './auth.service';
 })
 export class NoteService {
   private apiUrl = 'http://localhost:8080/api/notes';
+  // Taille maximale d'une page côté API
+  private readonly pageSize = 200;
 
   constructor(
     private http: HttpClient,
@@ -24,7 +27,7 @@ export class NoteService {
   }
 
   getAllNotes(): Observable<Note[]> {
-    return this.http.get<Note[]>(this.apiUrl);
+    return this.getAllPages(this.apiUrl);
   }
 
   getNoteById(id: number): Observable<Note> {
@@ -60,6 +63,24 @@ export class NoteService {
   }
 
   getPinnedNotes(): Observable<Note[]> {
-    return this.http.get<Note[]>(`${this.apiUrl}/pinned`);
+    return this.getAllPages(`${this.apiUrl}/pinned`);
+  }
+
+  // L'API pagine par clé : on suit le curseur du header X-Next-Cursor jusqu'à la dernière page
+  private getAllPages(url: string): Observable<Note[]> {
+    const fetchPage = (cursor: string | null) => {
+      let params = new HttpParams().set('limit', this.pageSize);
+      if (cursor) {
+        params = params.set('cursor', cursor);
+      }
+      return this.http.get<Note[]>(url, { params, observe: 'response' });
+    };
+    return fetchPage(null).pipe(
+      expand(response => {
+        const nextCursor = response.headers.get('X-Next-Cursor');
+        return nextCursor ? fetchPage(nextCursor) : EMPTY;
+      }),
+      reduce((notes: Note[], response) => notes.concat(response.body ?? []), [])
+    );
   }
 }
\ No newline at end of file
@@ -1,7 +1,8 @@
 import { Injectable } from '@angular/core';
-import { BehaviorSubject, Observable, combineLatest, map } from 'rxjs';
+import { BehaviorSubject, Observable, Subscription, combineLatest, debounceTime, map } from 'rxjs';
 import { TaskService } from './task.service';
 import { ScheduleService } from './schedule.service';
+import { ChangeStreamService } from './change-stream.service';
 import { Task } from '../models/task.model';
 import { Schedule } from '../models/schedule.model';
 
@@ -23,26 +24,41 @@ export class NotificationService {
   private notificationsSubject = new BehaviorSubject<Notification[]>([]);
   public notifications$ = this.notificationsSubject.asObservable();
   private readonly NOTIFICATION_KEY = 'notifications';
-  private checkInterval: any;
+  private changeSubscription?: Subscription;
+  private rolloverTimer: any;
 
   constructor(
     private taskService: TaskService,
-    private scheduleService: ScheduleService
+    private scheduleService: ScheduleService,
+    private changeStream: ChangeStreamService
   ) {
     this.loadNotifications();
     this.startChecking();
   }
 
   private startChecking(): void {
-    // Vérifier toutes les 5 minutes
-    this.checkInterval = setInterval(() => {
-      this.checkForNotifications();
-    }, 5 * 60 * 1000);
-    
+    // Recharger seulement quand le serveur signale une tâche ou un planning modifié ;
+    // une rafale de modifications ne déclenche qu'un seul rechargement
+    this.changeSubscription = this.changeStream.changesOf('TASK', 'SCHEDULE')
+      .pipe(debounceTime(1000))
+      .subscribe(() => this.checkForNotifications());
+
+    this.scheduleDayRollover();
+
     // Vérifier immédiatement
     this.checkForNotifications();
   }
 
+  // « Demain » devient « aujourd'hui » à minuit sans qu'aucune entité ne change
+  private scheduleDayRollover(): void {
+    const now = new Date();
+    const nextMidnight = new Date(now.getFullYear(), now.getMonth(), now.getDate() + 1, 0, 0, 1);
+    this.rolloverTimer = setTimeout(() => {
+      this.checkForNotifications();
+      this.scheduleDayRollover();
+    }, nextMidnight.getTime() - now.getTime());
+  }
+
   getNotifications(): Observable<Notification[]> {
     return this.notifications$;
   }
@@ -313,8 +329,9 @@ export class NotificationService {
   }
 
   destroy(): void {
-    if (this.checkInterval) {
-      clearInterval(this.checkInterval);
+    this.changeSubscription?.unsubscribe();
+    if (this.rolloverTimer) {
+      clearTimeout(this.rolloverTimer);
     }
   }
 }
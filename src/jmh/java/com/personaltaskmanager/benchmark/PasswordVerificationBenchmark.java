@@ -0,0 +1,34 @@
+package com.personaltaskmanager.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coût d'une vérification BCrypt selon le coût choisi (à comparer avec app.auth.bcrypt.target-ms)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+public class PasswordVerificationBenchmark {
+
+    @Param({"10", "12"})
+    public int strength;
+
+    private BCryptPasswordEncoder encoder;
+    private String hash;
+
+    @Setup
+    public void setUp() {
+        encoder = new BCryptPasswordEncoder(strength);
+        hash = encoder.encode("mot-de-passe-de-test");
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return encoder.matches("mot-de-passe-de-test", hash);
+    }
+}
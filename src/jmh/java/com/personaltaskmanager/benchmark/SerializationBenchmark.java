@@ -0,0 +1,98 @@
+package com.personaltaskmanager.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.personaltaskmanager.enums.DocumentType;
+import com.personaltaskmanager.enums.FileType;
+import com.personaltaskmanager.enums.NoteType;
+import com.personaltaskmanager.enums.TaskDifficulty;
+import com.personaltaskmanager.enums.TaskPriority;
+import com.personaltaskmanager.model.Document;
+import com.personaltaskmanager.model.Note;
+import com.personaltaskmanager.model.Task;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sérialisation Jackson des listes renvoyées par l'API, avec un ObjectMapper configuré comme celui de Spring Boot
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class SerializationBenchmark {
+
+    @Param({"50", "1000"})
+    public int size;
+
+    private ObjectMapper objectMapper;
+    private List<Task> tasks;
+    private List<Note> notes;
+    private List<Document> documents;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        LocalDateTime now = LocalDateTime.of(2026, 1, 15, 9, 30);
+        tasks = new ArrayList<>();
+        notes = new ArrayList<>();
+        documents = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            Task task = new Task();
+            task.setId((long) i);
+            task.setTitle("Préparer la réunion " + i);
+            task.setDescription("Relire les notes, préparer l'ordre du jour et envoyer l'invitation");
+            task.setDifficulty(TaskDifficulty.values()[i % 3]);
+            task.setPriority(TaskPriority.values()[i % TaskPriority.values().length]);
+            task.setDueDate(LocalDate.of(2026, 2, 1).plusDays(i % 30));
+            task.setCreatedAt(now);
+            task.setUpdatedAt(now);
+            task.setUserId(1L);
+            tasks.add(task);
+
+            Note note = new Note();
+            note.setId((long) i);
+            note.setTitle("Idée " + i);
+            note.setContent("Contenu de la note ".repeat(20));
+            note.setType(NoteType.TEXT);
+            note.setCreatedAt(now);
+            note.setUpdatedAt(now);
+            note.setUserId(1L);
+            notes.add(note);
+
+            Document document = new Document();
+            document.setId((long) i);
+            document.setName("document-" + i + ".pdf");
+            document.setType(DocumentType.FILE);
+            document.setFileType(FileType.PDF);
+            document.setFileUrl("/api/documents/files/document-" + i + ".pdf");
+            document.setSize(250_000L + i);
+            document.setMimeType("application/pdf");
+            document.setCreatedAt(now);
+            document.setUpdatedAt(now);
+            document.setUserId(1L);
+            documents.add(document);
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeTasks() throws Exception {
+        return objectMapper.writeValueAsBytes(tasks);
+    }
+
+    @Benchmark
+    public byte[] serializeNotes() throws Exception {
+        return objectMapper.writeValueAsBytes(notes);
+    }
+
+    @Benchmark
+    public byte[] serializeDocuments() throws Exception {
+        return objectMapper.writeValueAsBytes(documents);
+    }
+}
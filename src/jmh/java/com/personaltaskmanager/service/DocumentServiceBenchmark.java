@@ -0,0 +1,48 @@
+package com.personaltaskmanager.service;
+
+import com.personaltaskmanager.enums.FileType;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Détection du type de fichier à partir du nom : chaînes de toLowerCase().endsWith(...)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class DocumentServiceBenchmark {
+
+    // Mélange de cas fréquents, de fin de chaîne et inconnus
+    private static final String[] FILENAMES = {
+        "rapport.PDF", "photo-vacances.jpeg", "notes.md", "script.py", "application.properties",
+        "presentation.docx", "musique.flac", "video.mkv", "archive.tar.gz", "sans-extension"
+    };
+
+    private DocumentService documentService;
+
+    @Setup
+    public void setUp() {
+        documentService = new DocumentService();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(10)
+    public void getFileTypeFromFilename(Blackhole blackhole) {
+        for (String filename : FILENAMES) {
+            FileType type = documentService.getFileTypeFromFilename(filename);
+            blackhole.consume(type);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(10)
+    public void getContentTypeFromFilename(Blackhole blackhole) {
+        for (String filename : FILENAMES) {
+            blackhole.consume(documentService.getContentTypeFromFilename(filename));
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.personaltaskmanager.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.personaltaskmanager.enums.NoteType;
+import com.personaltaskmanager.enums.TaskDifficulty;
+import com.personaltaskmanager.model.Statistics;
+import com.personaltaskmanager.repository.NoteRepository;
+import com.personaltaskmanager.repository.StatisticsRepository;
+import com.personaltaskmanager.repository.TaskRepository;
+import com.personaltaskmanager.sharding.ShardDataSources;
+import com.personaltaskmanager.sharding.ShardFanOut;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Calcul des statistiques d'une journée (sur des repositories en mémoire) et sérialisation JSON des répartitions
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class StatisticsServiceBenchmark {
+
+    @Param({"10", "1000"})
+    public int rowsPerDay;
+
+    private StatisticsService statisticsService;
+    private Map<String, Long> distribution;
+    private final LocalDate date = LocalDate.of(2026, 1, 15);
+
+    @Setup
+    public void setUp() {
+        // Lignes des requêtes d'activité : (createdAt, difficulty) des tâches terminées, (createdAt, type) des notes
+        List<Object[]> tasks = new ArrayList<>();
+        List<Object[]> notes = new ArrayList<>();
+        TaskDifficulty[] difficulties = TaskDifficulty.values();
+        NoteType[] noteTypes = NoteType.values();
+        for (int i = 0; i < rowsPerDay; i++) {
+            tasks.add(new Object[] { date.atTime(9, 0).plusMinutes(i % 600), difficulties[i % difficulties.length] });
+            notes.add(new Object[] { date.atTime(10, 0).plusMinutes(i % 600), noteTypes[i % noteTypes.length] });
+        }
+
+        // Sans sharding ni base : une seule lecture, dans une transaction qui ne fait rien
+        ShardFanOut shardFanOut = new ShardFanOut(new StaticListableBeanFactory().getBeanProvider(ShardDataSources.class),
+            new PlatformTransactionManager() {
+                @Override
+                public TransactionStatus getTransaction(TransactionDefinition definition) {
+                    return new SimpleTransactionStatus();
+                }
+
+                @Override
+                public void commit(TransactionStatus status) {
+                }
+
+                @Override
+                public void rollback(TransactionStatus status) {
+                }
+            });
+
+        statisticsService = new StatisticsService(
+            stub(StatisticsRepository.class, null),
+            stub(TaskRepository.class, tasks),
+            stub(NoteRepository.class, notes),
+            new JsonArrayStreamer(new ObjectMapper()),
+            shardFanOut,
+            new SimpleMeterRegistry());
+
+        distribution = new LinkedHashMap<>();
+        distribution.put("EASY", 12L);
+        distribution.put("MEDIUM", 7L);
+        distribution.put("HARD", 3L);
+    }
+
+    @Benchmark
+    public Statistics calculateStatisticsForDate() {
+        return statisticsService.calculateStatisticsForDate(date);
+    }
+
+    @Benchmark
+    public String mapToJson() {
+        return StatisticsService.mapToJson(distribution);
+    }
+
+    // Tout appel de repository renvoyant une liste renvoie le jeu de données préparé
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(Class<T> type, List<?> rows) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (proxy, method, args) -> {
+            if (method.getReturnType() == List.class) {
+                return rows;
+            }
+            if (method.getName().equals("toString")) {
+                return type.getSimpleName() + " (benchmark)";
+            }
+            throw new UnsupportedOperationException(method.getName());
+        });
+    }
+}
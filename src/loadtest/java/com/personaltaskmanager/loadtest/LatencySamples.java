@@ -0,0 +1,49 @@
+package com.personaltaskmanager.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Latences brutes (en nanosecondes) d'une opération, propres à un worker : aucune synchronisation
+ * pendant la mesure, les échantillons des workers sont fusionnés à la fin du run.
+ */
+final class LatencySamples {
+    private long[] values = new long[1024];
+    private int size;
+    private long errors;
+
+    void record(long nanos, boolean success) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size++] = nanos;
+        if (!success) {
+            errors++;
+        }
+    }
+
+    void addAll(LatencySamples other) {
+        if (size + other.size > values.length) {
+            values = Arrays.copyOf(values, Math.max(values.length * 2, size + other.size));
+        }
+        System.arraycopy(other.values, 0, values, size, other.size);
+        size += other.size;
+        errors += other.errors;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long errors() {
+        return errors;
+    }
+
+    /**
+     * Copie triée des latences, pour le calcul des percentiles
+     */
+    long[] sorted() {
+        long[] copy = Arrays.copyOf(values, size);
+        Arrays.sort(copy);
+        return copy;
+    }
+}
@@ -0,0 +1,252 @@
+package com.personaltaskmanager.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Pilote de charge en boucle fermée : chaque worker se connecte avec un compte généré par le profil loadtest,
+ * puis enchaîne les requêtes tirées selon le mélange de trafic jusqu'à la fin du run.
+ * Les latences de la période de chauffe ne sont pas comptées.
+ *
+ * Paramètres (propriétés système) :
+ *   loadtest.base-url      URL de l'application (http://localhost:8080)
+ *   loadtest.users         nombre de comptes générés à utiliser (200)
+ *   loadtest.concurrency   nombre de workers simultanés (32)
+ *   loadtest.warmup        chauffe en secondes (10)
+ *   loadtest.duration      mesure en secondes (60)
+ *   loadtest.mix           poids par opération, ex. LIST_TASKS=30,UPLOAD=0 (défauts de Operation)
+ *   loadtest.upload-kb     taille des fichiers envoyés (64)
+ *   loadtest.password      mot de passe commun des comptes (loadtest-password)
+ *   loadtest.report        fichier JSON du rapport (target/loadtest-report.json)
+ */
+public final class LoadTestDriver {
+    private static final String USERNAME_PREFIX = "loadtest-user-";
+    private static final String BOUNDARY = "loadtest-boundary-7d1f3a";
+
+    private final String baseUrl;
+    private final int users;
+    private final int concurrency;
+    private final long warmupNanos;
+    private final long durationNanos;
+    private final String password;
+    private final Operation[] weightedOperations;
+    private final byte[] uploadBody;
+    private final HttpClient client;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private LoadTestDriver() {
+        this.baseUrl = System.getProperty("loadtest.base-url", "http://localhost:8080");
+        this.users = Integer.getInteger("loadtest.users", 200);
+        this.concurrency = Integer.getInteger("loadtest.concurrency", 32);
+        this.warmupNanos = Duration.ofSeconds(Long.getLong("loadtest.warmup", 10)).toNanos();
+        this.durationNanos = Duration.ofSeconds(Long.getLong("loadtest.duration", 60)).toNanos();
+        this.password = System.getProperty("loadtest.password", "loadtest-password");
+        this.weightedOperations = parseMix(System.getProperty("loadtest.mix", ""));
+        this.uploadBody = multipartBody(Integer.getInteger("loadtest.upload-kb", 64) * 1024);
+        this.client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestDriver driver = new LoadTestDriver();
+        LoadTestReport report = driver.run();
+        report.print();
+        report.writeJson(Paths.get(System.getProperty("loadtest.report", "target/loadtest-report.json")));
+    }
+
+    private LoadTestReport run() throws Exception {
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        try {
+            List<Session> sessions = new ArrayList<>(concurrency);
+            for (int i = 0; i < concurrency; i++) {
+                sessions.add(openSession(USERNAME_PREFIX + (i % users)));
+            }
+            System.out.printf("%d sessions ouvertes sur %s, chauffe %d s puis mesure %d s%n", sessions.size(), baseUrl,
+                Duration.ofNanos(warmupNanos).toSeconds(), Duration.ofNanos(durationNanos).toSeconds());
+
+            long measureStart = System.nanoTime() + warmupNanos;
+            long end = measureStart + durationNanos;
+            List<Future<Map<Operation, LatencySamples>>> results = new ArrayList<>();
+            for (Session session : sessions) {
+                results.add(workers.submit(() -> runWorker(session, measureStart, end)));
+            }
+
+            Map<Operation, LatencySamples> merged = new EnumMap<>(Operation.class);
+            for (Future<Map<Operation, LatencySamples>> result : results) {
+                result.get().forEach((operation, samples) ->
+                    merged.computeIfAbsent(operation, key -> new LatencySamples()).addAll(samples));
+            }
+            return new LoadTestReport(merged, durationNanos / 1e9, concurrency);
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    private Map<Operation, LatencySamples> runWorker(Session session, long measureStart, long end) {
+        Map<Operation, LatencySamples> samples = new EnumMap<>(Operation.class);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long now;
+        while ((now = System.nanoTime()) < end) {
+            Operation operation = weightedOperations[random.nextInt(weightedOperations.length)];
+            boolean success;
+            try {
+                success = execute(operation, session, random);
+            } catch (IOException e) {
+                success = false;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            long elapsed = System.nanoTime() - now;
+            if (now >= measureStart) {
+                samples.computeIfAbsent(operation, key -> new LatencySamples()).record(elapsed, success);
+            }
+        }
+        return samples;
+    }
+
+    private boolean execute(Operation operation, Session session, ThreadLocalRandom random)
+            throws IOException, InterruptedException {
+        switch (operation) {
+            case LIST_TASKS:
+                return send(session.get("/api/tasks"));
+            case LIST_NOTES:
+                return send(session.get("/api/notes"));
+            case LIST_DOCUMENTS:
+                return send(session.get("/api/documents/user/" + session.userId));
+            case DASHBOARD:
+                return send(session.get("/api/statistics/dashboard"));
+            case DOWNLOAD:
+                if (session.fileUrls.isEmpty()) {
+                    return send(session.get("/api/documents/user/" + session.userId));
+                }
+                return send(session.get(session.fileUrls.get(random.nextInt(session.fileUrls.size()))));
+            case UPLOAD:
+                return send(session.request("/api/documents/upload?userId=" + session.userId)
+                    .header("Content-Type", "multipart/form-data; boundary=" + BOUNDARY)
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(uploadBody))
+                    .build());
+            case LOGIN:
+                return client.send(loginRequest(session.username), HttpResponse.BodyHandlers.discarding())
+                    .statusCode() < 400;
+            default:
+                throw new IllegalStateException("Opération inconnue : " + operation);
+        }
+    }
+
+    // Le corps est lu en entier (puis jeté) : la latence mesurée inclut le transfert de la réponse
+    private boolean send(HttpRequest request) throws IOException, InterruptedException {
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() < 400;
+    }
+
+    private Session openSession(String username) throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(loginRequest(username), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Connexion impossible pour " + username + " (HTTP " + response.statusCode()
+                + ") : l'application tourne-t-elle avec le profil loadtest ?");
+        }
+        JsonNode body = objectMapper.readTree(response.body());
+        Session session = new Session(username, body.path("token").asText(), body.path("user").path("id").asLong());
+
+        HttpResponse<String> documents = client.send(session.get("/api/documents/user/" + session.userId),
+            HttpResponse.BodyHandlers.ofString());
+        if (documents.statusCode() == 200) {
+            for (JsonNode document : objectMapper.readTree(documents.body())) {
+                String fileUrl = document.path("fileUrl").asText(null);
+                if (fileUrl != null) {
+                    session.fileUrls.add(fileUrl);
+                }
+            }
+        }
+        return session;
+    }
+
+    private HttpRequest loginRequest(String username) throws IOException {
+        byte[] body = objectMapper.writeValueAsBytes(Map.of("username", username, "password", password));
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/login"))
+            .timeout(Duration.ofSeconds(30))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+            .build();
+    }
+
+    private static Operation[] parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            weights.put(operation, operation.getDefaultWeight());
+        }
+        for (String entry : mix.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            String[] parts = entry.split("=");
+            weights.put(Operation.valueOf(parts[0].trim().toUpperCase()), Integer.parseInt(parts[1].trim()));
+        }
+        // Une case par unité de poids : le tirage se fait en un seul nextInt
+        List<Operation> slots = new ArrayList<>();
+        weights.forEach((operation, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                slots.add(operation);
+            }
+        });
+        if (slots.isEmpty()) {
+            throw new IllegalArgumentException("Le mélange de trafic ne contient aucune opération");
+        }
+        return slots.toArray(new Operation[0]);
+    }
+
+    private static byte[] multipartBody(int size) {
+        byte[] content = new byte[size];
+        ThreadLocalRandom.current().nextBytes(content);
+        ByteArrayOutputStream body = new ByteArrayOutputStream(size + 256);
+        String header = "--" + BOUNDARY + "\r\n"
+            + "Content-Disposition: form-data; name=\"file\"; filename=\"loadtest.bin\"\r\n"
+            + "Content-Type: application/octet-stream\r\n\r\n";
+        body.writeBytes(header.getBytes(StandardCharsets.UTF_8));
+        body.writeBytes(content);
+        body.writeBytes(("\r\n--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.UTF_8));
+        return body.toByteArray();
+    }
+
+    private final class Session {
+        private final String username;
+        private final String token;
+        private final long userId;
+        private final List<String> fileUrls = new ArrayList<>();
+
+        private Session(String username, String token, long userId) {
+            this.username = username;
+            this.token = token;
+            this.userId = userId;
+        }
+
+        private HttpRequest.Builder request(String path) {
+            return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Authorization", "Bearer " + token);
+        }
+
+        private HttpRequest get(String path) {
+            return request(path).GET().build();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.personaltaskmanager.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Synthèse d'un run : débit, taux d'erreur et percentiles de latence par opération.
+ * Affichée en tableau sur la sortie standard et écrite en JSON pour comparer les runs entre eux.
+ */
+final class LoadTestReport {
+    private final Map<Operation, LatencySamples> samples;
+    private final double durationSeconds;
+    private final int concurrency;
+
+    LoadTestReport(Map<Operation, LatencySamples> samples, double durationSeconds, int concurrency) {
+        this.samples = new EnumMap<>(samples);
+        this.durationSeconds = durationSeconds;
+        this.concurrency = concurrency;
+    }
+
+    void print() {
+        System.out.printf("%nRun de %.0f s, %d workers%n", durationSeconds, concurrency);
+        System.out.printf("%-15s %9s %8s %10s %10s %10s %10s %10s%n",
+            "opération", "requêtes", "erreurs", "req/s", "p50 ms", "p90 ms", "p99 ms", "max ms");
+        long total = 0;
+        long totalErrors = 0;
+        for (Map<String, Object> row : rows()) {
+            System.out.printf("%-15s %9d %8d %10.1f %10.2f %10.2f %10.2f %10.2f%n",
+                row.get("operation"), row.get("requests"), row.get("errors"), row.get("throughput"),
+                row.get("p50Ms"), row.get("p90Ms"), row.get("p99Ms"), row.get("maxMs"));
+            total += (Integer) row.get("requests");
+            totalErrors += (Long) row.get("errors");
+        }
+        System.out.printf("%-15s %9d %8d %10.1f%n", "total", total, totalErrors, total / durationSeconds);
+    }
+
+    void writeJson(Path path) throws IOException {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("durationSeconds", durationSeconds);
+        report.put("concurrency", concurrency);
+        report.put("operations", rows());
+        Files.createDirectories(path.toAbsolutePath().getParent());
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(path.toFile(), report);
+    }
+
+    private List<Map<String, Object>> rows() {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        samples.forEach((operation, operationSamples) -> {
+            if (operationSamples.size() == 0) {
+                return;
+            }
+            long[] sorted = operationSamples.sorted();
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("operation", operation.name());
+            row.put("requests", sorted.length);
+            row.put("errors", operationSamples.errors());
+            row.put("throughput", sorted.length / durationSeconds);
+            row.put("p50Ms", percentileMillis(sorted, 0.50));
+            row.put("p90Ms", percentileMillis(sorted, 0.90));
+            row.put("p99Ms", percentileMillis(sorted, 0.99));
+            row.put("maxMs", sorted[sorted.length - 1] / 1_000_000.0);
+            rows.add(row);
+        });
+        return rows;
+    }
+
+    // Percentile au rang le plus proche
+    private static double percentileMillis(long[] sorted, double percentile) {
+        int rank = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, rank)] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,24 @@
+package com.personaltaskmanager.loadtest;
+
+/**
+ * Opérations rejouées par le pilote, avec leur poids par défaut dans le mélange de trafic
+ */
+public enum Operation {
+    LIST_TASKS(25),
+    LIST_NOTES(20),
+    LIST_DOCUMENTS(10),
+    DASHBOARD(10),
+    DOWNLOAD(20),
+    UPLOAD(10),
+    LOGIN(5);
+
+    private final int defaultWeight;
+
+    Operation(int defaultWeight) {
+        this.defaultWeight = defaultWeight;
+    }
+
+    public int getDefaultWeight() {
+        return defaultWeight;
+    }
+}
@@ -0,0 +1,30 @@
+package com.personaltaskmanager.config;
+
+import com.personaltaskmanager.ratelimit.RequestRateLimitFilter;
+import com.personaltaskmanager.security.TokenAuthenticationFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Limitation de débit par appelant et cloisonnement des requêtes /api, désactivable par app.ratelimit.enabled
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.ratelimit.enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimitConfig {
+
+    @Bean
+    public FilterRegistrationBean<RequestRateLimitFilter> requestRateLimitFilter(RateLimitProperties properties,
+                                                                                 MeterRegistry meterRegistry) {
+        FilterRegistrationBean<RequestRateLimitFilter> registration =
+            new FilterRegistrationBean<>(new RequestRateLimitFilter(properties, meterRegistry));
+        registration.addUrlPatterns("/api/*");
+        // Juste après l'authentification : les budgets sont comptés par utilisateur et non par adresse IP
+        registration.setOrder(TokenAuthenticationFilter.ORDER + 1);
+        return registration;
+    }
+}
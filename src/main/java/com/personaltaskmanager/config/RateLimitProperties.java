@@ -0,0 +1,36 @@
+package com.personaltaskmanager.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Propriétés app.ratelimit.* : un budget par classe de requête (voir RequestRateLimitFilter)
+ */
+@Data
+@ConfigurationProperties("app.ratelimit")
+public class RateLimitProperties {
+    private boolean enabled = true;
+    // Appelants suivis par classe de requête avant éviction des seaux pleins, puis des plus inactifs
+    private int maxKeys = 100000;
+    private Budget read = new Budget(120, 1200, 150);
+    private Budget write = new Budget(60, 300, 60);
+    private Budget upload = new Budget(10, 30, 8);
+
+    @Data
+    public static class Budget {
+        // Rafale autorisée par appelant
+        private int capacity;
+        private double refillPerMinute;
+        // Requêtes simultanées de la classe, tous appelants confondus (0 = sans limite)
+        private int maxConcurrent;
+
+        public Budget() {
+        }
+
+        public Budget(int capacity, double refillPerMinute, int maxConcurrent) {
+            this.capacity = capacity;
+            this.refillPerMinute = refillPerMinute;
+            this.maxConcurrent = maxConcurrent;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.personaltaskmanager.config;
+
+import com.personaltaskmanager.datasource.ReadYourWritesTracker;
+import com.personaltaskmanager.datasource.ReplicaLagMonitor;
+import com.personaltaskmanager.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.Map;
+
+/**
+ * Séparation lecture / écriture, activée par app.datasource.replica.enabled : les transactions readOnly
+ * des services sont servies par une réplique, les écritures restent sur la base de spring.datasource.url.
+ * Sans cette propriété, l'auto-configuration Spring Boot crée la source de données unique habituelle.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.replica.enabled", havingValue = "true")
+public class ReadReplicaConfig {
+
+    @Bean(destroyMethod = "close")
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConfigurationProperties("app.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(DataSourceProperties properties,
+                                              @Value("${app.datasource.replica.url}") String url,
+                                              @Value("${app.datasource.replica.username:${spring.datasource.username:}}") String username,
+                                              @Value("${app.datasource.replica.password:${spring.datasource.password:}}") String password) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica");
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername(username);
+        dataSource.setPassword(password);
+        dataSource.setDriverClassName(properties.determineDriverClassName());
+        dataSource.setReadOnly(true);
+        // Une réplique absente ne doit ni bloquer le démarrage ni les lectures
+        dataSource.setInitializationFailTimeout(-1);
+        dataSource.setConnectionTimeout(2000);
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                               @Value("${app.datasource.replica.lag-query}") String lagQuery,
+                                               @Value("${app.datasource.replica.max-lag-ms:2000}") long maxLagMillis,
+                                               @Value("${app.datasource.replica.lag-check-ms:1000}") long lagCheckMillis) {
+        // Trois mesures manquées : le retard n'est plus suivi, la réplique est écartée
+        return new ReplicaLagMonitor(replicaDataSource, lagQuery, maxLagMillis, 3 * lagCheckMillis);
+    }
+
+    @Bean
+    public ReadYourWritesTracker readYourWritesTracker(@Value("${app.datasource.replica.read-your-writes-ms:5000}") long windowMillis,
+                                                       @Value("${app.datasource.replica.max-lag-ms:2000}") long maxLagMillis) {
+        return new ReadYourWritesTracker(windowMillis, maxLagMillis);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                 @Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                 ReplicaLagMonitor lagMonitor, ReadYourWritesTracker readYourWrites) {
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(lagMonitor, readYourWrites);
+        routing.setTargetDataSources(Map.of(
+            ReplicaRoutingDataSource.Target.PRIMARY, primaryDataSource,
+            ReplicaRoutingDataSource.Target.REPLICA, replicaDataSource));
+        routing.setDefaultTargetDataSource(primaryDataSource);
+        routing.afterPropertiesSet();
+
+        // Choix de la cible repoussé au premier ordre SQL, quand la transaction est entièrement ouverte
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(routing);
+        proxy.setDefaultAutoCommit(true);
+        proxy.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        return proxy;
+    }
+}
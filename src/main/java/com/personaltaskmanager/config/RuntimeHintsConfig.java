@@ -0,0 +1,73 @@
+package com.personaltaskmanager.config;
+
+import com.personaltaskmanager.service.WorkspaceArchiveService;
+import com.personaltaskmanager.sharding.GlobalIdentifierGenerator;
+import net.ttddyy.dsproxy.proxy.ProxyJdbcObject;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.util.ClassUtils;
+
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Indications de réflexion pour le mode AOT et l'image native (profils Maven aot et native).
+ * Spring déduit seul les types des signatures de contrôleurs et des entités JPA ; restent ceux que l'application
+ * manipule elle-même par réflexion.
+ */
+@Configuration
+@ImportRuntimeHints(RuntimeHintsConfig.ApplicationRuntimeHints.class)
+public class RuntimeHintsConfig {
+
+    static class ApplicationRuntimeHints implements RuntimeHintsRegistrar {
+        private static final String[] JSON_PACKAGES = {"com.personaltaskmanager.model", "com.personaltaskmanager.dto"};
+        private static final String[] ARCHIVE_MIXINS = {"TaskArchiveMixin", "CommentArchiveMixin"};
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            // Entités Lombok et DTO passés à un ObjectMapper en dehors des contrôleurs : création de note avec audio
+            // (NoteService), archive de l'espace de travail, listes streamées et événements SSE. Les accesseurs
+            // générés par Lombok sont des méthodes ordinaires, couvertes par les indications de liaison.
+            new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(), jsonTypes(classLoader));
+            // Mixins de l'archive : Jackson ne lit que leurs annotations de classe
+            for (String mixin : ARCHIVE_MIXINS) {
+                hints.reflection().registerType(TypeReference.of(WorkspaceArchiveService.class.getName() + "$" + mixin));
+            }
+            // Instancié par Hibernate pour chaque entité annotée @GlobalId
+            hints.reflection().registerType(GlobalIdentifierGenerator.class,
+                MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+            // datasource-proxy (SqlAccountingConfig) enveloppe connexions et ordres SQL dans des proxys JDK
+            for (Class<?> jdbcType : List.of(Connection.class, Statement.class, PreparedStatement.class,
+                    CallableStatement.class, ResultSet.class)) {
+                hints.proxies().registerJdkProxy(ProxyJdbcObject.class, jdbcType);
+            }
+        }
+
+        // Parcours à la compilation AOT : une nouvelle entité ou un nouveau DTO est pris en compte sans liste à tenir
+        private static Class<?>[] jsonTypes(ClassLoader classLoader) {
+            ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+            scanner.setResourceLoader(new DefaultResourceLoader(classLoader));
+            scanner.addIncludeFilter((metadataReader, metadataReaderFactory) -> true);
+            List<Class<?>> types = new ArrayList<>();
+            for (String basePackage : JSON_PACKAGES) {
+                for (BeanDefinition candidate : scanner.findCandidateComponents(basePackage)) {
+                    types.add(ClassUtils.resolveClassName(candidate.getBeanClassName(), classLoader));
+                }
+            }
+            return types.toArray(new Class<?>[0]);
+        }
+    }
+}
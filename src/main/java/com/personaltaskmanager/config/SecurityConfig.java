@@ -1,18 +1,36 @@
 package com.personaltaskmanager.config;
 
+import com.personaltaskmanager.security.BCryptCalibration;
+import com.personaltaskmanager.security.CurrentUserIdArgumentResolver;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.util.List;
+
 @Configuration
 public class SecurityConfig implements WebMvcConfigurer {
-    
+    private final CurrentUserIdArgumentResolver currentUserIdArgumentResolver;
+
+    public SecurityConfig(CurrentUserIdArgumentResolver currentUserIdArgumentResolver) {
+        this.currentUserIdArgumentResolver = currentUserIdArgumentResolver;
+    }
+
+    /**
+     * Coût BCrypt fixé par app.auth.bcrypt.strength, ou calibré au démarrage pour viser target-ms par hachage
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${app.auth.bcrypt.strength:0}") int strength,
+                                           @Value("${app.auth.bcrypt.target-ms:250}") long targetMillis,
+                                           @Value("${app.auth.bcrypt.min-strength:10}") int minStrength,
+                                           @Value("${app.auth.bcrypt.max-strength:14}") int maxStrength) {
+        int cost = strength > 0 ? strength : BCryptCalibration.calibrate(targetMillis, minStrength, maxStrength);
+        return new BCryptPasswordEncoder(cost);
     }
 
     @Override
@@ -21,8 +39,14 @@ public class SecurityConfig implements WebMvcConfigurer {
                 .allowedOriginPatterns("http://localhost:4200", "http://192.168.1.34:4200", "http://localhost:*", "http://127.0.0.1:*")
                 .allowedMethods("GET", "POST", "PUT", "DELETE", "PATCH", "OPTIONS")
                 .allowedHeaders("*")
+                .exposedHeaders("X-Next-Cursor")
                 .allowCredentials(true)
                 .maxAge(3600);
     }
+
+    @Override
+    public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+        resolvers.add(currentUserIdArgumentResolver);
+    }
 }
 
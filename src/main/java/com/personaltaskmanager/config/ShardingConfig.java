@@ -0,0 +1,144 @@
+package com.personaltaskmanager.config;
+
+import com.personaltaskmanager.sharding.ConsistentHashRing;
+import com.personaltaskmanager.sharding.ShardDataSources;
+import com.personaltaskmanager.sharding.ShardDirectory;
+import com.personaltaskmanager.sharding.ShardMoveInterceptor;
+import com.personaltaskmanager.sharding.ShardMoveService;
+import com.personaltaskmanager.sharding.ShardRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Partitionnement horizontal par utilisateur, activé par app.sharding.enabled : chaque utilisateur a ses
+ * tâches, notes, créneaux, documents et statistiques sur un seul shard (voir ShardDirectory), et les
+ * repositories reçoivent la connexion de ce shard sans changement dans les services.
+ * Tous les shards ont le même schéma, migré par Flyway au démarrage.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.sharding.enabled", havingValue = "true")
+@EnableConfigurationProperties(ShardingProperties.class)
+public class ShardingConfig {
+    private final int nodeId;
+
+    public ShardingConfig(@Value("${app.datasource.replica.enabled:false}") boolean replicaEnabled,
+                          @Value("${app.ids.node-id:}") String nodeId) {
+        if (replicaEnabled) {
+            // Une réplique par shard n'est pas prise en charge : les deux aiguillages seraient en concurrence
+            throw new IllegalStateException("app.sharding.enabled et app.datasource.replica.enabled sont incompatibles");
+        }
+        if (nodeId.isBlank()) {
+            // Deux instances sur le numéro par défaut produiraient les mêmes identifiants sur des shards différents
+            // et confondraient leurs acquittements de l'annuaire
+            throw new IllegalStateException("app.ids.node-id (APP_NODE_ID) doit être défini, et distinct par instance, "
+                + "quand app.sharding.enabled=true");
+        }
+        this.nodeId = Integer.parseInt(nodeId.trim());
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource defaultShardDataSource(DataSourceProperties properties, ShardingProperties sharding) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName(sharding.getDefaultShard());
+        return dataSource;
+    }
+
+    @Bean
+    public ShardDataSources shardDataSources(@Qualifier("defaultShardDataSource") DataSource defaultShardDataSource,
+                                             ShardingProperties sharding, DataSourceProperties properties) {
+        Map<String, DataSource> dataSources = new LinkedHashMap<>();
+        dataSources.put(sharding.getDefaultShard(), defaultShardDataSource);
+        sharding.getShards().forEach((name, shard) -> {
+            if (dataSources.containsKey(name)) {
+                throw new IllegalStateException("Shard déclaré deux fois: " + name);
+            }
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setPoolName(name);
+            dataSource.setJdbcUrl(shard.getUrl());
+            dataSource.setUsername(shard.getUsername() != null ? shard.getUsername() : properties.getUsername());
+            dataSource.setPassword(shard.getPassword() != null ? shard.getPassword() : properties.getPassword());
+            dataSource.setMaximumPoolSize(shard.getMaximumPoolSize());
+            dataSources.put(name, dataSource);
+        });
+        return new ShardDataSources(sharding.getDefaultShard(), dataSources);
+    }
+
+    @Bean
+    public ShardDirectory shardDirectory(ShardDataSources shards, ShardingProperties sharding) {
+        return new ShardDirectory(shards, new ConsistentHashRing(shards.getShardNames(), sharding.getVirtualNodes()),
+            nodeId, sharding.getDirectoryRefreshMs());
+    }
+
+    @Bean
+    public ShardMoveService shardMoveService(ShardDirectory directory, ShardDataSources shards, ShardingProperties sharding) {
+        return new ShardMoveService(directory, shards, sharding.getMoveBatchSize());
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardDataSources shards, ShardDirectory directory, ShardingProperties sharding) {
+        ShardRoutingDataSource routing = new ShardRoutingDataSource(directory, retryAfterSeconds(sharding));
+        routing.setTargetDataSources(new HashMap<Object, Object>(shards.asMap()));
+        routing.setDefaultTargetDataSource(shards.get(shards.getDefaultShard()));
+        // Un shard de l'annuaire absent de la configuration est une erreur, pas un repli sur le shard par défaut
+        routing.setLenientFallback(false);
+        routing.afterPropertiesSet();
+
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(routing);
+        proxy.setDefaultAutoCommit(true);
+        proxy.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+        return proxy;
+    }
+
+    /**
+     * Flyway migre la source de données principale, c'est-à-dire le shard par défaut ; les autres shards
+     * reçoivent les mêmes migrations avec la même configuration
+     */
+    @Bean
+    public FlywayMigrationStrategy shardedFlywayMigrationStrategy(ShardDataSources shards) {
+        return flyway -> {
+            flyway.migrate();
+            shards.asMap().forEach((name, dataSource) -> {
+                if (!name.equals(shards.getDefaultShard())) {
+                    Flyway.configure().configuration(flyway.getConfiguration()).dataSource(dataSource).load().migrate();
+                }
+            });
+        };
+    }
+
+    @Bean
+    public WebMvcConfigurer shardMoveInterceptorConfigurer(ShardDirectory directory, ShardingProperties sharding) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(new ShardMoveInterceptor(directory, retryAfterSeconds(sharding)))
+                    .addPathPatterns("/api/**");
+            }
+        };
+    }
+
+    // Un déplacement attend au moins deux rafraîchissements de l'annuaire
+    private static long retryAfterSeconds(ShardingProperties sharding) {
+        return Math.max(1, 2 * sharding.getDirectoryRefreshMs() / 1000);
+    }
+}
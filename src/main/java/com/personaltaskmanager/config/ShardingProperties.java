@@ -0,0 +1,30 @@
+package com.personaltaskmanager.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Propriétés app.sharding.* ; les shards supplémentaires se déclarent sous app.sharding.shards.&lt;nom&gt;.*
+ */
+@Data
+@ConfigurationProperties("app.sharding")
+public class ShardingProperties {
+    private boolean enabled;
+    // Nom donné à la base spring.datasource
+    private String defaultShard = "shard-0";
+    private int virtualNodes = 128;
+    private long directoryRefreshMs = 5000;
+    private int moveBatchSize = 500;
+    private Map<String, Shard> shards = new LinkedHashMap<>();
+
+    @Data
+    public static class Shard {
+        private String url;
+        private String username;
+        private String password;
+        private int maximumPoolSize = 10;
+    }
+}
@@ -0,0 +1,37 @@
+package com.personaltaskmanager.config;
+
+import com.personaltaskmanager.datasource.SqlAccountingListener;
+import com.zaxxer.hikari.HikariDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * Enveloppe chaque pool de connexions (Hikari) dans un proxy datasource-proxy qui compte les ordres SQL
+ * par requête HTTP et journalise les requêtes lentes. Remplace spring.jpa.show-sql, qui écrivait
+ * chaque ordre sur la sortie standard sans dire d'où il venait.
+ */
+@Configuration
+public class SqlAccountingConfig {
+
+    // Statique : un BeanPostProcessor doit être créé avant les autres beans de la configuration
+    @Bean
+    public static BeanPostProcessor sqlAccountingDataSourcePostProcessor(Environment environment) {
+        long slowQueryMillis = environment.getProperty("app.sql.slow-query-ms", Long.class, 500L);
+        SqlAccountingListener listener = new SqlAccountingListener(slowQueryMillis);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof HikariDataSource)) {
+                    return bean;
+                }
+                return ProxyDataSourceBuilder.create((HikariDataSource) bean)
+                    .name(beanName)
+                    .listener(listener)
+                    .build();
+            }
+        };
+    }
+}
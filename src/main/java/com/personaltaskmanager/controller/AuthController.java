@@ -1,8 +1,14 @@
 package com.personaltaskmanager.controller;
 
+import com.personaltaskmanager.exception.TooManyRequestsException;
 import com.personaltaskmanager.model.User;
 import com.personaltaskmanager.service.AuthService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -13,6 +19,7 @@ import java.util.Map;
 @RequestMapping("/api/auth")
 @CrossOrigin(origins = {"http://localhost:4200", "http://192.168.1.34:4200"})
 public class AuthController {
+    private static final Logger logger = LoggerFactory.getLogger(AuthController.class);
 
     @Autowired
     private AuthService authService;
@@ -20,49 +27,51 @@ public class AuthController {
     @PostMapping("/register")
     public ResponseEntity<?> register(@RequestBody User user) {
         try {
-            System.out.println("Tentative d'inscription pour: " + user.getUsername());
+            logger.info("Tentative d'inscription pour: {}", user.getUsername());
             User registeredUser = authService.register(user);
             String token = authService.generateToken(registeredUser);
 
-            System.out.println("TONGA ETO PORY");
-
             Map<String, Object> response = new HashMap<>();
             response.put("token", token);
+            response.put("expiresIn", authService.getTokenExpirationMillis() / 1000);
             response.put("user", createUserResponse(registeredUser));
             
-            System.out.println("Inscription réussie pour: " + user.getUsername());
+            logger.info("Inscription réussie pour: {}", user.getUsername());
             return ResponseEntity.ok(response);
+        } catch (TooManyRequestsException e) {
+            return tooManyRequests(e);
         } catch (IllegalArgumentException e) {
-            System.err.println("Erreur lors de l'inscription: " + e.getMessage());
+            logger.warn("Erreur lors de l'inscription: {}", e.getMessage());
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
-            System.err.println("Erreur inattendue: " + e.getMessage());
-            e.printStackTrace();
+            logger.error("Erreur inattendue", e);
             return ResponseEntity.status(500).body(Map.of("error", "Erreur serveur"));
         }
     }
 
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody Map<String, String> credentials) {
+    public ResponseEntity<?> login(@RequestBody Map<String, String> credentials, HttpServletRequest request) {
         try {
             String username = credentials.get("username");
-            System.out.println("Tentative de connexion pour: " + username);
+            logger.info("Tentative de connexion pour: {}", username);
             
-            User user = authService.authenticate(username, credentials.get("password"));
+            User user = authService.authenticate(username, credentials.get("password"), request.getRemoteAddr());
             String token = authService.generateToken(user);
             
             Map<String, Object> response = new HashMap<>();
             response.put("token", token);
+            response.put("expiresIn", authService.getTokenExpirationMillis() / 1000);
             response.put("user", createUserResponse(user));
             
-            System.out.println("Connexion réussie pour: " + username);
+            logger.info("Connexion réussie pour: {}", username);
             return ResponseEntity.ok(response);
+        } catch (TooManyRequestsException e) {
+            return tooManyRequests(e);
         } catch (IllegalArgumentException e) {
-            System.err.println("Erreur lors de la connexion: " + e.getMessage());
+            logger.warn("Erreur lors de la connexion: {}", e.getMessage());
             return ResponseEntity.status(401).body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
-            System.err.println("Erreur inattendue: " + e.getMessage());
-            e.printStackTrace();
+            logger.error("Erreur inattendue", e);
             return ResponseEntity.status(500).body(Map.of("error", "Erreur serveur"));
         }
     }
@@ -81,14 +90,13 @@ public class AuthController {
             // même si l'email n'existe pas
             return ResponseEntity.ok(Map.of("message", "Si cet email existe, un code de réinitialisation a été envoyé"));
         } catch (Exception e) {
-            System.err.println("Erreur lors de la demande de réinitialisation: " + e.getMessage());
-            e.printStackTrace();
+            logger.error("Erreur lors de la demande de réinitialisation", e);
             return ResponseEntity.status(500).body(Map.of("error", "Erreur serveur"));
         }
     }
 
     @PostMapping("/verify-code")
-    public ResponseEntity<?> verifyCode(@RequestBody Map<String, String> request) {
+    public ResponseEntity<?> verifyCode(@RequestBody Map<String, String> request, HttpServletRequest httpRequest) {
         try {
             String email = request.get("email");
             String resetCode = request.get("resetCode");
@@ -98,22 +106,23 @@ public class AuthController {
                 return ResponseEntity.badRequest().body(Map.of("error", "L'email et le code sont requis"));
             }
             
-            boolean isValid = authService.verifyResetCode(email, resetCode);
+            boolean isValid = authService.verifyResetCode(email, resetCode, httpRequest.getRemoteAddr());
             
             if (isValid) {
                 return ResponseEntity.ok(Map.of("valid", true, "message", "Code valide"));
             } else {
                 return ResponseEntity.badRequest().body(Map.of("valid", false, "error", "Code invalide ou expiré"));
             }
+        } catch (TooManyRequestsException e) {
+            return tooManyRequests(e);
         } catch (Exception e) {
-            System.err.println("Erreur lors de la vérification du code: " + e.getMessage());
-            e.printStackTrace();
+            logger.error("Erreur lors de la vérification du code", e);
             return ResponseEntity.status(500).body(Map.of("error", "Erreur serveur"));
         }
     }
 
     @PostMapping("/reset-password")
-    public ResponseEntity<?> resetPassword(@RequestBody Map<String, String> request) {
+    public ResponseEntity<?> resetPassword(@RequestBody Map<String, String> request, HttpServletRequest httpRequest) {
         try {
             String email = request.get("email");
             String resetCode = request.get("resetCode");
@@ -129,19 +138,26 @@ public class AuthController {
                 return ResponseEntity.badRequest().body(Map.of("error", "Le mot de passe doit contenir au moins 6 caractères"));
             }
             
-            authService.resetPassword(email, resetCode, newPassword);
+            authService.resetPassword(email, resetCode, newPassword, httpRequest.getRemoteAddr());
             
             return ResponseEntity.ok(Map.of("message", "Mot de passe réinitialisé avec succès"));
+        } catch (TooManyRequestsException e) {
+            return tooManyRequests(e);
         } catch (IllegalArgumentException e) {
-            System.err.println("Erreur lors de la réinitialisation: " + e.getMessage());
+            logger.warn("Erreur lors de la réinitialisation: {}", e.getMessage());
             return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
-            System.err.println("Erreur inattendue: " + e.getMessage());
-            e.printStackTrace();
+            logger.error("Erreur inattendue", e);
             return ResponseEntity.status(500).body(Map.of("error", "Erreur serveur"));
         }
     }
 
+    private ResponseEntity<?> tooManyRequests(TooManyRequestsException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(Map.of("error", e.getMessage()));
+    }
+
     private Map<String, Object> createUserResponse(User user) {
         Map<String, Object> userResponse = new HashMap<>();
         userResponse.put("id", user.getId());
@@ -0,0 +1,108 @@
+package com.personaltaskmanager.controller;
+
+import com.personaltaskmanager.dto.CalendarOccurrence;
+import com.personaltaskmanager.security.CalendarFeedTokens;
+import com.personaltaskmanager.service.CalendarService;
+import com.personaltaskmanager.security.CurrentUserId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/calendar")
+@CrossOrigin(origins = {"http://localhost:4200", "http://192.168.1.34:4200"})
+public class CalendarController {
+    private static final Logger logger = LoggerFactory.getLogger(CalendarController.class);
+    private static final MediaType TEXT_CALENDAR = new MediaType("text", "calendar", StandardCharsets.UTF_8);
+
+    private final CalendarService calendarService;
+    private final CalendarFeedTokens calendarFeedTokens;
+
+    public CalendarController(CalendarService calendarService, CalendarFeedTokens calendarFeedTokens) {
+        this.calendarService = calendarService;
+        this.calendarFeedTokens = calendarFeedTokens;
+    }
+
+    @GetMapping("/occurrences")
+    public ResponseEntity<List<CalendarOccurrence>> getOccurrences(
+            @CurrentUserId Long userId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        if (userId == null) {
+            logger.warn("Tentative d'accès au calendrier sans utilisateur authentifié");
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(calendarService.getOccurrences(userId, startDate, endDate));
+    }
+
+    /**
+     * Flux iCalendar pour abonnement. Les clients calendrier n'envoient pas d'en-têtes personnalisés :
+     * l'URL porte un jeton d'abonnement (?token=..., voir POST /feed-token), qui n'ouvre que ce flux.
+     * Un If-None-Match identique renvoie 304 sans lire le contenu.
+     */
+    @GetMapping(value = "/feed.ics", produces = "text/calendar")
+    public ResponseEntity<StreamingResponseBody> getFeed(@CurrentUserId Long userId, WebRequest webRequest) {
+        if (userId == null) {
+            logger.warn("Tentative d'accès au flux iCalendar sans utilisateur");
+            return ResponseEntity.badRequest().build();
+        }
+
+        String etag = calendarService.getCalendarVersion(userId);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+
+        StreamingResponseBody body = outputStream -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            calendarService.writeCalendar(userId, writer);
+            writer.flush();
+        };
+        return ResponseEntity.ok()
+            .eTag(etag)
+            .cacheControl(CacheControl.noCache())
+            .contentType(TEXT_CALENDAR)
+            .body(body);
+    }
+
+    /**
+     * Émet le jeton d'abonnement au flux iCalendar ; le précédent cesse aussitôt de fonctionner
+     */
+    @PostMapping("/feed-token")
+    public ResponseEntity<Map<String, String>> issueFeedToken(@CurrentUserId Long userId) {
+        if (userId == null) {
+            logger.warn("Tentative d'émission d'un jeton d'abonnement sans utilisateur authentifié");
+            return ResponseEntity.badRequest().build();
+        }
+        String token = calendarFeedTokens.issue(userId);
+        return ResponseEntity.ok()
+            .cacheControl(CacheControl.noStore())
+            .body(Map.of("token", token, "path", "/api/calendar/feed.ics?token=" + token));
+    }
+
+    /**
+     * Révoque l'abonnement : l'URL du flux répond ensuite 401
+     */
+    @DeleteMapping("/feed-token")
+    public ResponseEntity<Void> revokeFeedToken(@CurrentUserId Long userId) {
+        if (userId == null) {
+            logger.warn("Tentative de révocation d'un jeton d'abonnement sans utilisateur authentifié");
+            return ResponseEntity.badRequest().build();
+        }
+        calendarFeedTokens.revoke(userId);
+        return ResponseEntity.noContent().build();
+    }
+}
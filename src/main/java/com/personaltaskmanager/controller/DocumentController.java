@@ -1,7 +1,10 @@
 package com.personaltaskmanager.controller;
 
+import com.personaltaskmanager.dto.TextPatchRequest;
 import com.personaltaskmanager.model.Document;
 import com.personaltaskmanager.service.DocumentService;
+import com.personaltaskmanager.security.CurrentUserId;
+import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,9 +15,11 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/documents")
@@ -26,21 +31,49 @@ public class DocumentController {
     @Autowired
     private DocumentService documentService;
 
-    @GetMapping("/user/{userId}")
-    public List<Document> getAllDocumentsByUser(@PathVariable Long userId) {
-        List<Document> documents = documentService.getAllDocumentsByUserId(userId);
-        logger.info("Récupération de {} documents pour l'utilisateur {}", documents.size(), userId);
-        return documents;
+    /**
+     * Documents de l'utilisateur connecté. L'ID du chemin est gardé pour le frontend existant
+     * mais doit être celui de l'utilisateur authentifié.
+     */
+    @GetMapping("/user/{pathUserId}")
+    public ResponseEntity<StreamingResponseBody> getAllDocumentsByUser(@PathVariable Long pathUserId,
+                                                                       @CurrentUserId Long userId) {
+        ResponseEntity<StreamingResponseBody> denied = checkPathUser(pathUserId, userId);
+        if (denied != null) {
+            return denied;
+        }
+        StreamingResponseBody body = outputStream -> {
+            long count = documentService.writeAllDocumentsByUserId(userId, outputStream);
+            logger.info("Récupération de {} documents pour l'utilisateur {}", count, userId);
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    @GetMapping("/user/{pathUserId}/root")
+    public ResponseEntity<List<Document>> getRootDocuments(@PathVariable Long pathUserId,
+                                                           @CurrentUserId Long userId) {
+        ResponseEntity<List<Document>> denied = checkPathUser(pathUserId, userId);
+        return denied != null ? denied : ResponseEntity.ok(documentService.getDocumentsByParent(userId, null));
     }
 
-    @GetMapping("/user/{userId}/root")
-    public List<Document> getRootDocuments(@PathVariable Long userId) {
-        return documentService.getDocumentsByParent(userId, null);
+    @GetMapping("/user/{pathUserId}/parent/{parentId}")
+    public ResponseEntity<List<Document>> getDocumentsByParent(@PathVariable Long pathUserId,
+                                                               @PathVariable Long parentId,
+                                                               @CurrentUserId Long userId) {
+        ResponseEntity<List<Document>> denied = checkPathUser(pathUserId, userId);
+        return denied != null ? denied : ResponseEntity.ok(documentService.getDocumentsByParent(userId, parentId));
     }
 
-    @GetMapping("/user/{userId}/parent/{parentId}")
-    public List<Document> getDocumentsByParent(@PathVariable Long userId, @PathVariable Long parentId) {
-        return documentService.getDocumentsByParent(userId, parentId);
+    private static <T> ResponseEntity<T> checkPathUser(Long pathUserId, Long userId) {
+        if (userId == null) {
+            logger.warn("Tentative d'accès aux documents sans utilisateur authentifié");
+            return ResponseEntity.badRequest().build();
+        }
+        if (!userId.equals(pathUserId)) {
+            logger.warn("L'utilisateur {} a demandé les documents de l'utilisateur {}", userId, pathUserId);
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return null;
     }
 
     @GetMapping("/{id}")
@@ -69,7 +102,7 @@ public class DocumentController {
     public ResponseEntity<Document> uploadFile(
             @RequestParam("file") MultipartFile file,
             @RequestParam(value = "parentId", required = false) Long parentId,
-            @RequestParam(value = "userId", required = false) Long userId) {
+            @CurrentUserId Long userId) {
         try {
             if (userId == null) {
                 return ResponseEntity.badRequest().build();
@@ -91,6 +124,21 @@ public class DocumentController {
             : ResponseEntity.notFound().build();
     }
 
+    @PatchMapping("/{id}/content")
+    public ResponseEntity<Map<String, Object>> patchDocumentContent(
+            @PathVariable Long id,
+            @Valid @RequestBody TextPatchRequest patch,
+            @CurrentUserId Long userId) {
+        if (userId == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        Document document = documentService.patchContent(id, userId, patch);
+        return ResponseEntity.ok(Map.of(
+            "id", document.getId(),
+            "contentVersion", document.getContentVersion(),
+            "length", document.getContent().length()));
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteDocument(@PathVariable Long id) {
         documentService.deleteDocument(id);
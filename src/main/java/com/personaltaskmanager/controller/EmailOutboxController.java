@@ -0,0 +1,24 @@
+package com.personaltaskmanager.controller;
+
+import com.personaltaskmanager.service.EmailOutboxDispatcher;
+import org.springframework.web.bind.annotation.*;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/email-outbox")
+@CrossOrigin(origins = {"http://localhost:4200", "http://192.168.1.34:4200"})
+public class EmailOutboxController {
+    private final EmailOutboxDispatcher dispatcher;
+
+    public EmailOutboxController(EmailOutboxDispatcher dispatcher) {
+        this.dispatcher = dispatcher;
+    }
+
+    /**
+     * File d'envoi des emails : en attente, abandonnés et compteurs depuis le démarrage
+     */
+    @GetMapping
+    public Map<String, Object> getOutboxStats() {
+        return dispatcher.getStats();
+    }
+}
@@ -0,0 +1,57 @@
+package com.personaltaskmanager.controller;
+
+import com.personaltaskmanager.events.ChangeStreamHub;
+import com.personaltaskmanager.security.CurrentUserId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/events")
+@CrossOrigin(origins = {"http://localhost:4200", "http://192.168.1.34:4200"})
+public class EventStreamController {
+    private static final Logger logger = LoggerFactory.getLogger(EventStreamController.class);
+
+    private final ChangeStreamHub changeStreamHub;
+
+    public EventStreamController(ChangeStreamHub changeStreamHub) {
+        this.changeStreamHub = changeStreamHub;
+    }
+
+    /**
+     * Flux des modifications de l'utilisateur (événements "change" et "resync").
+     * EventSource ne pouvant pas envoyer d'en-tête, le jeton passe par access_token ; à la reconnexion,
+     * le navigateur renvoie Last-Event-ID et seuls les événements manqués sont rejoués.
+     */
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> subscribe(@CurrentUserId Long userId,
+                                                @RequestHeader(value = "Last-Event-ID", required = false) String lastEventIdHeader,
+                                                @RequestParam(value = "lastEventId", required = false) String lastEventIdParam) {
+        if (userId == null) {
+            logger.warn("Tentative d'accès sans utilisateur authentifié");
+            return ResponseEntity.badRequest().build();
+        }
+        String lastEventId = lastEventIdHeader != null ? lastEventIdHeader : lastEventIdParam;
+        return ResponseEntity.ok()
+            .cacheControl(CacheControl.noStore())
+            // nginx ne doit pas retenir les événements dans son tampon
+            .header("X-Accel-Buffering", "no")
+            .body(changeStreamHub.subscribe(userId, parseEventId(lastEventId)));
+    }
+
+    // Un ID illisible ne permet pas de savoir ce qui a été manqué : 0 force un resync
+    private static Long parseEventId(String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(lastEventId.trim());
+        } catch (NumberFormatException e) {
+            return 0L;
+        }
+    }
+}
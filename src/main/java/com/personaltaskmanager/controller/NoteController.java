@@ -1,33 +1,51 @@
 package com.personaltaskmanager.controller;
 
+import com.personaltaskmanager.dto.NoteAutosaveRequest;
+import com.personaltaskmanager.dto.NotePage;
+import com.personaltaskmanager.dto.TextPatchRequest;
 import com.personaltaskmanager.model.Note;
 import com.personaltaskmanager.enums.NoteType;
 import com.personaltaskmanager.service.NoteService;
+import com.personaltaskmanager.security.CurrentUserId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import jakarta.validation.Valid;
 import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/notes")
 @CrossOrigin(origins = {"http://localhost:4200", "http://192.168.1.34:4200"})
 public class NoteController {
+    private static final Logger logger = LoggerFactory.getLogger(NoteController.class);
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
     private final NoteService noteService;
 
     public NoteController(NoteService noteService) {
         this.noteService = noteService;
     }
 
+    /**
+     * Notes de l'utilisateur connecté, paginées par clé
+     * Le curseur de la page suivante est renvoyé dans le header X-Next-Cursor
+     */
     @GetMapping
-    public List<Note> getAllNotes() {
-        return noteService.getAllNotes();
+    public ResponseEntity<List<Note>> getAllNotes(
+            @CurrentUserId Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        if (userId == null) {
+            logger.warn("Tentative d'accès sans utilisateur authentifié");
+            return ResponseEntity.badRequest().build();
+        }
+        return toResponse(noteService.getNotesByUserId(userId, cursor, limit));
     }
 
     @GetMapping("/{id}")
@@ -47,6 +65,55 @@ public class NoteController {
         return updatedNote != null ? ResponseEntity.ok(updatedNote) : ResponseEntity.notFound().build();
     }
 
+    /**
+     * Autosave pendant la saisie : la modification est mise en tampon et écrite de façon groupée.
+     * 409 si la rafale précédente n'a pas pu être écrite, la note ayant été modifiée ailleurs entre-temps.
+     */
+    @PutMapping("/{id}/autosave")
+    public ResponseEntity<Void> autosaveNote(
+            @PathVariable Long id,
+            @Valid @RequestBody NoteAutosaveRequest request,
+            @CurrentUserId Long userId) {
+        if (userId == null) {
+            logger.warn("Tentative d'autosave sans utilisateur authentifié");
+            return ResponseEntity.badRequest().build();
+        }
+        noteService.autosave(id, userId, request);
+        return ResponseEntity.accepted().build();
+    }
+
+    /**
+     * Écrit la modification en attente ; 409 si la note a été modifiée ailleurs depuis le début de la saisie
+     */
+    @PostMapping("/{id}/autosave/flush")
+    public ResponseEntity<Note> flushAutosave(@PathVariable Long id, @CurrentUserId Long userId) {
+        if (userId == null) {
+            logger.warn("Tentative de flush sans utilisateur authentifié");
+            return ResponseEntity.badRequest().build();
+        }
+        Note note = noteService.flushAutosave(id, userId);
+        return note != null ? ResponseEntity.ok(note) : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Mise à jour du contenu par patch ; la réponse ne renvoie que la nouvelle version
+     */
+    @PatchMapping("/{id}/content")
+    public ResponseEntity<Map<String, Object>> patchNoteContent(
+            @PathVariable Long id,
+            @Valid @RequestBody TextPatchRequest patch,
+            @CurrentUserId Long userId) {
+        if (userId == null) {
+            logger.warn("Tentative de patch sans utilisateur authentifié");
+            return ResponseEntity.badRequest().build();
+        }
+        Note note = noteService.patchContent(id, userId, patch);
+        return ResponseEntity.ok(Map.of(
+            "id", note.getId(),
+            "contentVersion", note.getContentVersion(),
+            "length", note.getContent().length()));
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteNote(@PathVariable Long id) {
         noteService.deleteNote(id);
@@ -60,13 +127,36 @@ public class NoteController {
     }
 
     @GetMapping("/pinned")
-    public List<Note> getPinnedNotes() {
-        return noteService.getPinnedNotes();
+    public ResponseEntity<List<Note>> getPinnedNotes(
+            @CurrentUserId Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        if (userId == null) {
+            logger.warn("Tentative d'accès sans utilisateur authentifié");
+            return ResponseEntity.badRequest().build();
+        }
+        return toResponse(noteService.getPinnedNotes(userId, cursor, limit));
     }
 
     @GetMapping("/type/{type}")
-    public List<Note> getNotesByType(@PathVariable NoteType type) {
-        return noteService.getNotesByType(type);
+    public ResponseEntity<List<Note>> getNotesByType(
+            @PathVariable NoteType type,
+            @CurrentUserId Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        if (userId == null) {
+            logger.warn("Tentative d'accès sans utilisateur authentifié");
+            return ResponseEntity.badRequest().build();
+        }
+        return toResponse(noteService.getNotesByType(userId, type, cursor, limit));
+    }
+
+    private ResponseEntity<List<Note>> toResponse(NotePage page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getNotes());
     }
 
     @PostMapping("/with-audio")
@@ -79,10 +169,9 @@ public class NoteController {
     @GetMapping("/audio/{filename}")
     public ResponseEntity<Resource> getAudioFile(@PathVariable String filename) {
         try {
-            Path filePath = Paths.get("uploads/audio/" + filename);
-            Resource resource = new UrlResource(filePath.toUri());
+            Resource resource = noteService.getAudioFile(filename);
             
-            if (resource.exists() && resource.isReadable()) {
+            if (resource != null) {
                 String contentType = "audio/webm";
                 if (filename.endsWith(".mp3")) {
                     contentType = "audio/mpeg";
@@ -1,10 +1,14 @@
 package com.personaltaskmanager.controller;
 
+import com.personaltaskmanager.dto.FreeSlot;
+import com.personaltaskmanager.dto.ScheduleConflict;
 import com.personaltaskmanager.model.Schedule;
 import com.personaltaskmanager.service.ScheduleService;
+import com.personaltaskmanager.security.CurrentUserId;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import java.time.DayOfWeek;
+import java.time.LocalTime;
 import java.util.List;
 
 @RestController
@@ -18,8 +22,47 @@ public class ScheduleController {
     }
 
     @GetMapping
-    public List<Schedule> getAllSchedules() {
-        return scheduleService.getAllSchedules();
+    public List<Schedule> getAllSchedules(@CurrentUserId Long userId) {
+        return userId != null ? scheduleService.getSchedulesByUserId(userId) : scheduleService.getAllSchedules();
+    }
+
+    @GetMapping("/free-slots")
+    public ResponseEntity<List<FreeSlot>> getFreeSlots(
+            @CurrentUserId Long userId,
+            @RequestParam(required = false) DayOfWeek day,
+            @RequestParam(defaultValue = "1") int minMinutes) {
+        if (userId == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(scheduleService.getFreeSlots(userId, day, minMinutes));
+    }
+
+    /**
+     * Premier créneau libre de la semaine pour une tâche de durationMinutes
+     */
+    @GetMapping("/earliest-fit")
+    public ResponseEntity<FreeSlot> findEarliestFit(
+            @CurrentUserId Long userId,
+            @RequestParam int durationMinutes,
+            @RequestParam(required = false) DayOfWeek fromDay,
+            @RequestParam(required = false) LocalTime after) {
+        if (userId == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        FreeSlot slot = scheduleService.findEarliestFit(userId, durationMinutes, fromDay, after);
+        return slot != null ? ResponseEntity.ok(slot) : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Liste les chevauchements de la semaine de l'utilisateur
+     */
+    @GetMapping("/conflicts")
+    public ResponseEntity<List<ScheduleConflict>> getConflicts(
+            @CurrentUserId Long userId) {
+        if (userId == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(scheduleService.getConflicts(userId));
     }
 
     @GetMapping("/{id}")
@@ -0,0 +1,59 @@
+package com.personaltaskmanager.controller;
+
+import com.personaltaskmanager.sharding.ShardDirectory;
+import com.personaltaskmanager.sharding.ShardMoveService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/shards")
+@CrossOrigin(origins = {"http://localhost:4200", "http://192.168.1.34:4200"})
+@ConditionalOnProperty(name = "app.sharding.enabled", havingValue = "true")
+public class ShardAdminController {
+    private final ShardDirectory directory;
+    private final ShardMoveService moveService;
+
+    public ShardAdminController(ShardDirectory directory, ShardMoveService moveService) {
+        this.directory = directory;
+        this.moveService = moveService;
+    }
+
+    /**
+     * Shards configurés, répartition des utilisateurs et déplacements en cours
+     */
+    @GetMapping
+    public Map<String, Object> getShards() {
+        return directory.getStats();
+    }
+
+    @GetMapping("/users/{userId}")
+    public Map<String, Object> getPlacement(@PathVariable Long userId) {
+        ShardDirectory.Placement placement = directory.placementOf(userId);
+        Map<String, Object> response = new HashMap<>();
+        response.put("userId", userId);
+        response.put("shard", placement.getShard());
+        response.put("movingTo", placement.getMovingTo());
+        response.put("ringShard", directory.ringShardFor(userId));
+        return response;
+    }
+
+    /**
+     * Utilisateurs à déplacer pour que chacun soit sur le shard désigné par l'anneau
+     */
+    @GetMapping("/rebalance-plan")
+    public List<Map<String, Object>> getRebalancePlan(@RequestParam(defaultValue = "100") int limit) {
+        return moveService.rebalancePlan(limit);
+    }
+
+    /**
+     * Déplace les données d'un utilisateur vers le shard cible ; ses écritures sont refusées pendant la copie
+     */
+    @PostMapping("/users/{userId}/move")
+    public Map<String, Object> moveUser(@PathVariable Long userId, @RequestParam String target) {
+        return moveService.move(userId, target);
+    }
+}
@@ -0,0 +1,39 @@
+package com.personaltaskmanager.controller;
+
+import com.personaltaskmanager.service.StatisticsBackfillService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.time.LocalDate;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/statistics/backfill")
+@CrossOrigin(origins = {"http://localhost:4200", "http://192.168.1.34:4200"})
+public class StatisticsBackfillController {
+    private final StatisticsBackfillService backfillService;
+
+    public StatisticsBackfillController(StatisticsBackfillService backfillService) {
+        this.backfillService = backfillService;
+    }
+
+    /**
+     * Lance le recalcul historique ; reprend par défaut depuis le dernier point de reprise
+     */
+    @PostMapping
+    public ResponseEntity<Map<String, Object>> startBackfill(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "true") boolean resume) {
+        LocalDate end = endDate != null ? endDate : LocalDate.now().minusDays(1);
+        boolean started = backfillService.start(startDate, end, resume);
+        return ResponseEntity.status(started ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT)
+            .body(backfillService.getProgress());
+    }
+
+    @GetMapping
+    public Map<String, Object> getBackfillProgress() {
+        return backfillService.getProgress();
+    }
+}
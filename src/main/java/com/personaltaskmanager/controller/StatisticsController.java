@@ -1,10 +1,14 @@
 package com.personaltaskmanager.controller;
 
+import com.personaltaskmanager.enums.StatisticsGranularity;
 import com.personaltaskmanager.model.Statistics;
 import com.personaltaskmanager.service.StatisticsService;
+import com.personaltaskmanager.security.CurrentUserId;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
@@ -20,8 +24,9 @@ public class StatisticsController {
     }
 
     @GetMapping
-    public List<Statistics> getAllStatistics() {
-        return statisticsService.getAllStatistics();
+    public ResponseEntity<StreamingResponseBody> getAllStatistics() {
+        StreamingResponseBody body = statisticsService::writeAllStatistics;
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
     }
 
     @GetMapping("/{id}")
@@ -44,6 +49,18 @@ public class StatisticsController {
         return statisticsService.getStatisticsBetweenDates(startDate, endDate);
     }
 
+    @GetMapping("/series")
+    public Map<String, Object> getStatisticsSeries(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "day") String granularity,
+            @CurrentUserId Long userId) {
+        // Par défaut : l'année écoulée jusqu'à aujourd'hui
+        LocalDate end = endDate != null ? endDate : LocalDate.now();
+        LocalDate start = startDate != null ? startDate : end.minusYears(1).plusDays(1);
+        return statisticsService.getStatisticsSeries(start, end, StatisticsGranularity.fromParameter(granularity), userId);
+    }
+
     @GetMapping("/dashboard")
     public Map<String, Object> getDashboardData() {
         return statisticsService.getDashboardData();
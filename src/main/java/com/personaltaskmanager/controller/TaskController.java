@@ -3,11 +3,14 @@ package com.personaltaskmanager.controller;
 import com.personaltaskmanager.model.Task;
 import com.personaltaskmanager.enums.TaskStatus;
 import com.personaltaskmanager.service.TaskService;
+import com.personaltaskmanager.security.CurrentUserId;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -24,16 +27,18 @@ public class TaskController {
 
     /**
      * Récupère toutes les tâches de l'utilisateur connecté
-     * TODO: Remplacer par extraction du userId depuis le JWT token
      */
     @GetMapping
-    public ResponseEntity<List<Task>> getAllTasks(@RequestHeader(value = "X-User-Id", required = false) Long userId) {
+    public ResponseEntity<StreamingResponseBody> getAllTasks(@CurrentUserId Long userId) {
         if (userId == null) {
-            logger.warn("Tentative d'accès sans userId dans le header");
+            logger.warn("Tentative d'accès sans utilisateur authentifié");
             return ResponseEntity.badRequest().build();
         }
-        List<Task> tasks = taskService.getTasksByUserId(userId);
-        return ResponseEntity.ok(tasks);
+        StreamingResponseBody body = outputStream -> {
+            long count = taskService.writeTasksByUserId(userId, outputStream);
+            logger.debug("{} tâches envoyées à l'utilisateur {}", count, userId);
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
     }
 
     /**
@@ -42,9 +47,9 @@ public class TaskController {
     @GetMapping("/{id}")
     public ResponseEntity<Task> getTaskById(
             @PathVariable Long id,
-            @RequestHeader(value = "X-User-Id", required = false) Long userId) {
+            @CurrentUserId Long userId) {
         if (userId == null) {
-            logger.warn("Tentative d'accès sans userId dans le header");
+            logger.warn("Tentative d'accès sans utilisateur authentifié");
             return ResponseEntity.badRequest().build();
         }
         Task task = taskService.getTaskById(id, userId);
@@ -57,9 +62,9 @@ public class TaskController {
     @PostMapping
     public ResponseEntity<Task> createTask(
             @Valid @RequestBody Task task,
-            @RequestHeader(value = "X-User-Id", required = false) Long userId) {
+            @CurrentUserId Long userId) {
         if (userId == null) {
-            logger.warn("Tentative de création sans userId dans le header");
+            logger.warn("Tentative de création sans utilisateur authentifié");
             return ResponseEntity.badRequest().build();
         }
         Task createdTask = taskService.createTask(task, userId);
@@ -73,9 +78,9 @@ public class TaskController {
     public ResponseEntity<Task> updateTask(
             @PathVariable Long id,
             @Valid @RequestBody Task task,
-            @RequestHeader(value = "X-User-Id", required = false) Long userId) {
+            @CurrentUserId Long userId) {
         if (userId == null) {
-            logger.warn("Tentative de mise à jour sans userId dans le header");
+            logger.warn("Tentative de mise à jour sans utilisateur authentifié");
             return ResponseEntity.badRequest().build();
         }
         Task updatedTask = taskService.updateTask(id, task, userId);
@@ -88,9 +93,9 @@ public class TaskController {
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteTask(
             @PathVariable Long id,
-            @RequestHeader(value = "X-User-Id", required = false) Long userId) {
+            @CurrentUserId Long userId) {
         if (userId == null) {
-            logger.warn("Tentative de suppression sans userId dans le header");
+            logger.warn("Tentative de suppression sans utilisateur authentifié");
             return ResponseEntity.badRequest().build();
         }
         taskService.deleteTask(id, userId);
@@ -104,9 +109,9 @@ public class TaskController {
     public ResponseEntity<Task> updateTaskStatus(
             @PathVariable Long id,
             @RequestParam TaskStatus status,
-            @RequestHeader(value = "X-User-Id", required = false) Long userId) {
+            @CurrentUserId Long userId) {
         if (userId == null) {
-            logger.warn("Tentative de mise à jour du statut sans userId dans le header");
+            logger.warn("Tentative de mise à jour du statut sans utilisateur authentifié");
             return ResponseEntity.badRequest().build();
         }
         Task updatedTask = taskService.updateTaskStatus(id, status, userId);
@@ -119,9 +124,9 @@ public class TaskController {
     @GetMapping("/status/{status}")
     public ResponseEntity<List<Task>> getTasksByStatus(
             @PathVariable TaskStatus status,
-            @RequestHeader(value = "X-User-Id", required = false) Long userId) {
+            @CurrentUserId Long userId) {
         if (userId == null) {
-            logger.warn("Tentative d'accès sans userId dans le header");
+            logger.warn("Tentative d'accès sans utilisateur authentifié");
             return ResponseEntity.badRequest().build();
         }
         List<Task> tasks = taskService.getTasksByStatus(status, userId);
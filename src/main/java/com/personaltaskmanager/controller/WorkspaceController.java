@@ -0,0 +1,61 @@
+package com.personaltaskmanager.controller;
+
+import com.personaltaskmanager.security.CurrentUserId;
+import com.personaltaskmanager.service.WorkspaceArchiveService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/workspace")
+@CrossOrigin(origins = {"http://localhost:4200", "http://192.168.1.34:4200"})
+public class WorkspaceController {
+    private static final Logger logger = LoggerFactory.getLogger(WorkspaceController.class);
+    private static final String APPLICATION_ZIP = "application/zip";
+
+    private final WorkspaceArchiveService archiveService;
+
+    public WorkspaceController(WorkspaceArchiveService archiveService) {
+        this.archiveService = archiveService;
+    }
+
+    /**
+     * Archive ZIP de tout l'espace de travail, écrite directement dans la réponse.
+     * Traitement synchrone : une sauvegarde volumineuse n'est pas soumise au délai des requêtes asynchrones.
+     */
+    @GetMapping("/export")
+    public void exportWorkspace(@CurrentUserId Long userId, HttpServletResponse response) throws IOException {
+        if (userId == null) {
+            logger.warn("Tentative d'accès sans utilisateur authentifié");
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            return;
+        }
+        response.setContentType(APPLICATION_ZIP);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+            .filename("memento-workspace-" + LocalDate.now() + ".zip").build().toString());
+        Map<String, Long> counts = archiveService.exportWorkspace(userId, response.getOutputStream());
+        logger.info("Espace de travail exporté pour l'utilisateur {} : {}", userId, counts);
+    }
+
+    /**
+     * Importe une archive produite par /export, envoyée telle quelle dans le corps de la requête.
+     * Corps lu en flux et borné par WorkspaceArchiveService (app.workspace.archive.max-total-bytes)
+     */
+    @PostMapping(value = "/import", consumes = {APPLICATION_ZIP, "application/octet-stream"})
+    public ResponseEntity<Map<String, Object>> importWorkspace(@CurrentUserId Long userId, InputStream body) throws IOException {
+        if (userId == null) {
+            logger.warn("Tentative d'accès sans utilisateur authentifié");
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(archiveService.importWorkspace(userId, body));
+    }
+}
@@ -0,0 +1,122 @@
+package com.personaltaskmanager.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Vérifie au démarrage (app.schema.verify-query-plans=true) que le plan d'exécution de chaque requête chaude
+ * passe par un index : une migration qui supprime ou renomme un index utile fait échouer le démarrage
+ * au lieu de réintroduire silencieusement un parcours complet de table.
+ *
+ * Sur PostgreSQL, le parcours séquentiel est désactivé le temps de l'EXPLAIN : on vérifie qu'un index est
+ * utilisable, pas que l'optimiseur le choisirait sur une table presque vide.
+ *
+ * Les ordres ci-dessous sont écrits à la main et peuvent s'écarter de ceux que génère Hibernate : la référence
+ * est HotQueryPlanTest (src/test), qui passe à EXPLAIN le SQL réellement émis par chaque méthode de repository.
+ * Ce contrôle au démarrage sert surtout à retrouver les mêmes index sur une base PostgreSQL réelle.
+ */
+@Component
+@ConditionalOnProperty(name = "app.schema.verify-query-plans", havingValue = "true")
+public class QueryPlanVerifier implements ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(QueryPlanVerifier.class);
+
+    // Équivalents SQL des méthodes de repository, avec des valeurs quelconques
+    private static final Map<String, String> HOT_QUERIES = new LinkedHashMap<>();
+    static {
+        HOT_QUERIES.put("TaskRepository.findByUserId",
+            "SELECT * FROM tasks WHERE user_id = 1");
+        HOT_QUERIES.put("TaskRepository.findByStatusAndCreatedAtBetween",
+            "SELECT * FROM tasks WHERE status = 'COMPLETED' " +
+            "AND created_at BETWEEN TIMESTAMP '2026-01-01 00:00:00' AND TIMESTAMP '2026-01-02 00:00:00'");
+        HOT_QUERIES.put("TaskRepository.findByStatusAndUserId",
+            "SELECT * FROM tasks WHERE status = 'PENDING' AND user_id = 1");
+        HOT_QUERIES.put("DocumentRepository.findByUserId",
+            "SELECT * FROM documents WHERE user_id = 1");
+        HOT_QUERIES.put("DocumentRepository.findByUserIdAndParentId",
+            "SELECT * FROM documents WHERE user_id = 1 AND parent_id = 1");
+        HOT_QUERIES.put("CommentRepository.findByTaskIdOrderByCreatedAtDesc",
+            "SELECT * FROM comments WHERE task_id = 1 ORDER BY created_at DESC");
+        HOT_QUERIES.put("ScheduleRepository.findByDayOfWeekAndUserId",
+            "SELECT * FROM schedules WHERE day_of_week = 'MONDAY' AND user_id = 1");
+        HOT_QUERIES.put("NoteRepository.findFirstPage",
+            "SELECT * FROM notes WHERE user_id = 1 AND is_pinned = FALSE ORDER BY updated_at DESC, id DESC");
+        HOT_QUERIES.put("NoteRepository.findByCreatedAtBetween",
+            "SELECT * FROM notes WHERE created_at BETWEEN TIMESTAMP '2026-01-01 00:00:00' AND TIMESTAMP '2026-01-02 00:00:00'");
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean failOnScan;
+
+    public QueryPlanVerifier(DataSource dataSource, PlatformTransactionManager transactionManager,
+                             @Value("${app.schema.verify-query-plans.fail-on-scan:true}") boolean failOnScan) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.failOnScan = failOnScan;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        String database = jdbcTemplate.execute((Connection connection) -> databaseName(connection));
+        boolean postgres = database.contains("postgres");
+        if (!postgres && !database.contains("h2")) {
+            logger.info("Vérification des plans d'exécution ignorée pour la base {}", database);
+            return;
+        }
+
+        List<String> scans = new ArrayList<>();
+        HOT_QUERIES.forEach((name, sql) -> {
+            String plan = explain(sql, postgres);
+            if (isFullScan(plan, postgres)) {
+                scans.add(name + " :\n" + plan);
+            } else {
+                logger.debug("Plan de {} :\n{}", name, plan);
+            }
+        });
+
+        if (scans.isEmpty()) {
+            logger.info("Plans d'exécution vérifiés : les {} requêtes chaudes utilisent un index", HOT_QUERIES.size());
+            return;
+        }
+        String message = "Requêtes sans index (parcours complet de table) :\n" + String.join("\n", scans);
+        if (failOnScan) {
+            throw new IllegalStateException(message);
+        }
+        logger.warn(message);
+    }
+
+    private String explain(String sql, boolean postgres) {
+        if (!postgres) {
+            return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class));
+        }
+        return transactionTemplate.execute(status -> {
+            // SET LOCAL : le réglage disparaît avec la transaction
+            jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+            return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class));
+        });
+    }
+
+    private static boolean isFullScan(String plan, boolean postgres) {
+        return postgres ? plan.contains("Seq Scan") : plan.contains("tableScan");
+    }
+
+    private static String databaseName(Connection connection) throws SQLException {
+        return connection.getMetaData().getDatabaseProductName().toLowerCase();
+    }
+}
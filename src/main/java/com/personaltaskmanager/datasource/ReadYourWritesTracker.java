@@ -0,0 +1,42 @@
+package com.personaltaskmanager.datasource;
+
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Date de la dernière écriture validée par utilisateur. Tant que la réplique peut ne pas l'avoir reçue,
+ * les lectures de cet utilisateur restent sur la primaire.
+ */
+public class ReadYourWritesTracker {
+    private final long windowMillis;
+    private final long maxLagMillis;
+    private final Map<Long, Long> lastWriteMillis = new ConcurrentHashMap<>();
+
+    public ReadYourWritesTracker(long windowMillis, long maxLagMillis) {
+        this.windowMillis = windowMillis;
+        this.maxLagMillis = maxLagMillis;
+    }
+
+    public void recordWrite(Long userId) {
+        lastWriteMillis.put(userId, System.currentTimeMillis());
+    }
+
+    /**
+     * Vrai si l'utilisateur a écrit depuis moins que la fenêtre configurée, allongée au retard mesuré
+     */
+    public boolean hasRecentWrite(Long userId, long lagMillis) {
+        Long lastWrite = lastWriteMillis.get(userId);
+        return lastWrite != null && System.currentTimeMillis() - lastWrite < Math.max(windowMillis, lagMillis);
+    }
+
+    /**
+     * Au-delà de max-lag-ms la réplique n'est plus utilisée : les écritures plus anciennes sont oubliées
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void purge() {
+        long threshold = System.currentTimeMillis() - Math.max(windowMillis, maxLagMillis);
+        lastWriteMillis.values().removeIf(lastWrite -> lastWrite < threshold);
+    }
+}
@@ -0,0 +1,75 @@
+package com.personaltaskmanager.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+
+/**
+ * Mesure périodique du retard de réplication. La réplique n'est utilisée que si la dernière mesure
+ * a réussi, reste sous max-lag-ms et date de moins de maxMeasurementAgeMillis ; une erreur de connexion
+ * la retire jusqu'à la mesure suivante. Une mesure trop ancienne (tâche planifiée retardée ou bloquée)
+ * ne dit plus rien du retard réel : les lectures repassent sur la primaire.
+ */
+public class ReplicaLagMonitor {
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String lagQuery;
+    private final long maxLagMillis;
+    private final long maxMeasurementAgeMillis;
+
+    // Inutilisable tant que la première mesure n'a pas eu lieu
+    private volatile long lagMillis = Long.MAX_VALUE;
+    private volatile boolean usable;
+    private volatile long measuredAtNanos;
+
+    public ReplicaLagMonitor(DataSource replicaDataSource, String lagQuery, long maxLagMillis, long maxMeasurementAgeMillis) {
+        this.jdbcTemplate = new JdbcTemplate(replicaDataSource);
+        this.jdbcTemplate.setQueryTimeout(2);
+        this.lagQuery = lagQuery;
+        this.maxLagMillis = maxLagMillis;
+        this.maxMeasurementAgeMillis = maxMeasurementAgeMillis;
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replica.lag-check-ms:1000}")
+    public void check() {
+        boolean wasUsable = usable;
+        try {
+            Number lag = jdbcTemplate.queryForObject(lagQuery, Number.class);
+            lagMillis = lag != null ? Math.max(0, lag.longValue()) : 0;
+            measuredAtNanos = System.nanoTime();
+            usable = lagMillis <= maxLagMillis;
+        } catch (RuntimeException e) {
+            lagMillis = Long.MAX_VALUE;
+            usable = false;
+            if (wasUsable) {
+                logger.warn("Réplique injoignable, lectures renvoyées sur la primaire", e);
+            }
+            return;
+        }
+        if (wasUsable != usable) {
+            logger.info(usable
+                ? "Réplique utilisable (retard {} ms)"
+                : "Réplique en retard de {} ms, lectures renvoyées sur la primaire", lagMillis);
+        }
+    }
+
+    public boolean isReplicaUsable() {
+        return usable && !isMeasurementStale();
+    }
+
+    private boolean isMeasurementStale() {
+        return System.nanoTime() - measuredAtNanos > maxMeasurementAgeMillis * 1_000_000L;
+    }
+
+    public long getLagMillis() {
+        return lagMillis;
+    }
+
+    public long getMaxLagMillis() {
+        return maxLagMillis;
+    }
+}
@@ -0,0 +1,58 @@
+package com.personaltaskmanager.datasource;
+
+import com.personaltaskmanager.security.CurrentUser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Aiguillage des connexions entre la base primaire et la réplique en lecture.
+ * Une transaction readOnly part sur la réplique, sauf si celle-ci est indisponible ou trop en retard,
+ * ou si l'utilisateur de la requête vient d'écrire (lecture de ses propres écritures).
+ * Tout le reste, y compris le code hors transaction, part sur la primaire.
+ *
+ * Doit être enveloppée dans un LazyConnectionDataSourceProxy : le gestionnaire de transactions JPA
+ * réclame sa connexion avant que le caractère readOnly de la transaction ne soit publié.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    public enum Target { PRIMARY, REPLICA }
+
+    private final ReplicaLagMonitor lagMonitor;
+    private final ReadYourWritesTracker readYourWrites;
+
+    public ReplicaRoutingDataSource(ReplicaLagMonitor lagMonitor, ReadYourWritesTracker readYourWrites) {
+        this.lagMonitor = lagMonitor;
+        this.readYourWrites = readYourWrites;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Long userId = CurrentUser.getUserId();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (userId != null && TransactionSynchronizationManager.isSynchronizationActive()) {
+                // L'utilisateur est collé à la primaire une fois la transaction validée
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        readYourWrites.recordWrite(userId);
+                    }
+                });
+            }
+            return Target.PRIMARY;
+        }
+
+        if (!lagMonitor.isReplicaUsable()) {
+            logger.debug("Lecture sur la primaire : réplique indisponible ou en retard de {} ms", lagMonitor.getLagMillis());
+            return Target.PRIMARY;
+        }
+        if (userId != null && readYourWrites.hasRecentWrite(userId, lagMonitor.getLagMillis())) {
+            logger.debug("Lecture sur la primaire : écriture récente de l'utilisateur {}", userId);
+            return Target.PRIMARY;
+        }
+        return Target.REPLICA;
+    }
+}
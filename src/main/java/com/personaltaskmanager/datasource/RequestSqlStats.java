@@ -0,0 +1,63 @@
+package com.personaltaskmanager.datasource;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compteurs SQL d'une requête HTTP : nombre d'ordres, temps cumulé en base et répétitions par forme d'ordre.
+ * Rangés dans les attributs de la requête par SqlAccountingFilter. La partie asynchrone des réponses streamées
+ * les retrouve parce que Spring MVC rattache la requête au thread d'écriture ; le filtre ne publie le bilan
+ * qu'au retour de cette partie asynchrone (voir SqlAccountingFilterTest).
+ */
+public final class RequestSqlStats {
+    public static final String ATTRIBUTE = RequestSqlStats.class.getName();
+    // Au-delà, les nouvelles formes ne sont plus suivies (requêtes générées dynamiquement)
+    private static final int MAX_SHAPES = 200;
+
+    private final AtomicInteger statements = new AtomicInteger();
+    private final AtomicLong nanos = new AtomicLong();
+    private final Map<String, AtomicInteger> shapes = new ConcurrentHashMap<>();
+
+    /**
+     * Compteurs de la requête HTTP en cours, ou null hors requête (tâches planifiées, démarrage)
+     */
+    public static RequestSqlStats current() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes)) {
+            return null;
+        }
+        // Lu sur la requête elle-même : les attributs du premier passage sont marqués terminés dès qu'il rend la main,
+        // alors que la requête reste ouverte jusqu'à la fin de l'écriture asynchrone
+        return (RequestSqlStats) ((ServletRequestAttributes) attributes).getRequest().getAttribute(ATTRIBUTE);
+    }
+
+    void record(String shape, int count, long elapsedNanos) {
+        statements.addAndGet(count);
+        nanos.addAndGet(elapsedNanos);
+        AtomicInteger repetitions = shapes.get(shape);
+        if (repetitions == null && shapes.size() < MAX_SHAPES) {
+            repetitions = shapes.computeIfAbsent(shape, key -> new AtomicInteger());
+        }
+        if (repetitions != null) {
+            repetitions.addAndGet(count);
+        }
+    }
+
+    public int getStatements() {
+        return statements.get();
+    }
+
+    public long getNanos() {
+        return nanos.get();
+    }
+
+    public Map<String, AtomicInteger> getShapes() {
+        return shapes;
+    }
+}
@@ -0,0 +1,157 @@
+package com.personaltaskmanager.datasource;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bilan SQL de chaque requête HTTP :
+ * - en-têtes X-DB-Query-Count / X-DB-Time-Ms, avec les ordres exécutés avant le début de la réponse ;
+ * - métriques db.request.statements et db.request.time par route, avec le total définitif ;
+ * - avertissement « N+1 probable » quand une même forme d'ordre revient plus de n-plus-one-threshold fois.
+ */
+@Component
+public class SqlAccountingFilter extends OncePerRequestFilter {
+    private static final Logger logger = LoggerFactory.getLogger(SqlAccountingFilter.class);
+    public static final String QUERY_COUNT_HEADER = "X-DB-Query-Count";
+    public static final String QUERY_TIME_HEADER = "X-DB-Time-Ms";
+
+    private final MeterRegistry meterRegistry;
+    private final int nPlusOneThreshold;
+
+    public SqlAccountingFilter(MeterRegistry meterRegistry,
+                               @Value("${app.sql.n-plus-one-threshold:10}") int nPlusOneThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.nPlusOneThreshold = nPlusOneThreshold;
+    }
+
+    // La fin d'une réponse streamée repasse par le filtre : c'est là que le bilan est complet
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestSqlStats stats = (RequestSqlStats) request.getAttribute(RequestSqlStats.ATTRIBUTE);
+        HttpServletResponse target = response;
+        if (stats == null) {
+            stats = new RequestSqlStats();
+            request.setAttribute(RequestSqlStats.ATTRIBUTE, stats);
+            target = new StatsHeaderResponse(response, stats);
+        }
+        try {
+            filterChain.doFilter(request, target);
+        } finally {
+            if (!request.isAsyncStarted()) {
+                if (target instanceof StatsHeaderResponse) {
+                    ((StatsHeaderResponse) target).addStatsHeaders();
+                }
+                report(request, stats);
+            }
+        }
+    }
+
+    private void report(HttpServletRequest request, RequestSqlStats stats) {
+        if (stats.getStatements() == 0) {
+            return;
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        DistributionSummary.builder("db.request.statements")
+            .description("Ordres SQL exécutés par requête HTTP")
+            .tags("method", request.getMethod(), "uri", uri)
+            .register(meterRegistry)
+            .record(stats.getStatements());
+        Timer.builder("db.request.time")
+            .description("Temps passé en base par requête HTTP")
+            .tags("method", request.getMethod(), "uri", uri)
+            .register(meterRegistry)
+            .record(stats.getNanos(), TimeUnit.NANOSECONDS);
+
+        stats.getShapes().forEach((shape, repetitions) -> {
+            if (repetitions.get() > nPlusOneThreshold) {
+                meterRegistry.counter("db.request.n_plus_one", "method", request.getMethod(), "uri", uri).increment();
+                logger.warn("N+1 probable sur {} {} : {} exécutions de « {} »",
+                    request.getMethod(), uri, repetitions.get(), shape);
+            }
+        });
+        logger.debug("{} {} : {} ordres SQL, {} ms en base", request.getMethod(), request.getRequestURI(),
+            stats.getStatements(), TimeUnit.NANOSECONDS.toMillis(stats.getNanos()));
+    }
+
+    /**
+     * Ajoute les en-têtes de bilan juste avant que la réponse ne parte, tant qu'ils peuvent encore l'être
+     */
+    private static final class StatsHeaderResponse extends HttpServletResponseWrapper {
+        private final RequestSqlStats stats;
+        private boolean headersAdded;
+
+        private StatsHeaderResponse(HttpServletResponse response, RequestSqlStats stats) {
+            super(response);
+            this.stats = stats;
+        }
+
+        void addStatsHeaders() {
+            if (headersAdded || isCommitted()) {
+                return;
+            }
+            headersAdded = true;
+            setHeader(QUERY_COUNT_HEADER, String.valueOf(stats.getStatements()));
+            setHeader(QUERY_TIME_HEADER, String.valueOf(TimeUnit.NANOSECONDS.toMillis(stats.getNanos())));
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            addStatsHeaders();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            addStatsHeaders();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            addStatsHeaders();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            addStatsHeaders();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            addStatsHeaders();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            addStatsHeaders();
+            super.sendRedirect(location);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.personaltaskmanager.datasource;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Écoute chaque ordre SQL exécuté par les sources de données enveloppées (voir SqlAccountingConfig) :
+ * l'impute à la requête HTTP en cours et journalise avec ses paramètres ceux qui dépassent le seuil de lenteur.
+ */
+public class SqlAccountingListener implements QueryExecutionListener {
+    private static final Logger logger = LoggerFactory.getLogger(SqlAccountingListener.class);
+    private static final String START_NANOS = SqlAccountingListener.class.getName() + ".start";
+    // Littéraux d'un ordre non préparé : deux ordres qui ne diffèrent que par eux ont la même forme
+    private static final Pattern LITERALS = Pattern.compile("'(?:[^']|'')*'|\\b\\d+\\b");
+    private static final int MAX_LOGGED_VALUE_LENGTH = 100;
+    // Ordres dont les paramètres ne doivent jamais apparaître dans les logs
+    private static final Pattern SENSITIVE = Pattern.compile("password|reset_code", Pattern.CASE_INSENSITIVE);
+
+    private final long slowQueryNanos;
+
+    public SqlAccountingListener(long slowQueryMillis) {
+        this.slowQueryNanos = slowQueryMillis * 1_000_000;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        execInfo.addCustomValue(START_NANOS, System.nanoTime());
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        Long start = execInfo.getCustomValue(START_NANOS, Long.class);
+        long elapsed = start != null ? System.nanoTime() - start : execInfo.getElapsedTime() * 1_000_000;
+
+        RequestSqlStats stats = RequestSqlStats.current();
+        if (stats != null) {
+            // Un lot compte pour un aller-retour par ordre distinct
+            for (QueryInfo query : queryInfoList) {
+                stats.record(shapeOf(query.getQuery()), 1, elapsed / queryInfoList.size());
+            }
+        }
+
+        if (elapsed >= slowQueryNanos) {
+            for (QueryInfo query : queryInfoList) {
+                logger.warn("Requête lente ({} ms, {}{}) : {} | paramètres {}", elapsed / 1_000_000,
+                    execInfo.getDataSourceName(), execInfo.isBatch() ? ", lot de " + execInfo.getBatchSize() : "",
+                    query.getQuery(), describeParameters(query));
+            }
+        }
+    }
+
+    static String shapeOf(String sql) {
+        return LITERALS.matcher(sql).replaceAll("?").replaceAll("\\s+", " ").trim();
+    }
+
+    private static Object describeParameters(QueryInfo query) {
+        if (SENSITIVE.matcher(query.getQuery()).find()) {
+            return "[masqués]";
+        }
+        List<List<Object>> sets = new ArrayList<>();
+        for (List<ParameterSetOperation> operations : query.getParametersList()) {
+            List<Object> values = new ArrayList<>(operations.size());
+            for (ParameterSetOperation operation : operations) {
+                Object[] args = operation.getArgs();
+                Object value = args.length > 1 ? args[1] : null;
+                String text = String.valueOf(value);
+                values.add(text.length() > MAX_LOGGED_VALUE_LENGTH
+                    ? text.substring(0, MAX_LOGGED_VALUE_LENGTH) + "…"
+                    : value);
+            }
+            sets.add(values);
+        }
+        return sets;
+    }
+}
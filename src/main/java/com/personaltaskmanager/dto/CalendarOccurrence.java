@@ -0,0 +1,20 @@
+package com.personaltaskmanager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Occurrence concrète d'un créneau hebdomadaire ou échéance d'une tâche dans une plage de dates
+ */
+@Data
+@AllArgsConstructor
+public class CalendarOccurrence {
+    private String type;
+    private Long sourceId;
+    private String title;
+    private LocalDateTime start;
+    private LocalDateTime end;
+    private boolean allDay;
+}
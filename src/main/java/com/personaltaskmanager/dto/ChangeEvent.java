@@ -0,0 +1,21 @@
+package com.personaltaskmanager.dto;
+
+import com.personaltaskmanager.enums.ChangeAction;
+import com.personaltaskmanager.enums.EntityKind;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Événement "change" envoyé sur /api/events ; id croissant, renvoyé par le navigateur dans Last-Event-ID
+ */
+@Data
+@AllArgsConstructor
+public class ChangeEvent {
+    private long id;
+    private EntityKind entity;
+    private Long entityId;
+    private ChangeAction action;
+    private LocalDateTime at;
+}
@@ -0,0 +1,19 @@
+package com.personaltaskmanager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+
+/**
+ * Plage libre dans la semaine d'un utilisateur ; une fin à 00:00 désigne la fin de journée
+ */
+@Data
+@AllArgsConstructor
+public class FreeSlot {
+    private DayOfWeek dayOfWeek;
+    private LocalTime startTime;
+    private LocalTime endTime;
+    private int durationMinutes;
+}
@@ -0,0 +1,17 @@
+package com.personaltaskmanager.dto;
+
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+/**
+ * Modification partielle envoyée par l'éditeur pendant la saisie
+ * Les champs null sont laissés inchangés
+ */
+@Data
+public class NoteAutosaveRequest {
+    @Size(max = 255, message = "Le titre ne peut pas dépasser 255 caractères")
+    private String title;
+
+    @Size(max = 5000, message = "Le contenu ne peut pas dépasser 5000 caractères")
+    private String content;
+}
@@ -0,0 +1,18 @@
+package com.personaltaskmanager.dto;
+
+import com.personaltaskmanager.model.Note;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Page de notes en pagination par clé (keyset)
+ * nextCursor est null lorsqu'il n'y a plus de résultats
+ */
+@Data
+@AllArgsConstructor
+public class NotePage {
+    private List<Note> notes;
+    private String nextCursor;
+}
@@ -0,0 +1,20 @@
+package com.personaltaskmanager.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+
+/**
+ * Chevauchement entre deux créneaux d'un même jour
+ */
+@Data
+@AllArgsConstructor
+public class ScheduleConflict {
+    private DayOfWeek dayOfWeek;
+    private Long scheduleId;
+    private Long conflictingScheduleId;
+    private LocalTime overlapStart;
+    private LocalTime overlapEnd;
+}
@@ -0,0 +1,19 @@
+package com.personaltaskmanager.dto;
+
+import jakarta.validation.constraints.Min;
+import lombok.Data;
+
+/**
+ * Modification de texte : suppression de deleteCount caractères à partir de offset, puis insertion de insert
+ * L'offset s'entend sur le texte obtenu après application des modifications précédentes
+ */
+@Data
+public class TextEdit {
+    @Min(value = 0, message = "L'offset doit être positif")
+    private int offset;
+
+    @Min(value = 0, message = "Le nombre de caractères à supprimer doit être positif")
+    private int deleteCount;
+
+    private String insert;
+}
@@ -0,0 +1,20 @@
+package com.personaltaskmanager.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Patch de contenu appliqué côté serveur sur la version baseVersion
+ */
+@Data
+public class TextPatchRequest {
+    @NotNull(message = "La version de base est obligatoire")
+    private Long baseVersion;
+
+    @NotEmpty(message = "Au moins une modification est requise")
+    private List<@Valid TextEdit> edits;
+}
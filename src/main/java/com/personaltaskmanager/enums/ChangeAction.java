@@ -0,0 +1,7 @@
+package com.personaltaskmanager.enums;
+
+public enum ChangeAction {
+    CREATED,
+    UPDATED,
+    DELETED
+}
@@ -0,0 +1,9 @@
+package com.personaltaskmanager.enums;
+
+public enum EmailStatus {
+    PENDING,
+    // Réservé par un dispatcher jusqu'à next_attempt_at, le temps de l'envoi SMTP
+    SENDING,
+    SENT,
+    FAILED
+}
@@ -0,0 +1,9 @@
+package com.personaltaskmanager.enums;
+
+public enum EntityKind {
+    TASK,
+    NOTE,
+    DOCUMENT,
+    SCHEDULE,
+    COMMENT
+}
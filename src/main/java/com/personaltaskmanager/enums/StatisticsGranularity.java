@@ -0,0 +1,41 @@
+package com.personaltaskmanager.enums;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+
+public enum StatisticsGranularity {
+    DAY,
+    WEEK,
+    MONTH;
+
+    public static StatisticsGranularity fromParameter(String value) {
+        if (value == null || value.isBlank()) {
+            return DAY;
+        }
+        try {
+            return StatisticsGranularity.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Granularité inconnue: " + value + " (valeurs possibles: day, week, month)");
+        }
+    }
+
+    /**
+     * Premier jour de la période contenant la date (semaines ISO commençant le lundi)
+     */
+    public LocalDate bucketStart(LocalDate date) {
+        switch (this) {
+            case WEEK: return date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH: return date.withDayOfMonth(1);
+            default: return date;
+        }
+    }
+
+    public LocalDate nextBucketStart(LocalDate bucketStart) {
+        switch (this) {
+            case WEEK: return bucketStart.plusWeeks(1);
+            case MONTH: return bucketStart.plusMonths(1);
+            default: return bucketStart.plusDays(1);
+        }
+    }
+}
@@ -0,0 +1,398 @@
+package com.personaltaskmanager.events;
+
+import com.personaltaskmanager.dto.ChangeEvent;
+import com.personaltaskmanager.exception.TooManyRequestsException;
+import com.personaltaskmanager.sharding.GlobalIdGenerator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Diffusion des modifications aux navigateurs par Server-Sent Events, à la place du polling des listes.
+ * Chaque connexion est une requête asynchrone (SseEmitter) qui n'occupe aucun thread Tomcat entre deux envois ;
+ * l'écriture dans les connexions est faite par un petit pool dédié, si bien qu'un client lent ne ralentit
+ * jamais la transaction qui a publié l'événement. Un envoi vers un client qui ne lit plus bloque un thread de ce
+ * pool jusqu'au délai d'écriture du serveur (server.tomcat.connection-timeout) ; passé app.events.write-timeout-ms,
+ * la connexion est retirée pour ne plus jamais être reprogrammée, et le pool est dimensionné pour ces blocages.
+ * Les derniers événements de chaque utilisateur sont gardés pour la reprise par Last-Event-ID. Si la reprise
+ * remonte plus loin, ou si le tampon d'une connexion déborde, le client reçoit "resync" et recharge ses listes.
+ * Les événements sont propres à l'instance : derrière plusieurs instances, il faut une affinité de session.
+ */
+@Component
+public class ChangeStreamHub {
+    private static final Logger logger = LoggerFactory.getLogger(ChangeStreamHub.class);
+    private static final Object HELLO = new Object();
+    private static final Object HEARTBEAT = new Object();
+    private static final Object RESYNC = new Object();
+    private static final long RECONNECT_DELAY_MS = 3000;
+
+    private final GlobalIdGenerator idGenerator;
+    private final int replaySize;
+    private final int bufferSize;
+    private final int maxPerUser;
+    private final int maxSubscribers;
+    private final long timeoutMillis;
+    private final long retentionMillis;
+    private final long writeTimeoutMillis;
+    private final ExecutorService dispatcher;
+    private final Map<Long, UserStream> streams = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final Counter published;
+    private final Counter overflows;
+    private final Counter stalled;
+
+    public ChangeStreamHub(GlobalIdGenerator idGenerator,
+                           MeterRegistry meterRegistry,
+                           @Value("${app.events.replay-size:256}") int replaySize,
+                           @Value("${app.events.buffer-size:128}") int bufferSize,
+                           @Value("${app.events.max-per-user:5}") int maxPerUser,
+                           @Value("${app.events.max-subscribers:20000}") int maxSubscribers,
+                           @Value("${app.events.timeout-ms:1800000}") long timeoutMillis,
+                           @Value("${app.events.replay-retention-ms:600000}") long retentionMillis,
+                           @Value("${app.events.dispatch-threads:8}") int dispatchThreads,
+                           @Value("${app.events.write-timeout-ms:10000}") long writeTimeoutMillis) {
+        this.idGenerator = idGenerator;
+        this.replaySize = replaySize;
+        this.bufferSize = bufferSize;
+        this.maxPerUser = maxPerUser;
+        this.maxSubscribers = maxSubscribers;
+        this.timeoutMillis = timeoutMillis;
+        this.retentionMillis = retentionMillis;
+        this.writeTimeoutMillis = writeTimeoutMillis;
+        AtomicInteger counter = new AtomicInteger();
+        // File non bornée mais jamais plus d'une tâche par connexion (voir Subscription.schedule)
+        this.dispatcher = Executors.newFixedThreadPool(Math.max(1, dispatchThreads), runnable -> {
+            Thread thread = new Thread(runnable, "sse-dispatch-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Gauge.builder("sse.subscribers", subscriberCount, AtomicInteger::get)
+            .description("Connexions SSE ouvertes")
+            .register(meterRegistry);
+        Gauge.builder("sse.streams", streams, Map::size)
+            .description("Utilisateurs dont les derniers événements sont gardés pour la reprise")
+            .register(meterRegistry);
+        this.published = Counter.builder("sse.events.published")
+            .description("Modifications diffusées")
+            .register(meterRegistry);
+        this.overflows = Counter.builder("sse.buffer.overflows")
+            .description("Tampons de connexion saturés, remplacés par un resync")
+            .register(meterRegistry);
+        this.stalled = Counter.builder("sse.writes.stalled")
+            .description("Connexions fermées sur un envoi bloqué au-delà du délai d'écriture")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Ouvre une connexion pour l'utilisateur. Avec lastEventId, les événements manqués depuis sont renvoyés
+     * d'abord, ou un resync s'ils ne sont plus disponibles.
+     */
+    public SseEmitter subscribe(Long userId, Long lastEventId) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new TooManyRequestsException("Trop de connexions temps réel ouvertes, réessayez plus tard", 30);
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscription subscription = new Subscription(userId, emitter);
+        emitter.onCompletion(() -> subscription.close(false));
+        emitter.onTimeout(() -> subscription.close(true));
+        emitter.onError(e -> subscription.close(false));
+        subscription.offer(HELLO);
+
+        List<Subscription> evicted = new ArrayList<>();
+        // compute sérialise l'inscription avec la purge des flux inactifs
+        streams.compute(userId, (id, stream) -> {
+            UserStream target = stream != null ? stream : new UserStream(replaySize, idGenerator.next());
+            synchronized (target) {
+                if (lastEventId != null) {
+                    List<ChangeEvent> missed = target.eventsAfter(lastEventId);
+                    if (missed == null) {
+                        subscription.offer(RESYNC);
+                    } else {
+                        missed.forEach(subscription::offer);
+                    }
+                }
+                target.subscribers.add(subscription);
+                // Onglets oubliés : la connexion la plus ancienne laisse sa place
+                while (target.subscribers.size() > maxPerUser) {
+                    evicted.add(target.subscribers.remove(0));
+                }
+            }
+            return target;
+        });
+        evicted.forEach(old -> old.close(true));
+        return emitter;
+    }
+
+    /**
+     * Reçu après validation de la transaction de l'écriture, ou immédiatement hors transaction
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntityChanged(EntityChangedEvent event) {
+        if (event.getUserId() == null) {
+            return;
+        }
+        UserStream stream = streams.computeIfAbsent(event.getUserId(), id -> new UserStream(replaySize, idGenerator.next()));
+        synchronized (stream) {
+            // ID attribué sous le verrou : l'ordre des IDs est celui de l'anneau et de l'envoi
+            ChangeEvent change = new ChangeEvent(idGenerator.next(), event.getEntity(), event.getEntityId(),
+                event.getAction(), LocalDateTime.now());
+            stream.append(change);
+            for (Subscription subscription : stream.subscribers) {
+                subscription.offer(change);
+            }
+        }
+        published.increment();
+    }
+
+    /**
+     * Commentaire SSE sur les connexions sans trafic : garde ouverts les proxys et détecte les clients partis.
+     * Les connexions dont un envoi est bloqué depuis plus que le délai d'écriture sont retirées.
+     */
+    @Scheduled(fixedDelayString = "${app.events.heartbeat-ms:25000}")
+    public void heartbeat() {
+        long stalledSince = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(writeTimeoutMillis);
+        for (UserStream stream : streams.values()) {
+            List<Subscription> subscriptions;
+            synchronized (stream) {
+                subscriptions = new ArrayList<>(stream.subscribers);
+            }
+            for (Subscription subscription : subscriptions) {
+                if (subscription.isStalledSince(stalledSince)) {
+                    stalled.increment();
+                    logger.warn("Connexion SSE de l'utilisateur {} bloquée en écriture depuis plus de {} ms, retirée",
+                        subscription.userId, writeTimeoutMillis);
+                    // Sans emitter.complete() : il attendrait la fin de l'envoi bloqué, que le serveur fera échouer
+                    subscription.close(false);
+                } else {
+                    subscription.heartbeat();
+                }
+            }
+        }
+    }
+
+    @Scheduled(fixedDelay = 60000)
+    public void purgeIdleStreams() {
+        long cutoff = System.currentTimeMillis() - retentionMillis;
+        for (Long userId : streams.keySet()) {
+            streams.computeIfPresent(userId, (id, stream) -> stream.isIdleSince(cutoff) ? null : stream);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        List<Subscription> subscriptions = new ArrayList<>();
+        for (UserStream stream : streams.values()) {
+            synchronized (stream) {
+                subscriptions.addAll(stream.subscribers);
+            }
+        }
+        if (!subscriptions.isEmpty()) {
+            logger.info("Fermeture de {} connexions SSE avant l'arrêt", subscriptions.size());
+        }
+        // Les navigateurs se reconnectent seuls, avec leur Last-Event-ID
+        subscriptions.forEach(subscription -> subscription.close(true));
+        dispatcher.shutdown();
+    }
+
+    private void unregister(Subscription subscription) {
+        UserStream stream = streams.get(subscription.userId);
+        if (stream != null) {
+            synchronized (stream) {
+                stream.subscribers.remove(subscription);
+                stream.lastActivity = System.currentTimeMillis();
+            }
+        }
+        subscriberCount.decrementAndGet();
+    }
+
+    /**
+     * Derniers événements d'un utilisateur et ses connexions ouvertes ; accès sous le verrou de l'objet
+     */
+    private static final class UserStream {
+        private final ChangeEvent[] ring;
+        private final List<Subscription> subscribers = new ArrayList<>();
+        private int head;
+        private int size;
+        // Événements d'ID inférieur ou égal inconnus : sortis de l'anneau ou antérieurs à la création du flux
+        private long horizon;
+        private long lastActivity = System.currentTimeMillis();
+
+        private UserStream(int capacity, long horizon) {
+            this.ring = new ChangeEvent[Math.max(1, capacity)];
+            this.horizon = horizon;
+        }
+
+        private void append(ChangeEvent event) {
+            if (size == ring.length) {
+                horizon = ring[head].getId();
+                ring[head] = event;
+                head = (head + 1) % ring.length;
+            } else {
+                ring[(head + size) % ring.length] = event;
+                size++;
+            }
+            lastActivity = System.currentTimeMillis();
+        }
+
+        /**
+         * Événements postérieurs à lastEventId, ou null si certains ne sont plus disponibles
+         */
+        private List<ChangeEvent> eventsAfter(long lastEventId) {
+            if (lastEventId < horizon) {
+                return null;
+            }
+            List<ChangeEvent> events = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                ChangeEvent event = ring[(head + i) % ring.length];
+                if (event.getId() > lastEventId) {
+                    events.add(event);
+                }
+            }
+            return events;
+        }
+
+        private synchronized boolean isIdleSince(long cutoff) {
+            return subscribers.isEmpty() && lastActivity < cutoff;
+        }
+    }
+
+    /**
+     * Une connexion : file bornée vidée par le pool d'envoi, jamais par le thread qui publie
+     */
+    private final class Subscription {
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<Object> queue = new ArrayBlockingQueue<>(Math.max(1, bufferSize));
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private volatile boolean overflowed;
+        // System.nanoTime() au début de l'envoi en cours, 0 hors envoi
+        private volatile long sendingSince;
+
+        private Subscription(Long userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        private void offer(Object item) {
+            if (closed.get()) {
+                return;
+            }
+            if (!queue.offer(item)) {
+                // Le client ne suit pas : inutile de lui envoyer la suite, il rechargera tout
+                overflowed = true;
+                queue.clear();
+                overflows.increment();
+            }
+            schedule();
+        }
+
+        private void heartbeat() {
+            if (queue.isEmpty()) {
+                offer(HEARTBEAT);
+            }
+        }
+
+        private boolean isStalledSince(long nanos) {
+            long since = sendingSince;
+            return since != 0 && since - nanos < 0;
+        }
+
+        private void schedule() {
+            if (closed.get() || !scheduled.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                dispatcher.execute(this::drain);
+            } catch (RuntimeException e) {
+                // Pool arrêté : l'application s'arrête
+                scheduled.set(false);
+            }
+        }
+
+        private void drain() {
+            try {
+                if (overflowed) {
+                    overflowed = false;
+                    queue.clear();
+                    send(RESYNC);
+                }
+                Object item;
+                while (!closed.get() && (item = queue.poll()) != null) {
+                    send(item);
+                }
+            } catch (IOException | IllegalStateException e) {
+                logger.debug("Connexion SSE de l'utilisateur {} interrompue : {}", userId, e.getMessage());
+                close(false);
+            } finally {
+                scheduled.set(false);
+                if (overflowed || !queue.isEmpty()) {
+                    schedule();
+                }
+            }
+        }
+
+        private void send(Object item) throws IOException {
+            sendingSince = System.nanoTime();
+            try {
+                write(item);
+            } finally {
+                sendingSince = 0;
+            }
+        }
+
+        private void write(Object item) throws IOException {
+            if (item instanceof ChangeEvent change) {
+                emitter.send(SseEmitter.event()
+                    .id(String.valueOf(change.getId()))
+                    .name("change")
+                    .data(change, MediaType.APPLICATION_JSON));
+            } else if (item == HEARTBEAT) {
+                emitter.send(SseEmitter.event().comment("ping"));
+            } else if (item == RESYNC) {
+                emitter.send(SseEmitter.event().name("resync").data("{}", MediaType.APPLICATION_JSON));
+            } else if (item == HELLO) {
+                emitter.send(SseEmitter.event().reconnectTime(RECONNECT_DELAY_MS).comment("connecté"));
+            }
+        }
+
+        private void close(boolean completeEmitter) {
+            if (!closed.compareAndSet(false, true)) {
+                return;
+            }
+            queue.clear();
+            unregister(this);
+            if (completeEmitter) {
+                try {
+                    emitter.complete();
+                } catch (RuntimeException e) {
+                    logger.debug("Fermeture de la connexion SSE de l'utilisateur {} : {}", userId, e.getMessage());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.personaltaskmanager.events;
+
+import com.personaltaskmanager.enums.ChangeAction;
+import com.personaltaskmanager.enums.EntityKind;
+import com.personaltaskmanager.security.CurrentUser;
+
+/**
+ * Modification d'une entité, publiée par les services et transmise aux abonnés SSE de son propriétaire
+ * une fois la transaction validée (voir ChangeStreamHub)
+ */
+public class EntityChangedEvent {
+    private final Long userId;
+    private final EntityKind entity;
+    private final Long entityId;
+    private final ChangeAction action;
+
+    /**
+     * Sans userId (suppression par ID, note sans propriétaire renseigné), l'événement est attribué
+     * à l'utilisateur de la requête en cours
+     */
+    public EntityChangedEvent(Long userId, EntityKind entity, Long entityId, ChangeAction action) {
+        this.userId = userId != null ? userId : CurrentUser.getUserId();
+        this.entity = entity;
+        this.entityId = entityId;
+        this.action = action;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public EntityKind getEntity() {
+        return entity;
+    }
+
+    public Long getEntityId() {
+        return entityId;
+    }
+
+    public ChangeAction getAction() {
+        return action;
+    }
+}
@@ -0,0 +1,330 @@
+package com.personaltaskmanager.loadtest;
+
+import com.personaltaskmanager.enums.FileType;
+import com.personaltaskmanager.enums.NoteType;
+import com.personaltaskmanager.enums.TaskDifficulty;
+import com.personaltaskmanager.enums.TaskPriority;
+import com.personaltaskmanager.enums.TaskStatus;
+import com.personaltaskmanager.service.UserIdentityIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Jeu de données synthétique pour les tests de charge (profil loadtest) : N utilisateurs avec leurs tâches,
+ * commentaires, notes, créneaux et documents, plus les fichiers correspondants dans le répertoire d'upload.
+ * Les lignes sont insérées par lots JDBC ; le tirage est déterministe (graine fixe) pour comparer deux runs.
+ * Tous les comptes partagent le même mot de passe, haché une seule fois.
+ */
+@Component
+@Profile("loadtest")
+public class LoadTestDataGenerator implements ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(LoadTestDataGenerator.class);
+    public static final String USERNAME_PREFIX = "loadtest-user-";
+    private static final int BATCH_SIZE = 1000;
+
+    private static final String[] TASK_TITLES = {
+        "Préparer la réunion", "Relire le rapport", "Appeler le client", "Mettre à jour le planning",
+        "Faire les courses", "Réviser le chapitre", "Envoyer la facture", "Corriger le bug de connexion"
+    };
+    private static final String[] FILE_EXTENSIONS = { ".pdf", ".jpg", ".png", ".txt", ".docx", ".mp3" };
+    private static final FileType[] FILE_TYPES = {
+        FileType.PDF, FileType.IMAGE, FileType.IMAGE, FileType.TEXT, FileType.DOCUMENT, FileType.AUDIO
+    };
+    private static final String[] MIME_TYPES = {
+        "application/pdf", "image/jpeg", "image/png", "text/plain",
+        "application/vnd.openxmlformats-officedocument.wordprocessingml.document", "audio/mpeg"
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final UserIdentityIndex identityIndex;
+    private final int users;
+    private final int tasksPerUser;
+    private final int commentsPerTask;
+    private final int notesPerUser;
+    private final int schedulesPerUser;
+    private final int documentsPerUser;
+    private final int blobSizeKb;
+    private final int historyDays;
+    private final String password;
+    private final long seed;
+    private final String uploadDir;
+
+    public LoadTestDataGenerator(DataSource dataSource, PasswordEncoder passwordEncoder,
+                                 UserIdentityIndex identityIndex,
+                                 @Value("${app.loadtest.users:200}") int users,
+                                 @Value("${app.loadtest.tasks-per-user:150}") int tasksPerUser,
+                                 @Value("${app.loadtest.comments-per-task:2}") int commentsPerTask,
+                                 @Value("${app.loadtest.notes-per-user:100}") int notesPerUser,
+                                 @Value("${app.loadtest.schedules-per-user:15}") int schedulesPerUser,
+                                 @Value("${app.loadtest.documents-per-user:10}") int documentsPerUser,
+                                 @Value("${app.loadtest.blob-size-kb:64}") int blobSizeKb,
+                                 @Value("${app.loadtest.history-days:180}") int historyDays,
+                                 @Value("${app.loadtest.password:loadtest-password}") String password,
+                                 @Value("${app.loadtest.seed:42}") long seed,
+                                 @Value("${app.upload.dir:uploads}") String uploadDir) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.passwordEncoder = passwordEncoder;
+        this.identityIndex = identityIndex;
+        this.users = users;
+        this.tasksPerUser = tasksPerUser;
+        this.commentsPerTask = commentsPerTask;
+        this.notesPerUser = notesPerUser;
+        this.schedulesPerUser = schedulesPerUser;
+        this.documentsPerUser = documentsPerUser;
+        this.blobSizeKb = blobSizeKb;
+        this.historyDays = historyDays;
+        this.password = password;
+        this.seed = seed;
+        this.uploadDir = uploadDir;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        Integer existing = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM users WHERE username LIKE ?", Integer.class, USERNAME_PREFIX + "%");
+        if (existing != null && existing > 0) {
+            logger.info("Jeu de données de charge déjà présent ({} utilisateurs), génération ignorée", existing);
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        Random random = new Random(seed);
+        List<Long> userIds = insertUsers();
+        int tasks = insertTasks(userIds, random);
+        int comments = insertComments(random);
+        int notes = insertNotes(userIds, random);
+        int schedules = insertSchedules(userIds, random);
+        int documents = insertDocuments(userIds, random);
+        identityIndex.rebuild();
+
+        logger.info("Jeu de données de charge généré en {} ms : {} utilisateurs, {} tâches, {} commentaires, " +
+                "{} notes, {} créneaux, {} documents", System.currentTimeMillis() - start,
+            userIds.size(), tasks, comments, notes, schedules, documents);
+    }
+
+    private List<Long> insertUsers() {
+        String hash = passwordEncoder.encode(password);
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> rows = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            rows.add(new Object[] {
+                USERNAME_PREFIX + i, USERNAME_PREFIX + i + "@loadtest.local", hash,
+                "Prénom" + i, "Nom" + i, Timestamp.valueOf(now)
+            });
+        }
+        batchInsert("INSERT INTO users (username, email, password, first_name, last_name, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?)", rows);
+        return jdbcTemplate.queryForList("SELECT id FROM users WHERE username LIKE ? ORDER BY id",
+            Long.class, USERNAME_PREFIX + "%");
+    }
+
+    private int insertTasks(List<Long> userIds, Random random) {
+        TaskStatus[] statuses = TaskStatus.values();
+        TaskDifficulty[] difficulties = TaskDifficulty.values();
+        TaskPriority[] priorities = TaskPriority.values();
+        List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+        int count = 0;
+        for (Long userId : userIds) {
+            for (int i = 0; i < tasksPerUser; i++) {
+                LocalDateTime createdAt = randomPastTime(random);
+                // Environ la moitié des tâches sont terminées, comme sur les comptes réels
+                TaskStatus status = random.nextBoolean() ? TaskStatus.COMPLETED : statuses[random.nextInt(statuses.length)];
+                rows.add(new Object[] {
+                    TASK_TITLES[random.nextInt(TASK_TITLES.length)] + " #" + i,
+                    "Description générée pour le test de charge, tâche " + i + " de l'utilisateur " + userId,
+                    status.name(),
+                    difficulties[random.nextInt(difficulties.length)].name(),
+                    priorities[random.nextInt(priorities.length)].name(),
+                    Date.valueOf(createdAt.toLocalDate().plusDays(random.nextInt(30))),
+                    Timestamp.valueOf(createdAt),
+                    Timestamp.valueOf(createdAt.plusHours(random.nextInt(72))),
+                    userId
+                });
+                count++;
+                rows = flushIfFull("INSERT INTO tasks (title, description, status, difficulty, priority, due_date, " +
+                    "created_at, updated_at, user_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)", rows);
+            }
+        }
+        batchInsert("INSERT INTO tasks (title, description, status, difficulty, priority, due_date, " +
+            "created_at, updated_at, user_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)", rows);
+        return count;
+    }
+
+    // Nombre de commentaires tiré entre 0 et 2 x la moyenne pour chaque tâche générée
+    private int insertComments(Random random) {
+        String sql = "INSERT INTO comments (content, author_name, created_at, user_id, task_id) VALUES (?, ?, ?, ?, ?)";
+        List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+        int count = 0;
+        List<Object[]> tasks = new ArrayList<>();
+        jdbcTemplate.query("SELECT t.id, t.user_id, t.created_at FROM tasks t JOIN users u ON u.id = t.user_id " +
+                "WHERE u.username LIKE ?",
+            (RowCallbackHandler) rs -> tasks.add(new Object[] { rs.getLong(1), rs.getLong(2), rs.getTimestamp(3) }),
+            USERNAME_PREFIX + "%");
+        for (Object[] task : tasks) {
+            int comments = commentsPerTask > 0 ? random.nextInt(2 * commentsPerTask + 1) : 0;
+            for (int i = 0; i < comments; i++) {
+                Timestamp taskCreatedAt = (Timestamp) task[2];
+                rows.add(new Object[] {
+                    "Commentaire " + i + " : avancement noté, reste à valider.",
+                    "Utilisateur",
+                    Timestamp.valueOf(taskCreatedAt.toLocalDateTime().plusMinutes(random.nextInt(7 * 24 * 60))),
+                    task[1],
+                    task[0]
+                });
+                count++;
+                rows = flushIfFull(sql, rows);
+            }
+        }
+        batchInsert(sql, rows);
+        return count;
+    }
+
+    private int insertNotes(List<Long> userIds, Random random) {
+        String sql = "INSERT INTO notes (title, content, is_pinned, note_type, content_version, created_at, " +
+            "updated_at, user_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+        String paragraph = "Idées et points à retenir pour la semaine, avec quelques détails supplémentaires. ";
+        List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+        int count = 0;
+        for (Long userId : userIds) {
+            for (int i = 0; i < notesPerUser; i++) {
+                LocalDateTime createdAt = randomPastTime(random);
+                rows.add(new Object[] {
+                    "Note " + i,
+                    paragraph.repeat(1 + random.nextInt(40)),
+                    random.nextInt(10) == 0,
+                    // Notes texte majoritaires, quelques notes vocales et images
+                    (random.nextInt(10) < 8 ? NoteType.TEXT : NoteType.values()[random.nextInt(NoteType.values().length)]).name(),
+                    0L,
+                    Timestamp.valueOf(createdAt),
+                    Timestamp.valueOf(createdAt.plusHours(random.nextInt(240))),
+                    userId
+                });
+                count++;
+                rows = flushIfFull(sql, rows);
+            }
+        }
+        batchInsert(sql, rows);
+        return count;
+    }
+
+    private int insertSchedules(List<Long> userIds, Random random) {
+        String sql = "INSERT INTO schedules (day_of_week, start_time, end_time, title, description, " +
+            "is_work_schedule, created_at, updated_at, user_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        DayOfWeek[] days = DayOfWeek.values();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+        int count = 0;
+        for (Long userId : userIds) {
+            for (int i = 0; i < schedulesPerUser; i++) {
+                // Créneaux d'une demi-heure à trois heures entre 7h et 20h
+                LocalTime start = LocalTime.of(7 + random.nextInt(11), random.nextBoolean() ? 0 : 30);
+                LocalTime end = start.plusMinutes(30L * (1 + random.nextInt(6)));
+                boolean work = random.nextInt(3) > 0;
+                rows.add(new Object[] {
+                    days[random.nextInt(days.length)].name(),
+                    Time.valueOf(start),
+                    Time.valueOf(end),
+                    work ? "Travail" : "Sport",
+                    null,
+                    work,
+                    now,
+                    now,
+                    userId
+                });
+                count++;
+                rows = flushIfFull(sql, rows);
+            }
+        }
+        batchInsert(sql, rows);
+        return count;
+    }
+
+    private int insertDocuments(List<Long> userIds, Random random) throws IOException {
+        String sql = "INSERT INTO documents (name, type, file_type, file_url, file_path, file_size, mime_type, " +
+            "content_version, created_at, updated_at, user_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        Path uploadPath = Paths.get(uploadDir);
+        Files.createDirectories(uploadPath);
+        // Un seul tampon aléatoire, découpé à des tailles variables : l'écriture disque domine, pas le tirage
+        byte[] pool = new byte[Math.max(1, blobSizeKb) * 1024 * 4];
+        random.nextBytes(pool);
+
+        List<Object[]> rows = new ArrayList<>(BATCH_SIZE);
+        int count = 0;
+        for (Long userId : userIds) {
+            for (int i = 0; i < documentsPerUser; i++) {
+                int kind = random.nextInt(FILE_EXTENSIONS.length);
+                String filename = UUID.randomUUID() + FILE_EXTENSIONS[kind];
+                // Tailles entre 1/4 et 4 fois la taille moyenne
+                int size = (int) Math.min(pool.length, blobSizeKb * 1024L * (1 + random.nextInt(16)) / 4);
+                Path filePath = uploadPath.resolve(filename);
+                try (OutputStream out = Files.newOutputStream(filePath)) {
+                    out.write(pool, random.nextInt(pool.length - size + 1), size);
+                }
+                LocalDateTime createdAt = randomPastTime(random);
+                rows.add(new Object[] {
+                    "document-" + i + FILE_EXTENSIONS[kind],
+                    "FILE",
+                    FILE_TYPES[kind].name(),
+                    "/api/documents/files/" + filename,
+                    filePath.toString(),
+                    (long) size,
+                    MIME_TYPES[kind],
+                    0L,
+                    Timestamp.valueOf(createdAt),
+                    Timestamp.valueOf(createdAt),
+                    userId
+                });
+                count++;
+                rows = flushIfFull(sql, rows);
+            }
+        }
+        batchInsert(sql, rows);
+        return count;
+    }
+
+    private LocalDateTime randomPastTime(Random random) {
+        return LocalDate.now().minusDays(random.nextInt(Math.max(1, historyDays)))
+            .atTime(7 + random.nextInt(14), random.nextInt(60));
+    }
+
+    private List<Object[]> flushIfFull(String sql, List<Object[]> rows) {
+        if (rows.size() < BATCH_SIZE) {
+            return rows;
+        }
+        batchInsert(sql, rows);
+        return new ArrayList<>(BATCH_SIZE);
+    }
+
+    private void batchInsert(String sql, List<Object[]> rows) {
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(sql, rows);
+        }
+    }
+}
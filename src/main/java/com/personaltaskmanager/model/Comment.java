@@ -1,5 +1,6 @@
 package com.personaltaskmanager.model;
 
+import com.personaltaskmanager.sharding.GlobalId;
 import jakarta.persistence.*;
 import lombok.Data;
 import java.time.LocalDateTime;
@@ -9,7 +10,7 @@ import java.time.LocalDateTime;
 @Table(name = "comments")
 public class Comment {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GlobalId
     private Long id;
 
     @Column(nullable = false, length = 2000)
@@ -2,6 +2,7 @@ package com.personaltaskmanager.model;
 
 import com.personaltaskmanager.enums.DocumentType;
 import com.personaltaskmanager.enums.FileType;
+import com.personaltaskmanager.sharding.GlobalId;
 import jakarta.persistence.*;
 import lombok.Data;
 import java.time.LocalDateTime;
@@ -11,7 +12,7 @@ import java.time.LocalDateTime;
 @Table(name = "documents")
 public class Document {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GlobalId
     private Long id;
 
     @Column(nullable = false)
@@ -43,6 +44,9 @@ public class Document {
     @Column(name = "mime_type")
     private String mimeType;
 
+    @Column(name = "content_version")
+    private Long contentVersion = 0L; // Incrémentée à chaque modification du contenu
+
     @Column(name = "created_at")
     private LocalDateTime createdAt = LocalDateTime.now();
 
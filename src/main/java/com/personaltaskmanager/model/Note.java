@@ -1,6 +1,7 @@
 package com.personaltaskmanager.model;
 
 import com.personaltaskmanager.enums.NoteType;
+import com.personaltaskmanager.sharding.GlobalId;
 import jakarta.persistence.*;
 import lombok.Data;
 import com.fasterxml.jackson.annotation.JsonProperty;
@@ -8,10 +9,13 @@ import java.time.LocalDateTime;
 
 @Data
 @Entity
-@Table(name = "notes")
+@Table(name = "notes", indexes = {
+    @Index(name = "idx_notes_user_pinned_updated", columnList = "user_id, is_pinned, updated_at"),
+    @Index(name = "idx_notes_user_type", columnList = "user_id, note_type")
+})
 public class Note {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GlobalId
     private Long id;
 
     @Column(nullable = false)
@@ -20,7 +24,7 @@ public class Note {
     @Column(length = 5000)
     private String content;
 
-    @Column(name = "is_pinned")
+    @Column(name = "is_pinned", nullable = false)
     @JsonProperty("isPinned")
     private boolean isPinned = false;
 
@@ -31,12 +35,30 @@ public class Note {
     @Column(name = "media_path")
     private String mediaPath;
 
+    // Version du contenu, incrémentée à chaque écriture pour refuser les patchs sur une base obsolète
+    @Column(name = "content_version")
+    private Long contentVersion = 0L;
+
     @Column(name = "created_at")
     private LocalDateTime createdAt = LocalDateTime.now();
 
-    @Column(name = "updated_at")
+    // Clé de la pagination des notes : jamais NULL (V8)
+    @Column(name = "updated_at", nullable = false)
     private LocalDateTime updatedAt = LocalDateTime.now();
 
     @Column(name = "user_id")
     private Long userId;
+
+    // Note reçue en JSON avec "updatedAt": null
+    @PrePersist
+    public void prePersist() {
+        if (this.updatedAt == null) {
+            this.updatedAt = this.createdAt != null ? this.createdAt : LocalDateTime.now();
+        }
+    }
+
+    @PreUpdate
+    public void preUpdate() {
+        this.updatedAt = LocalDateTime.now();
+    }
 }
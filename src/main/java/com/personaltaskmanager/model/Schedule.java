@@ -1,5 +1,6 @@
 package com.personaltaskmanager.model;
 
+import com.personaltaskmanager.sharding.GlobalId;
 import jakarta.persistence.*;
 import lombok.Data;
 import java.time.LocalTime;
@@ -11,7 +12,7 @@ import java.time.LocalDateTime;
 @Table(name = "schedules")
 public class Schedule {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GlobalId
     private Long id;
 
     @Column(nullable = false)
@@ -1,5 +1,6 @@
 package com.personaltaskmanager.model;
 
+import com.personaltaskmanager.sharding.GlobalId;
 import jakarta.persistence.*;
 import lombok.Data;
 import java.time.LocalDate;
@@ -9,9 +10,12 @@ import java.time.LocalDate;
 @Table(name = "statistics")
 public class Statistics {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GlobalId
     private Long id;
 
+    @Column(name = "user_id")
+    private Long userId;
+
     @Column(name = "date", nullable = false)
     private LocalDate date = LocalDate.now();
 
@@ -0,0 +1,31 @@
+package com.personaltaskmanager.model;
+
+import com.personaltaskmanager.sharding.GlobalId;
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Data
+@Entity
+@Table(name = "statistics_backfill_checkpoints")
+public class StatisticsBackfillCheckpoint {
+    @Id
+    @GlobalId
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "partition_start", nullable = false)
+    private LocalDate partitionStart;
+
+    @Column(name = "partition_end", nullable = false)
+    private LocalDate partitionEnd;
+
+    @Column(name = "rows_written")
+    private Integer rowsWritten = 0;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt = LocalDateTime.now();
+}
@@ -3,6 +3,7 @@ package com.personaltaskmanager.model;
 import com.personaltaskmanager.enums.TaskStatus;
 import com.personaltaskmanager.enums.TaskDifficulty;
 import com.personaltaskmanager.enums.TaskPriority;
+import com.personaltaskmanager.sharding.GlobalId;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -17,7 +18,7 @@ import java.util.ArrayList;
 @Table(name = "tasks")
 public class Task {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GlobalId
     private Long id;
 
     @NotBlank(message = "Le titre est obligatoire")
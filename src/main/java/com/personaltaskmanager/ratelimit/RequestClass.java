@@ -0,0 +1,38 @@
+package com.personaltaskmanager.ratelimit;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpMethod;
+
+import java.util.Locale;
+
+/**
+ * Classe d'une requête pour la limitation de débit : chacune a son propre budget par appelant
+ */
+public enum RequestClass {
+    READ,
+    WRITE,
+    UPLOAD;
+
+    /**
+     * Les envois de fichiers se reconnaissent à leur corps (multipart, archive ZIP, flux binaire)
+     */
+    public static RequestClass of(HttpServletRequest request) {
+        String method = request.getMethod();
+        if (HttpMethod.GET.matches(method) || HttpMethod.HEAD.matches(method)) {
+            return READ;
+        }
+        String contentType = request.getContentType();
+        if (contentType != null) {
+            String type = contentType.toLowerCase(Locale.ROOT);
+            if (type.startsWith("multipart/") || type.startsWith("application/zip")
+                    || type.startsWith("application/octet-stream")) {
+                return UPLOAD;
+            }
+        }
+        return WRITE;
+    }
+
+    public String tag() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
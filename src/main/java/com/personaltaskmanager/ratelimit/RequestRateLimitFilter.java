@@ -0,0 +1,193 @@
+package com.personaltaskmanager.ratelimit;
+
+import com.personaltaskmanager.config.RateLimitProperties;
+import com.personaltaskmanager.security.TokenAuthenticationFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Limitation des requêtes /api par appelant, avec un seau de jetons par classe de requête (lecture, écriture,
+ * upload), puis cloisonnement (bulkhead) : chaque classe a un nombre borné de requêtes simultanées, si bien
+ * qu'un afflux d'uploads ne prend pas aux lectures tous les threads de Tomcat.
+ * L'appelant est l'utilisateur d'un jeton vérifié par TokenAuthenticationFilter, à défaut l'adresse IP :
+ * l'en-tête X-User-Id, déclaratif, permettrait sinon d'épuiser le budget d'un autre ou d'en changer à volonté.
+ * Un refus répond 429 avec Retry-After. Les connexions ont leur propre limite (LoginThrottle).
+ */
+public class RequestRateLimitFilter extends OncePerRequestFilter {
+    private static final Logger logger = LoggerFactory.getLogger(RequestRateLimitFilter.class);
+    private static final String EVENT_STREAM_PATH = "/api/events";
+
+    private final Map<RequestClass, TokenBucketLimiter> limiters = new EnumMap<>(RequestClass.class);
+    private final Map<RequestClass, Semaphore> bulkheads = new EnumMap<>(RequestClass.class);
+    private final Map<RequestClass, Counter> rateRejections = new EnumMap<>(RequestClass.class);
+    private final Map<RequestClass, Counter> bulkheadRejections = new EnumMap<>(RequestClass.class);
+
+    public RequestRateLimitFilter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        for (RequestClass requestClass : RequestClass.values()) {
+            RateLimitProperties.Budget budget = budget(properties, requestClass);
+            TokenBucketLimiter limiter = new TokenBucketLimiter(budget.getCapacity(), budget.getRefillPerMinute(),
+                properties.getMaxKeys());
+            limiters.put(requestClass, limiter);
+            Gauge.builder("http.ratelimit.keys", limiter, TokenBucketLimiter::trackedKeys)
+                .description("Appelants suivis par le limiteur de débit")
+                .tag("class", requestClass.tag())
+                .register(meterRegistry);
+            rateRejections.put(requestClass, rejectionCounter(meterRegistry, requestClass, "rate"));
+
+            if (budget.getMaxConcurrent() > 0) {
+                int maxConcurrent = budget.getMaxConcurrent();
+                Semaphore bulkhead = new Semaphore(maxConcurrent);
+                bulkheads.put(requestClass, bulkhead);
+                Gauge.builder("http.bulkhead.in_flight", bulkhead, permits -> maxConcurrent - permits.availablePermits())
+                    .description("Requêtes en cours dans la classe")
+                    .tag("class", requestClass.tag())
+                    .register(meterRegistry);
+                bulkheadRejections.put(requestClass, rejectionCounter(meterRegistry, requestClass, "bulkhead"));
+            }
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return HttpMethod.OPTIONS.matches(request.getMethod())
+            || request.getRequestURI().startsWith(request.getContextPath() + "/api/auth/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestClass requestClass = RequestClass.of(request);
+        String caller = callerKey(request);
+
+        long waitMillis = limiters.get(requestClass).tryAcquire(caller);
+        if (waitMillis > 0) {
+            // debug seulement : un client qui insiste remplirait le journal
+            logger.debug("Débit dépassé pour {} ({}) sur {} {}", caller, requestClass, request.getMethod(), request.getRequestURI());
+            rateRejections.get(requestClass).increment();
+            reject(response, toSeconds(waitMillis), "Trop de requêtes, réessayez dans un instant");
+            return;
+        }
+
+        // Une connexion SSE reste ouverte des heures : elle est limitée en nombre par ChangeStreamHub
+        Semaphore bulkhead = isEventStream(request) ? null : bulkheads.get(requestClass);
+        if (bulkhead == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (!bulkhead.tryAcquire()) {
+            logger.debug("Cloison {} pleine, requête {} {} refusée", requestClass, request.getMethod(), request.getRequestURI());
+            bulkheadRejections.get(requestClass).increment();
+            reject(response, 1, "Serveur occupé, réessayez dans un instant");
+            return;
+        }
+        boolean releasedByListener = false;
+        try {
+            filterChain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                // Réponse streamée : la place est rendue à la fin de l'écriture, pas au retour du contrôleur
+                request.getAsyncContext().addListener(new ReleaseOnCompletion(bulkhead));
+                releasedByListener = true;
+            }
+        } finally {
+            if (!releasedByListener) {
+                bulkhead.release();
+            }
+        }
+    }
+
+    private static String callerKey(HttpServletRequest request) {
+        Object userId = request.getAttribute(TokenAuthenticationFilter.TOKEN_SUBJECT_ATTRIBUTE);
+        return userId != null ? "user:" + userId : "ip:" + request.getRemoteAddr();
+    }
+
+    private static boolean isEventStream(HttpServletRequest request) {
+        return request.getRequestURI().startsWith(request.getContextPath() + EVENT_STREAM_PATH);
+    }
+
+    private static void reject(HttpServletResponse response, long retryAfterSeconds, String message) throws IOException {
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write("{\"status\":429,\"message\":\"" + message + "\"}");
+    }
+
+    private static RateLimitProperties.Budget budget(RateLimitProperties properties, RequestClass requestClass) {
+        switch (requestClass) {
+            case READ:
+                return properties.getRead();
+            case WRITE:
+                return properties.getWrite();
+            default:
+                return properties.getUpload();
+        }
+    }
+
+    private static Counter rejectionCounter(MeterRegistry meterRegistry, RequestClass requestClass, String reason) {
+        return Counter.builder("http.ratelimit.rejected")
+            .description("Requêtes refusées en 429 par la limitation de débit ou la cloison")
+            .tags("class", requestClass.tag(), "reason", reason)
+            .register(meterRegistry);
+    }
+
+    private static long toSeconds(long millis) {
+        return Math.max(1, (millis + 999) / 1000);
+    }
+
+    private static final class ReleaseOnCompletion implements AsyncListener {
+        private final Semaphore bulkhead;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private ReleaseOnCompletion(Semaphore bulkhead) {
+            this.bulkhead = bulkhead;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            // Suivi de onComplete
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // Nouveau cycle asynchrone : l'écouteur doit être réinscrit pour en être prévenu
+            event.getAsyncContext().addListener(this);
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                bulkhead.release();
+            }
+        }
+    }
+}
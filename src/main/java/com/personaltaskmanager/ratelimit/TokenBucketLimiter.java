@@ -0,0 +1,127 @@
+package com.personaltaskmanager.ratelimit;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limiteur à seau de jetons par clé (nom d'utilisateur, adresse IP...), sans verrou.
+ * L'état d'un seau tient dans un seul long (horodatage de la dernière recharge + millièmes de jeton)
+ * mis à jour par compareAndSet. Le nombre de clés suivies est borné : un seau rechargé à pleine capacité
+ * équivaut à un seau neuf et peut être oublié ; s'il n'y en a pas assez, ce sont les seaux inactifs depuis
+ * le plus longtemps, jamais ceux d'un appelant qui vient de consommer.
+ */
+public class TokenBucketLimiter {
+    private static final int TOKEN_BITS = 22;
+    private static final long TOKEN_MASK = (1L << TOKEN_BITS) - 1;
+    private static final long MILLI = 1000;
+
+    private final long capacityMillis;
+    private final double refillPerMilli;
+    private final int maxKeys;
+    private final long epoch = System.currentTimeMillis();
+    private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+
+    /**
+     * @param capacity        rafale maximale autorisée
+     * @param refillPerMinute jetons rendus par minute
+     * @param maxKeys         nombre maximal de clés suivies en mémoire
+     */
+    public TokenBucketLimiter(int capacity, double refillPerMinute, int maxKeys) {
+        if (capacity <= 0 || capacity * MILLI > TOKEN_MASK) {
+            throw new IllegalArgumentException("Capacité du seau invalide: " + capacity);
+        }
+        if (refillPerMinute <= 0) {
+            throw new IllegalArgumentException("Le débit de recharge doit être positif");
+        }
+        this.capacityMillis = capacity * MILLI;
+        // En millièmes de jeton par milliseconde
+        this.refillPerMilli = refillPerMinute * MILLI / 60_000d;
+        this.maxKeys = maxKeys;
+    }
+
+    /**
+     * Consomme un jeton pour la clé. Retourne 0 si la demande passe, sinon le délai en millisecondes
+     * avant qu'un jeton soit disponible.
+     */
+    public long tryAcquire(String key) {
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= maxKeys) {
+                evictIdle();
+            }
+            bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(pack(now(), capacityMillis)));
+        }
+
+        while (true) {
+            long state = bucket.get();
+            long now = now();
+            long tokens = available(state, now);
+            if (tokens < MILLI) {
+                return (long) Math.ceil((MILLI - tokens) / refillPerMilli);
+            }
+            if (bucket.compareAndSet(state, pack(now, tokens - MILLI))) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Rend la clé à son état initial (par exemple après une connexion réussie)
+     */
+    public void reset(String key) {
+        buckets.remove(key);
+    }
+
+    public int trackedKeys() {
+        return buckets.size();
+    }
+
+    private long available(long state, long now) {
+        long last = state >>> TOKEN_BITS;
+        long tokens = state & TOKEN_MASK;
+        long elapsed = Math.max(0, now - last);
+        return Math.min(capacityMillis, tokens + (long) (elapsed * refillPerMilli));
+    }
+
+    // Un seul thread fait le ménage ; les autres continuent sans attendre
+    private void evictIdle() {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long now = now();
+            buckets.values().removeIf(bucket -> available(bucket.get(), now) >= capacityMillis);
+            // Encore plein (beaucoup de clés actives) : on oublie les plus anciennement servies jusqu'à 90 % de la limite
+            int excess = buckets.size() - maxKeys * 9 / 10;
+            if (excess <= 0) {
+                return;
+            }
+            long[] lastUse = buckets.values().stream().mapToLong(bucket -> bucket.get() >>> TOKEN_BITS).sorted().toArray();
+            if (lastUse.length == 0) {
+                return;
+            }
+            long cutoff = lastUse[Math.min(excess, lastUse.length) - 1];
+            Iterator<AtomicLong> iterator = buckets.values().iterator();
+            while (excess > 0 && iterator.hasNext()) {
+                if (iterator.next().get() >>> TOKEN_BITS <= cutoff) {
+                    iterator.remove();
+                    excess--;
+                }
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    private long now() {
+        return System.currentTimeMillis() - epoch;
+    }
+
+    private static long pack(long time, long tokens) {
+        return (time << TOKEN_BITS) | tokens;
+    }
+}
@@ -2,11 +2,19 @@ package com.personaltaskmanager.repository;
 
 import com.personaltaskmanager.model.Comment;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface CommentRepository extends JpaRepository<Comment, Long> {
-    List<Comment> findByTaskIdOrderByCreatedAtDesc(Long taskId);
+    // Requête explicite : la version dérivée joignait tasks et filtrait sur tasks.id, sans passer par
+    // l'index (task_id, created_at) de comments
+    @Query("SELECT c FROM Comment c WHERE c.task.id = :taskId ORDER BY c.createdAt DESC")
+    List<Comment> findByTaskIdOrderByCreatedAtDesc(@Param("taskId") Long taskId);
+
+    List<Comment> findByTaskIdInOrderByIdAsc(Collection<Long> taskIds);
 }
@@ -2,11 +2,21 @@ package com.personaltaskmanager.repository;
 
 import com.personaltaskmanager.model.Document;
 import com.personaltaskmanager.enums.DocumentType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface DocumentRepository extends JpaRepository<Document, Long> {
@@ -16,5 +26,29 @@ public interface DocumentRepository extends JpaRepository<Document, Long> {
     List<Document> findByParentId(Long parentId);
     List<Document> findByUserIdAndType(Long userId, DocumentType type);
     Optional<Document> findByIdAndUserId(Long id, Long userId);
+
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT d FROM Document d WHERE d.userId = :userId")
+    Stream<Document> streamByUserId(@Param("userId") Long userId);
+
+    List<Document> findByUserIdAndIdGreaterThanOrderByIdAsc(Long userId, Long afterId, Pageable pageable);
+
+    @Query("SELECT d.id, d.filePath FROM Document d WHERE d.userId = :userId AND d.id > :afterId " +
+           "AND d.filePath IS NOT NULL ORDER BY d.id")
+    List<Object[]> findFilePathsAfter(@Param("userId") Long userId, @Param("afterId") Long afterId, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE Document d SET d.parentId = :parentId WHERE d.id = :id")
+    int updateParentId(@Param("id") Long id, @Param("parentId") Long parentId);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Document d SET d.content = :content, d.contentVersion = :baseVersion + 1, d.updatedAt = :updatedAt " +
+           "WHERE d.id = :id AND COALESCE(d.contentVersion, 0) = :baseVersion")
+    int updateContentIfVersion(@Param("id") Long id, @Param("content") String content,
+                               @Param("baseVersion") Long baseVersion, @Param("updatedAt") LocalDateTime updatedAt);
 }
 
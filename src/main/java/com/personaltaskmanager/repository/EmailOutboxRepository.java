@@ -0,0 +1,42 @@
+package com.personaltaskmanager.repository;
+
+import com.personaltaskmanager.enums.EmailStatus;
+import com.personaltaskmanager.model.EmailOutbox;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, Long> {
+
+    /**
+     * Emails à réserver pour l'envoi, verrouillés pour la transaction en cours. Le délai -2 correspond à SKIP LOCKED :
+     * plusieurs instances se partagent la file sans s'attendre ni réserver deux fois le même email.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM EmailOutbox e WHERE e.status IN :statuses AND e.nextAttemptAt <= :now ORDER BY e.id")
+    List<EmailOutbox> findDueForUpdate(@Param("statuses") Collection<EmailStatus> statuses,
+                                       @Param("now") LocalDateTime now,
+                                       Pageable pageable);
+
+    long countByStatus(EmailStatus status);
+
+    // Purge des emails terminés (envoyés ou abandonnés) plus anciens que la durée de conservation
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM EmailOutbox e WHERE e.status IN :statuses AND e.createdAt < :before")
+    int deleteByStatusInAndCreatedAtBefore(@Param("statuses") Collection<EmailStatus> statuses,
+                                           @Param("before") LocalDateTime before);
+}
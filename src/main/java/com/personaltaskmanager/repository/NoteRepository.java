@@ -2,10 +2,13 @@ package com.personaltaskmanager.repository;
 
 import com.personaltaskmanager.model.Note;
 import com.personaltaskmanager.enums.NoteType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -14,8 +17,65 @@ public interface NoteRepository extends JpaRepository<Note, Long> {
     List<Note> findByIsPinned(boolean isPinned);
     List<Note> findByType(NoteType type);
     List<Note> findByUserId(Long userId);
+    List<Note> findByUserIdAndIdGreaterThanOrderByIdAsc(Long userId, Long afterId, Pageable pageable);
+
+    // Fichiers audio à joindre à l'export, sans charger les notes
+    @Query("SELECT n.id, n.mediaPath FROM Note n WHERE n.userId = :userId AND n.id > :afterId " +
+           "AND n.mediaPath IS NOT NULL ORDER BY n.id")
+    List<Object[]> findMediaPathsAfter(@Param("userId") Long userId, @Param("afterId") Long afterId, Pageable pageable);
+
+    // Pagination par clé : (updatedAt, id) décroissants à l'intérieur d'un segment épinglé / non épinglé
+    @Query("SELECT n FROM Note n WHERE n.userId = :userId AND n.isPinned = :pinned " +
+           "ORDER BY n.updatedAt DESC, n.id DESC")
+    List<Note> findFirstPage(@Param("userId") Long userId, @Param("pinned") boolean pinned, Pageable pageable);
+
+    @Query("SELECT n FROM Note n WHERE n.userId = :userId AND n.isPinned = :pinned " +
+           "AND (n.updatedAt < :updatedAt OR (n.updatedAt = :updatedAt AND n.id < :id)) " +
+           "ORDER BY n.updatedAt DESC, n.id DESC")
+    List<Note> findPageAfter(@Param("userId") Long userId, @Param("pinned") boolean pinned,
+                             @Param("updatedAt") LocalDateTime updatedAt, @Param("id") Long id, Pageable pageable);
+
+    @Query("SELECT n FROM Note n WHERE n.userId = :userId AND n.type = :type AND n.isPinned = :pinned " +
+           "ORDER BY n.updatedAt DESC, n.id DESC")
+    List<Note> findFirstPageByType(@Param("userId") Long userId, @Param("type") NoteType type,
+                                   @Param("pinned") boolean pinned, Pageable pageable);
+
+    @Query("SELECT n FROM Note n WHERE n.userId = :userId AND n.type = :type AND n.isPinned = :pinned " +
+           "AND (n.updatedAt < :updatedAt OR (n.updatedAt = :updatedAt AND n.id < :id)) " +
+           "ORDER BY n.updatedAt DESC, n.id DESC")
+    List<Note> findPageByTypeAfter(@Param("userId") Long userId, @Param("type") NoteType type,
+                                   @Param("pinned") boolean pinned, @Param("updatedAt") LocalDateTime updatedAt,
+                                   @Param("id") Long id, Pageable pageable);
     
     @Query("SELECT n FROM Note n WHERE n.createdAt BETWEEN :startDate AND :endDate")
     List<Note> findByCreatedAtBetween(@Param("startDate") LocalDateTime startDate, 
                                     @Param("endDate") LocalDateTime endDate);
+
+    // Écriture groupée de l'autosave : seuls les champs modifiés sont mis à jour. Conditionnelle comme
+    // updateContentIfVersion : 0 ligne si la note a changé depuis la version lue à la première frappe de la rafale
+    @Modifying
+    @Transactional
+    @Query("UPDATE Note n SET n.title = COALESCE(:title, n.title), n.content = COALESCE(:content, n.content), " +
+           "n.contentVersion = :baseVersion + 1, n.updatedAt = :updatedAt " +
+           "WHERE n.id = :id AND COALESCE(n.contentVersion, 0) = :baseVersion")
+    int updateTitleAndContentIfVersion(@Param("id") Long id, @Param("title") String title,
+                                       @Param("content") String content, @Param("baseVersion") Long baseVersion,
+                                       @Param("updatedAt") LocalDateTime updatedAt);
+
+    // Écriture conditionnelle : échoue (0 ligne) si le contenu a changé depuis baseVersion
+    @Modifying
+    @Transactional
+    @Query("UPDATE Note n SET n.content = :content, n.contentVersion = :baseVersion + 1, n.updatedAt = :updatedAt " +
+           "WHERE n.id = :id AND COALESCE(n.contentVersion, 0) = :baseVersion")
+    int updateContentIfVersion(@Param("id") Long id, @Param("content") String content,
+                               @Param("baseVersion") Long baseVersion, @Param("updatedAt") LocalDateTime updatedAt);
+
+    @Query("SELECT n.createdAt, n.type FROM Note n WHERE n.createdAt >= :startDate AND n.createdAt < :endDate")
+    List<Object[]> findActivityByCreatedAtBetween(@Param("startDate") LocalDateTime startDate,
+                                                  @Param("endDate") LocalDateTime endDate);
+
+    @Query("SELECT n.createdAt, n.type FROM Note n WHERE n.userId = :userId AND n.createdAt >= :startDate AND n.createdAt < :endDate")
+    List<Object[]> findActivityByUserIdAndCreatedAtBetween(@Param("userId") Long userId,
+                                                           @Param("startDate") LocalDateTime startDate,
+                                                           @Param("endDate") LocalDateTime endDate);
 } 
\ No newline at end of file
@@ -1,6 +1,7 @@
 package com.personaltaskmanager.repository;
 
 import com.personaltaskmanager.model.Schedule;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 import java.time.DayOfWeek;
@@ -12,4 +13,5 @@ public interface ScheduleRepository extends JpaRepository<Schedule, Long> {
     List<Schedule> findByIsWorkSchedule(boolean isWorkSchedule);
     List<Schedule> findByUserId(Long userId);
     List<Schedule> findByDayOfWeekAndUserId(DayOfWeek dayOfWeek, Long userId);
+    List<Schedule> findByUserIdAndIdGreaterThanOrderByIdAsc(Long userId, Long afterId, Pageable pageable);
 } 
\ No newline at end of file
@@ -0,0 +1,13 @@
+package com.personaltaskmanager.repository;
+
+import com.personaltaskmanager.model.StatisticsBackfillCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface StatisticsBackfillCheckpointRepository extends JpaRepository<StatisticsBackfillCheckpoint, Long> {
+    List<StatisticsBackfillCheckpoint> findByPartitionStartBetween(LocalDate startDate, LocalDate endDate);
+    void deleteByPartitionStartBetween(LocalDate startDate, LocalDate endDate);
+}
@@ -1,13 +1,25 @@
 package com.personaltaskmanager.repository;
 
 import com.personaltaskmanager.model.Statistics;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface StatisticsRepository extends JpaRepository<Statistics, Long> {
     List<Statistics> findByDateBetween(LocalDate startDate, LocalDate endDate);
     List<Statistics> findByDate(LocalDate date);
+
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT s FROM Statistics s")
+    Stream<Statistics> streamAll();
 } 
\ No newline at end of file
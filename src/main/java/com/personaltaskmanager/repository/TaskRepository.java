@@ -3,12 +3,18 @@ package com.personaltaskmanager.repository;
 import com.personaltaskmanager.model.Task;
 import com.personaltaskmanager.enums.TaskStatus;
 import com.personaltaskmanager.enums.TaskDifficulty;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface TaskRepository extends JpaRepository<Task, Long> {
@@ -17,9 +23,32 @@ public interface TaskRepository extends JpaRepository<Task, Long> {
     List<Task> findByUserId(Long userId);
     List<Task> findByStatusAndUserId(TaskStatus status, Long userId);
     List<Task> findByDifficultyAndUserId(TaskDifficulty difficulty, Long userId);
+    List<Task> findByUserIdAndStatusNotAndDueDateBetween(Long userId, TaskStatus status, LocalDate startDate, LocalDate endDate);
+
+    // Lecture en flux par lots de 500 lignes, sans instantané pour la détection des modifications
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT t FROM Task t WHERE t.userId = :userId")
+    Stream<Task> streamByUserId(@Param("userId") Long userId);
+
+    // Pagination par clé sur l'ID, pour l'export de l'espace de travail
+    List<Task> findByUserIdAndIdGreaterThanOrderByIdAsc(Long userId, Long afterId, Pageable pageable);
     
     @Query("SELECT t FROM Task t WHERE t.status = :status AND t.createdAt BETWEEN :startDate AND :endDate")
     List<Task> findByStatusAndCreatedAtBetween(@Param("status") TaskStatus status, 
                                              @Param("startDate") LocalDateTime startDate, 
                                              @Param("endDate") LocalDateTime endDate);
+
+    @Query("SELECT t.createdAt, t.difficulty FROM Task t WHERE t.status = :status AND t.createdAt >= :startDate AND t.createdAt < :endDate")
+    List<Object[]> findActivityByStatusAndCreatedAtBetween(@Param("status") TaskStatus status,
+                                                          @Param("startDate") LocalDateTime startDate,
+                                                          @Param("endDate") LocalDateTime endDate);
+
+    @Query("SELECT t.createdAt, t.difficulty FROM Task t WHERE t.userId = :userId AND t.status = :status AND t.createdAt >= :startDate AND t.createdAt < :endDate")
+    List<Object[]> findActivityByUserIdAndStatusAndCreatedAtBetween(@Param("userId") Long userId,
+                                                                   @Param("status") TaskStatus status,
+                                                                   @Param("startDate") LocalDateTime startDate,
+                                                                   @Param("endDate") LocalDateTime endDate);
 } 
\ No newline at end of file
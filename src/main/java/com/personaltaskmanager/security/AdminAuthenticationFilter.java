@@ -0,0 +1,77 @@
+package com.personaltaskmanager.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Protège les endpoints d'administration (/api/admin/**) : backfill des statistiques, file d'envoi des emails,
+ * déplacement d'utilisateurs entre shards. L'appelant doit présenter la clé app.admin.api-key dans l'en-tête
+ * X-Admin-Key ; sans clé configurée, ces endpoints sont fermés.
+ */
+@Component
+@Order(AdminAuthenticationFilter.ORDER)
+public class AdminAuthenticationFilter extends OncePerRequestFilter {
+    // Avant la résolution de l'utilisateur : un jeton utilisateur n'ouvre jamais l'administration
+    public static final int ORDER = TokenAuthenticationFilter.ORDER - 10;
+    public static final String HEADER = "X-Admin-Key";
+    private static final Logger logger = LoggerFactory.getLogger(AdminAuthenticationFilter.class);
+    private static final String ADMIN_PATH = "/api/admin/";
+
+    private final byte[] apiKey;
+
+    public AdminAuthenticationFilter(@Value("${app.admin.api-key:}") String apiKey) {
+        this.apiKey = apiKey.isBlank() ? null : apiKey.getBytes(StandardCharsets.UTF_8);
+        if (this.apiKey == null) {
+            logger.info("app.admin.api-key non défini : endpoints /api/admin désactivés");
+        } else if (this.apiKey.length < 32) {
+            throw new IllegalStateException("app.admin.api-key doit contenir au moins 32 caractères");
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return HttpMethod.OPTIONS.matches(request.getMethod())
+            || !request.getRequestURI().startsWith(request.getContextPath() + ADMIN_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (apiKey == null) {
+            reject(response, HttpStatus.FORBIDDEN, "Administration désactivée sur cette instance");
+            return;
+        }
+        String presented = request.getHeader(HEADER);
+        // Comparaison en temps constant, comme pour la signature des jetons
+        if (presented == null || !MessageDigest.isEqual(apiKey, presented.getBytes(StandardCharsets.UTF_8))) {
+            logger.warn("Accès administrateur refusé sur {} {} depuis {}",
+                request.getMethod(), request.getRequestURI(), request.getRemoteAddr());
+            reject(response, HttpStatus.UNAUTHORIZED, "Clé d'administration invalide");
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private static void reject(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write("{\"status\":" + status.value() + ",\"message\":\"" + message + "\"}");
+    }
+}
@@ -0,0 +1,57 @@
+package com.personaltaskmanager.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+
+/**
+ * Choix du coût BCrypt d'après une mesure sur la machine courante.
+ * Chaque point de coût double le temps de hachage : on mesure au coût minimal, on extrapole,
+ * puis on vérifie le coût retenu par une seconde mesure.
+ */
+public final class BCryptCalibration {
+    private static final Logger logger = LoggerFactory.getLogger(BCryptCalibration.class);
+    private static final String SAMPLE_PASSWORD = "calibration-Sample-42";
+    private static final int RUNS = 3;
+
+    private BCryptCalibration() {
+    }
+
+    /**
+     * Coût le plus élevé dans [minStrength, maxStrength] dont le hachage reste sous targetMillis
+     */
+    public static int calibrate(long targetMillis, int minStrength, int maxStrength) {
+        long start = System.nanoTime();
+        // Première passe pour charger les classes et laisser le JIT compiler la boucle de Blowfish
+        measure(minStrength);
+        double baseMillis = measure(minStrength);
+
+        int strength = minStrength;
+        while (strength < maxStrength && baseMillis * Math.pow(2, strength + 1 - minStrength) <= targetMillis) {
+            strength++;
+        }
+        double measured = strength == minStrength ? baseMillis : measure(strength);
+        // L'extrapolation peut être optimiste (turbo, machine chargée) : on redescend si la mesure dépasse la cible
+        while (strength > minStrength && measured > targetMillis) {
+            strength--;
+            measured = measure(strength);
+        }
+
+        // Durée totale relevée par StartupBenchmark : ces hachages s'ajoutent au démarrage
+        logger.info("Calibrage BCrypt : coût {} ({} ms mesurées, cible {} ms) en {} ms",
+            strength, Math.round(measured), targetMillis, (System.nanoTime() - start) / 1_000_000);
+        return strength;
+    }
+
+    // Meilleur temps sur quelques essais, en millisecondes
+    private static double measure(int strength) {
+        String salt = BCrypt.gensalt(strength);
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            BCrypt.hashpw(SAMPLE_PASSWORD, salt);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best / 1_000_000d;
+    }
+}
@@ -0,0 +1,92 @@
+package com.personaltaskmanager.security;
+
+import com.personaltaskmanager.sharding.ShardContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Jetons d'abonnement au flux iCalendar (table calendar_feed_tokens) : sans expiration, car un client calendrier
+ * garde la même URL pendant des mois, mais limités au flux et révocables. Un seul jeton par utilisateur ;
+ * en émettre un nouveau invalide le précédent.
+ *
+ * Format « userId.secret » : l'ID désigne le shard où lire l'empreinte avant même que l'utilisateur soit connu.
+ */
+@Component
+public class CalendarFeedTokens {
+    private static final int SECRET_BYTES = 32;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final SecureRandom random = new SecureRandom();
+
+    public CalendarFeedTokens(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /**
+     * Nouveau jeton de l'utilisateur, qui remplace le précédent. Seul l'appelant voit le secret en clair.
+     */
+    public String issue(Long userId) {
+        byte[] secret = new byte[SECRET_BYTES];
+        random.nextBytes(secret);
+        String token = userId + "." + Base64.getUrlEncoder().withoutPadding().encodeToString(secret);
+        String hash = hash(token);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        int inserted = jdbcTemplate.update("INSERT INTO calendar_feed_tokens (user_id, token_hash, created_at) "
+            + "VALUES (?, ?, ?) ON CONFLICT DO NOTHING", userId, hash, now);
+        if (inserted == 0) {
+            jdbcTemplate.update("UPDATE calendar_feed_tokens SET token_hash = ?, created_at = ? WHERE user_id = ?",
+                hash, now, userId);
+        }
+        return token;
+    }
+
+    public void revoke(Long userId) {
+        jdbcTemplate.update("DELETE FROM calendar_feed_tokens WHERE user_id = ?", userId);
+    }
+
+    /**
+     * ID de l'utilisateur du jeton, ou null s'il est mal formé, remplacé ou révoqué
+     */
+    public Long verify(String token) {
+        int dot = token.indexOf('.');
+        if (dot <= 0) {
+            return null;
+        }
+        Long userId;
+        try {
+            userId = Long.valueOf(token.substring(0, dot));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        // Pas encore d'utilisateur dans la requête : le shard est désigné explicitement
+        List<String> hashes = ShardContext.callAsUser(userId, () -> jdbcTemplate.queryForList(
+            "SELECT token_hash FROM calendar_feed_tokens WHERE user_id = ?", String.class, userId));
+        if (hashes.isEmpty()) {
+            return null;
+        }
+        // Comparaison en temps constant des empreintes
+        boolean matches = MessageDigest.isEqual(hashes.get(0).getBytes(StandardCharsets.US_ASCII),
+            hash(token).getBytes(StandardCharsets.US_ASCII));
+        return matches ? userId : null;
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.personaltaskmanager.security;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * Accès à l'utilisateur authentifié de la requête en cours, déposé par {@link TokenAuthenticationFilter}.
+ *
+ * Disponible aussi dans la partie asynchrone des réponses streamées (StreamingResponseBody) : Spring MVC y
+ * rattache la requête au thread de l'exécuteur le temps de l'écriture (intercepteur de FrameworkServlet).
+ * Les autres threads (tâches planifiées, exécuteurs maison) ne la voient pas.
+ */
+public final class CurrentUser {
+    public static final String ATTRIBUTE = CurrentUser.class.getName() + ".userId";
+
+    private CurrentUser() {
+    }
+
+    /**
+     * ID de l'utilisateur de la requête en cours, ou null hors requête ou sans authentification
+     */
+    public static Long getUserId() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return null;
+        }
+        return (Long) attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+    }
+}
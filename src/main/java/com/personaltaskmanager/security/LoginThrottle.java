@@ -0,0 +1,69 @@
+package com.personaltaskmanager.security;
+
+import com.personaltaskmanager.exception.TooManyRequestsException;
+import com.personaltaskmanager.ratelimit.TokenBucketLimiter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+
+/**
+ * Limitation des tentatives d'authentification par compte et par adresse IP, vérifiée avant tout hachage
+ * pour que la force brute soit écartée sans coût CPU.
+ */
+@Component
+public class LoginThrottle {
+    private static final Logger logger = LoggerFactory.getLogger(LoginThrottle.class);
+
+    private final TokenBucketLimiter accountLimiter;
+    private final TokenBucketLimiter ipLimiter;
+
+    public LoginThrottle(@Value("${app.auth.throttle.account.capacity:5}") int accountCapacity,
+                         @Value("${app.auth.throttle.account.refill-per-minute:2}") double accountRefillPerMinute,
+                         @Value("${app.auth.throttle.ip.capacity:20}") int ipCapacity,
+                         @Value("${app.auth.throttle.ip.refill-per-minute:10}") double ipRefillPerMinute,
+                         @Value("${app.auth.throttle.max-keys:100000}") int maxKeys) {
+        this.accountLimiter = new TokenBucketLimiter(accountCapacity, accountRefillPerMinute, maxKeys);
+        this.ipLimiter = new TokenBucketLimiter(ipCapacity, ipRefillPerMinute, maxKeys);
+    }
+
+    public void checkLogin(String username, String clientIp) {
+        check("login:" + normalize(username), clientIp);
+    }
+
+    public void loginSucceeded(String username) {
+        accountLimiter.reset("login:" + normalize(username));
+    }
+
+    /**
+     * Même limite pour la vérification des codes de réinitialisation (6 chiffres, donc devinables sans limite)
+     */
+    public void checkResetCode(String email, String clientIp) {
+        check("reset:" + normalize(email), clientIp);
+    }
+
+    private void check(String accountKey, String clientIp) {
+        if (clientIp != null) {
+            long waitMillis = ipLimiter.tryAcquire(clientIp);
+            if (waitMillis > 0) {
+                logger.warn("Trop de tentatives depuis {}", clientIp);
+                throw new TooManyRequestsException("Trop de tentatives, réessayez plus tard", toSeconds(waitMillis));
+            }
+        }
+        long waitMillis = accountLimiter.tryAcquire(accountKey);
+        if (waitMillis > 0) {
+            logger.warn("Trop de tentatives pour {}", accountKey);
+            throw new TooManyRequestsException("Trop de tentatives, réessayez plus tard", toSeconds(waitMillis));
+        }
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static long toSeconds(long millis) {
+        return Math.max(1, (millis + 999) / 1000);
+    }
+}
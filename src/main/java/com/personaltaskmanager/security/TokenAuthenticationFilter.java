@@ -0,0 +1,146 @@
+package com.personaltaskmanager.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Résout l'utilisateur de chaque requête à partir du jeton « Authorization: Bearer ... »
+ * (ou du paramètre access_token sur le flux d'événements, EventSource ne pouvant pas envoyer d'en-tête)
+ * et le dépose dans les attributs de la requête. Le flux iCalendar accepte à la place un jeton d'abonnement
+ * (paramètre token, voir {@link CalendarFeedTokens}) : l'URL reste des mois dans le client calendrier,
+ * elle ne doit pas porter un jeton qui ouvre toute l'API. Un jeton invalide est refusé en 401 ; une requête sans jeton
+ * continue anonyme et les contrôleurs répondent comme avant.
+ * L'ancien en-tête X-User-Id n'est plus accepté que si app.auth.allow-user-id-header est activé explicitement
+ * (frontend qui n'envoie pas encore de jeton) : n'importe quel client pourrait sinon se faire passer pour un autre.
+ */
+@Component
+@Order(TokenAuthenticationFilter.ORDER)
+public class TokenAuthenticationFilter extends OncePerRequestFilter {
+    // Ordre explicite pour que les filtres qui dépendent de l'utilisateur (RequestRateLimitFilter) passent après
+    public static final int ORDER = Ordered.LOWEST_PRECEDENCE - 100;
+    /**
+     * Utilisateur prouvé par un jeton valide, jamais par X-User-Id : à préférer à CurrentUser.ATTRIBUTE
+     * quand la valeur sert de clé de sécurité (limitation de débit)
+     */
+    public static final String TOKEN_SUBJECT_ATTRIBUTE = TokenAuthenticationFilter.class.getName() + ".subject";
+    private static final Logger logger = LoggerFactory.getLogger(TokenAuthenticationFilter.class);
+    private static final String BEARER_PREFIX = "Bearer ";
+    private static final String EVENTS_PATH = "/api/events";
+    private static final String CALENDAR_FEED_PATH = "/api/calendar/feed.ics";
+
+    private final TokenService tokenService;
+    private final CalendarFeedTokens calendarFeedTokens;
+    private final boolean allowUserIdHeader;
+
+    public TokenAuthenticationFilter(TokenService tokenService,
+                                     CalendarFeedTokens calendarFeedTokens,
+                                     @Value("${app.auth.allow-user-id-header:false}") boolean allowUserIdHeader) {
+        this.tokenService = tokenService;
+        this.calendarFeedTokens = calendarFeedTokens;
+        this.allowUserIdHeader = allowUserIdHeader;
+    }
+
+    // Un ancien jeton envoyé à la connexion ne doit pas empêcher d'en obtenir un nouveau
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith(request.getContextPath() + "/api/auth/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (HttpMethod.OPTIONS.matches(request.getMethod())) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String feedToken = extractFeedToken(request);
+        if (feedToken != null) {
+            Long userId = calendarFeedTokens.verify(feedToken);
+            if (userId == null) {
+                logger.warn("Jeton d'abonnement invalide ou révoqué sur {}", request.getRequestURI());
+                reject(response);
+                return;
+            }
+            request.setAttribute(CurrentUser.ATTRIBUTE, userId);
+            request.setAttribute(TOKEN_SUBJECT_ATTRIBUTE, userId);
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String token = extractToken(request);
+        if (token != null) {
+            Long userId = tokenService.verify(token);
+            if (userId == null) {
+                logger.warn("Jeton invalide ou expiré sur {} {}", request.getMethod(), request.getRequestURI());
+                reject(response);
+                return;
+            }
+            request.setAttribute(CurrentUser.ATTRIBUTE, userId);
+            request.setAttribute(TOKEN_SUBJECT_ATTRIBUTE, userId);
+        } else if (allowUserIdHeader) {
+            Long userId = parseUserIdHeader(request.getHeader("X-User-Id"));
+            if (userId != null) {
+                request.setAttribute(CurrentUser.ATTRIBUTE, userId);
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private static String extractToken(HttpServletRequest request) {
+        String authorization = request.getHeader("Authorization");
+        if (authorization != null && authorization.regionMatches(true, 0, BEARER_PREFIX, 0, BEARER_PREFIX.length())) {
+            String token = authorization.substring(BEARER_PREFIX.length()).trim();
+            return token.isEmpty() ? null : token;
+        }
+        // Paramètre limité au flux d'événements : une URL finit dans les journaux et l'historique du navigateur
+        if (!HttpMethod.GET.matches(request.getMethod())
+                || !request.getRequestURI().equals(request.getContextPath() + EVENTS_PATH)) {
+            return null;
+        }
+        String parameter = request.getParameter("access_token");
+        return parameter != null && !parameter.isEmpty() ? parameter : null;
+    }
+
+    private static String extractFeedToken(HttpServletRequest request) {
+        if (!HttpMethod.GET.matches(request.getMethod())
+                || !request.getRequestURI().equals(request.getContextPath() + CALENDAR_FEED_PATH)) {
+            return null;
+        }
+        String parameter = request.getParameter("token");
+        return parameter != null && !parameter.isEmpty() ? parameter : null;
+    }
+
+    private static Long parseUserIdHeader(String header) {
+        if (header == null || header.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.valueOf(header.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static void reject(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.UNAUTHORIZED.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write("{\"status\":401,\"message\":\"Jeton d'accès invalide ou expiré\"}");
+    }
+}
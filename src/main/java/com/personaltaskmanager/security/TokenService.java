@@ -0,0 +1,197 @@
+package com.personaltaskmanager.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Jetons d'accès signés HMAC-SHA256 au format JWT (header.payload.signature en base64url).
+ * La vérification ne touche pas la base : signature recalculée avec la clé jwt.secret et contrôle de l'expiration.
+ * Les jetons déjà vérifiés sont gardés dans un petit cache borné pour éviter de recalculer le HMAC à chaque requête.
+ */
+@Service
+public class TokenService {
+    private static final Logger logger = LoggerFactory.getLogger(TokenService.class);
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final String HEADER = base64Url("{\"alg\":\"HS256\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.UTF_8));
+    // Valeurs par défaut livrées avec le dépôt (application.properties, exemple de profil dev) : publiques
+    private static final String[] DEFAULT_SECRET_PREFIXES = {"change-this-secret", "your-secret-key-change-in-production"};
+
+    private final SecretKeySpec key;
+    private final long expirationMillis;
+    private final int cacheSize;
+    private final Map<String, VerifiedToken> verified = new ConcurrentHashMap<>();
+    // Mac n'est pas thread-safe : une instance par thread, initialisée une seule fois
+    private final ThreadLocal<Mac> macs;
+
+    public TokenService(@Value("${jwt.secret}") String secret,
+                        @Value("${jwt.expiration:86400000}") long expirationMillis,
+                        @Value("${app.auth.token-cache-size:10000}") int cacheSize,
+                        @Value("${app.auth.allow-default-jwt-secret:false}") boolean allowDefaultSecret) {
+        if (isDefaultSecret(secret)) {
+            // N'importe qui pourrait signer un jeton pour n'importe quel utilisateur
+            if (!allowDefaultSecret) {
+                throw new IllegalStateException("jwt.secret a sa valeur par défaut, connue de tous : définir JWT_SECRET "
+                    + "(app.auth.allow-default-jwt-secret=true uniquement pour un poste de développement ou les tests)");
+            }
+            logger.warn("jwt.secret utilise la valeur par défaut (app.auth.allow-default-jwt-secret) : jamais en production");
+        }
+        byte[] secretBytes = secret.getBytes(StandardCharsets.UTF_8);
+        if (secretBytes.length < 32) {
+            throw new IllegalStateException("jwt.secret doit contenir au moins 32 octets (256 bits)");
+        }
+        this.key = new SecretKeySpec(secretBytes, ALGORITHM);
+        this.expirationMillis = expirationMillis;
+        this.cacheSize = cacheSize;
+        this.macs = ThreadLocal.withInitial(this::newMac);
+    }
+
+    public String issue(Long userId) {
+        long issuedAt = System.currentTimeMillis() / 1000;
+        long expiresAt = issuedAt + expirationMillis / 1000;
+        String payload = base64Url(("{\"sub\":\"" + userId + "\",\"iat\":" + issuedAt + ",\"exp\":" + expiresAt + "}")
+            .getBytes(StandardCharsets.UTF_8));
+        String signingInput = HEADER + "." + payload;
+        return signingInput + "." + base64Url(sign(signingInput));
+    }
+
+    public long getExpirationMillis() {
+        return expirationMillis;
+    }
+
+    /**
+     * ID de l'utilisateur porteur du jeton, ou null si le jeton est mal formé, falsifié ou expiré
+     */
+    public Long verify(String token) {
+        long now = System.currentTimeMillis() / 1000;
+        VerifiedToken cached = verified.get(token);
+        if (cached != null) {
+            if (cached.expiresAt > now) {
+                return cached.userId;
+            }
+            verified.remove(token);
+            return null;
+        }
+
+        int firstDot = token.indexOf('.');
+        int lastDot = token.lastIndexOf('.');
+        if (firstDot <= 0 || lastDot == firstDot || !HEADER.equals(token.substring(0, firstDot))) {
+            return null;
+        }
+        byte[] signature;
+        byte[] payload;
+        try {
+            signature = Base64.getUrlDecoder().decode(token.substring(lastDot + 1));
+            payload = Base64.getUrlDecoder().decode(token.substring(firstDot + 1, lastDot));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        // Comparaison en temps constant pour ne rien révéler de la signature attendue
+        if (!MessageDigest.isEqual(sign(token.substring(0, lastDot)), signature)) {
+            return null;
+        }
+
+        String json = new String(payload, StandardCharsets.UTF_8);
+        String subject = stringClaim(json, "sub");
+        Long expiresAt = numberClaim(json, "exp");
+        if (subject == null || expiresAt == null || expiresAt <= now) {
+            return null;
+        }
+        Long userId;
+        try {
+            userId = Long.valueOf(subject);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        remember(token, new VerifiedToken(userId, expiresAt));
+        return userId;
+    }
+
+    private void remember(String token, VerifiedToken entry) {
+        if (verified.size() >= cacheSize) {
+            // Cache plein : on libère un quart des entrées, en commençant par les expirées
+            long now = System.currentTimeMillis() / 1000;
+            verified.values().removeIf(cached -> cached.expiresAt <= now);
+            Iterator<String> keys = verified.keySet().iterator();
+            for (int i = verified.size() - cacheSize * 3 / 4; i > 0 && keys.hasNext(); i--) {
+                keys.next();
+                keys.remove();
+            }
+        }
+        verified.put(token, entry);
+    }
+
+    private byte[] sign(String signingInput) {
+        return macs.get().doFinal(signingInput.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 indisponible", e);
+        }
+    }
+
+    private static boolean isDefaultSecret(String secret) {
+        for (String prefix : DEFAULT_SECRET_PREFIXES) {
+            if (secret.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String base64Url(byte[] bytes) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    // Le payload est produit par issue() : une lecture ciblée des deux champs suffit, sans bibliothèque JSON
+    private static String stringClaim(String json, String name) {
+        String marker = "\"" + name + "\":\"";
+        int start = json.indexOf(marker);
+        if (start < 0) {
+            return null;
+        }
+        start += marker.length();
+        int end = json.indexOf('"', start);
+        return end < 0 ? null : json.substring(start, end);
+    }
+
+    private static Long numberClaim(String json, String name) {
+        String marker = "\"" + name + "\":";
+        int start = json.indexOf(marker);
+        if (start < 0) {
+            return null;
+        }
+        start += marker.length();
+        int end = start;
+        while (end < json.length() && Character.isDigit(json.charAt(end))) {
+            end++;
+        }
+        return end == start ? null : Long.valueOf(json.substring(start, end));
+    }
+
+    private static final class VerifiedToken {
+        private final Long userId;
+        private final long expiresAt;
+
+        private VerifiedToken(Long userId, long expiresAt) {
+            this.userId = userId;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
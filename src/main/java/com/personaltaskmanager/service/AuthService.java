@@ -1,15 +1,20 @@
 package com.personaltaskmanager.service;
 
+import com.personaltaskmanager.exception.TooManyRequestsException;
 import com.personaltaskmanager.model.User;
 import com.personaltaskmanager.repository.UserRepository;
+import com.personaltaskmanager.security.LoginThrottle;
+import com.personaltaskmanager.security.PasswordHashingExecutor;
+import com.personaltaskmanager.security.TokenService;
+import com.personaltaskmanager.sharding.ShardDirectory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.Optional;
 import java.util.Random;
-import java.util.UUID;
 
 @Service
 public class AuthService {
@@ -18,27 +23,56 @@ public class AuthService {
     private UserRepository userRepository;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashingExecutor passwordHashing;
+
+    @Autowired
+    private LoginThrottle loginThrottle;
 
     @Autowired
     private EmailService emailService;
 
+    @Autowired
+    private TokenService tokenService;
+
+    @Autowired
+    private UserIdentityIndex identityIndex;
+
+    @Autowired
+    private LastLoginRecorder lastLoginRecorder;
+
+    // Présent seulement avec app.sharding.enabled
+    @Autowired(required = false)
+    private ShardDirectory shardDirectory;
+
     public User register(User user) {
-        if (userRepository.existsByUsername(user.getUsername())) {
-            throw new IllegalArgumentException("Ce nom d'utilisateur est déjà utilisé");
-        }
-        
-        if (userRepository.existsByEmail(user.getEmail())) {
-            throw new IllegalArgumentException("Cet email est déjà utilisé");
-        }
+        checkIdentityAvailable(user.getUsername(), user.getEmail());
 
-        user.setPassword(passwordEncoder.encode(user.getPassword()));
+        user.setPassword(passwordHashing.encode(user.getPassword()));
         user.setCreatedAt(LocalDateTime.now());
-        
-        return userRepository.save(user);
+
+        User saved;
+        try {
+            saved = userRepository.save(user);
+        } catch (DataIntegrityViolationException e) {
+            // Compte créé entre-temps (autre requête ou autre instance) : la contrainte d'unicité tranche.
+            // Le filtre de Bloom de cette instance ne connaît pas encore ce compte, la base est interrogée directement.
+            if (userRepository.existsByUsername(user.getUsername())) {
+                throw new IllegalArgumentException("Ce nom d'utilisateur est déjà utilisé");
+            }
+            if (userRepository.existsByEmail(user.getEmail())) {
+                throw new IllegalArgumentException("Cet email est déjà utilisé");
+            }
+            throw e;
+        }
+        identityIndex.add(saved.getUsername(), saved.getEmail());
+        if (shardDirectory != null) {
+            shardDirectory.assign(saved.getId());
+        }
+        return saved;
     }
 
-    public User authenticate(String username, String password) {
+    public User authenticate(String username, String password, String clientIp) {
+        loginThrottle.checkLogin(username, clientIp);
         Optional<User> userOpt = userRepository.findByUsername(username);
         
         if (userOpt.isEmpty()) {
@@ -47,20 +81,30 @@ public class AuthService {
 
         User user = userOpt.get();
         
-        if (!passwordEncoder.matches(password, user.getPassword())) {
+        if (!passwordHashing.matches(password, user.getPassword())) {
             throw new IllegalArgumentException("Identifiants incorrects");
         }
+        loginThrottle.loginSucceeded(username);
+        rehashIfOutdated(user, password);
 
         user.setLastLogin(LocalDateTime.now());
-        userRepository.save(user);
+        lastLoginRecorder.record(user.getId(), user.getLastLogin());
 
         return user;
     }
 
     public String generateToken(User user) {
-        return UUID.randomUUID().toString();
+        return tokenService.issue(user.getId());
+    }
+
+    public long getTokenExpirationMillis() {
+        return tokenService.getExpirationMillis();
     }
 
+    /**
+     * Le code et l'email à envoyer sont enregistrés dans la même transaction : pas de code sans email, ni l'inverse
+     */
+    @Transactional
     public void requestPasswordReset(String email) {
         Optional<User> userOpt = userRepository.findByEmail(email);
         
@@ -79,11 +123,12 @@ public class AuthService {
         user.setResetCodeExpiry(expiryTime);
         userRepository.save(user);
         
-        // Envoyer l'email
+        // Mettre l'email en file d'envoi
         emailService.sendResetCode(user.getEmail(), resetCode);
     }
 
-    public void resetPassword(String email, String resetCode, String newPassword) {
+    public void resetPassword(String email, String resetCode, String newPassword, String clientIp) {
+        loginThrottle.checkResetCode(email, clientIp);
         Optional<User> userOpt = userRepository.findByEmail(email);
         
         if (userOpt.isEmpty()) {
@@ -103,13 +148,14 @@ public class AuthService {
         }
         
         // Réinitialiser le mot de passe
-        user.setPassword(passwordEncoder.encode(newPassword));
+        user.setPassword(passwordHashing.encode(newPassword));
         user.setResetCode(null);
         user.setResetCodeExpiry(null);
         userRepository.save(user);
     }
 
-    public boolean verifyResetCode(String email, String resetCode) {
+    public boolean verifyResetCode(String email, String resetCode, String clientIp) {
+        loginThrottle.checkResetCode(email, clientIp);
         Optional<User> userOpt = userRepository.findByEmail(email);
         
         if (userOpt.isEmpty()) {
@@ -131,6 +177,33 @@ public class AuthService {
         return true;
     }
 
+    /**
+     * Re-hache au coût actuel un mot de passe stocké avec un coût dépassé (le mot de passe en clair
+     * n'est disponible qu'à la connexion). Si le pool de hachage est saturé, ce sera pour la prochaine fois.
+     */
+    private void rehashIfOutdated(User user, String password) {
+        if (!passwordHashing.needsRehash(user.getPassword())) {
+            return;
+        }
+        try {
+            String rehashed = passwordHashing.encode(password);
+            userRepository.updatePassword(user.getId(), rehashed);
+            user.setPassword(rehashed);
+        } catch (TooManyRequestsException e) {
+            // l'ancien hachage reste valide
+        }
+    }
+
+    private void checkIdentityAvailable(String username, String email) {
+        if (identityIndex.isUsernameTaken(username)) {
+            throw new IllegalArgumentException("Ce nom d'utilisateur est déjà utilisé");
+        }
+
+        if (identityIndex.isEmailTaken(email)) {
+            throw new IllegalArgumentException("Cet email est déjà utilisé");
+        }
+    }
+
     private String generateResetCode() {
         Random random = new Random();
         int code = 100000 + random.nextInt(900000); // Code entre 100000 et 999999
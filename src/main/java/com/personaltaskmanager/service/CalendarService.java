@@ -0,0 +1,196 @@
+package com.personaltaskmanager.service;
+
+import com.personaltaskmanager.dto.CalendarOccurrence;
+import com.personaltaskmanager.enums.TaskStatus;
+import com.personaltaskmanager.model.Schedule;
+import com.personaltaskmanager.model.Task;
+import com.personaltaskmanager.repository.ScheduleRepository;
+import com.personaltaskmanager.repository.TaskRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Vue calendrier des créneaux hebdomadaires et des échéances de tâches :
+ * expansion en occurrences sur une plage de dates, et flux iCalendar pour les clients abonnés.
+ */
+@Service
+public class CalendarService {
+    private static final int MAX_RANGE_DAYS = 366;
+
+    private static final String SCHEDULES_SQL =
+        "SELECT id, day_of_week, start_time, end_time, title, description, created_at, updated_at " +
+        "FROM schedules WHERE user_id = ? ORDER BY id";
+
+    private static final String TASKS_SQL =
+        "SELECT id, title, description, priority, due_date, updated_at " +
+        "FROM tasks WHERE user_id = ? AND due_date IS NOT NULL AND status <> 'COMPLETED' ORDER BY id";
+
+    // Empreinte du flux : nombre de lignes, dernière modification et somme des ID couvrent ajout, édition et suppression
+    private static final String VERSION_SQL =
+        "SELECT COUNT(*), MAX(updated_at), COALESCE(SUM(id), 0) FROM schedules WHERE user_id = ? " +
+        "UNION ALL " +
+        "SELECT COUNT(*), MAX(updated_at), COALESCE(SUM(id), 0) FROM tasks WHERE user_id = ? AND due_date IS NOT NULL AND status <> 'COMPLETED'";
+
+    private final ScheduleRepository scheduleRepository;
+    private final TaskRepository taskRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public CalendarService(ScheduleRepository scheduleRepository,
+                           TaskRepository taskRepository,
+                           DataSource dataSource,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${app.calendar.fetch-size:500}") int fetchSize) {
+        this.scheduleRepository = scheduleRepository;
+        this.taskRepository = taskRepository;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        // Le pilote PostgreSQL ne lit par curseur (fetch size) qu'à l'intérieur d'une transaction
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Occurrences des créneaux et échéances des tâches non terminées entre deux dates incluses, triées par début
+     */
+    public List<CalendarOccurrence> getOccurrences(Long userId, LocalDate startDate, LocalDate endDate) {
+        if (endDate.isBefore(startDate)) {
+            throw new IllegalArgumentException("La date de fin doit être postérieure à la date de début");
+        }
+        if (ChronoUnit.DAYS.between(startDate, endDate) >= MAX_RANGE_DAYS) {
+            throw new IllegalArgumentException("La plage demandée ne peut pas dépasser " + MAX_RANGE_DAYS + " jours");
+        }
+
+        List<CalendarOccurrence> occurrences = new ArrayList<>();
+        for (Schedule schedule : scheduleRepository.findByUserId(userId)) {
+            LocalDate date = startDate.with(TemporalAdjusters.nextOrSame(schedule.getDayOfWeek()));
+            for (; !date.isAfter(endDate); date = date.plusWeeks(1)) {
+                occurrences.add(new CalendarOccurrence(
+                    "SCHEDULE",
+                    schedule.getId(),
+                    schedule.getTitle(),
+                    date.atTime(schedule.getStartTime()),
+                    endOf(date, schedule.getEndTime()),
+                    false));
+            }
+        }
+        for (Task task : taskRepository.findByUserIdAndStatusNotAndDueDateBetween(
+                userId, TaskStatus.COMPLETED, startDate, endDate)) {
+            occurrences.add(new CalendarOccurrence(
+                "TASK",
+                task.getId(),
+                task.getTitle(),
+                task.getDueDate().atStartOfDay(),
+                task.getDueDate().plusDays(1).atStartOfDay(),
+                true));
+        }
+        occurrences.sort(Comparator.comparing(CalendarOccurrence::getStart));
+        return occurrences;
+    }
+
+    /**
+     * ETag faible du flux iCalendar : change dès qu'un créneau ou une échéance est ajouté, modifié ou supprimé
+     */
+    public String getCalendarVersion(Long userId) {
+        StringBuilder version = new StringBuilder();
+        jdbcTemplate.query(VERSION_SQL, (RowCallbackHandler) rs -> {
+            Timestamp lastUpdate = rs.getTimestamp(2);
+            version.append(rs.getLong(1)).append('-')
+                .append(lastUpdate != null ? lastUpdate.getTime() : 0).append('-')
+                .append(rs.getLong(3)).append(';');
+        }, userId, userId);
+        return "W/\"" + Integer.toHexString(version.toString().hashCode()) + "\"";
+    }
+
+    /**
+     * Écrit le calendrier de l'utilisateur au format iCalendar au fil de la lecture des lignes.
+     * Les créneaux deviennent des événements récurrents (RRULE hebdomadaire) que le client développe lui-même.
+     */
+    public void writeCalendar(Long userId, Writer out) throws IOException {
+        ICalendarWriter ics = new ICalendarWriter(out);
+        ics.property("BEGIN", "VCALENDAR");
+        ics.property("VERSION", "2.0");
+        ics.property("PRODID", "-//Memento//Personal Task Manager//FR");
+        ics.property("CALSCALE", "GREGORIAN");
+        ics.text("X-WR-CALNAME", "Memento");
+
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                jdbcTemplate.query(SCHEDULES_SQL, (RowCallbackHandler) rs -> {
+                    DayOfWeek day = DayOfWeek.valueOf(rs.getString("day_of_week"));
+                    LocalTime startTime = rs.getTime("start_time").toLocalTime();
+                    LocalTime endTime = rs.getTime("end_time").toLocalTime();
+                    LocalDateTime createdAt = toLocalDateTime(rs.getTimestamp("created_at"));
+                    LocalDateTime updatedAt = toLocalDateTime(rs.getTimestamp("updated_at"));
+                    // Première occurrence : le jour du créneau à partir de sa date de création
+                    LocalDate firstDate = (createdAt != null ? createdAt.toLocalDate() : LocalDate.now())
+                        .with(TemporalAdjusters.nextOrSame(day));
+                    try {
+                        ics.property("BEGIN", "VEVENT");
+                        ics.property("UID", "schedule-" + rs.getLong("id") + "@memento");
+                        ics.utcTimestamp("DTSTAMP", updatedAt != null ? updatedAt : LocalDateTime.now());
+                        ics.localDateTime("DTSTART", firstDate.atTime(startTime));
+                        ics.localDateTime("DTEND", endOf(firstDate, endTime));
+                        ics.property("RRULE", "FREQ=WEEKLY;BYDAY=" + day.name().substring(0, 2));
+                        ics.text("SUMMARY", rs.getString("title"));
+                        ics.text("DESCRIPTION", rs.getString("description"));
+                        ics.property("END", "VEVENT");
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }, userId);
+
+                jdbcTemplate.query(TASKS_SQL, (RowCallbackHandler) rs -> {
+                    LocalDate dueDate = rs.getDate("due_date").toLocalDate();
+                    LocalDateTime updatedAt = toLocalDateTime(rs.getTimestamp("updated_at"));
+                    try {
+                        ics.property("BEGIN", "VEVENT");
+                        ics.property("UID", "task-" + rs.getLong("id") + "@memento");
+                        ics.utcTimestamp("DTSTAMP", updatedAt != null ? updatedAt : LocalDateTime.now());
+                        ics.date("DTSTART", dueDate);
+                        ics.date("DTEND", dueDate.plusDays(1));
+                        ics.text("SUMMARY", rs.getString("title"));
+                        ics.text("DESCRIPTION", rs.getString("description"));
+                        ics.text("CATEGORIES", rs.getString("priority"));
+                        ics.property("TRANSP", "TRANSPARENT");
+                        ics.property("END", "VEVENT");
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }, userId);
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        ics.property("END", "VCALENDAR");
+    }
+
+    // Une fin à 00:00 désigne minuit à la fin de la journée
+    private static LocalDateTime endOf(LocalDate date, LocalTime endTime) {
+        return LocalTime.MIDNIGHT.equals(endTime) ? date.plusDays(1).atStartOfDay() : date.atTime(endTime);
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
@@ -1,7 +1,11 @@
 package com.personaltaskmanager.service;
 
+import com.personaltaskmanager.enums.ChangeAction;
+import com.personaltaskmanager.enums.EntityKind;
+import com.personaltaskmanager.events.EntityChangedEvent;
 import com.personaltaskmanager.model.Comment;
 import com.personaltaskmanager.repository.CommentRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -9,9 +13,11 @@ import java.util.List;
 @Service
 public class CommentService {
     private final CommentRepository commentRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public CommentService(CommentRepository commentRepository) {
+    public CommentService(CommentRepository commentRepository, ApplicationEventPublisher eventPublisher) {
         this.commentRepository = commentRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     public List<Comment> getCommentsByTaskId(Long taskId) {
@@ -19,10 +25,14 @@ public class CommentService {
     }
 
     public Comment createComment(Comment comment) {
-        return commentRepository.save(comment);
+        Comment saved = commentRepository.save(comment);
+        eventPublisher.publishEvent(new EntityChangedEvent(saved.getUserId(), EntityKind.COMMENT, saved.getId(), ChangeAction.CREATED));
+        return saved;
     }
 
     public void deleteComment(Long id) {
         commentRepository.deleteById(id);
+        // Auteur inconnu sans relire le commentaire : l'événement va à l'utilisateur de la requête
+        eventPublisher.publishEvent(new EntityChangedEvent(null, EntityKind.COMMENT, id, ChangeAction.DELETED));
     }
 }
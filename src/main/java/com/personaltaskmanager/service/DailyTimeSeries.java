@@ -0,0 +1,169 @@
+package com.personaltaskmanager.service;
+
+import com.personaltaskmanager.enums.NoteType;
+import com.personaltaskmanager.enums.StatisticsGranularity;
+import com.personaltaskmanager.enums.TaskDifficulty;
+import com.personaltaskmanager.model.Statistics;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Série temporelle compacte : un emplacement par jour et par métrique dans des tableaux primitifs.
+ * Une année entière tient dans quelques kilo-octets et s'agrège par jour, semaine ou mois en un seul parcours.
+ */
+public final class DailyTimeSeries {
+    private final LocalDate startDate;
+    private final LocalDate endDate;
+    private final int[] tasksCompleted;
+    private final int[] notesCreated;
+    private final int[] productiveTimeMinutes;
+    private final int[][] tasksByDifficulty;
+    private final int[][] notesByType;
+
+    public DailyTimeSeries(LocalDate startDate, LocalDate endDate) {
+        if (endDate.isBefore(startDate)) {
+            throw new IllegalArgumentException("La date de fin doit être postérieure à la date de début");
+        }
+        this.startDate = startDate;
+        this.endDate = endDate;
+        int days = (int) ChronoUnit.DAYS.between(startDate, endDate) + 1;
+        this.tasksCompleted = new int[days];
+        this.notesCreated = new int[days];
+        this.productiveTimeMinutes = new int[days];
+        this.tasksByDifficulty = new int[TaskDifficulty.values().length][days];
+        this.notesByType = new int[NoteType.values().length][days];
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    public int size() {
+        return tasksCompleted.length;
+    }
+
+    /**
+     * Index du jour dans la série, ou -1 si la date est hors de la plage
+     */
+    public int indexOf(LocalDate date) {
+        long index = ChronoUnit.DAYS.between(startDate, date);
+        return index < 0 || index >= tasksCompleted.length ? -1 : (int) index;
+    }
+
+    public void addCompletedTask(LocalDate date, TaskDifficulty difficulty, int productiveMinutes) {
+        int index = indexOf(date);
+        if (index >= 0) {
+            tasksCompleted[index]++;
+            productiveTimeMinutes[index] += productiveMinutes;
+            if (difficulty != null) {
+                tasksByDifficulty[difficulty.ordinal()][index]++;
+            }
+        }
+    }
+
+    public void addNote(LocalDate date, NoteType type) {
+        int index = indexOf(date);
+        if (index >= 0) {
+            notesCreated[index]++;
+            if (type != null) {
+                notesByType[type.ordinal()][index]++;
+            }
+        }
+    }
+
+    public boolean hasActivity(int index) {
+        return tasksCompleted[index] > 0 || notesCreated[index] > 0;
+    }
+
+    /**
+     * Ligne de statistiques d'un jour, au même format que le calcul en temps réel
+     */
+    public Statistics toStatistics(int index, Long userId) {
+        Statistics stats = new Statistics();
+        stats.setUserId(userId);
+        stats.setDate(startDate.plusDays(index));
+        stats.setTasksCompleted(tasksCompleted[index]);
+        stats.setNotesCreated(notesCreated[index]);
+        stats.setProductiveTimeMinutes(productiveTimeMinutes[index]);
+
+        Map<String, Long> difficultyMap = new LinkedHashMap<>();
+        for (TaskDifficulty difficulty : TaskDifficulty.values()) {
+            int count = tasksByDifficulty[difficulty.ordinal()][index];
+            if (count > 0) {
+                difficultyMap.put(difficulty.toString(), (long) count);
+            }
+        }
+        stats.setTasksByDifficulty(StatisticsService.mapToJson(difficultyMap));
+
+        Map<String, Long> noteTypeMap = new LinkedHashMap<>();
+        for (NoteType type : NoteType.values()) {
+            int count = notesByType[type.ordinal()][index];
+            if (count > 0) {
+                noteTypeMap.put(type.toString(), (long) count);
+            }
+        }
+        stats.setNotesByType(StatisticsService.mapToJson(noteTypeMap));
+        return stats;
+    }
+
+    /**
+     * Agrège la série par période. Les périodes en bord de plage sont tronquées aux dates demandées.
+     */
+    public List<Map<String, Object>> aggregate(StatisticsGranularity granularity) {
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+        List<Map<String, Object>> buckets = new ArrayList<>();
+        int index = 0;
+        LocalDate bucketStart = startDate;
+        while (index < tasksCompleted.length) {
+            LocalDate nextStart = granularity.nextBucketStart(granularity.bucketStart(bucketStart));
+            int bucketEnd = Math.min(tasksCompleted.length, (int) ChronoUnit.DAYS.between(startDate, nextStart));
+
+            int tasks = 0;
+            int notes = 0;
+            int minutes = 0;
+            for (int i = index; i < bucketEnd; i++) {
+                tasks += tasksCompleted[i];
+                notes += notesCreated[i];
+                minutes += productiveTimeMinutes[i];
+            }
+
+            Map<String, Object> bucket = new HashMap<>();
+            bucket.put("startDate", bucketStart.format(formatter));
+            bucket.put("endDate", startDate.plusDays(bucketEnd - 1L).format(formatter));
+            bucket.put("tasksCompleted", tasks);
+            bucket.put("notesCreated", notes);
+            bucket.put("productiveTimeMinutes", minutes);
+            buckets.add(bucket);
+
+            index = bucketEnd;
+            bucketStart = nextStart;
+        }
+        return buckets;
+    }
+
+    public Map<String, Object> totals() {
+        int tasks = 0;
+        int notes = 0;
+        int minutes = 0;
+        for (int i = 0; i < tasksCompleted.length; i++) {
+            tasks += tasksCompleted[i];
+            notes += notesCreated[i];
+            minutes += productiveTimeMinutes[i];
+        }
+        Map<String, Object> totals = new HashMap<>();
+        totals.put("tasksCompleted", tasks);
+        totals.put("notesCreated", notes);
+        totals.put("productiveTimeMinutes", minutes);
+        return totals;
+    }
+}
@@ -1,5 +1,11 @@
 package com.personaltaskmanager.service;
 
+import com.personaltaskmanager.dto.TextPatchRequest;
+import com.personaltaskmanager.enums.ChangeAction;
+import com.personaltaskmanager.enums.EntityKind;
+import com.personaltaskmanager.events.EntityChangedEvent;
+import com.personaltaskmanager.exception.ConflictException;
+import com.personaltaskmanager.exception.ResourceNotFoundException;
 import com.personaltaskmanager.model.Document;
 import com.personaltaskmanager.enums.DocumentType;
 import com.personaltaskmanager.enums.FileType;
@@ -8,10 +14,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -25,17 +34,29 @@ import java.util.UUID;
 public class DocumentService {
 
     private static final Logger logger = LoggerFactory.getLogger(DocumentService.class);
+    private static final int MAX_CONTENT_LENGTH = 10000;
 
     @Autowired
     private DocumentRepository documentRepository;
 
+    @Autowired
+    private FileTransferMetrics fileTransferMetrics;
+
+    @Autowired
+    private JsonArrayStreamer jsonArrayStreamer;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @Value("${app.upload.dir:uploads}")
     private String uploadDir;
 
-    public List<Document> getAllDocumentsByUserId(Long userId) {
-        return documentRepository.findByUserId(userId);
+    @Transactional(readOnly = true)
+    public long writeAllDocumentsByUserId(Long userId, OutputStream out) throws IOException {
+        return jsonArrayStreamer.write(documentRepository.streamByUserId(userId), out);
     }
 
+    @Transactional(readOnly = true)
     public List<Document> getDocumentsByParent(Long userId, Long parentId) {
         if (parentId == null) {
             return documentRepository.findByUserIdAndParentIdIsNull(userId);
@@ -43,10 +64,12 @@ public class DocumentService {
         return documentRepository.findByUserIdAndParentId(userId, parentId);
     }
 
+    @Transactional(readOnly = true)
     public Document getDocumentById(Long id) {
         return documentRepository.findById(id).orElse(null);
     }
 
+    @Transactional(readOnly = true)
     public Document getDocumentByIdAndUserId(Long id, Long userId) {
         return documentRepository.findByIdAndUserId(id, userId).orElse(null);
     }
@@ -56,6 +79,7 @@ public class DocumentService {
         document.setUpdatedAt(LocalDateTime.now());
         Document saved = documentRepository.save(document);
         logger.info("Document sauvegardé en base avec ID: {}, userId: {}", saved.getId(), saved.getUserId());
+        publishChange(saved, ChangeAction.CREATED);
         return saved;
     }
 
@@ -69,17 +93,47 @@ public class DocumentService {
             }
             if (documentUpdates.getContent() != null) {
                 document.setContent(documentUpdates.getContent());
+                long version = document.getContentVersion() != null ? document.getContentVersion() : 0L;
+                document.setContentVersion(version + 1);
             }
             if (documentUpdates.getParentId() != null) {
                 document.setParentId(documentUpdates.getParentId());
             }
             
             document.setUpdatedAt(LocalDateTime.now());
-            return documentRepository.save(document);
+            Document saved = documentRepository.save(document);
+            publishChange(saved, ChangeAction.UPDATED);
+            return saved;
         }
         return null;
     }
 
+    /**
+     * Applique un patch texte sur le contenu d'un document de l'utilisateur
+     * Le patch est refusé si le contenu a changé depuis baseVersion
+     */
+    public Document patchContent(Long id, Long userId, TextPatchRequest patch) {
+        Document document = documentRepository.findByIdAndUserId(id, userId)
+            .orElseThrow(() -> new ResourceNotFoundException("Document non trouvé avec l'ID: " + id));
+
+        long currentVersion = document.getContentVersion() != null ? document.getContentVersion() : 0L;
+        if (patch.getBaseVersion() != currentVersion) {
+            throw new ConflictException("Version obsolète: " + patch.getBaseVersion() + ", version actuelle: " + currentVersion);
+        }
+
+        String content = TextPatches.apply(document.getContent(), patch.getEdits(), MAX_CONTENT_LENGTH);
+        LocalDateTime now = LocalDateTime.now();
+        if (documentRepository.updateContentIfVersion(id, content, currentVersion, now) == 0) {
+            throw new ConflictException("Le document a été modifié entre-temps, rechargez-le avant de réessayer");
+        }
+
+        document.setContent(content);
+        document.setContentVersion(currentVersion + 1);
+        document.setUpdatedAt(now);
+        publishChange(document, ChangeAction.UPDATED);
+        return document;
+    }
+
     public void deleteDocument(Long id) {
         Document document = documentRepository.findById(id).orElse(null);
         if (document != null) {
@@ -102,6 +156,7 @@ public class DocumentService {
             }
             
             documentRepository.deleteById(id);
+            publishChange(document, ChangeAction.DELETED);
         }
     }
 
@@ -109,6 +164,7 @@ public class DocumentService {
         if (file.isEmpty()) {
             throw new IllegalArgumentException("Le fichier est vide");
         }
+        long startNanos = System.nanoTime();
         // Créer le répertoire d'upload s'il n'existe pas
         Path uploadPath = Paths.get(uploadDir);
         if (!Files.exists(uploadPath)) {
@@ -126,6 +182,7 @@ public class DocumentService {
         // Sauvegarder le fichier
         Path filePath = uploadPath.resolve(uniqueFilename);
         Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
+        fileTransferMetrics.recordUpload("document", file.getSize(), startNanos);
 
         // Déterminer le type de fichier
         // Utiliser d'abord le MIME type, puis le nom de fichier comme fallback
@@ -159,10 +216,25 @@ public class DocumentService {
             }
         }
 
-        return documentRepository.save(document);
+        Document saved = documentRepository.save(document);
+        publishChange(saved, ChangeAction.CREATED);
+        return saved;
+    }
+
+    private void publishChange(Document document, ChangeAction action) {
+        eventPublisher.publishEvent(new EntityChangedEvent(document.getUserId(), EntityKind.DOCUMENT, document.getId(), action));
     }
 
     public byte[] getFileContent(String filename) throws IOException {
+        long startNanos = System.nanoTime();
+        byte[] content = findFileContent(filename);
+        if (content != null) {
+            fileTransferMetrics.recordDownload("document", content.length, startNanos);
+        }
+        return content;
+    }
+
+    private byte[] findFileContent(String filename) throws IOException {
         // Le filename peut être soit le nom original, soit un UUID avec extension
         // Chercher le fichier dans le répertoire uploads
         Path uploadPath = Paths.get(uploadDir);
@@ -217,7 +289,7 @@ public class DocumentService {
         return FileType.OTHER;
     }
 
-    private FileType getFileTypeFromFilename(String filename) {
+    FileType getFileTypeFromFilename(String filename) {
         if (filename == null) {
             return FileType.OTHER;
         }
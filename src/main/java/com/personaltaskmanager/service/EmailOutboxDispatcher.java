@@ -0,0 +1,241 @@
+package com.personaltaskmanager.service;
+
+import com.personaltaskmanager.enums.EmailStatus;
+import com.personaltaskmanager.model.EmailOutbox;
+import com.personaltaskmanager.repository.EmailOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Envoi en arrière-plan des emails de la table email_outbox, en trois temps pour ne jamais garder de verrou
+ * pendant les échanges SMTP :
+ * <ol>
+ *   <li>une courte transaction réserve un lot (SKIP LOCKED) : statut SENDING, bail jusqu'à next_attempt_at ;</li>
+ *   <li>le lot part hors transaction par un seul appel JavaMailSender (une seule connexion SMTP) ;</li>
+ *   <li>une seconde transaction enregistre le résultat de chaque email.</li>
+ * </ol>
+ * Un échec est retenté avec un délai exponentiel jusqu'à max-attempts, puis l'email passe en FAILED.
+ * Si l'instance s'arrête entre la réservation et l'enregistrement, le bail expire et le lot est repris :
+ * l'envoi est « au moins une fois ».
+ * Le corps d'un email envoyé ou abandonné est effacé (il peut contenir un code de réinitialisation), et la ligne
+ * elle-même est supprimée après retention-days.
+ */
+@Component
+public class EmailOutboxDispatcher {
+    private static final Logger logger = LoggerFactory.getLogger(EmailOutboxDispatcher.class);
+    private static final List<EmailStatus> CLAIMABLE = List.of(EmailStatus.PENDING, EmailStatus.SENDING);
+    private static final List<EmailStatus> FINISHED = List.of(EmailStatus.SENT, EmailStatus.FAILED);
+    // Colonne NOT NULL : chaîne vide une fois le corps devenu inutile
+    private static final String ERASED_BODY = "";
+    // Les erreurs SMTP citent souvent le destinataire : masqué dans les statistiques
+    private static final Pattern EMAIL_ADDRESS = Pattern.compile("[^\\s<>\"'@]+@[^\\s<>\"',;]+");
+
+    private final JavaMailSender mailSender;
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final String from;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long backoffSeconds;
+    private final long maxBackoffSeconds;
+    private final long leaseSeconds;
+    private final long retentionDays;
+
+    private final Counter sent;
+    private final Counter retried;
+    private final Counter failed;
+    private volatile LocalDateTime lastRunAt;
+    private volatile String lastError;
+
+    public EmailOutboxDispatcher(JavaMailSender mailSender,
+                                 EmailOutboxRepository emailOutboxRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${app.mail.from:${spring.mail.username:}}") String from,
+                                 @Value("${app.mail.outbox.batch-size:50}") int batchSize,
+                                 @Value("${app.mail.outbox.max-attempts:6}") int maxAttempts,
+                                 @Value("${app.mail.outbox.backoff-seconds:30}") long backoffSeconds,
+                                 @Value("${app.mail.outbox.max-backoff-seconds:3600}") long maxBackoffSeconds,
+                                 @Value("${app.mail.outbox.lease-seconds:300}") long leaseSeconds,
+                                 @Value("${app.mail.outbox.retention-days:7}") long retentionDays) {
+        this.mailSender = mailSender;
+        this.emailOutboxRepository = emailOutboxRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.from = from;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.backoffSeconds = backoffSeconds;
+        this.maxBackoffSeconds = maxBackoffSeconds;
+        this.leaseSeconds = leaseSeconds;
+        this.retentionDays = retentionDays;
+        this.sent = outcomeCounter(meterRegistry, "sent");
+        this.retried = outcomeCounter(meterRegistry, "retried");
+        this.failed = outcomeCounter(meterRegistry, "failed");
+    }
+
+    @Scheduled(fixedDelayString = "${app.mail.outbox.poll-ms:1000}")
+    public void dispatch() {
+        lastRunAt = LocalDateTime.now();
+        try {
+            // Tant que les lots sont pleins il reste du travail : on enchaîne sans attendre le prochain passage
+            while (dispatchBatch() == batchSize) {
+                logger.debug("Lot d'emails complet, passage au suivant");
+            }
+        } catch (RuntimeException e) {
+            lastError = e.getMessage();
+            logger.error("Erreur lors de l'envoi des emails en attente", e);
+        }
+    }
+
+    /**
+     * Supprime les emails envoyés ou abandonnés depuis plus de retention-days ; sans effet si une autre instance
+     * vient de le faire
+     */
+    @Scheduled(fixedDelayString = "${app.mail.outbox.purge-ms:3600000}")
+    public void purge() {
+        try {
+            int deleted = emailOutboxRepository.deleteByStatusInAndCreatedAtBefore(FINISHED,
+                LocalDateTime.now().minusDays(retentionDays));
+            if (deleted > 0) {
+                logger.info("{} emails envoyés ou abandonnés supprimés de la file", deleted);
+            }
+        } catch (RuntimeException e) {
+            logger.error("Erreur lors de la purge de la file d'envoi des emails", e);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("pending", emailOutboxRepository.countByStatus(EmailStatus.PENDING));
+        stats.put("sending", emailOutboxRepository.countByStatus(EmailStatus.SENDING));
+        stats.put("failed", emailOutboxRepository.countByStatus(EmailStatus.FAILED));
+        stats.put("sentSinceStart", (long) sent.count());
+        stats.put("retriedSinceStart", (long) retried.count());
+        stats.put("failedSinceStart", (long) failed.count());
+        stats.put("lastRunAt", lastRunAt);
+        stats.put("lastError", lastError != null ? EMAIL_ADDRESS.matcher(lastError).replaceAll("***") : null);
+        return stats;
+    }
+
+    private int dispatchBatch() {
+        List<EmailOutbox> batch = transactionTemplate.execute(status -> claimBatch());
+        if (batch == null || batch.isEmpty()) {
+            return 0;
+        }
+        send(batch);
+        transactionTemplate.executeWithoutResult(status -> emailOutboxRepository.saveAll(batch));
+        return batch.size();
+    }
+
+    /**
+     * Réserve un lot : les emails en attente échus, et ceux dont le bail d'envoi a expiré (instance arrêtée en cours d'envoi)
+     */
+    private List<EmailOutbox> claimBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<EmailOutbox> batch = emailOutboxRepository.findDueForUpdate(CLAIMABLE, now, PageRequest.of(0, batchSize));
+        for (EmailOutbox email : batch) {
+            email.setStatus(EmailStatus.SENDING);
+            email.setAttempts(email.getAttempts() + 1);
+            email.setNextAttemptAt(now.plusSeconds(leaseSeconds));
+        }
+        return emailOutboxRepository.saveAll(batch);
+    }
+
+    private void send(List<EmailOutbox> batch) {
+        SimpleMailMessage[] messages = new SimpleMailMessage[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            messages[i] = toMessage(batch.get(i));
+        }
+
+        // JavaMailSender rend les échecs avec le message d'origine comme clé : comparaison par identité
+        Map<Object, Exception> failures = new IdentityHashMap<>();
+        try {
+            mailSender.send(messages);
+        } catch (MailSendException e) {
+            failures.putAll(e.getFailedMessages());
+            if (failures.isEmpty()) {
+                markAllFailed(messages, failures, e);
+            }
+        } catch (MailException e) {
+            // Connexion ou authentification impossible : tout le lot est à retenter
+            markAllFailed(messages, failures, e);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < batch.size(); i++) {
+            EmailOutbox email = batch.get(i);
+            Exception failure = failures.get(messages[i]);
+            if (failure == null) {
+                email.setStatus(EmailStatus.SENT);
+                email.setSentAt(now);
+                email.setLastError(null);
+                email.setBody(ERASED_BODY);
+                sent.increment();
+            } else {
+                recordFailure(email, failure, now);
+            }
+        }
+    }
+
+    private void recordFailure(EmailOutbox email, Exception failure, LocalDateTime now) {
+        String message = failure.getMessage() != null ? failure.getMessage() : failure.getClass().getSimpleName();
+        email.setLastError(message.length() > 1000 ? message.substring(0, 1000) : message);
+        lastError = message;
+        if (email.getAttempts() >= maxAttempts) {
+            email.setStatus(EmailStatus.FAILED);
+            email.setBody(ERASED_BODY);
+            failed.increment();
+            logger.error("Abandon de l'email {} à {} après {} tentatives : {}",
+                email.getId(), email.getRecipient(), email.getAttempts(), message);
+            return;
+        }
+        long delay = Math.min(maxBackoffSeconds, backoffSeconds << Math.min(20, email.getAttempts() - 1));
+        email.setStatus(EmailStatus.PENDING);
+        email.setNextAttemptAt(now.plusSeconds(delay));
+        retried.increment();
+        logger.warn("Échec d'envoi de l'email {} (tentative {}), nouvel essai dans {} s : {}",
+            email.getId(), email.getAttempts(), delay, message);
+    }
+
+    private SimpleMailMessage toMessage(EmailOutbox email) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        if (from != null && !from.isEmpty()) {
+            message.setFrom(from);
+        }
+        message.setTo(email.getRecipient());
+        message.setSubject(email.getSubject());
+        message.setText(email.getBody());
+        return message;
+    }
+
+    private static Counter outcomeCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("mail.outbox.messages")
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+
+    private static void markAllFailed(SimpleMailMessage[] messages, Map<Object, Exception> failures, Exception e) {
+        for (SimpleMailMessage message : messages) {
+            failures.put(message, e);
+        }
+    }
+}
@@ -1,36 +1,31 @@
 package com.personaltaskmanager.service;
 
+import com.personaltaskmanager.model.EmailOutbox;
+import com.personaltaskmanager.repository.EmailOutboxRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 
+/**
+ * Les emails ne partent plus pendant la requête : ils sont écrits dans la table email_outbox,
+ * dans la transaction de l'appelant, puis envoyés par {@link EmailOutboxDispatcher}.
+ */
 @Service
 public class EmailService {
 
     @Autowired
-    private JavaMailSender mailSender;
+    private EmailOutboxRepository emailOutboxRepository;
 
     public void sendResetCode(String to, String resetCode) {
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setTo(to);
-        message.setSubject("Code de réinitialisation de mot de passe");
-        message.setText("Bonjour,\n\n" +
+        EmailOutbox email = new EmailOutbox();
+        email.setRecipient(to);
+        email.setSubject("Code de réinitialisation de mot de passe");
+        email.setBody("Bonjour,\n\n" +
                 "Vous avez demandé la réinitialisation de votre mot de passe.\n\n" +
                 "Votre code de réinitialisation est : " + resetCode + "\n\n" +
                 "Ce code est valide pendant 15 minutes.\n\n" +
                 "Si vous n'avez pas demandé cette réinitialisation, ignorez cet email.\n\n" +
                 "Cordialement,\n" +
                 "L'équipe Personal Task Manager");
-        
-        try {
-            mailSender.send(message);
-            System.out.println("Email de réinitialisation envoyé à : " + to);
-        } catch (Exception e) {
-            System.err.println("Erreur lors de l'envoi de l'email : " + e.getMessage());
-            e.printStackTrace();
-            throw new RuntimeException("Erreur lors de l'envoi de l'email", e);
-        }
+        emailOutboxRepository.save(email);
     }
 }
-
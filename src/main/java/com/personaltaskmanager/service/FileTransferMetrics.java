@@ -0,0 +1,42 @@
+package com.personaltaskmanager.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Volumes et durées des transferts de fichiers (documents et notes vocales).
+ * Le débit s'obtient côté Prometheus par rate() sur la somme des octets.
+ */
+@Component
+public class FileTransferMetrics {
+    private final MeterRegistry registry;
+
+    public FileTransferMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public void recordUpload(String area, long bytes, long startNanos) {
+        record("files.upload", area, bytes, startNanos);
+    }
+
+    public void recordDownload(String area, long bytes, long startNanos) {
+        record("files.download", area, bytes, startNanos);
+    }
+
+    private void record(String name, String area, long bytes, long startNanos) {
+        DistributionSummary.builder(name + ".size")
+            .baseUnit("bytes")
+            .tag("area", area)
+            .register(registry)
+            .record(bytes);
+        Timer.builder(name + ".duration")
+            .tag("area", area)
+            .publishPercentileHistogram()
+            .register(registry)
+            .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,89 @@
+package com.personaltaskmanager.service;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Écriture RFC 5545 ligne par ligne : fins de ligne CRLF, repli à 75 octets et échappement des textes.
+ * Rien n'est conservé en mémoire, chaque propriété part directement dans le Writer.
+ */
+final class ICalendarWriter {
+    private static final int MAX_LINE_OCTETS = 75;
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final DateTimeFormatter LOCAL_DATE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+    private static final DateTimeFormatter UTC_DATE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'");
+
+    private final Writer out;
+
+    ICalendarWriter(Writer out) {
+        this.out = out;
+    }
+
+    void property(String name, String value) throws IOException {
+        line(name + ":" + value);
+    }
+
+    void text(String name, String value) throws IOException {
+        if (value != null && !value.isEmpty()) {
+            line(name + ":" + escape(value));
+        }
+    }
+
+    void date(String name, LocalDate date) throws IOException {
+        line(name + ";VALUE=DATE:" + DATE.format(date));
+    }
+
+    // Heure locale « flottante » : le client l'affiche dans son propre fuseau, comme l'application
+    void localDateTime(String name, LocalDateTime dateTime) throws IOException {
+        line(name + ":" + LOCAL_DATE_TIME.format(dateTime));
+    }
+
+    void utcTimestamp(String name, LocalDateTime dateTime) throws IOException {
+        LocalDateTime utc = dateTime.atZone(ZoneId.systemDefault()).withZoneSameInstant(ZoneOffset.UTC).toLocalDateTime();
+        line(name + ":" + UTC_DATE_TIME.format(utc));
+    }
+
+    private void line(String content) throws IOException {
+        int octets = 0;
+        int i = 0;
+        while (i < content.length()) {
+            int codePoint = content.codePointAt(i);
+            int size = utf8Length(codePoint);
+            if (octets + size > MAX_LINE_OCTETS) {
+                out.write("\r\n ");
+                octets = 1;
+            }
+            out.write(Character.toChars(codePoint));
+            octets += size;
+            i += Character.charCount(codePoint);
+        }
+        out.write("\r\n");
+    }
+
+    private static int utf8Length(int codePoint) {
+        if (codePoint < 0x80) return 1;
+        if (codePoint < 0x800) return 2;
+        return codePoint < 0x10000 ? 3 : 4;
+    }
+
+    private static String escape(String value) {
+        StringBuilder escaped = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\': escaped.append("\\\\"); break;
+                case ';': escaped.append("\\;"); break;
+                case ',': escaped.append("\\,"); break;
+                case '\n': escaped.append("\\n"); break;
+                case '\r': break;
+                default: escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+}
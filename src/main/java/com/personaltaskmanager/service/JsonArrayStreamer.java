@@ -0,0 +1,53 @@
+package com.personaltaskmanager.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Écrit un flux d'entités JPA sous forme de tableau JSON, ligne par ligne.
+ * Chaque entité est détachée une fois écrite : le contexte de persistance ne grossit pas avec le résultat.
+ * À appeler dans une transaction, le Stream du repository lisant le curseur JDBC au fil de l'eau.
+ */
+@Component
+public class JsonArrayStreamer {
+    private final ObjectWriter writer;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public JsonArrayStreamer(ObjectMapper objectMapper) {
+        // Le tampon de la réponse décide quand envoyer, pas chaque élément
+        this.writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * @return le nombre d'éléments écrits
+     */
+    public long write(Stream<?> rows, OutputStream out) throws IOException {
+        long count = 0;
+        try (rows) {
+            JsonGenerator generator = writer.getFactory().createGenerator(out);
+            generator.writeStartArray();
+            Iterator<?> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                Object row = iterator.next();
+                writer.writeValue(generator, row);
+                entityManager.detach(row);
+                count++;
+            }
+            generator.writeEndArray();
+            generator.flush();
+        }
+        return count;
+    }
+}
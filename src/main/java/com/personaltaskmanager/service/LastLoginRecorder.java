@@ -0,0 +1,65 @@
+package com.personaltaskmanager.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Date de dernière connexion écrite par lots : les connexions sont regroupées en mémoire
+ * (la plus récente par utilisateur) puis écrites périodiquement en un seul batch JDBC.
+ */
+@Component
+public class LastLoginRecorder {
+    private static final Logger logger = LoggerFactory.getLogger(LastLoginRecorder.class);
+    private static final String UPDATE_SQL = "UPDATE users SET last_login = ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<Long, LocalDateTime> pending = new ConcurrentHashMap<>();
+
+    public LastLoginRecorder(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    public void record(Long userId, LocalDateTime loginAt) {
+        pending.merge(userId, loginAt, (previous, latest) -> latest.isAfter(previous) ? latest : previous);
+    }
+
+    @Scheduled(fixedDelayString = "${app.auth.last-login.flush-ms:10000}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<Object[]> batch = new ArrayList<>();
+        for (Long userId : new ArrayList<>(pending.keySet())) {
+            LocalDateTime loginAt = pending.remove(userId);
+            if (loginAt != null) {
+                batch.add(new Object[] { Timestamp.valueOf(loginAt), userId });
+            }
+        }
+        try {
+            jdbcTemplate.batchUpdate(UPDATE_SQL, batch);
+        } catch (RuntimeException e) {
+            // Remettre les dates non écrites, sans écraser une connexion plus récente
+            for (Object[] row : batch) {
+                record((Long) row[1], ((Timestamp) row[0]).toLocalDateTime());
+            }
+            logger.error("Erreur lors de l'écriture des dates de connexion ({} utilisateurs)", batch.size(), e);
+        }
+    }
+
+    @PreDestroy
+    public void flushAll() {
+        flush();
+    }
+}
@@ -0,0 +1,229 @@
+package com.personaltaskmanager.service;
+
+import com.personaltaskmanager.enums.ChangeAction;
+import com.personaltaskmanager.enums.EntityKind;
+import com.personaltaskmanager.events.EntityChangedEvent;
+import com.personaltaskmanager.exception.ConflictException;
+import com.personaltaskmanager.exception.ResourceNotFoundException;
+import com.personaltaskmanager.exception.UnauthorizedException;
+import com.personaltaskmanager.model.Note;
+import com.personaltaskmanager.repository.NoteRepository;
+import com.personaltaskmanager.sharding.ShardContext;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tampon d'écriture différée pour l'autosave de l'éditeur de notes.
+ * Les frappes successives sur une même note sont fusionnées en mémoire, puis écrites en un seul UPDATE
+ * quand l'utilisateur s'arrête de taper (idle) ou au plus tard après max-delay.
+ *
+ * L'UPDATE est conditionné à la version lue à la première frappe de la rafale : si la note a changé entre-temps
+ * (autre onglet, patch, sauvegarde complète sur une autre instance), la rafale n'est pas écrite et le conflit est
+ * signalé, au flush explicite ou à la frappe suivante, plutôt que d'écraser l'autre modification.
+ */
+@Component
+public class NoteAutosaveBuffer {
+    private static final Logger logger = LoggerFactory.getLogger(NoteAutosaveBuffer.class);
+    private static final int LOCK_STRIPES = 64;
+
+    private final NoteRepository noteRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final long idleMillis;
+    private final long maxDelayMillis;
+    private final Map<Long, PendingEdit> pending = new ConcurrentHashMap<>();
+    // Rafales refusées par la tâche planifiée, signalées à la prochaine frappe de l'utilisateur
+    private final Map<Long, Long> conflicts = new ConcurrentHashMap<>();
+    // Sérialise les écritures d'une même note pour qu'un flush ancien ne passe jamais après un plus récent
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    public NoteAutosaveBuffer(NoteRepository noteRepository,
+                              ApplicationEventPublisher eventPublisher,
+                              @Value("${app.notes.autosave.idle-ms:2000}") long idleMillis,
+                              @Value("${app.notes.autosave.max-delay-ms:10000}") long maxDelayMillis) {
+        this.noteRepository = noteRepository;
+        this.eventPublisher = eventPublisher;
+        this.idleMillis = idleMillis;
+        this.maxDelayMillis = maxDelayMillis;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    /**
+     * Fusionne une modification dans le tampon. L'appartenance de la note n'est vérifiée en base, et sa version
+     * relevée, qu'à la première modification d'une rafale.
+     */
+    public void bufferEdit(Long noteId, Long userId, String title, String content) {
+        // Sous le verrou du flush : une rafale qui commence pendant une écriture lit la version qui en résulte
+        synchronized (lockFor(noteId)) {
+            if (userId.equals(conflicts.remove(noteId))) {
+                throw new ConflictException("La note a été modifiée ailleurs : la saisie précédente n'a pas été "
+                    + "enregistrée, rechargez la note");
+            }
+
+            PendingEdit current = pending.get(noteId);
+            long now = System.currentTimeMillis();
+            if (current == null || !current.userId.equals(userId)) {
+                Note note = noteRepository.findById(noteId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Note non trouvée avec l'ID: " + noteId));
+                if (note.getUserId() != null && !note.getUserId().equals(userId)) {
+                    throw new UnauthorizedException("Vous n'avez pas accès à cette note");
+                }
+                long baseVersion = note.getContentVersion() != null ? note.getContentVersion() : 0L;
+                pending.merge(noteId, new PendingEdit(userId, title, content, baseVersion, now),
+                    (previous, edit) -> previous.mergeWith(edit));
+            } else {
+                pending.put(noteId, current.mergeWith(new PendingEdit(userId, title, content, current.baseVersion, now)));
+            }
+        }
+    }
+
+    /**
+     * Dernière version en attente d'écriture, ou null si rien n'est en tampon
+     */
+    public PendingEdit getPending(Long noteId) {
+        return pending.get(noteId);
+    }
+
+    /**
+     * Abandonne les modifications en attente (note supprimée ou remplacée par une sauvegarde complète)
+     */
+    public void discard(Long noteId) {
+        synchronized (lockFor(noteId)) {
+            pending.remove(noteId);
+            conflicts.remove(noteId);
+        }
+    }
+
+    /**
+     * Écrit la modification en attente.
+     *
+     * @return false si rien n'était en tampon
+     * @throws ConflictException si la note a changé depuis la première frappe de la rafale, qui est abandonnée
+     */
+    public boolean flush(Long noteId) {
+        synchronized (lockFor(noteId)) {
+            PendingEdit edit = pending.remove(noteId);
+            if (edit == null) {
+                return false;
+            }
+            int updated;
+            try {
+                // Écriture souvent faite par la tâche planifiée, hors requête : le shard est celui de l'auteur
+                updated = ShardContext.callAsUser(edit.userId, () -> noteRepository.updateTitleAndContentIfVersion(
+                    noteId, edit.title, edit.content, edit.baseVersion, LocalDateTime.now()));
+            } catch (RuntimeException e) {
+                // Remettre la modification en tampon sans écraser une frappe arrivée entre-temps
+                pending.merge(noteId, edit, (newer, failed) -> failed.mergeWith(newer));
+                throw e;
+            }
+            if (updated == 0) {
+                if (!ShardContext.callAsUser(edit.userId, () -> noteRepository.existsById(noteId))) {
+                    // Note supprimée entre-temps : plus rien à écrire
+                    return false;
+                }
+                conflicts.put(noteId, edit.userId);
+                throw new ConflictException("La note a été modifiée ailleurs depuis la version " + edit.baseVersion
+                    + " : la saisie en attente n'a pas été enregistrée, rechargez la note");
+            }
+            conflicts.remove(noteId);
+            // Les autres onglets voient la note au rythme des écritures, pas de chaque frappe
+            eventPublisher.publishEvent(new EntityChangedEvent(edit.userId, EntityKind.NOTE, noteId, ChangeAction.UPDATED));
+            return true;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.notes.autosave.tick-ms:500}")
+    public void flushDue() {
+        long now = System.currentTimeMillis();
+        List<Long> due = new ArrayList<>();
+        pending.forEach((noteId, edit) -> {
+            if (now - edit.lastEditAt >= idleMillis || now - edit.firstEditAt >= maxDelayMillis) {
+                due.add(noteId);
+            }
+        });
+        for (Long noteId : due) {
+            try {
+                flush(noteId);
+            } catch (ConflictException e) {
+                logger.warn("Écriture différée de la note {} abandonnée : {}", noteId, e.getMessage());
+            } catch (RuntimeException e) {
+                logger.error("Erreur lors de l'écriture différée de la note {}", noteId, e);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void flushAll() {
+        List<Long> noteIds = new ArrayList<>(pending.keySet());
+        if (!noteIds.isEmpty()) {
+            logger.info("Écriture de {} notes en attente avant l'arrêt", noteIds.size());
+        }
+        for (Long noteId : noteIds) {
+            try {
+                flush(noteId);
+            } catch (RuntimeException e) {
+                logger.error("Modification perdue pour la note {} à l'arrêt", noteId, e);
+            }
+        }
+    }
+
+    private Object lockFor(Long noteId) {
+        return locks[Math.floorMod(noteId.hashCode(), LOCK_STRIPES)];
+    }
+
+    /**
+     * Modification fusionnée : le dernier titre et le dernier contenu reçus
+     */
+    public static final class PendingEdit {
+        private final Long userId;
+        private final String title;
+        private final String content;
+        // contentVersion de la note à la première frappe de la rafale
+        private final long baseVersion;
+        private final long firstEditAt;
+        private final long lastEditAt;
+
+        private PendingEdit(Long userId, String title, String content, long baseVersion, long editAt) {
+            this(userId, title, content, baseVersion, editAt, editAt);
+        }
+
+        private PendingEdit(Long userId, String title, String content, long baseVersion, long firstEditAt, long lastEditAt) {
+            this.userId = userId;
+            this.title = title;
+            this.content = content;
+            this.baseVersion = baseVersion;
+            this.firstEditAt = firstEditAt;
+            this.lastEditAt = lastEditAt;
+        }
+
+        private PendingEdit mergeWith(PendingEdit newer) {
+            return new PendingEdit(
+                newer.userId,
+                newer.title != null ? newer.title : title,
+                newer.content != null ? newer.content : content,
+                baseVersion,
+                Math.min(firstEditAt, newer.firstEditAt),
+                Math.max(lastEditAt, newer.lastEditAt));
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        public String getContent() {
+            return content;
+        }
+    }
+}
@@ -1,26 +1,60 @@
 package com.personaltaskmanager.service;
 
+import com.personaltaskmanager.dto.NoteAutosaveRequest;
+import com.personaltaskmanager.dto.NotePage;
+import com.personaltaskmanager.dto.TextPatchRequest;
+import com.personaltaskmanager.enums.ChangeAction;
+import com.personaltaskmanager.enums.EntityKind;
+import com.personaltaskmanager.events.EntityChangedEvent;
+import com.personaltaskmanager.exception.ConflictException;
+import com.personaltaskmanager.exception.ResourceNotFoundException;
+import com.personaltaskmanager.exception.UnauthorizedException;
 import com.personaltaskmanager.model.Note;
 import com.personaltaskmanager.enums.NoteType;
 import com.personaltaskmanager.repository.NoteRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanUtils;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.UrlResource;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
 import java.util.UUID;
 
 @Service
 public class NoteService {
+    private static final Logger logger = LoggerFactory.getLogger(NoteService.class);
     private final NoteRepository noteRepository;
     private final ObjectMapper objectMapper;
-    private static final String AUDIO_UPLOAD_DIR = "uploads/audio/";
+    private final NoteAutosaveBuffer autosaveBuffer;
+    private final FileTransferMetrics fileTransferMetrics;
+    private final ApplicationEventPublisher eventPublisher;
+    static final String AUDIO_UPLOAD_DIR = "uploads/audio/";
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+    private static final int MAX_CONTENT_LENGTH = 5000;
 
-    public NoteService(NoteRepository noteRepository) {
+    public NoteService(NoteRepository noteRepository, NoteAutosaveBuffer autosaveBuffer,
+                       FileTransferMetrics fileTransferMetrics, ApplicationEventPublisher eventPublisher) {
         this.noteRepository = noteRepository;
+        this.autosaveBuffer = autosaveBuffer;
+        this.fileTransferMetrics = fileTransferMetrics;
+        this.eventPublisher = eventPublisher;
         this.objectMapper = new ObjectMapper();
         createUploadDirectory();
     }
@@ -32,49 +66,225 @@ public class NoteService {
                 Files.createDirectories(uploadPath);
             }
         } catch (IOException e) {
-            System.err.println("Erreur lors de la création du répertoire d'upload: " + e.getMessage());
+            logger.error("Erreur lors de la création du répertoire d'upload: {}", e.getMessage());
         }
     }
 
-    public List<Note> getAllNotes() {
-        return noteRepository.findAll();
+    /**
+     * Notes de l'utilisateur, épinglées d'abord puis par date de modification décroissante
+     */
+    @Transactional(readOnly = true)
+    public NotePage getNotesByUserId(Long userId, String cursor, Integer limit) {
+        return fetchPage(userId, null, false, cursor, limit);
     }
 
+    @Transactional(readOnly = true)
     public Note getNoteById(Long id) {
-        return noteRepository.findById(id).orElse(null);
+        Note note = noteRepository.findById(id).orElse(null);
+        return note != null ? withPendingEdit(note) : null;
+    }
+
+    /**
+     * Dernière version de la note : celle en base, recouverte par la modification encore en tampon s'il y en a une
+     */
+    private Note withPendingEdit(Note note) {
+        NoteAutosaveBuffer.PendingEdit edit = autosaveBuffer.getPending(note.getId());
+        if (edit == null) {
+            return note;
+        }
+        // Lecture de la dernière version en tampon, sur une copie pour ne pas salir l'entité gérée
+        Note latest = new Note();
+        BeanUtils.copyProperties(note, latest);
+        if (edit.getTitle() != null) {
+            latest.setTitle(edit.getTitle());
+        }
+        if (edit.getContent() != null) {
+            latest.setContent(edit.getContent());
+        }
+        return latest;
     }
 
     public Note createNote(Note note) {
-        return noteRepository.save(note);
+        Note saved = noteRepository.save(note);
+        publishChange(saved, ChangeAction.CREATED);
+        return saved;
     }
 
     public Note updateNote(Long id, Note note) {
-        if (noteRepository.existsById(id)) {
+        Note existing = noteRepository.findById(id).orElse(null);
+        if (existing != null) {
+            // La sauvegarde complète remplace toute modification encore en tampon
+            autosaveBuffer.discard(id);
+            long version = existing.getContentVersion() != null ? existing.getContentVersion() : 0L;
             note.setId(id);
-            return noteRepository.save(note);
+            note.setContentVersion(version + 1);
+            Note saved = noteRepository.save(note);
+            publishChange(saved, ChangeAction.UPDATED);
+            return saved;
         }
         return null;
     }
 
+    /**
+     * Applique un patch texte sur le contenu. Refuse le patch si le contenu a changé depuis baseVersion.
+     */
+    public Note patchContent(Long id, Long userId, TextPatchRequest patch) {
+        // Les frappes encore en tampon font partie de la version courante
+        autosaveBuffer.flush(id);
+
+        Note note = noteRepository.findById(id)
+            .orElseThrow(() -> new ResourceNotFoundException("Note non trouvée avec l'ID: " + id));
+        if (note.getUserId() != null && !note.getUserId().equals(userId)) {
+            throw new UnauthorizedException("Vous n'avez pas accès à cette note");
+        }
+
+        long currentVersion = note.getContentVersion() != null ? note.getContentVersion() : 0L;
+        if (patch.getBaseVersion() != currentVersion) {
+            throw new ConflictException("Version obsolète: " + patch.getBaseVersion() + ", version actuelle: " + currentVersion);
+        }
+
+        String content = TextPatches.apply(note.getContent(), patch.getEdits(), MAX_CONTENT_LENGTH);
+        LocalDateTime now = LocalDateTime.now();
+        if (noteRepository.updateContentIfVersion(id, content, currentVersion, now) == 0) {
+            throw new ConflictException("La note a été modifiée entre-temps, rechargez-la avant de réessayer");
+        }
+
+        Note patched = new Note();
+        BeanUtils.copyProperties(note, patched);
+        patched.setContent(content);
+        patched.setContentVersion(currentVersion + 1);
+        patched.setUpdatedAt(now);
+        publishChange(patched, ChangeAction.UPDATED);
+        return patched;
+    }
+
     public void deleteNote(Long id) {
+        autosaveBuffer.discard(id);
         noteRepository.deleteById(id);
+        // Propriétaire inconnu ici : l'événement va à l'utilisateur de la requête
+        eventPublisher.publishEvent(new EntityChangedEvent(null, EntityKind.NOTE, id, ChangeAction.DELETED));
+    }
+
+    /**
+     * Autosave : la modification est fusionnée en mémoire et écrite plus tard en un seul UPDATE
+     */
+    public void autosave(Long id, Long userId, NoteAutosaveRequest request) {
+        autosaveBuffer.bufferEdit(id, userId, request.getTitle(), request.getContent());
+    }
+
+    /**
+     * Écrit immédiatement la modification en attente (fermeture de l'éditeur)
+     */
+    public Note flushAutosave(Long id, Long userId) {
+        Note note = noteRepository.findById(id).orElse(null);
+        if (note == null) {
+            return null;
+        }
+        if (note.getUserId() != null && !note.getUserId().equals(userId)) {
+            throw new UnauthorizedException("Vous n'avez pas accès à cette note");
+        }
+        if (!autosaveBuffer.flush(id)) {
+            return note;
+        }
+        return noteRepository.findById(id).orElse(null);
     }
 
     public Note togglePin(Long id) {
         Note note = noteRepository.findById(id).orElse(null);
         if (note != null) {
             note.setPinned(!note.isPinned());
-            return noteRepository.save(note);
+            Note saved = noteRepository.save(note);
+            publishChange(saved, ChangeAction.UPDATED);
+            return saved;
         }
         return null;
     }
 
-    public List<Note> getPinnedNotes() {
-        return noteRepository.findByIsPinned(true);
+    @Transactional(readOnly = true)
+    public NotePage getPinnedNotes(Long userId, String cursor, Integer limit) {
+        return fetchPage(userId, null, true, cursor, limit);
     }
 
-    public List<Note> getNotesByType(NoteType type) {
-        return noteRepository.findByType(type);
+    @Transactional(readOnly = true)
+    public NotePage getNotesByType(Long userId, NoteType type, String cursor, Integer limit) {
+        return fetchPage(userId, type, false, cursor, limit);
+    }
+
+    /**
+     * Pagination par clé sur (isPinned, updatedAt, id). Les deux segments épinglé / non épinglé
+     * sont parcourus l'un après l'autre pour que chaque requête suive l'index (user_id, is_pinned, updated_at).
+     */
+    private NotePage fetchPage(Long userId, NoteType type, boolean pinnedOnly, String cursor, Integer limit) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        NoteCursor after = cursor == null || cursor.isBlank() ? null : NoteCursor.decode(cursor);
+
+        List<Note> notes = new ArrayList<>();
+        boolean[] segments = pinnedOnly ? new boolean[] {true} : new boolean[] {true, false};
+        for (boolean pinned : segments) {
+            if (after != null && after.pinned != pinned && !after.pinned) {
+                // Le curseur est déjà dans le segment des notes non épinglées
+                continue;
+            }
+            // Une note de plus que demandé pour savoir s'il reste une page suivante
+            int remaining = pageSize + 1 - notes.size();
+            if (remaining <= 0) {
+                break;
+            }
+            Pageable pageable = PageRequest.of(0, remaining);
+            boolean continueSegment = after != null && after.pinned == pinned;
+            if (type == null) {
+                notes.addAll(continueSegment
+                    ? noteRepository.findPageAfter(userId, pinned, after.updatedAt, after.id, pageable)
+                    : noteRepository.findFirstPage(userId, pinned, pageable));
+            } else {
+                notes.addAll(continueSegment
+                    ? noteRepository.findPageByTypeAfter(userId, type, pinned, after.updatedAt, after.id, pageable)
+                    : noteRepository.findFirstPageByType(userId, type, pinned, pageable));
+            }
+        }
+
+        String nextCursor = null;
+        if (notes.size() > pageSize) {
+            notes = new ArrayList<>(notes.subList(0, pageSize));
+            nextCursor = NoteCursor.of(notes.get(pageSize - 1)).encode();
+        }
+        // Le curseur reste celui de la ligne en base (updatedAt), seuls titre et contenu suivent le tampon
+        notes.replaceAll(this::withPendingEdit);
+        return new NotePage(notes, nextCursor);
+    }
+
+    /**
+     * Curseur opaque : position de la dernière note renvoyée
+     */
+    private static final class NoteCursor {
+        private final boolean pinned;
+        private final LocalDateTime updatedAt;
+        private final Long id;
+
+        private NoteCursor(boolean pinned, LocalDateTime updatedAt, Long id) {
+            this.pinned = pinned;
+            this.updatedAt = updatedAt;
+            this.id = id;
+        }
+
+        static NoteCursor of(Note note) {
+            return new NoteCursor(note.isPinned(), note.getUpdatedAt(), note.getId());
+        }
+
+        String encode() {
+            String raw = (pinned ? "1" : "0") + "|" + updatedAt + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static NoteCursor decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                String[] parts = raw.split("\\|");
+                return new NoteCursor("1".equals(parts[0]), LocalDateTime.parse(parts[1]), Long.parseLong(parts[2]));
+            } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException | DateTimeParseException e) {
+                throw new IllegalArgumentException("Curseur de pagination invalide");
+            }
+        }
     }
 
     public Note createNoteWithAudio(String noteJson, MultipartFile audioFile) {
@@ -87,12 +297,18 @@ public class NoteService {
             note.setMediaPath(audioFileName);
             note.setType(NoteType.VOICE);
             
-            return noteRepository.save(note);
+            Note saved = noteRepository.save(note);
+            publishChange(saved, ChangeAction.CREATED);
+            return saved;
         } catch (Exception e) {
             throw new RuntimeException("Erreur lors de la création de la note avec audio: " + e.getMessage(), e);
         }
     }
 
+    private void publishChange(Note note, ChangeAction action) {
+        eventPublisher.publishEvent(new EntityChangedEvent(note.getUserId(), EntityKind.NOTE, note.getId(), action));
+    }
+
     private String saveAudioFile(MultipartFile audioFile) throws IOException {
         String originalFileName = audioFile.getOriginalFilename();
         String fileExtension = originalFileName != null && originalFileName.contains(".") 
@@ -102,8 +318,25 @@ public class NoteService {
         String uniqueFileName = UUID.randomUUID().toString() + fileExtension;
         Path filePath = Paths.get(AUDIO_UPLOAD_DIR + uniqueFileName);
         
+        long startNanos = System.nanoTime();
         Files.copy(audioFile.getInputStream(), filePath);
+        fileTransferMetrics.recordUpload("note-audio", audioFile.getSize(), startNanos);
         
         return uniqueFileName;
     }
+
+    /**
+     * Fichier audio d'une note vocale, ou null s'il n'existe pas.
+     * Le contenu est transmis en flux par Spring ; on mesure la taille et le temps d'ouverture.
+     */
+    public Resource getAudioFile(String filename) throws IOException {
+        long startNanos = System.nanoTime();
+        Path filePath = Paths.get(AUDIO_UPLOAD_DIR + filename);
+        Resource resource = new UrlResource(filePath.toUri());
+        if (!resource.exists() || !resource.isReadable()) {
+            return null;
+        }
+        fileTransferMetrics.recordDownload("note-audio", resource.contentLength(), startNanos);
+        return resource;
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,144 @@
+package com.personaltaskmanager.service;
+
+import com.personaltaskmanager.model.Schedule;
+import com.personaltaskmanager.repository.ScheduleRepository;
+import org.springframework.stereotype.Component;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Créneaux d'un utilisateur par jour de la semaine, lus en base à chaque appel (aucun cache : une autre instance
+ * peut les avoir modifiés). Chaque jour est un tableau trié par heure de début avec le maximum cumulé des heures
+ * de fin, ce qui permet de trouver les chevauchements par recherche dichotomique.
+ */
+@Component
+public class ScheduleIndex {
+    private static final int SECONDS_PER_DAY = 24 * 3600;
+
+    private final ScheduleRepository scheduleRepository;
+
+    public ScheduleIndex(ScheduleRepository scheduleRepository) {
+        this.scheduleRepository = scheduleRepository;
+    }
+
+    /**
+     * Identifiants des créneaux de l'utilisateur qui chevauchent [startTime, endTime) ce jour-là.
+     * Sûr contre les écritures concurrentes seulement sous le verrou de ScheduleVersions.lockAndIncrement.
+     */
+    public List<Long> findOverlaps(Long userId, DayOfWeek dayOfWeek, LocalTime startTime, LocalTime endTime, Long excludedId) {
+        return DayIntervals.of(scheduleRepository.findByDayOfWeekAndUserId(dayOfWeek, userId))
+            .findOverlaps(toSeconds(startTime, false), toSeconds(endTime, true), excludedId);
+    }
+
+    /**
+     * Les 7 jours d'un utilisateur à partir d'une seule lecture de ses créneaux
+     */
+    public Map<DayOfWeek, DayIntervals> week(Long userId) {
+        Map<DayOfWeek, List<Schedule>> byDay = new EnumMap<>(DayOfWeek.class);
+        for (DayOfWeek day : DayOfWeek.values()) {
+            byDay.put(day, new ArrayList<>());
+        }
+        for (Schedule schedule : scheduleRepository.findByUserId(userId)) {
+            byDay.get(schedule.getDayOfWeek()).add(schedule);
+        }
+        Map<DayOfWeek, DayIntervals> week = new EnumMap<>(DayOfWeek.class);
+        byDay.forEach((day, daySchedules) -> week.put(day, DayIntervals.of(daySchedules)));
+        return week;
+    }
+
+    /**
+     * Secondes depuis minuit ; une fin à 00:00 désigne la fin de journée
+     */
+    static int toSeconds(LocalTime time, boolean isEnd) {
+        int seconds = time.toSecondOfDay();
+        return isEnd && seconds == 0 ? SECONDS_PER_DAY : seconds;
+    }
+
+    /**
+     * Créneaux d'une journée, immuables, triés par début
+     */
+    public static final class DayIntervals {
+        private final int[] starts;
+        private final int[] ends;
+        private final long[] ids;
+        // maxEnds[i] = plus grande fin parmi les créneaux 0..i
+        private final int[] maxEnds;
+
+        private DayIntervals(int[] starts, int[] ends, long[] ids) {
+            this.starts = starts;
+            this.ends = ends;
+            this.ids = ids;
+            this.maxEnds = new int[starts.length];
+            int max = 0;
+            for (int i = 0; i < starts.length; i++) {
+                max = Math.max(max, ends[i]);
+                maxEnds[i] = max;
+            }
+        }
+
+        static DayIntervals of(List<Schedule> schedules) {
+            List<Schedule> sorted = new ArrayList<>(schedules);
+            sorted.sort((a, b) -> Integer.compare(toSeconds(a.getStartTime(), false), toSeconds(b.getStartTime(), false)));
+            int[] starts = new int[sorted.size()];
+            int[] ends = new int[sorted.size()];
+            long[] ids = new long[sorted.size()];
+            for (int i = 0; i < sorted.size(); i++) {
+                Schedule schedule = sorted.get(i);
+                starts[i] = toSeconds(schedule.getStartTime(), false);
+                ends[i] = toSeconds(schedule.getEndTime(), true);
+                ids[i] = schedule.getId();
+            }
+            return new DayIntervals(starts, ends, ids);
+        }
+
+        public int size() {
+            return starts.length;
+        }
+
+        public int startAt(int i) {
+            return starts[i];
+        }
+
+        public int endAt(int i) {
+            return ends[i];
+        }
+
+        public long idAt(int i) {
+            return ids[i];
+        }
+
+        /**
+         * Créneaux qui chevauchent [start, end) : seuls ceux qui commencent avant end sont candidats
+         * (dichotomie), et le parcours s'arrête dès que le maximum cumulé des fins ne dépasse plus start.
+         */
+        List<Long> findOverlaps(int start, int end, Long excludedId) {
+            List<Long> overlaps = new ArrayList<>();
+            for (int i = lowerBound(end) - 1; i >= 0 && maxEnds[i] > start; i--) {
+                if (ends[i] > start && (excludedId == null || ids[i] != excludedId)) {
+                    overlaps.add(ids[i]);
+                }
+            }
+            return overlaps;
+        }
+
+        // Premier index dont le début est >= value
+        private int lowerBound(int value) {
+            int low = 0;
+            int high = starts.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (starts[middle] < value) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+}
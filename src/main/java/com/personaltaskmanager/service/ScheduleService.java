@@ -1,41 +1,111 @@
 package com.personaltaskmanager.service;
 
+import com.personaltaskmanager.dto.FreeSlot;
+import com.personaltaskmanager.dto.ScheduleConflict;
+import com.personaltaskmanager.enums.ChangeAction;
+import com.personaltaskmanager.enums.EntityKind;
+import com.personaltaskmanager.events.EntityChangedEvent;
+import com.personaltaskmanager.exception.ConflictException;
 import com.personaltaskmanager.model.Schedule;
 import com.personaltaskmanager.repository.ScheduleRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 public class ScheduleService {
     private final ScheduleRepository scheduleRepository;
+    private final ScheduleIndex scheduleIndex;
+    // Vérification + écriture atomiques par utilisateur, entre instances, pour que deux créations ne se chevauchent pas
+    private final ScheduleVersions scheduleVersions;
+    private final ApplicationEventPublisher eventPublisher;
+    // Bitset hebdomadaire par utilisateur avec la version des créneaux d'où il a été calculé : une écriture faite
+    // sur une autre instance change la version en base et le rend obsolète. Nombre d'utilisateurs borné.
+    private final Map<Long, CachedAvailability> availabilityCache = new ConcurrentHashMap<>();
+    private final int availabilityCacheSize;
 
-    public ScheduleService(ScheduleRepository scheduleRepository) {
+    public ScheduleService(ScheduleRepository scheduleRepository, ScheduleIndex scheduleIndex,
+                           ScheduleVersions scheduleVersions, ApplicationEventPublisher eventPublisher,
+                           @Value("${app.schedules.availability-cache-size:10000}") int availabilityCacheSize) {
         this.scheduleRepository = scheduleRepository;
+        this.scheduleIndex = scheduleIndex;
+        this.scheduleVersions = scheduleVersions;
+        this.eventPublisher = eventPublisher;
+        this.availabilityCacheSize = availabilityCacheSize;
     }
 
     public List<Schedule> getAllSchedules() {
         return scheduleRepository.findAll();
     }
 
+    public List<Schedule> getSchedulesByUserId(Long userId) {
+        return scheduleRepository.findByUserId(userId);
+    }
+
     public Schedule getScheduleById(Long id) {
         return scheduleRepository.findById(id).orElse(null);
     }
 
+    @Transactional
     public Schedule createSchedule(Schedule schedule) {
-        return scheduleRepository.save(schedule);
+        validateTimes(schedule);
+        if (schedule.getUserId() == null) {
+            Schedule saved = scheduleRepository.save(schedule);
+            publishChange(saved.getUserId(), saved.getId(), ChangeAction.CREATED);
+            return saved;
+        }
+        lockSchedules(schedule.getUserId());
+        checkConflicts(schedule, null);
+        Schedule saved = scheduleRepository.save(schedule);
+        invalidateAvailability(saved.getUserId());
+        publishChange(saved.getUserId(), saved.getId(), ChangeAction.CREATED);
+        return saved;
     }
 
+    @Transactional
     public Schedule updateSchedule(Long id, Schedule schedule) {
-        if (scheduleRepository.existsById(id)) {
-            schedule.setId(id);
-            return scheduleRepository.save(schedule);
+        Schedule existing = scheduleRepository.findById(id).orElse(null);
+        if (existing == null) {
+            return null;
         }
-        return null;
+        validateTimes(schedule);
+        schedule.setId(id);
+        schedule.setCreatedAt(existing.getCreatedAt());
+        schedule.setUpdatedAt(LocalDateTime.now());
+        // L'entité existante est fusionnée par save : on retient son ancien propriétaire avant l'écriture
+        Long previousUserId = existing.getUserId();
+        lockSchedules(previousUserId, schedule.getUserId());
+        if (schedule.getUserId() != null) {
+            checkConflicts(schedule, id);
+        }
+        Schedule saved = scheduleRepository.save(schedule);
+        invalidateAvailability(previousUserId);
+        invalidateAvailability(saved.getUserId());
+        publishChange(saved.getUserId() != null ? saved.getUserId() : previousUserId, id, ChangeAction.UPDATED);
+        return saved;
     }
 
+    @Transactional
     public void deleteSchedule(Long id) {
+        Schedule existing = scheduleRepository.findById(id).orElse(null);
+        if (existing != null) {
+            lockSchedules(existing.getUserId());
+        }
         scheduleRepository.deleteById(id);
+        if (existing != null) {
+            invalidateAvailability(existing.getUserId());
+            publishChange(existing.getUserId(), id, ChangeAction.DELETED);
+        }
     }
 
     public List<Schedule> getSchedulesByDay(DayOfWeek dayOfWeek) {
@@ -45,4 +115,129 @@ public class ScheduleService {
     public List<Schedule> getWorkSchedules(boolean isWorkSchedule) {
         return scheduleRepository.findByIsWorkSchedule(isWorkSchedule);
     }
-} 
\ No newline at end of file
+
+    /**
+     * Tous les chevauchements de la semaine d'un utilisateur, en un seul parcours trié par jour
+     */
+    public List<ScheduleConflict> getConflicts(Long userId) {
+        Map<DayOfWeek, ScheduleIndex.DayIntervals> week = scheduleIndex.week(userId);
+
+        List<ScheduleConflict> conflicts = new ArrayList<>();
+        for (DayOfWeek day : DayOfWeek.values()) {
+            ScheduleIndex.DayIntervals intervals = week.get(day);
+            for (int i = 0; i < intervals.size(); i++) {
+                // Les créneaux suivants commencent après i : ils le chevauchent tant qu'ils débutent avant sa fin
+                for (int j = i + 1; j < intervals.size() && intervals.startAt(j) < intervals.endAt(i); j++) {
+                    conflicts.add(new ScheduleConflict(
+                        day,
+                        intervals.idAt(i),
+                        intervals.idAt(j),
+                        toTime(intervals.startAt(j)),
+                        toTime(Math.min(intervals.endAt(i), intervals.endAt(j)))));
+                }
+            }
+        }
+        return conflicts;
+    }
+
+    /**
+     * Plages libres de la semaine (ou d'un jour) d'au moins minMinutes
+     */
+    public List<FreeSlot> getFreeSlots(Long userId, DayOfWeek dayOfWeek, int minMinutes) {
+        if (minMinutes < 0) {
+            throw new IllegalArgumentException("La durée minimale doit être positive");
+        }
+        return availability(userId).freeSlots(dayOfWeek, minMinutes);
+    }
+
+    /**
+     * Premier créneau libre où placer une tâche de durationMinutes, à partir du jour et de l'heure donnés
+     */
+    public FreeSlot findEarliestFit(Long userId, int durationMinutes, DayOfWeek fromDay, LocalTime after) {
+        if (durationMinutes <= 0 || durationMinutes > WeeklyAvailability.MINUTES_PER_DAY) {
+            throw new IllegalArgumentException("La durée doit être comprise entre 1 et 1440 minutes");
+        }
+        return availability(userId).earliestFit(durationMinutes, fromDay, after);
+    }
+
+    private WeeklyAvailability availability(Long userId) {
+        // Version lue avant les créneaux : une écriture validée entre les deux laisse en cache une version déjà
+        // dépassée, recalculée à la lecture suivante, jamais un bitset plus ancien que sa version
+        long version = scheduleVersions.current(userId);
+        CachedAvailability cached = availabilityCache.get(userId);
+        if (cached != null && cached.version == version) {
+            return cached.availability;
+        }
+        WeeklyAvailability availability = WeeklyAvailability.of(scheduleRepository.findByUserId(userId));
+        if (availabilityCache.size() >= availabilityCacheSize) {
+            // Cache plein : on libère un quart des entrées
+            Iterator<Long> keys = availabilityCache.keySet().iterator();
+            for (int i = availabilityCache.size() - availabilityCacheSize * 3 / 4; i > 0 && keys.hasNext(); i--) {
+                keys.next();
+                keys.remove();
+            }
+        }
+        availabilityCache.put(userId, new CachedAvailability(version, availability));
+        return availability;
+    }
+
+    /**
+     * Oublie le bitset d'un utilisateur dont les créneaux viennent d'être modifiés sur cette instance
+     * (les autres instances le voient au changement de version)
+     */
+    public void invalidateAvailability(Long userId) {
+        if (userId != null) {
+            availabilityCache.remove(userId);
+        }
+    }
+
+    /**
+     * Verrous des créneaux des utilisateurs concernés, toujours pris dans le même ordre (pas d'interblocage
+     * entre deux déplacements croisés d'un créneau d'un utilisateur à l'autre)
+     */
+    void lockSchedules(Long... userIds) {
+        TreeSet<Long> ordered = new TreeSet<>();
+        for (Long userId : userIds) {
+            if (userId != null) {
+                ordered.add(userId);
+            }
+        }
+        ordered.forEach(scheduleVersions::lockAndIncrement);
+    }
+
+    private void publishChange(Long userId, Long scheduleId, ChangeAction action) {
+        eventPublisher.publishEvent(new EntityChangedEvent(userId, EntityKind.SCHEDULE, scheduleId, action));
+    }
+
+    void checkConflicts(Schedule schedule, Long excludedId) {
+        List<Long> overlaps = scheduleIndex.findOverlaps(schedule.getUserId(), schedule.getDayOfWeek(),
+            schedule.getStartTime(), schedule.getEndTime(), excludedId);
+        if (!overlaps.isEmpty()) {
+            throw new ConflictException("Ce créneau chevauche un créneau existant (ID: " + overlaps + ")");
+        }
+    }
+
+    void validateTimes(Schedule schedule) {
+        if (schedule.getDayOfWeek() == null || schedule.getStartTime() == null || schedule.getEndTime() == null) {
+            throw new IllegalArgumentException("Le jour, l'heure de début et l'heure de fin sont obligatoires");
+        }
+        if (ScheduleIndex.toSeconds(schedule.getEndTime(), true) <= ScheduleIndex.toSeconds(schedule.getStartTime(), false)) {
+            throw new IllegalArgumentException("L'heure de fin doit être postérieure à l'heure de début");
+        }
+    }
+
+    private static LocalTime toTime(int seconds) {
+        // 24:00 n'existe pas en LocalTime : la fin de journée est renvoyée comme 23:59:59
+        return LocalTime.ofSecondOfDay(Math.min(seconds, 24 * 3600 - 1));
+    }
+
+    private static final class CachedAvailability {
+        private final long version;
+        private final WeeklyAvailability availability;
+
+        private CachedAvailability(long version, WeeklyAvailability availability) {
+            this.version = version;
+            this.availability = availability;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.personaltaskmanager.service;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Version des créneaux de chaque utilisateur (table schedule_versions).
+ * lockAndIncrement doit être appelé dans la transaction de l'écriture : le verrou de la ligne est tenu jusqu'à la
+ * validation, si bien que la vérification des chevauchements et l'écriture qui suit ne se croisent pas entre instances.
+ */
+@Component
+public class ScheduleVersions {
+    private final JdbcTemplate jdbcTemplate;
+
+    public ScheduleVersions(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /**
+     * Verrouille les créneaux de l'utilisateur jusqu'à la fin de la transaction en cours et change leur version
+     */
+    public void lockAndIncrement(Long userId) {
+        // Deux premières écritures simultanées : la seconde insertion attend la première puis ne fait rien
+        jdbcTemplate.update("INSERT INTO schedule_versions (user_id, version) VALUES (?, 0) ON CONFLICT DO NOTHING", userId);
+        jdbcTemplate.update("UPDATE schedule_versions SET version = version + 1 WHERE user_id = ?", userId);
+    }
+
+    /**
+     * Version validée des créneaux de l'utilisateur, 0 s'ils n'ont jamais été modifiés
+     */
+    public long current(Long userId) {
+        List<Long> versions = jdbcTemplate.queryForList("SELECT version FROM schedule_versions WHERE user_id = ?",
+            Long.class, userId);
+        return versions.isEmpty() ? 0 : versions.get(0);
+    }
+}
@@ -0,0 +1,318 @@
+package com.personaltaskmanager.service;
+
+import com.personaltaskmanager.enums.NoteType;
+import com.personaltaskmanager.enums.TaskDifficulty;
+import com.personaltaskmanager.model.Statistics;
+import com.personaltaskmanager.model.StatisticsBackfillCheckpoint;
+import com.personaltaskmanager.repository.StatisticsBackfillCheckpointRepository;
+import com.personaltaskmanager.sharding.GlobalIdGenerator;
+import com.personaltaskmanager.sharding.ShardContext;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Recalcul historique des statistiques journalières par utilisateur.
+ * La plage est découpée en partitions (utilisateur, mois) traitées dans un pool fork-join dédié :
+ * chaque partition lit tâches et notes en une seule passe streamée, puis écrit ses lignes par lots JDBC
+ * et enregistre un point de reprise dans la même transaction.
+ */
+@Service
+public class StatisticsBackfillService {
+    private static final Logger logger = LoggerFactory.getLogger(StatisticsBackfillService.class);
+
+    // Tâches complétées et notes créées d'un utilisateur, lues en une seule passe
+    private static final String ACTIVITY_SQL =
+        "SELECT 'T' AS kind, created_at, difficulty AS category FROM tasks " +
+        "WHERE user_id = ? AND status = 'COMPLETED' AND created_at >= ? AND created_at < ? " +
+        "UNION ALL " +
+        "SELECT 'N' AS kind, created_at, note_type AS category FROM notes " +
+        "WHERE user_id = ? AND created_at >= ? AND created_at < ?";
+
+    private static final String INSERT_SQL =
+        "INSERT INTO statistics (id, user_id, date, productive_time_minutes, tasks_completed, notes_created, " +
+        "tasks_by_difficulty, notes_by_type) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    public enum State { IDLE, RUNNING, COMPLETED, FAILED }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final StatisticsBackfillCheckpointRepository checkpointRepository;
+    private final GlobalIdGenerator idGenerator;
+    private final ForkJoinPool pool;
+    private final int parallelism;
+    private final int batchSize;
+
+    private volatile State state = State.IDLE;
+    private volatile LocalDate rangeStart;
+    private volatile LocalDate rangeEnd;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile String lastError;
+    private final AtomicInteger totalPartitions = new AtomicInteger();
+    private final AtomicInteger completedPartitions = new AtomicInteger();
+    private final AtomicInteger skippedPartitions = new AtomicInteger();
+    private final AtomicInteger failedPartitions = new AtomicInteger();
+    private final AtomicLong rowsWritten = new AtomicLong();
+
+    public StatisticsBackfillService(DataSource dataSource,
+                                     PlatformTransactionManager transactionManager,
+                                     StatisticsBackfillCheckpointRepository checkpointRepository,
+                                     GlobalIdGenerator idGenerator,
+                                     @Value("${app.statistics.backfill.parallelism:0}") int parallelism,
+                                     @Value("${app.statistics.backfill.batch-size:500}") int batchSize,
+                                     @Value("${app.statistics.backfill.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.checkpointRepository = checkpointRepository;
+        this.idGenerator = idGenerator;
+        // Par défaut la moitié des cœurs, plafonnée à 4 pour ne pas épuiser le pool de connexions en ligne
+        this.parallelism = parallelism > 0
+            ? parallelism
+            : Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+        this.batchSize = batchSize;
+        this.pool = new ForkJoinPool(this.parallelism);
+    }
+
+    /**
+     * Démarre le recalcul en arrière-plan. Retourne false si un recalcul est déjà en cours.
+     * Avec resume=true, les partitions déjà traitées (point de reprise présent) sont ignorées.
+     */
+    public synchronized boolean start(LocalDate startDate, LocalDate endDate, boolean resume) {
+        if (endDate.isBefore(startDate)) {
+            throw new IllegalArgumentException("La date de fin doit être postérieure à la date de début");
+        }
+        if (state == State.RUNNING) {
+            return false;
+        }
+
+        state = State.RUNNING;
+        rangeStart = startDate;
+        rangeEnd = endDate;
+        startedAt = LocalDateTime.now();
+        finishedAt = null;
+        lastError = null;
+        completedPartitions.set(0);
+        skippedPartitions.set(0);
+        failedPartitions.set(0);
+        rowsWritten.set(0);
+
+        try {
+            if (!resume) {
+                transactionTemplate.executeWithoutResult(status ->
+                    checkpointRepository.deleteByPartitionStartBetween(startDate, endDate));
+            }
+            List<Partition> partitions = planPartitions(startDate, endDate, resume);
+            totalPartitions.set(partitions.size() + skippedPartitions.get());
+            logger.info("Backfill des statistiques du {} au {} : {} partitions ({} déjà traitées), parallélisme {}",
+                startDate, endDate, partitions.size(), skippedPartitions.get(), parallelism);
+
+            pool.execute(new BackfillRun(partitions));
+        } catch (RuntimeException e) {
+            lastError = e.getMessage();
+            state = State.FAILED;
+            finishedAt = LocalDateTime.now();
+            throw e;
+        }
+        return true;
+    }
+
+    public Map<String, Object> getProgress() {
+        Map<String, Object> progress = new HashMap<>();
+        progress.put("state", state);
+        progress.put("startDate", rangeStart);
+        progress.put("endDate", rangeEnd);
+        progress.put("startedAt", startedAt);
+        progress.put("finishedAt", finishedAt);
+        progress.put("parallelism", parallelism);
+        progress.put("totalPartitions", totalPartitions.get());
+        progress.put("completedPartitions", completedPartitions.get());
+        progress.put("skippedPartitions", skippedPartitions.get());
+        progress.put("failedPartitions", failedPartitions.get());
+        progress.put("rowsWritten", rowsWritten.get());
+        progress.put("lastError", lastError);
+        return progress;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    private List<Partition> planPartitions(LocalDate startDate, LocalDate endDate, boolean resume) {
+        Set<String> done = new HashSet<>();
+        if (resume) {
+            // Avec le sharding, seuls les points de reprise du shard par défaut sont lus : les partitions
+            // des utilisateurs des autres shards sont recalculées, ce qui est sans effet sur le résultat
+            for (StatisticsBackfillCheckpoint checkpoint : checkpointRepository.findByPartitionStartBetween(startDate, endDate)) {
+                done.add(checkpoint.getUserId() + ":" + checkpoint.getPartitionStart() + ":" + checkpoint.getPartitionEnd());
+            }
+        }
+
+        List<Long> userIds = jdbcTemplate.queryForList("SELECT id FROM users ORDER BY id", Long.class);
+        List<Partition> partitions = new ArrayList<>();
+        for (Long userId : userIds) {
+            LocalDate partitionStart = startDate;
+            while (!partitionStart.isAfter(endDate)) {
+                LocalDate nextMonth = partitionStart.withDayOfMonth(1).plusMonths(1);
+                LocalDate partitionEnd = nextMonth.minusDays(1).isAfter(endDate) ? endDate : nextMonth.minusDays(1);
+                if (done.contains(userId + ":" + partitionStart + ":" + partitionEnd)) {
+                    skippedPartitions.incrementAndGet();
+                } else {
+                    partitions.add(new Partition(userId, partitionStart, partitionEnd));
+                }
+                partitionStart = nextMonth;
+            }
+        }
+        return partitions;
+    }
+
+    private void processPartition(Partition partition) {
+        DailyTimeSeries series = new DailyTimeSeries(partition.startDate, partition.endDate);
+        Timestamp from = Timestamp.valueOf(partition.startDate.atStartOfDay());
+        Timestamp to = Timestamp.valueOf(partition.endDate.plusDays(1).atStartOfDay());
+
+        // Lectures, lignes et point de reprise sur le shard de l'utilisateur de la partition
+        Integer written = ShardContext.callAsUser(partition.userId, () -> transactionTemplate.execute(status -> {
+            jdbcTemplate.query(ACTIVITY_SQL, (RowCallbackHandler) rs -> {
+                LocalDate date = rs.getTimestamp(2).toLocalDateTime().toLocalDate();
+                String category = rs.getString(3);
+                if ("T".equals(rs.getString(1))) {
+                    TaskDifficulty difficulty = category != null ? TaskDifficulty.valueOf(category) : null;
+                    series.addCompletedTask(date, difficulty, StatisticsService.estimateProductiveMinutes(difficulty));
+                } else {
+                    series.addNote(date, category != null ? NoteType.valueOf(category) : null);
+                }
+            }, partition.userId, from, to, partition.userId, from, to);
+
+            List<Statistics> rows = new ArrayList<>();
+            for (int i = 0; i < series.size(); i++) {
+                if (series.hasActivity(i)) {
+                    rows.add(series.toStatistics(i, partition.userId));
+                }
+            }
+
+            // Idempotent : les lignes existantes de la partition sont remplacées
+            jdbcTemplate.update("DELETE FROM statistics WHERE user_id = ? AND date >= ? AND date <= ?",
+                partition.userId, Date.valueOf(partition.startDate), Date.valueOf(partition.endDate));
+            jdbcTemplate.batchUpdate(INSERT_SQL, rows, batchSize, (ps, stats) -> {
+                ps.setLong(1, idGenerator.next());
+                ps.setLong(2, stats.getUserId());
+                ps.setDate(3, Date.valueOf(stats.getDate()));
+                ps.setInt(4, stats.getProductiveTimeMinutes());
+                ps.setInt(5, stats.getTasksCompleted());
+                ps.setInt(6, stats.getNotesCreated());
+                ps.setString(7, stats.getTasksByDifficulty());
+                ps.setString(8, stats.getNotesByType());
+            });
+
+            StatisticsBackfillCheckpoint checkpoint = new StatisticsBackfillCheckpoint();
+            checkpoint.setUserId(partition.userId);
+            checkpoint.setPartitionStart(partition.startDate);
+            checkpoint.setPartitionEnd(partition.endDate);
+            checkpoint.setRowsWritten(rows.size());
+            checkpointRepository.save(checkpoint);
+            return rows.size();
+        }));
+
+        rowsWritten.addAndGet(written != null ? written : 0);
+        completedPartitions.incrementAndGet();
+    }
+
+    private static final class Partition {
+        private final Long userId;
+        private final LocalDate startDate;
+        private final LocalDate endDate;
+
+        private Partition(Long userId, LocalDate startDate, LocalDate endDate) {
+            this.userId = userId;
+            this.startDate = startDate;
+            this.endDate = endDate;
+        }
+    }
+
+    /**
+     * Exécution complète : traite toutes les partitions puis publie l'état final
+     */
+    private final class BackfillRun extends RecursiveAction {
+        private final List<Partition> partitions;
+
+        private BackfillRun(List<Partition> partitions) {
+            this.partitions = partitions;
+        }
+
+        @Override
+        protected void compute() {
+            try {
+                new PartitionTask(partitions, 0, partitions.size()).invoke();
+                state = failedPartitions.get() > 0 ? State.FAILED : State.COMPLETED;
+            } catch (RuntimeException e) {
+                logger.error("Échec du backfill des statistiques", e);
+                lastError = e.getMessage();
+                state = State.FAILED;
+            } finally {
+                finishedAt = LocalDateTime.now();
+                logger.info("Backfill des statistiques terminé ({}) : {} lignes écrites", state, rowsWritten.get());
+            }
+        }
+    }
+
+    /**
+     * Découpe récursivement la liste de partitions jusqu'à une partition par tâche
+     */
+    private final class PartitionTask extends RecursiveAction {
+        private final List<Partition> partitions;
+        private final int from;
+        private final int to;
+
+        private PartitionTask(List<Partition> partitions, int from, int to) {
+            this.partitions = partitions;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= 1) {
+                if (to > from) {
+                    Partition partition = partitions.get(from);
+                    try {
+                        processPartition(partition);
+                    } catch (RuntimeException e) {
+                        // Une partition en échec n'interrompt pas les autres ; elle sera reprise au prochain lancement
+                        logger.error("Échec de la partition utilisateur {} du {} au {}",
+                            partition.userId, partition.startDate, partition.endDate, e);
+                        lastError = e.getMessage();
+                        failedPartitions.incrementAndGet();
+                    }
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new PartitionTask(partitions, from, middle), new PartitionTask(partitions, middle, to));
+        }
+    }
+}
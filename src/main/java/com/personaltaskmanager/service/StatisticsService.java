@@ -1,29 +1,52 @@
 package com.personaltaskmanager.service;
 
 import com.personaltaskmanager.model.Statistics;
-import com.personaltaskmanager.model.Task;
-import com.personaltaskmanager.model.Note;
+import com.personaltaskmanager.enums.NoteType;
+import com.personaltaskmanager.enums.StatisticsGranularity;
+import com.personaltaskmanager.enums.TaskDifficulty;
+import com.personaltaskmanager.enums.TaskStatus;
 import com.personaltaskmanager.repository.StatisticsRepository;
 import com.personaltaskmanager.repository.TaskRepository;
 import com.personaltaskmanager.repository.NoteRepository;
+import com.personaltaskmanager.sharding.ShardFanOut;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Service
 public class StatisticsService {
+    // Plage maximale d'une série (3 ans) pour borner la taille de la réponse
+    private static final int MAX_SERIES_DAYS = 3 * 366;
+
     private final StatisticsRepository statisticsRepository;
     private final TaskRepository taskRepository;
     private final NoteRepository noteRepository;
+    private final JsonArrayStreamer jsonArrayStreamer;
+    private final ShardFanOut shardFanOut;
+    private final Timer dashboardTimer;
 
     public StatisticsService(StatisticsRepository statisticsRepository, 
                            TaskRepository taskRepository, 
-                           NoteRepository noteRepository) {
+                           NoteRepository noteRepository,
+                           JsonArrayStreamer jsonArrayStreamer,
+                           ShardFanOut shardFanOut,
+                           MeterRegistry meterRegistry) {
         this.statisticsRepository = statisticsRepository;
         this.taskRepository = taskRepository;
         this.noteRepository = noteRepository;
+        this.jsonArrayStreamer = jsonArrayStreamer;
+        this.shardFanOut = shardFanOut;
+        this.dashboardTimer = Timer.builder("statistics.dashboard")
+            .description("Calcul du tableau de bord")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
     }
 
     public Statistics getStatisticsByDate(LocalDate date) {
@@ -31,114 +54,150 @@ public class StatisticsService {
         return calculateStatisticsForDate(date);
     }
 
-    public List<Statistics> getAllStatistics() {
-        return statisticsRepository.findAll();
+    @Transactional(readOnly = true)
+    public long writeAllStatistics(OutputStream out) throws IOException {
+        return jsonArrayStreamer.write(statisticsRepository.streamAll(), out);
     }
 
+    @Transactional(readOnly = true)
     public Statistics getStatisticsById(Long id) {
         return statisticsRepository.findById(id).orElse(null);
     }
 
     public List<Statistics> getStatisticsBetweenDates(LocalDate startDate, LocalDate endDate) {
-        return statisticsRepository.findByDateBetween(startDate, endDate);
+        List<Statistics> statistics = new ArrayList<>();
+        shardFanOut.readOnEachShard(() -> statisticsRepository.findByDateBetween(startDate, endDate))
+            .forEach(statistics::addAll);
+        statistics.sort(Comparator.comparing(Statistics::getDate));
+        return statistics;
+    }
+
+    /**
+     * Série temporelle agrégée par jour, semaine ou mois sur une plage arbitraire.
+     * Une requête par source (tâches, notes) remplit une série compacte, puis l'agrégation se fait en mémoire.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getStatisticsSeries(LocalDate startDate, LocalDate endDate,
+                                                   StatisticsGranularity granularity, Long userId) {
+        if (endDate.isBefore(startDate)) {
+            throw new IllegalArgumentException("La date de fin doit être postérieure à la date de début");
+        }
+        if (startDate.plusDays(MAX_SERIES_DAYS).isBefore(endDate)) {
+            throw new IllegalArgumentException("La plage demandée ne peut pas dépasser " + MAX_SERIES_DAYS + " jours");
+        }
+
+        DailyTimeSeries series = new DailyTimeSeries(startDate, endDate);
+        LocalDateTime from = startDate.atStartOfDay();
+        LocalDateTime to = endDate.plusDays(1).atStartOfDay();
+        if (userId != null) {
+            addActivity(series,
+                taskRepository.findActivityByUserIdAndStatusAndCreatedAtBetween(userId, TaskStatus.COMPLETED, from, to),
+                noteRepository.findActivityByUserIdAndCreatedAtBetween(userId, from, to));
+        } else {
+            // Tous les utilisateurs : chaque shard ajoute ses lignes à la même série
+            shardFanOut.runOnEachShard(() -> addActivity(series,
+                taskRepository.findActivityByStatusAndCreatedAtBetween(TaskStatus.COMPLETED, from, to),
+                noteRepository.findActivityByCreatedAtBetween(from, to)));
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("startDate", startDate.format(DateTimeFormatter.ofPattern("yyyy-MM-dd")));
+        result.put("endDate", endDate.format(DateTimeFormatter.ofPattern("yyyy-MM-dd")));
+        result.put("granularity", granularity.name().toLowerCase());
+        result.put("buckets", series.aggregate(granularity));
+        result.put("totals", series.totals());
+        return result;
     }
 
+    /**
+     * Tableau de bord de tous les utilisateurs : avec le sharding, chaque shard est lu puis les comptes sont additionnés
+     */
     public Map<String, Object> getDashboardData() {
+        return dashboardTimer.record(this::computeDashboardData);
+    }
+
+    private Map<String, Object> computeDashboardData() {
         LocalDate today = LocalDate.now();
-        LocalDate weekAgo = today.minusDays(7);
-        
+        LocalDate weekStart = today.minusDays(6);
+        LocalDateTime from = weekStart.atStartOfDay();
+        LocalDateTime to = today.plusDays(1).atStartOfDay();
+
+        DailyTimeSeries last7DaysSeries = new DailyTimeSeries(weekStart, today);
+        Map<String, Long> difficultyStats = new HashMap<>();
+        Map<String, Long> noteTypeStats = new HashMap<>();
+        shardFanOut.runOnEachShard(() -> {
+            addActivity(last7DaysSeries,
+                taskRepository.findActivityByStatusAndCreatedAtBetween(TaskStatus.COMPLETED, from, to),
+                noteRepository.findActivityByCreatedAtBetween(from, to));
+            // Répartition des tâches par difficulté et des notes par type
+            taskRepository.findAll().forEach(task -> difficultyStats.merge(task.getDifficulty().toString(), 1L, Long::sum));
+            noteRepository.findAll().forEach(note -> noteTypeStats.merge(note.getType().toString(), 1L, Long::sum));
+        });
+
         Map<String, Object> dashboard = new HashMap<>();
         
         // Statistiques d'aujourd'hui
-        Statistics todayStats = calculateStatisticsForDate(today);
-        dashboard.put("todayStats", todayStats);
+        dashboard.put("todayStats", last7DaysSeries.toStatistics(last7DaysSeries.indexOf(today), null));
         
         // Statistiques des 7 derniers jours
         List<Map<String, Object>> last7Days = new ArrayList<>();
-        for (int i = 6; i >= 0; i--) {
-            LocalDate date = today.minusDays(i);
-            Statistics dayStats = calculateStatisticsForDate(date);
+        for (int i = 0; i < last7DaysSeries.size(); i++) {
+            Statistics dayStats = last7DaysSeries.toStatistics(i, null);
             Map<String, Object> dayData = new HashMap<>();
-            dayData.put("date", date.format(DateTimeFormatter.ofPattern("yyyy-MM-dd")));
-            dayData.put("dayName", date.getDayOfWeek().toString().substring(0, 3));
+            dayData.put("date", dayStats.getDate().format(DateTimeFormatter.ofPattern("yyyy-MM-dd")));
+            dayData.put("dayName", dayStats.getDate().getDayOfWeek().toString().substring(0, 3));
             dayData.put("tasksCompleted", dayStats.getTasksCompleted());
             dayData.put("notesCreated", dayStats.getNotesCreated());
             dayData.put("productiveTimeMinutes", dayStats.getProductiveTimeMinutes());
             last7Days.add(dayData);
         }
         dashboard.put("last7Days", last7Days);
-        
-        // Répartition des tâches par difficulté
-        Map<String, Long> difficultyStats = taskRepository.findAll().stream()
-            .collect(Collectors.groupingBy(
-                task -> task.getDifficulty().toString(),
-                Collectors.counting()
-            ));
         dashboard.put("difficultyStats", difficultyStats);
-        
-        // Répartition des notes par type
-        Map<String, Long> noteTypeStats = noteRepository.findAll().stream()
-            .collect(Collectors.groupingBy(
-                note -> note.getType().toString(),
-                Collectors.counting()
-            ));
         dashboard.put("noteTypeStats", noteTypeStats);
         
         return dashboard;
     }
 
-    private Statistics calculateStatisticsForDate(LocalDate date) {
-        Statistics stats = new Statistics();
-        stats.setDate(date);
-        
-        // Tâches complétées aujourd'hui
-        List<Task> completedTasks = taskRepository.findByStatusAndCreatedAtBetween(
-            com.personaltaskmanager.enums.TaskStatus.COMPLETED,
-            date.atStartOfDay(),
-            date.plusDays(1).atStartOfDay()
-        );
-        stats.setTasksCompleted(completedTasks.size());
-        
-        // Notes créées aujourd'hui
-        List<Note> notesToday = noteRepository.findByCreatedAtBetween(
-            date.atStartOfDay(),
-            date.plusDays(1).atStartOfDay()
-        );
-        stats.setNotesCreated(notesToday.size());
-        
-        // Temps productif (estimation basée sur les tâches complétées)
-        int productiveTime = completedTasks.stream()
-            .mapToInt(task -> {
-                switch (task.getDifficulty()) {
-                    case EASY: return 30; // 30 minutes par tâche facile
-                    case MEDIUM: return 60; // 1 heure par tâche moyenne
-                    case HARD: return 120; // 2 heures par tâche difficile
-                    default: return 45;
-                }
-            })
-            .sum();
-        stats.setProductiveTimeMinutes(productiveTime);
-        
-        // Répartition des tâches par difficulté (JSON)
-        Map<String, Long> difficultyMap = completedTasks.stream()
-            .collect(Collectors.groupingBy(
-                task -> task.getDifficulty().toString(),
-                Collectors.counting()
-            ));
-        stats.setTasksByDifficulty(mapToJson(difficultyMap));
-        
-        // Répartition des notes par type (JSON)
-        Map<String, Long> noteTypeMap = notesToday.stream()
-            .collect(Collectors.groupingBy(
-                note -> note.getType().toString(),
-                Collectors.counting()
-            ));
-        stats.setNotesByType(mapToJson(noteTypeMap));
-        
-        return stats;
+    /**
+     * Statistiques d'un jour, tous utilisateurs et tous shards confondus.
+     * Visibilité paquet pour les benchmarks JMH (src/jmh/java)
+     */
+    Statistics calculateStatisticsForDate(LocalDate date) {
+        DailyTimeSeries series = new DailyTimeSeries(date, date);
+        LocalDateTime from = date.atStartOfDay();
+        LocalDateTime to = date.plusDays(1).atStartOfDay();
+        shardFanOut.runOnEachShard(() -> addActivity(series,
+            taskRepository.findActivityByStatusAndCreatedAtBetween(TaskStatus.COMPLETED, from, to),
+            noteRepository.findActivityByCreatedAtBetween(from, to)));
+        return series.toStatistics(0, null);
+    }
+
+    // Lignes (createdAt, difficulty) des tâches terminées et (createdAt, type) des notes
+    private static void addActivity(DailyTimeSeries series, List<Object[]> completedTasks, List<Object[]> notes) {
+        for (Object[] row : completedTasks) {
+            LocalDateTime createdAt = (LocalDateTime) row[0];
+            TaskDifficulty difficulty = (TaskDifficulty) row[1];
+            series.addCompletedTask(createdAt.toLocalDate(), difficulty, estimateProductiveMinutes(difficulty));
+        }
+        for (Object[] row : notes) {
+            LocalDateTime createdAt = (LocalDateTime) row[0];
+            series.addNote(createdAt.toLocalDate(), (NoteType) row[1]);
+        }
+    }
+
+    static int estimateProductiveMinutes(TaskDifficulty difficulty) {
+        if (difficulty == null) {
+            return 45;
+        }
+        switch (difficulty) {
+            case EASY: return 30; // 30 minutes par tâche facile
+            case MEDIUM: return 60; // 1 heure par tâche moyenne
+            case HARD: return 120; // 2 heures par tâche difficile
+            default: return 45;
+        }
     }
 
-    private String mapToJson(Map<String, Long> map) {
+    static String mapToJson(Map<String, Long> map) {
         StringBuilder json = new StringBuilder("{");
         boolean first = true;
         for (Map.Entry<String, Long> entry : map.entrySet()) {
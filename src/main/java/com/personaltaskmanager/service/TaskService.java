@@ -3,14 +3,20 @@ package com.personaltaskmanager.service;
 import com.personaltaskmanager.model.Task;
 import com.personaltaskmanager.enums.TaskStatus;
 import com.personaltaskmanager.enums.TaskDifficulty;
+import com.personaltaskmanager.enums.ChangeAction;
+import com.personaltaskmanager.enums.EntityKind;
+import com.personaltaskmanager.events.EntityChangedEvent;
 import com.personaltaskmanager.exception.ResourceNotFoundException;
 import com.personaltaskmanager.exception.UnauthorizedException;
 import com.personaltaskmanager.repository.TaskRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 
 @Service
@@ -18,22 +24,28 @@ import java.util.List;
 public class TaskService {
     private static final Logger logger = LoggerFactory.getLogger(TaskService.class);
     private final TaskRepository taskRepository;
+    private final JsonArrayStreamer jsonArrayStreamer;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public TaskService(TaskRepository taskRepository) {
+    public TaskService(TaskRepository taskRepository, JsonArrayStreamer jsonArrayStreamer,
+                       ApplicationEventPublisher eventPublisher) {
         this.taskRepository = taskRepository;
+        this.jsonArrayStreamer = jsonArrayStreamer;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
-     * Récupère toutes les tâches d'un utilisateur spécifique
+     * Écrit les tâches de l'utilisateur en JSON au fur et à mesure de la lecture, sans les charger toutes
      */
-    public List<Task> getTasksByUserId(Long userId) {
-        logger.debug("Récupération des tâches pour l'utilisateur {}", userId);
-        return taskRepository.findByUserId(userId);
+    @Transactional(readOnly = true)
+    public long writeTasksByUserId(Long userId, OutputStream out) throws IOException {
+        return jsonArrayStreamer.write(taskRepository.streamByUserId(userId), out);
     }
 
     /**
      * Récupère une tâche par son ID en vérifiant qu'elle appartient à l'utilisateur
      */
+    @Transactional(readOnly = true)
     public Task getTaskById(Long id, Long userId) {
         Task task = taskRepository.findById(id)
             .orElseThrow(() -> new ResourceNotFoundException("Tâche non trouvée avec l'ID: " + id));
@@ -51,7 +63,9 @@ public class TaskService {
     public Task createTask(Task task, Long userId) {
         logger.info("Création d'une nouvelle tâche pour l'utilisateur {}", userId);
         task.setUserId(userId);
-        return taskRepository.save(task);
+        Task saved = taskRepository.save(task);
+        publishChange(saved.getId(), userId, ChangeAction.CREATED);
+        return saved;
     }
 
     /**
@@ -74,7 +88,9 @@ public class TaskService {
         existingTask.setUpdatedAt(java.time.LocalDateTime.now());
         
         logger.info("Mise à jour de la tâche {} pour l'utilisateur {}", id, userId);
-        return taskRepository.save(existingTask);
+        Task saved = taskRepository.save(existingTask);
+        publishChange(id, userId, ChangeAction.UPDATED);
+        return saved;
     }
 
     /**
@@ -84,6 +100,7 @@ public class TaskService {
         Task task = getTaskById(id, userId);
         logger.info("Suppression de la tâche {} pour l'utilisateur {}", id, userId);
         taskRepository.delete(task);
+        publishChange(id, userId, ChangeAction.DELETED);
     }
 
     /**
@@ -94,12 +111,15 @@ public class TaskService {
         task.setStatus(status);
         task.setUpdatedAt(java.time.LocalDateTime.now());
         logger.info("Mise à jour du statut de la tâche {} pour l'utilisateur {}", id, userId);
-        return taskRepository.save(task);
+        Task saved = taskRepository.save(task);
+        publishChange(id, userId, ChangeAction.UPDATED);
+        return saved;
     }
 
     /**
      * Récupère les tâches par statut pour un utilisateur spécifique
      */
+    @Transactional(readOnly = true)
     public List<Task> getTasksByStatus(TaskStatus status, Long userId) {
         logger.debug("Récupération des tâches avec statut {} pour l'utilisateur {}", status, userId);
         return taskRepository.findByStatusAndUserId(status, userId);
@@ -108,8 +128,14 @@ public class TaskService {
     /**
      * Récupère les tâches par difficulté pour un utilisateur spécifique
      */
+    @Transactional(readOnly = true)
     public List<Task> getTasksByDifficulty(TaskDifficulty difficulty, Long userId) {
         logger.debug("Récupération des tâches avec difficulté {} pour l'utilisateur {}", difficulty, userId);
         return taskRepository.findByDifficultyAndUserId(difficulty, userId);
     }
-} 
\ No newline at end of file
+
+    // Diffusé aux abonnés SSE après la validation de la transaction
+    private void publishChange(Long taskId, Long userId, ChangeAction action) {
+        eventPublisher.publishEvent(new EntityChangedEvent(userId, EntityKind.TASK, taskId, action));
+    }
+}
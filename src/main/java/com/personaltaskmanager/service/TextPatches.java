@@ -0,0 +1,31 @@
+package com.personaltaskmanager.service;
+
+import com.personaltaskmanager.dto.TextEdit;
+
+import java.util.List;
+
+/**
+ * Application de patchs texte (offset, suppression, insertion) sur un contenu
+ */
+final class TextPatches {
+
+    private TextPatches() {
+    }
+
+    static String apply(String base, List<TextEdit> edits, int maxLength) {
+        StringBuilder text = new StringBuilder(base != null ? base : "");
+        for (TextEdit edit : edits) {
+            int offset = edit.getOffset();
+            long end = (long) offset + edit.getDeleteCount();
+            if (offset < 0 || edit.getDeleteCount() < 0 || end > text.length()) {
+                throw new IllegalArgumentException("Modification hors du contenu: offset " + offset
+                    + ", suppression " + edit.getDeleteCount() + ", longueur " + text.length());
+            }
+            text.replace(offset, (int) end, edit.getInsert() != null ? edit.getInsert() : "");
+            if (text.length() > maxLength) {
+                throw new IllegalArgumentException("Le contenu ne peut pas dépasser " + maxLength + " caractères");
+            }
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,73 @@
+package com.personaltaskmanager.service;
+
+import com.personaltaskmanager.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Index en mémoire des noms d'utilisateur et emails déjà pris, pour les contrôles d'unicité de l'inscription.
+ * Un filtre de Bloom répond « certainement libre » sans requête ; seul un « peut-être pris » est confirmé en base.
+ * Un compte créé par une autre instance peut manquer jusqu'à la prochaine reconstruction : la contrainte
+ * d'unicité de la table reste le dernier rempart (voir AuthService.register).
+ */
+@Component
+public class UserIdentityIndex {
+    private static final Logger logger = LoggerFactory.getLogger(UserIdentityIndex.class);
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+    private static final long MIN_CAPACITY = 10_000;
+
+    private final UserRepository userRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile BloomFilter usernames;
+    private volatile BloomFilter emails;
+
+    public UserIdentityIndex(UserRepository userRepository, DataSource dataSource,
+                             @Value("${app.auth.identity-index.fetch-size:1000}") int fetchSize) {
+        this.userRepository = userRepository;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+    }
+
+    /**
+     * Reconstruit les filtres depuis la table users, dimensionnés pour le double du nombre de comptes.
+     * Les nouveaux filtres ne remplacent les anciens qu'une fois complets.
+     */
+    @PostConstruct
+    @Scheduled(cron = "${app.auth.identity-index.rebuild-cron:0 30 3 * * *}")
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        long count = userRepository.count();
+        long capacity = Math.max(MIN_CAPACITY, count * 2);
+        BloomFilter newUsernames = new BloomFilter(capacity, FALSE_POSITIVE_RATE);
+        BloomFilter newEmails = new BloomFilter(capacity, FALSE_POSITIVE_RATE);
+        jdbcTemplate.query("SELECT username, email FROM users", (RowCallbackHandler) rs -> {
+            newUsernames.put(rs.getString(1));
+            newEmails.put(rs.getString(2));
+        });
+        usernames = newUsernames;
+        emails = newEmails;
+        logger.info("Index des identifiants reconstruit : {} comptes en {} ms", count, System.currentTimeMillis() - start);
+    }
+
+    public boolean isUsernameTaken(String username) {
+        return usernames.mightContain(username) && userRepository.existsByUsername(username);
+    }
+
+    public boolean isEmailTaken(String email) {
+        return emails.mightContain(email) && userRepository.existsByEmail(email);
+    }
+
+    public void add(String username, String email) {
+        usernames.put(username);
+        emails.put(email);
+    }
+}
@@ -0,0 +1,155 @@
+package com.personaltaskmanager.service;
+
+import com.personaltaskmanager.dto.FreeSlot;
+import com.personaltaskmanager.model.Schedule;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Occupation d'une semaine à la minute près : un bit par minute (lundi 00:00 = bit 0), 10080 bits
+ * rangés dans 158 mots de 64 bits. Les plages libres se trouvent mot par mot avec numberOfTrailingZeros
+ * au lieu de tester chaque minute. L'instance est immuable une fois construite.
+ */
+public final class WeeklyAvailability {
+    static final int MINUTES_PER_DAY = 24 * 60;
+    static final int MINUTES_PER_WEEK = 7 * MINUTES_PER_DAY;
+
+    private final long[] busy = new long[(MINUTES_PER_WEEK + 63) >>> 6];
+
+    private WeeklyAvailability() {
+    }
+
+    public static WeeklyAvailability of(List<Schedule> schedules) {
+        WeeklyAvailability availability = new WeeklyAvailability();
+        for (Schedule schedule : schedules) {
+            if (schedule.getDayOfWeek() == null || schedule.getStartTime() == null || schedule.getEndTime() == null) {
+                continue;
+            }
+            int dayOffset = dayOffset(schedule.getDayOfWeek());
+            // Une minute entamée est occupée : début arrondi à la minute inférieure, fin à la minute supérieure
+            int start = ScheduleIndex.toSeconds(schedule.getStartTime(), false) / 60;
+            int end = (ScheduleIndex.toSeconds(schedule.getEndTime(), true) + 59) / 60;
+            if (end > start) {
+                availability.markBusy(dayOffset + start, dayOffset + end);
+            }
+        }
+        return availability;
+    }
+
+    /**
+     * Plages libres d'au moins minMinutes, découpées à minuit, pour un jour ou toute la semaine (day null)
+     */
+    public List<FreeSlot> freeSlots(DayOfWeek day, int minMinutes) {
+        List<FreeSlot> slots = new ArrayList<>();
+        int firstDay = day != null ? day.ordinal() : 0;
+        int lastDay = day != null ? day.ordinal() : 6;
+        for (int d = firstDay; d <= lastDay; d++) {
+            int dayStart = d * MINUTES_PER_DAY;
+            int dayEnd = dayStart + MINUTES_PER_DAY;
+            int cursor = dayStart;
+            while (cursor < dayEnd) {
+                int start = nextFree(cursor, dayEnd);
+                if (start >= dayEnd) {
+                    break;
+                }
+                int end = nextBusy(start, dayEnd);
+                if (end - start >= minMinutes) {
+                    slots.add(toSlot(start, end));
+                }
+                cursor = end;
+            }
+        }
+        return slots;
+    }
+
+    /**
+     * Première plage libre d'au moins durationMinutes commençant à partir de (day, after), ou null.
+     * La recherche ne déborde pas sur la semaine suivante.
+     */
+    public FreeSlot earliestFit(int durationMinutes, DayOfWeek day, LocalTime after) {
+        int from = (day != null ? dayOffset(day) : 0) + (after != null ? (after.toSecondOfDay() + 59) / 60 : 0);
+        while (from < MINUTES_PER_WEEK) {
+            int dayEnd = (from / MINUTES_PER_DAY + 1) * MINUTES_PER_DAY;
+            int start = nextFree(from, dayEnd);
+            if (start >= dayEnd) {
+                from = dayEnd;
+                continue;
+            }
+            int end = nextBusy(start, dayEnd);
+            if (end - start >= durationMinutes) {
+                return toSlot(start, start + durationMinutes);
+            }
+            from = end;
+        }
+        return null;
+    }
+
+    public boolean isBusy(int minute) {
+        return (busy[minute >>> 6] & (1L << minute)) != 0;
+    }
+
+    private void markBusy(int from, int to) {
+        int firstWord = from >>> 6;
+        int lastWord = (to - 1) >>> 6;
+        // Les décalages Java sont pris modulo 64 : -1L << from ne garde que les bits >= from dans son mot
+        long firstMask = -1L << from;
+        long lastMask = -1L >>> (63 - ((to - 1) & 63));
+        if (firstWord == lastWord) {
+            busy[firstWord] |= firstMask & lastMask;
+            return;
+        }
+        busy[firstWord] |= firstMask;
+        for (int w = firstWord + 1; w < lastWord; w++) {
+            busy[w] = -1L;
+        }
+        busy[lastWord] |= lastMask;
+    }
+
+    // Première minute libre dans [from, limit), ou limit
+    private int nextFree(int from, int limit) {
+        int w = from >>> 6;
+        long word = ~busy[w] & (-1L << from);
+        while (true) {
+            if (word != 0) {
+                return Math.min(limit, (w << 6) + Long.numberOfTrailingZeros(word));
+            }
+            if (++w << 6 >= limit) {
+                return limit;
+            }
+            word = ~busy[w];
+        }
+    }
+
+    // Première minute occupée dans [from, limit), ou limit
+    private int nextBusy(int from, int limit) {
+        int w = from >>> 6;
+        long word = busy[w] & (-1L << from);
+        while (true) {
+            if (word != 0) {
+                return Math.min(limit, (w << 6) + Long.numberOfTrailingZeros(word));
+            }
+            if (++w << 6 >= limit) {
+                return limit;
+            }
+            word = busy[w];
+        }
+    }
+
+    private static int dayOffset(DayOfWeek day) {
+        return day.ordinal() * MINUTES_PER_DAY;
+    }
+
+    private static FreeSlot toSlot(int start, int end) {
+        DayOfWeek day = DayOfWeek.values()[start / MINUTES_PER_DAY];
+        int startOfDay = start % MINUTES_PER_DAY;
+        int endOfDay = end - start / MINUTES_PER_DAY * MINUTES_PER_DAY;
+        return new FreeSlot(
+            day,
+            LocalTime.ofSecondOfDay(startOfDay * 60L),
+            LocalTime.ofSecondOfDay(endOfDay % MINUTES_PER_DAY * 60L),
+            end - start);
+    }
+}
@@ -0,0 +1,643 @@
+package com.personaltaskmanager.service;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.personaltaskmanager.enums.DocumentType;
+import com.personaltaskmanager.exception.ConflictException;
+import com.personaltaskmanager.model.Comment;
+import com.personaltaskmanager.model.Document;
+import com.personaltaskmanager.model.Note;
+import com.personaltaskmanager.model.Schedule;
+import com.personaltaskmanager.model.Task;
+import com.personaltaskmanager.repository.CommentRepository;
+import com.personaltaskmanager.repository.DocumentRepository;
+import com.personaltaskmanager.repository.NoteRepository;
+import com.personaltaskmanager.repository.ScheduleRepository;
+import com.personaltaskmanager.repository.TaskRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StreamUtils;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Sauvegarde complète d'un espace de travail en archive ZIP, écrite et relue en flux :
+ * manifest.json, puis tasks.ndjson (commentaires imbriqués dans leur tâche), notes.ndjson, schedules.ndjson,
+ * documents.ndjson, et enfin les fichiers sous files/documents/ et files/audio/.
+ *
+ * L'export lit les entités par lots (pagination par clé sur l'ID) en vidant le contexte de persistance
+ * après chaque lot, et copie les fichiers du disque vers l'archive sans les charger en mémoire.
+ * L'import ajoute le contenu de l'archive à l'espace de l'utilisateur avec de nouveaux identifiants,
+ * par INSERT groupés ; seule la correspondance des IDs de dossiers est gardée en mémoire.
+ *
+ * Les chemins de fichiers des documents et des notes viennent en partie du client : l'export ne lit que ceux
+ * qui, une fois résolus (liens symboliques compris), restent sous app.upload.dir ou le dossier audio.
+ * L'import borne la taille décompressée de chaque fichier (app.workspace.archive.max-entry-bytes), la longueur
+ * d'une ligne NDJSON, le nombre d'entrées et le total lu, compressé comme décompressé : une archive forgée
+ * ne peut ni remplir le disque ni épuiser la mémoire.
+ * Les créneaux importés passent par la même vérification des chevauchements que ScheduleService, sous le verrou
+ * des créneaux de l'utilisateur : un chevauchement annule tout l'import.
+ */
+@Service
+public class WorkspaceArchiveService {
+    private static final Logger logger = LoggerFactory.getLogger(WorkspaceArchiveService.class);
+
+    static final String FORMAT = "memento-workspace";
+    static final int FORMAT_VERSION = 1;
+    private static final String MANIFEST = "manifest.json";
+    private static final String TASKS = "tasks.ndjson";
+    private static final String NOTES = "notes.ndjson";
+    private static final String SCHEDULES = "schedules.ndjson";
+    private static final String DOCUMENTS = "documents.ndjson";
+    private static final String DOCUMENT_FILES = "files/documents/";
+    private static final String AUDIO_FILES = "files/audio/";
+
+    private final TaskRepository taskRepository;
+    private final CommentRepository commentRepository;
+    private final NoteRepository noteRepository;
+    private final ScheduleRepository scheduleRepository;
+    private final DocumentRepository documentRepository;
+    private final ScheduleService scheduleService;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final String uploadDir;
+    private final int batchSize;
+    private final long maxEntryBytes;
+    private final int maxLineLength;
+    private final int maxEntries;
+    private final long maxTotalBytes;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public WorkspaceArchiveService(TaskRepository taskRepository, CommentRepository commentRepository,
+                                   NoteRepository noteRepository, ScheduleRepository scheduleRepository,
+                                   DocumentRepository documentRepository, ScheduleService scheduleService,
+                                   PlatformTransactionManager transactionManager, ObjectMapper objectMapper,
+                                   @Value("${app.upload.dir:uploads}") String uploadDir,
+                                   @Value("${app.workspace.archive.batch-size:500}") int batchSize,
+                                   @Value("${app.workspace.archive.max-entry-bytes:52428800}") long maxEntryBytes,
+                                   @Value("${app.workspace.archive.max-line-length:4194304}") int maxLineLength,
+                                   @Value("${app.workspace.archive.max-entries:10000}") int maxEntries,
+                                   @Value("${app.workspace.archive.max-total-bytes:1073741824}") long maxTotalBytes) {
+        this.taskRepository = taskRepository;
+        this.commentRepository = commentRepository;
+        this.noteRepository = noteRepository;
+        this.scheduleRepository = scheduleRepository;
+        this.documentRepository = documentRepository;
+        this.scheduleService = scheduleService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Les commentaires sont écrits dans leur tâche par ce service, pas par les associations JPA
+        this.objectMapper = objectMapper.copy()
+            .addMixIn(Task.class, TaskArchiveMixin.class)
+            .addMixIn(Comment.class, CommentArchiveMixin.class)
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        this.uploadDir = uploadDir;
+        this.batchSize = batchSize;
+        this.maxEntryBytes = maxEntryBytes;
+        this.maxLineLength = maxLineLength;
+        this.maxEntries = maxEntries;
+        this.maxTotalBytes = maxTotalBytes;
+    }
+
+    /**
+     * Écrit l'archive dans le flux, sans le fermer. Une seule transaction en lecture : l'archive reflète
+     * un état cohérent de l'espace de travail.
+     *
+     * @return le nombre d'éléments exportés par catégorie
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Long> exportWorkspace(Long userId, OutputStream out) throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(out, StandardCharsets.UTF_8);
+        Map<String, Long> counts = new LinkedHashMap<>();
+
+        ObjectNode manifest = objectMapper.createObjectNode();
+        manifest.put("format", FORMAT);
+        manifest.put("version", FORMAT_VERSION);
+        manifest.put("userId", userId);
+        manifest.put("exportedAt", LocalDateTime.now().toString());
+        zip.putNextEntry(new ZipEntry(MANIFEST));
+        zip.write(objectMapper.writeValueAsBytes(manifest));
+        zip.closeEntry();
+
+        zip.putNextEntry(new ZipEntry(TASKS));
+        counts.put("tasks", forEachBatch(
+            afterId -> taskRepository.findByUserIdAndIdGreaterThanOrderByIdAsc(userId, afterId, page()),
+            Task::getId, tasks -> writeTasks(zip, tasks)));
+        zip.closeEntry();
+
+        zip.putNextEntry(new ZipEntry(NOTES));
+        counts.put("notes", forEachBatch(
+            afterId -> noteRepository.findByUserIdAndIdGreaterThanOrderByIdAsc(userId, afterId, page()),
+            Note::getId, notes -> writeLines(zip, notes)));
+        zip.closeEntry();
+
+        zip.putNextEntry(new ZipEntry(SCHEDULES));
+        counts.put("schedules", forEachBatch(
+            afterId -> scheduleRepository.findByUserIdAndIdGreaterThanOrderByIdAsc(userId, afterId, page()),
+            Schedule::getId, schedules -> writeLines(zip, schedules)));
+        zip.closeEntry();
+
+        zip.putNextEntry(new ZipEntry(DOCUMENTS));
+        counts.put("documents", forEachBatch(
+            afterId -> documentRepository.findByUserIdAndIdGreaterThanOrderByIdAsc(userId, afterId, page()),
+            Document::getId, documents -> writeLines(zip, documents)));
+        zip.closeEntry();
+
+        // Audio, PDF, images : déjà compressés pour la plupart, stockés sans recompression
+        zip.setLevel(Deflater.NO_COMPRESSION);
+        counts.put("files", forEachBatch(
+            afterId -> documentRepository.findFilePathsAfter(userId, afterId, page()),
+            row -> (Long) row[0], rows -> copyFiles(zip, DOCUMENT_FILES, rows, Paths.get(""), Paths.get(uploadDir))));
+        Path audioDirectory = Paths.get(NoteService.AUDIO_UPLOAD_DIR);
+        counts.merge("files", forEachBatch(
+            afterId -> noteRepository.findMediaPathsAfter(userId, afterId, page()),
+            row -> (Long) row[0], rows -> copyFiles(zip, AUDIO_FILES, rows, audioDirectory, audioDirectory)),
+            Long::sum);
+
+        zip.finish();
+        return counts;
+    }
+
+    /**
+     * Importe une archive produite par {@link #exportWorkspace} dans l'espace de l'utilisateur.
+     * Tout ou rien : en cas d'erreur, aucune ligne n'est conservée et les fichiers déjà écrits sont supprimés.
+     */
+    public Map<String, Object> importWorkspace(Long userId, InputStream in) throws IOException {
+        long start = System.currentTimeMillis();
+        // Préfixe propre à cet import : pas de collision avec les fichiers existants, ni de table de correspondance
+        ImportState state = new ImportState(userId, UUID.randomUUID().toString().substring(0, 8) + "-");
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                // Pas d'écriture concurrente des créneaux de l'utilisateur pendant l'import, sur aucune instance
+                scheduleService.lockSchedules(userId);
+                try {
+                    readArchive(in, state);
+                } catch (ZipException | JsonProcessingException e) {
+                    throw new IllegalArgumentException("Archive invalide: " + e.getMessage(), e);
+                } catch (ConstraintViolationException e) {
+                    throw new IllegalArgumentException("Archive invalide: " + e.getMessage(), e);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            deleteImportedFiles(state.filePrefix);
+            throw e.getCause();
+        } catch (RuntimeException e) {
+            deleteImportedFiles(state.filePrefix);
+            throw e;
+        }
+        // Les autres instances voient la nouvelle version des créneaux
+        scheduleService.invalidateAvailability(userId);
+
+        Map<String, Object> result = new LinkedHashMap<>(state.counts);
+        result.put("durationMs", System.currentTimeMillis() - start);
+        logger.info("Espace de travail importé pour l'utilisateur {} : {}", userId, result);
+        return result;
+    }
+
+    private void readArchive(InputStream in, ImportState state) throws IOException {
+        ZipInputStream zip = new ZipInputStream(new LimitedInputStream(in, maxTotalBytes, "archive"), StandardCharsets.UTF_8);
+        // Les lecteurs JSON et les copies ferment leur flux : l'archive doit rester ouverte entre deux entrées
+        InputStream entry = new LimitedInputStream(StreamUtils.nonClosing(zip), maxTotalBytes, "contenu décompressé");
+        boolean manifestRead = false;
+        int entries = 0;
+        ZipEntry zipEntry;
+        while ((zipEntry = zip.getNextEntry()) != null) {
+            if (++entries > maxEntries) {
+                throw new IllegalArgumentException("Archive invalide: plus de " + maxEntries + " entrées");
+            }
+            readEntry(zipEntry, entry, state, manifestRead);
+            manifestRead = true;
+            // Reste de l'entrée (entrée ignorée, JSON suivi d'autre chose) compté lui aussi dans le total décompressé
+            entry.transferTo(OutputStream.nullOutputStream());
+        }
+        if (!manifestRead) {
+            throw new IllegalArgumentException("Archive invalide: manifest.json absent");
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private void readEntry(ZipEntry zipEntry, InputStream entry, ImportState state, boolean manifestRead) throws IOException {
+        String name = zipEntry.getName();
+        if (name.equals(MANIFEST)) {
+            checkManifest(objectMapper.readTree(entry));
+            return;
+        }
+        if (!manifestRead) {
+            throw new IllegalArgumentException("Archive invalide: manifest.json doit être la première entrée");
+        }
+        switch (name) {
+            case TASKS -> readLines(entry, node -> importTask(node, state));
+            case NOTES -> readLines(entry, node -> importNote(node, state));
+            case SCHEDULES -> readLines(entry, node -> importSchedule(node, state));
+            case DOCUMENTS -> {
+                readLines(entry, node -> importDocument(node, state));
+                resolvePendingParents(state);
+            }
+            default -> {
+                if (name.startsWith(DOCUMENT_FILES)) {
+                    importFile(entry, name.substring(DOCUMENT_FILES.length()), Paths.get(uploadDir), state);
+                } else if (name.startsWith(AUDIO_FILES)) {
+                    importFile(entry, name.substring(AUDIO_FILES.length()), Paths.get(NoteService.AUDIO_UPLOAD_DIR), state);
+                } else if (!zipEntry.isDirectory()) {
+                    logger.debug("Entrée d'archive ignorée: {}", name);
+                }
+            }
+        }
+    }
+
+    private void checkManifest(JsonNode manifest) {
+        if (!FORMAT.equals(manifest.path("format").asText()) || manifest.path("version").asInt() > FORMAT_VERSION) {
+            throw new IllegalArgumentException("Archive invalide: format " + manifest.path("format").asText()
+                + " version " + manifest.path("version").asText() + " non pris en charge");
+        }
+    }
+
+    private void importTask(JsonNode node, ImportState state) throws JsonProcessingException {
+        Task task = objectMapper.treeToValue(node, Task.class);
+        task.setId(null);
+        task.setUserId(state.userId);
+        task.setComments(new ArrayList<>());
+        for (JsonNode commentNode : node.path("comments")) {
+            Comment comment = objectMapper.treeToValue(commentNode, Comment.class);
+            comment.setId(null);
+            comment.setUserId(state.userId);
+            comment.setTask(task);
+            task.getComments().add(comment);
+        }
+        taskRepository.save(task);
+        state.written("tasks", 1);
+        state.written("comments", task.getComments().size());
+    }
+
+    private void importNote(JsonNode node, ImportState state) throws JsonProcessingException {
+        Note note = objectMapper.treeToValue(node, Note.class);
+        note.setId(null);
+        note.setUserId(state.userId);
+        if (note.getMediaPath() != null) {
+            note.setMediaPath(state.filePrefix + Paths.get(note.getMediaPath()).getFileName());
+        }
+        noteRepository.save(note);
+        state.written("notes", 1);
+    }
+
+    private void importSchedule(JsonNode node, ImportState state) throws JsonProcessingException {
+        Schedule schedule = objectMapper.treeToValue(node, Schedule.class);
+        schedule.setId(null);
+        schedule.setUserId(state.userId);
+        scheduleService.validateTimes(schedule);
+        try {
+            // Comparé aux créneaux existants et à ceux déjà importés (flush automatique avant la requête)
+            scheduleService.checkConflicts(schedule, null);
+        } catch (ConflictException e) {
+            throw new ConflictException("Archive refusée : le créneau « " + schedule.getTitle() + " » du "
+                + schedule.getDayOfWeek() + " (" + schedule.getStartTime() + "-" + schedule.getEndTime() + ") "
+                + "chevauche un créneau existant ou importé");
+        }
+        scheduleRepository.save(schedule);
+        state.written("schedules", 1);
+    }
+
+    private void importDocument(JsonNode node, ImportState state) throws JsonProcessingException {
+        Document document = objectMapper.treeToValue(node, Document.class);
+        Long originalId = document.getId();
+        Long originalParentId = document.getParentId();
+        document.setId(null);
+        document.setUserId(state.userId);
+        document.setParentId(originalParentId != null ? state.folderIds.get(originalParentId) : null);
+        if (document.getFilePath() != null) {
+            String fileName = state.filePrefix + Paths.get(document.getFilePath()).getFileName();
+            document.setFilePath(Paths.get(uploadDir).resolve(fileName).toString());
+            document.setFileUrl("/api/documents/files/" + fileName);
+        }
+        documentRepository.save(document);
+
+        if (document.getType() == DocumentType.FOLDER && originalId != null) {
+            state.folderIds.put(originalId, document.getId());
+        }
+        if (originalParentId != null && document.getParentId() == null) {
+            // Dossier parent plus loin dans l'archive : rattachement une fois tous les documents lus
+            state.pendingParents.add(new long[] {document.getId(), originalParentId});
+        }
+        state.written("documents", 1);
+    }
+
+    private void resolvePendingParents(ImportState state) {
+        entityManager.flush();
+        entityManager.clear();
+        for (long[] pending : state.pendingParents) {
+            Long parentId = state.folderIds.get(pending[1]);
+            if (parentId != null) {
+                documentRepository.updateParentId(pending[0], parentId);
+            }
+        }
+        state.pendingParents.clear();
+    }
+
+    private void importFile(InputStream in, String name, Path directory, ImportState state) throws IOException {
+        if (name.isEmpty() || name.startsWith(".") || name.contains("/") || name.contains("\\")) {
+            throw new IllegalArgumentException("Archive invalide: nom de fichier refusé " + name);
+        }
+        Files.createDirectories(directory);
+        // Taille déclarée dans l'archive non fiable : la limite porte sur les octets réellement décompressés
+        try (OutputStream out = Files.newOutputStream(directory.resolve(state.filePrefix + name), StandardOpenOption.CREATE_NEW)) {
+            byte[] buffer = new byte[8192];
+            long total = 0;
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                total += read;
+                if (total > maxEntryBytes) {
+                    throw new IllegalArgumentException("Archive invalide: fichier " + name + " de plus de "
+                        + maxEntryBytes + " octets une fois décompressé");
+                }
+                out.write(buffer, 0, read);
+            }
+        }
+        state.counts.merge("files", 1L, Long::sum);
+    }
+
+    private void deleteImportedFiles(String filePrefix) {
+        for (Path directory : List.of(Paths.get(uploadDir), Paths.get(NoteService.AUDIO_UPLOAD_DIR))) {
+            if (!Files.isDirectory(directory)) {
+                continue;
+            }
+            try (Stream<Path> files = Files.list(directory)) {
+                files.filter(path -> path.getFileName().toString().startsWith(filePrefix)).forEach(path -> {
+                    try {
+                        Files.deleteIfExists(path);
+                    } catch (IOException e) {
+                        logger.warn("Fichier d'un import annulé non supprimé: {}", path);
+                    }
+                });
+            } catch (IOException e) {
+                logger.warn("Nettoyage de l'import annulé impossible dans {}", directory, e);
+            }
+        }
+    }
+
+    private long writeTasks(OutputStream out, List<Task> tasks) throws IOException {
+        List<Long> taskIds = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            taskIds.add(task.getId());
+        }
+        // Une requête par lot pour les commentaires, et non une par tâche
+        Map<Long, ArrayNode> commentsByTask = new HashMap<>();
+        for (Comment comment : commentRepository.findByTaskIdInOrderByIdAsc(taskIds)) {
+            commentsByTask.computeIfAbsent(comment.getTask().getId(), id -> objectMapper.createArrayNode())
+                .add(objectMapper.valueToTree(comment));
+        }
+        for (Task task : tasks) {
+            ObjectNode node = objectMapper.valueToTree(task);
+            node.set("comments", commentsByTask.getOrDefault(task.getId(), objectMapper.createArrayNode()));
+            writeLine(out, node);
+        }
+        return tasks.size();
+    }
+
+    private long writeLines(OutputStream out, List<?> rows) throws IOException {
+        for (Object row : rows) {
+            writeLine(out, row);
+        }
+        return rows.size();
+    }
+
+    private void writeLine(OutputStream out, Object value) throws IOException {
+        out.write(objectMapper.writeValueAsBytes(value));
+        out.write('\n');
+    }
+
+    /**
+     * Copie dans l'archive les fichiers des lignes (ID, chemin), chemins résolus depuis resolveFrom ;
+     * ceux qui sortent de allowedDirectory sont ignorés
+     */
+    private long copyFiles(ZipOutputStream zip, String folder, List<Object[]> rows, Path resolveFrom,
+                           Path allowedDirectory) throws IOException {
+        if (!Files.isDirectory(allowedDirectory)) {
+            return 0;
+        }
+        Path allowed = allowedDirectory.toRealPath();
+        long copied = 0;
+        for (Object[] row : rows) {
+            Path path = confinedFile(resolveFrom, (String) row[1], allowed);
+            if (path == null) {
+                logger.warn("Fichier introuvable ou hors de {}, absent de l'export: {}", allowedDirectory, row[1]);
+                continue;
+            }
+            try {
+                zip.putNextEntry(new ZipEntry(folder + path.getFileName()));
+            } catch (ZipException e) {
+                // Fichier déjà présent dans l'archive (référencé deux fois)
+                continue;
+            }
+            Files.copy(path, zip);
+            zip.closeEntry();
+            copied++;
+        }
+        return copied;
+    }
+
+    private static Path confinedFile(Path resolveFrom, String storedPath, Path allowed) {
+        try {
+            Path path = resolveFrom.resolve(storedPath).normalize().toRealPath();
+            return path.startsWith(allowed) && Files.isRegularFile(path) ? path : null;
+        } catch (IOException | InvalidPathException e) {
+            return null;
+        }
+    }
+
+    private <T> long forEachBatch(Function<Long, List<T>> nextBatch, Function<T, Long> idOf,
+                                  BatchWriter<T> writer) throws IOException {
+        long total = 0;
+        Long afterId = 0L;
+        while (true) {
+            List<T> batch = nextBatch.apply(afterId);
+            if (batch.isEmpty()) {
+                return total;
+            }
+            total += writer.write(batch);
+            afterId = idOf.apply(batch.get(batch.size() - 1));
+            entityManager.clear();
+            if (batch.size() < batchSize) {
+                return total;
+            }
+        }
+    }
+
+    /**
+     * Lignes NDJSON de longueur bornée : readLine accumulerait en mémoire une ligne sans fin
+     */
+    private void readLines(InputStream in, LineReader reader) throws IOException {
+        Reader chars = new InputStreamReader(in, StandardCharsets.UTF_8);
+        StringBuilder line = new StringBuilder();
+        char[] buffer = new char[8192];
+        int read;
+        while ((read = chars.read(buffer)) != -1) {
+            int from = 0;
+            for (int i = 0; i < read; i++) {
+                if (buffer[i] == '\n') {
+                    appendBounded(line, buffer, from, i - from);
+                    readLine(line, reader);
+                    line.setLength(0);
+                    from = i + 1;
+                }
+            }
+            appendBounded(line, buffer, from, read - from);
+        }
+        readLine(line, reader);
+    }
+
+    private void appendBounded(StringBuilder line, char[] buffer, int offset, int length) {
+        if (line.length() + length > maxLineLength) {
+            throw new IllegalArgumentException("Archive invalide: ligne de plus de " + maxLineLength + " caractères");
+        }
+        line.append(buffer, offset, length);
+    }
+
+    private void readLine(CharSequence line, LineReader reader) throws IOException {
+        String text = line.toString();
+        if (!text.isBlank()) {
+            reader.read(objectMapper.readTree(text));
+        }
+    }
+
+    private Pageable page() {
+        return PageRequest.of(0, batchSize);
+    }
+
+    @FunctionalInterface
+    private interface BatchWriter<T> {
+        long write(List<T> batch) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface LineReader {
+        void read(JsonNode node) throws IOException;
+    }
+
+    @JsonIgnoreProperties({"comments", "overdue"})
+    private abstract static class TaskArchiveMixin {
+    }
+
+    @JsonIgnoreProperties({"task"})
+    private abstract static class CommentArchiveMixin {
+    }
+
+    /**
+     * Flux qui refuse d'être lu au-delà de limit octets
+     */
+    private static final class LimitedInputStream extends FilterInputStream {
+        private final long limit;
+        private final String description;
+        private long count;
+
+        private LimitedInputStream(InputStream in, long limit, String description) {
+            super(in);
+            this.limit = limit;
+            this.description = description;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                counted(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read > 0) {
+                counted(read);
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            counted(skipped);
+            return skipped;
+        }
+
+        private void counted(long bytes) {
+            count += bytes;
+            if (count > limit) {
+                throw new IllegalArgumentException("Archive invalide: " + description + " de plus de " + limit + " octets");
+            }
+        }
+    }
+
+    private final class ImportState {
+        private final Long userId;
+        private final String filePrefix;
+        private final Map<String, Long> counts = new LinkedHashMap<>();
+        // Ancien ID de dossier → nouvel ID, pour rattacher les documents à leur parent
+        private final Map<Long, Long> folderIds = new HashMap<>();
+        private final List<long[]> pendingParents = new ArrayList<>();
+        private int unflushed;
+
+        private ImportState(Long userId, String filePrefix) {
+            this.userId = userId;
+            this.filePrefix = filePrefix;
+        }
+
+        /**
+         * Les INSERT partent par lots JDBC au flush ; le contexte est vidé pour que la mémoire ne suive pas l'archive
+         */
+        private void written(String category, long rows) {
+            counts.merge(category, rows, Long::sum);
+            unflushed += rows;
+            if (unflushed >= batchSize) {
+                entityManager.flush();
+                entityManager.clear();
+                unflushed = 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.personaltaskmanager.sharding;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Anneau de hachage cohérent : chaque shard y occupe virtualNodes positions, un utilisateur revient au
+ * premier shard rencontré après la position de son ID. Ajouter un shard ne déplace qu'environ 1/N
+ * des utilisateurs. Immuable, la recherche est une dichotomie sur un tableau trié.
+ */
+public final class ConsistentHashRing {
+    private final long[] positions;
+    private final String[] owners;
+
+    public ConsistentHashRing(Collection<String> shards, int virtualNodes) {
+        if (shards.isEmpty() || virtualNodes < 1) {
+            throw new IllegalArgumentException("L'anneau doit contenir au moins un shard et un nœud virtuel");
+        }
+        List<long[]> points = new ArrayList<>();
+        List<String> names = new ArrayList<>(shards);
+        for (int s = 0; s < names.size(); s++) {
+            for (int i = 0; i < virtualNodes; i++) {
+                points.add(new long[] {hash(names.get(s) + "#" + i), s});
+            }
+        }
+        points.sort((a, b) -> Long.compare(a[0], b[0]));
+        this.positions = new long[points.size()];
+        this.owners = new String[points.size()];
+        for (int i = 0; i < points.size(); i++) {
+            positions[i] = points.get(i)[0];
+            owners[i] = names.get((int) points.get(i)[1]);
+        }
+    }
+
+    public String shardFor(long userId) {
+        int index = Arrays.binarySearch(positions, mix(userId));
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return owners[index == positions.length ? 0 : index];
+    }
+
+    // FNV-1a 64 bits, puis brassage pour répartir les libellés proches
+    private static long hash(String label) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : label.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    // Finaliseur de MurmurHash3 : des IDs consécutifs tombent à des positions éloignées
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
@@ -0,0 +1,18 @@
+package com.personaltaskmanager.sharding;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Identifiant attribué par {@link GlobalIdGenerator} avant l'INSERT, à la place de la colonne IDENTITY :
+ * les lignes d'un utilisateur gardent leur identifiant quand elles changent de shard.
+ */
+@IdGeneratorType(GlobalIdentifierGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface GlobalId {
+}
@@ -0,0 +1,64 @@
+package com.personaltaskmanager.sharding;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Identifiants uniques sur tous les shards, sans coordination : horodatage en millisecondes depuis 2024,
+ * numéro d'instance et compteur. Ils tiennent sur 53 bits pour rester exacts dans un nombre JavaScript.
+ *
+ * Disposition : 41 bits de temps (jusqu'en 2093), 5 bits d'instance (app.ids.node-id, 0 à 31),
+ * 7 bits de compteur (128 identifiants par milliseconde et par instance).
+ * Sans app.ids.node-id, l'instance prend le numéro 0 : suffisant pour une instance unique, refusé au démarrage
+ * quand le sharding est activé (voir ShardingConfig).
+ */
+@Component
+public class GlobalIdGenerator {
+    private static final long EPOCH_MILLIS = 1704067200000L; // 2024-01-01T00:00:00Z
+    private static final int NODE_BITS = 5;
+    private static final int SEQUENCE_BITS = 7;
+    private static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    // Instance utilisée par Hibernate, qui crée ses générateurs hors du contexte Spring
+    private static volatile GlobalIdGenerator current = new GlobalIdGenerator(0);
+
+    private final long nodeId;
+    private long lastTimestamp = -1;
+    private long sequence;
+
+    @Autowired
+    public GlobalIdGenerator(@Value("${app.ids.node-id:}") String nodeId) {
+        this(nodeId.isBlank() ? 0 : Long.parseLong(nodeId.trim()));
+    }
+
+    public GlobalIdGenerator(long nodeId) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("app.ids.node-id doit être compris entre 0 et " + MAX_NODE_ID);
+        }
+        this.nodeId = nodeId;
+        current = this;
+    }
+
+    public static GlobalIdGenerator current() {
+        return current;
+    }
+
+    public synchronized long next() {
+        long timestamp = System.currentTimeMillis() - EPOCH_MILLIS;
+        if (timestamp <= lastTimestamp) {
+            // Même milliseconde ou horloge revenue en arrière : on reste sur le dernier horodatage,
+            // et on emprunte la milliseconde suivante quand le compteur est épuisé
+            timestamp = lastTimestamp;
+            sequence = (sequence + 1) & SEQUENCE_MASK;
+            if (sequence == 0) {
+                timestamp++;
+            }
+        } else {
+            sequence = 0;
+        }
+        lastTimestamp = timestamp;
+        return (timestamp << (NODE_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS) | sequence;
+    }
+}
@@ -0,0 +1,62 @@
+package com.personaltaskmanager.sharding;
+
+import java.util.function.Supplier;
+
+/**
+ * Utilisateur dont le shard doit servir le code exécuté hors requête HTTP (tâches planifiées, traitements
+ * de fond). Dans une requête, c'est l'utilisateur authentifié qui détermine le shard.
+ * Les lectures qui couvrent tous les utilisateurs désignent le shard par son nom (voir {@link ShardFanOut}).
+ */
+public final class ShardContext {
+    private static final ThreadLocal<Long> USER_ID = new ThreadLocal<>();
+    private static final ThreadLocal<String> SHARD = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    public static Long getUserId() {
+        return USER_ID.get();
+    }
+
+    public static String getShard() {
+        return SHARD.get();
+    }
+
+    public static <T> T callAsUser(Long userId, Supplier<T> action) {
+        Long previous = USER_ID.get();
+        USER_ID.set(userId);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                USER_ID.remove();
+            } else {
+                USER_ID.set(previous);
+            }
+        }
+    }
+
+    public static void runAsUser(Long userId, Runnable action) {
+        callAsUser(userId, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Exécute l'action sur le shard nommé, quel que soit l'utilisateur de la requête
+     */
+    public static <T> T callOnShard(String shard, Supplier<T> action) {
+        String previous = SHARD.get();
+        SHARD.set(shard);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                SHARD.remove();
+            } else {
+                SHARD.set(previous);
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.personaltaskmanager.sharding;
+
+import org.springframework.beans.factory.DisposableBean;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Sources de données de chaque shard, par nom. Le shard par défaut est la base spring.datasource :
+ * il porte aussi les tables globales (users, email_outbox) et l'annuaire des shards.
+ */
+public class ShardDataSources implements DisposableBean {
+    private final String defaultShard;
+    private final Map<String, DataSource> dataSources;
+
+    public ShardDataSources(String defaultShard, Map<String, DataSource> dataSources) {
+        if (!dataSources.containsKey(defaultShard)) {
+            throw new IllegalArgumentException("Shard par défaut inconnu: " + defaultShard);
+        }
+        this.defaultShard = defaultShard;
+        this.dataSources = Collections.unmodifiableMap(new LinkedHashMap<>(dataSources));
+    }
+
+    public String getDefaultShard() {
+        return defaultShard;
+    }
+
+    public Set<String> getShardNames() {
+        return dataSources.keySet();
+    }
+
+    public boolean contains(String shard) {
+        return dataSources.containsKey(shard);
+    }
+
+    public DataSource get(String shard) {
+        DataSource dataSource = dataSources.get(shard);
+        if (dataSource == null) {
+            throw new IllegalArgumentException("Shard inconnu: " + shard);
+        }
+        return dataSource;
+    }
+
+    public Map<String, DataSource> asMap() {
+        return dataSources;
+    }
+
+    /**
+     * Ferme les pools créés pour les shards supplémentaires ; celui du shard par défaut est un bean géré par Spring
+     */
+    @Override
+    public void destroy() throws IOException {
+        for (Map.Entry<String, DataSource> entry : dataSources.entrySet()) {
+            if (!entry.getKey().equals(defaultShard) && entry.getValue() instanceof Closeable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package com.personaltaskmanager.sharding;
+
+import com.personaltaskmanager.exception.ConflictException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Annuaire utilisateur → shard, dans la table shard_directory du shard par défaut, avec un cache local.
+ * Un nouvel utilisateur est placé selon l'anneau de hachage cohérent et son shard est enregistré :
+ * ajouter un shard à l'anneau ne change donc pas le shard des utilisateurs existants, seul un déplacement
+ * explicite le fait. Les utilisateurs absents de l'annuaire (créés avant le sharding) restent sur le shard par défaut.
+ *
+ * Le cache est rafraîchi toutes les app.sharding.directory-refresh-ms, sur un thread dédié, pour voir les
+ * déplacements lancés depuis une autre instance. Chaque rafraîchissement est acquitté dans shard_directory_acks
+ * sous le numéro d'instance (app.ids.node-id) : un déplacement attend ces acquittements plutôt qu'un délai fixe.
+ */
+public class ShardDirectory implements SmartLifecycle {
+    private static final Logger logger = LoggerFactory.getLogger(ShardDirectory.class);
+    // Relecture des lignes récentes pour ne pas manquer une écriture validée après le rafraîchissement précédent
+    private static final long REFRESH_OVERLAP_MILLIS = 60_000;
+    // Instance considérée arrêtée après ce nombre de rafraîchissements manqués
+    private static final int MISSED_REFRESHES_BEFORE_DEAD = 3;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ShardDataSources shards;
+    private final ConsistentHashRing ring;
+    private final int nodeId;
+    private final long refreshMillis;
+    private final Placement defaultPlacement;
+    private final Map<Long, Placement> placements = new ConcurrentHashMap<>();
+    private volatile Timestamp lastUpdate = new Timestamp(0);
+    private volatile ScheduledExecutorService refresher;
+
+    public ShardDirectory(ShardDataSources shards, ConsistentHashRing ring, int nodeId, long refreshMillis) {
+        this.jdbcTemplate = new JdbcTemplate(shards.get(shards.getDefaultShard()));
+        this.shards = shards;
+        this.ring = ring;
+        this.nodeId = nodeId;
+        this.refreshMillis = refreshMillis;
+        this.defaultPlacement = new Placement(shards.getDefaultShard(), null);
+    }
+
+    public String getDefaultShard() {
+        return shards.getDefaultShard();
+    }
+
+    public Placement placementOf(Long userId) {
+        Placement placement = placements.get(userId);
+        if (placement == null) {
+            List<Placement> rows = jdbcTemplate.query(
+                "SELECT shard, moving_to FROM shard_directory WHERE user_id = ?",
+                (rs, rowNum) -> new Placement(rs.getString(1), rs.getString(2)), userId);
+            placement = rows.isEmpty() ? defaultPlacement : rows.get(0);
+            Placement concurrent = placements.putIfAbsent(userId, placement);
+            if (concurrent != null) {
+                placement = concurrent;
+            }
+        }
+        return placement;
+    }
+
+    public String shardFor(Long userId) {
+        return placementOf(userId).getShard();
+    }
+
+    public String ringShardFor(Long userId) {
+        return ring.shardFor(userId);
+    }
+
+    /**
+     * Place un nouvel utilisateur sur le shard désigné par l'anneau
+     */
+    public String assign(Long userId) {
+        String shard = ring.shardFor(userId);
+        jdbcTemplate.update("INSERT INTO shard_directory (user_id, shard, updated_at) VALUES (?, ?, CURRENT_TIMESTAMP)",
+            userId, shard);
+        placements.put(userId, new Placement(shard, null));
+        return shard;
+    }
+
+    /**
+     * Marque l'utilisateur en cours de déplacement : ses écritures sont refusées jusqu'à la fin
+     */
+    public void beginMove(Long userId, String source, String target) {
+        int updated = jdbcTemplate.update(
+            "UPDATE shard_directory SET moving_to = ?, updated_at = CURRENT_TIMESTAMP " +
+            "WHERE user_id = ? AND shard = ? AND moving_to IS NULL", target, userId, source);
+        if (updated == 0) {
+            Integer existing = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM shard_directory WHERE user_id = ?", Integer.class, userId);
+            if (existing != null && existing > 0) {
+                throw new ConflictException("Un déplacement est déjà en cours pour l'utilisateur " + userId);
+            }
+            try {
+                jdbcTemplate.update("INSERT INTO shard_directory (user_id, shard, moving_to, updated_at) " +
+                    "VALUES (?, ?, ?, CURRENT_TIMESTAMP)", userId, source, target);
+            } catch (DuplicateKeyException e) {
+                throw new ConflictException("Un déplacement est déjà en cours pour l'utilisateur " + userId);
+            }
+        }
+        placements.put(userId, new Placement(source, target));
+    }
+
+    public void completeMove(Long userId, String target) {
+        jdbcTemplate.update("UPDATE shard_directory SET shard = ?, moving_to = NULL, updated_at = CURRENT_TIMESTAMP " +
+            "WHERE user_id = ?", target, userId);
+        placements.put(userId, new Placement(target, null));
+    }
+
+    public void abortMove(Long userId, String source) {
+        jdbcTemplate.update("UPDATE shard_directory SET shard = ?, moving_to = NULL, updated_at = CURRENT_TIMESTAMP " +
+            "WHERE user_id = ?", source, userId);
+        placements.put(userId, new Placement(source, null));
+    }
+
+    /**
+     * Premier rafraîchissement avant l'ouverture du serveur web, puis à intervalle fixe. Le thread est propre
+     * à l'annuaire : les tâches @Scheduled partagent un ordonnanceur où une tâche lente retarderait l'acquittement.
+     */
+    @Override
+    public void start() {
+        refresh();
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "shard-directory-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::refresh, refreshMillis, refreshMillis, TimeUnit.MILLISECONDS);
+        refresher = executor;
+    }
+
+    @Override
+    public void stop() {
+        ScheduledExecutorService executor = refresher;
+        if (executor != null) {
+            executor.shutdownNow();
+            refresher = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return refresher != null;
+    }
+
+    // Avant le serveur web (phase DEFAULT_PHASE - 1024) : le premier acquittement précède la première requête servie
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    public void refresh() {
+        Timestamp since = new Timestamp(Math.max(0, lastUpdate.getTime() - REFRESH_OVERLAP_MILLIS));
+        Timestamp[] latest = {lastUpdate};
+        try {
+            // Tout ce qui était validé à cette heure de la base est vu par la lecture qui suit
+            Timestamp readAt = databaseTime();
+            jdbcTemplate.query("SELECT user_id, shard, moving_to, updated_at FROM shard_directory WHERE updated_at >= ?",
+                (RowCallbackHandler) rs -> {
+                    placements.put(rs.getLong(1), new Placement(rs.getString(2), rs.getString(3)));
+                    Timestamp updatedAt = rs.getTimestamp(4);
+                    if (updatedAt.after(latest[0])) {
+                        latest[0] = updatedAt;
+                    }
+                }, since);
+            lastUpdate = latest[0];
+            acknowledge(readAt);
+        } catch (RuntimeException e) {
+            logger.warn("Rafraîchissement de l'annuaire des shards impossible: {}", e.getMessage());
+        }
+    }
+
+    private void acknowledge(Timestamp readAt) {
+        if (jdbcTemplate.update("UPDATE shard_directory_acks SET refreshed_at = ? WHERE node_id = ?", readAt, nodeId) == 0) {
+            try {
+                jdbcTemplate.update("INSERT INTO shard_directory_acks (node_id, refreshed_at) VALUES (?, ?)", nodeId, readAt);
+            } catch (DuplicateKeyException e) {
+                // Autre instance avec le même app.ids.node-id : ses acquittements masqueraient ceux de celle-ci
+                logger.error("Acquittement de l'annuaire déjà créé pour l'instance {} : app.ids.node-id en double ?", nodeId);
+            }
+        }
+    }
+
+    /**
+     * Attend que toutes les instances actives aient rafraîchi leur cache après les écritures de l'annuaire déjà
+     * validées. Une instance sans acquittement depuis trois intervalles de rafraîchissement est considérée arrêtée ;
+     * au-delà de ce délai, le déplacement est abandonné plutôt que poursuivi à l'aveugle.
+     */
+    public void awaitPropagation() {
+        Timestamp written = databaseTime();
+        long pollMillis = Math.max(50, refreshMillis / 10);
+        long deadline = System.nanoTime()
+            + TimeUnit.MILLISECONDS.toNanos((MISSED_REFRESHES_BEFORE_DEAD + 1) * refreshMillis + pollMillis);
+        while (true) {
+            Timestamp aliveSince = new Timestamp(databaseTime().getTime() - MISSED_REFRESHES_BEFORE_DEAD * refreshMillis);
+            List<Integer> lagging = jdbcTemplate.queryForList(
+                "SELECT node_id FROM shard_directory_acks WHERE refreshed_at < ? AND refreshed_at >= ?",
+                Integer.class, written, aliveSince);
+            if (lagging.isEmpty()) {
+                return;
+            }
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("Annuaire des shards non rafraîchi par les instances " + lagging);
+            }
+            try {
+                Thread.sleep(pollMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Attente de l'annuaire des shards interrompue", e);
+            }
+        }
+    }
+
+    private Timestamp databaseTime() {
+        return jdbcTemplate.queryForObject("SELECT CURRENT_TIMESTAMP", Timestamp.class);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Long> usersByShard = new LinkedHashMap<>();
+        for (String shard : shards.getShardNames()) {
+            usersByShard.put(shard, 0L);
+        }
+        List<Map<String, Object>> moving = new ArrayList<>();
+        jdbcTemplate.query("SELECT user_id, shard, moving_to FROM shard_directory", (RowCallbackHandler) rs -> {
+            usersByShard.merge(rs.getString(2), 1L, Long::sum);
+            if (rs.getString(3) != null) {
+                Map<String, Object> move = new HashMap<>();
+                move.put("userId", rs.getLong(1));
+                move.put("from", rs.getString(2));
+                move.put("to", rs.getString(3));
+                moving.add(move);
+            }
+        });
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("defaultShard", shards.getDefaultShard());
+        stats.put("shards", shards.getShardNames());
+        // Hors utilisateurs antérieurs au sharding, absents de l'annuaire et servis par le shard par défaut
+        stats.put("usersByShard", usersByShard);
+        stats.put("moving", moving);
+        stats.put("cachedPlacements", placements.size());
+        return stats;
+    }
+
+    /**
+     * Shard d'un utilisateur, et shard cible s'il est en cours de déplacement
+     */
+    public static final class Placement {
+        private final String shard;
+        private final String movingTo;
+
+        private Placement(String shard, String movingTo) {
+            this.shard = shard;
+            this.movingTo = movingTo;
+        }
+
+        public String getShard() {
+            return shard;
+        }
+
+        public String getMovingTo() {
+            return movingTo;
+        }
+
+        public boolean isMoving() {
+            return movingTo != null;
+        }
+    }
+}
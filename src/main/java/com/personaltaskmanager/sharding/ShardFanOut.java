@@ -0,0 +1,57 @@
+package com.personaltaskmanager.sharding;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Lectures qui couvrent tous les utilisateurs (tableau de bord, statistiques globales) : sans sharding,
+ * une seule transaction en lecture seule ; avec, une par shard, l'une après l'autre, et l'appelant fusionne
+ * les résultats. Un utilisateur en cours de déplacement peut être compté sur ses deux shards, le temps
+ * entre la copie de ses lignes et leur suppression à la source.
+ */
+@Component
+public class ShardFanOut {
+    private final ShardDataSources shards;
+    private final TransactionTemplate readOnlyTransaction;
+    private final TransactionTemplate shardTransaction;
+
+    public ShardFanOut(ObjectProvider<ShardDataSources> shards, PlatformTransactionManager transactionManager) {
+        this.shards = shards.getIfAvailable();
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        // La connexion d'une transaction est fixée à son début : chaque shard a la sienne, même appelé
+        // depuis une transaction déjà ouverte
+        this.shardTransaction = new TransactionTemplate(transactionManager);
+        this.shardTransaction.setReadOnly(true);
+        this.shardTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Résultat de la lecture sur chaque shard, dans l'ordre de la configuration
+     */
+    public <T> List<T> readOnEachShard(Supplier<T> read) {
+        List<T> results = new ArrayList<>();
+        if (shards == null) {
+            results.add(readOnlyTransaction.execute(status -> read.get()));
+            return results;
+        }
+        for (String shard : shards.getShardNames()) {
+            results.add(ShardContext.callOnShard(shard, () -> shardTransaction.execute(status -> read.get())));
+        }
+        return results;
+    }
+
+    public void runOnEachShard(Runnable read) {
+        readOnEachShard(() -> {
+            read.run();
+            return null;
+        });
+    }
+}
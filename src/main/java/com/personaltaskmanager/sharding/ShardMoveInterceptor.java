@@ -0,0 +1,38 @@
+package com.personaltaskmanager.sharding;
+
+import com.personaltaskmanager.exception.ShardMoveInProgressException;
+import com.personaltaskmanager.security.CurrentUser;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.Set;
+
+/**
+ * Refuse en 503 (Retry-After) les requêtes de modification d'un utilisateur en cours de déplacement,
+ * avant qu'elles n'ouvrent une transaction
+ */
+public class ShardMoveInterceptor implements HandlerInterceptor {
+    private static final Set<String> READ_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+
+    private final ShardDirectory directory;
+    private final long retryAfterSeconds;
+
+    public ShardMoveInterceptor(ShardDirectory directory, long retryAfterSeconds) {
+        this.directory = directory;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (READ_METHODS.contains(request.getMethod())) {
+            return true;
+        }
+        Long userId = CurrentUser.getUserId();
+        if (userId != null && directory.placementOf(userId).isMoving()) {
+            throw new ShardMoveInProgressException(
+                "Données en cours de déplacement, réessayez dans quelques secondes", retryAfterSeconds);
+        }
+        return true;
+    }
+}
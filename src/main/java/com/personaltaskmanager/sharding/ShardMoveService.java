@@ -0,0 +1,227 @@
+package com.personaltaskmanager.sharding;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.ResultSetMetaData;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Déplacement en ligne des données d'un utilisateur vers un autre shard :
+ * 1. l'annuaire le marque en déplacement, ses écritures sont refusées (lectures servies par l'origine) ;
+ * 2. attente que toutes les instances aient vu ce marquage (acquittements de l'annuaire, voir ShardDirectory) ;
+ * 3. copie de ses lignes, identifiants compris, dans une seule transaction sur la cible, puis contrôle des volumes ;
+ * 4. bascule de l'annuaire vers la cible, nouvelle attente des acquittements, puis suppression des lignes d'origine.
+ * En cas d'échec avant la bascule, l'utilisateur reste sur son shard d'origine.
+ * Les fichiers déposés (documents, pièces jointes) sont sur disque et ne dépendent pas du shard.
+ */
+public class ShardMoveService {
+    private static final Logger logger = LoggerFactory.getLogger(ShardMoveService.class);
+
+    // Tables propres à un utilisateur, parents avant enfants
+    private static final List<TenantTable> TABLES = List.of(
+        new TenantTable("tasks", "user_id = ?"),
+        new TenantTable("comments", "task_id IN (SELECT id FROM tasks WHERE user_id = ?)"),
+        new TenantTable("notes", "user_id = ?"),
+        new TenantTable("schedules", "user_id = ?"),
+        new TenantTable("schedule_versions", "user_id = ?", "user_id"),
+        new TenantTable("calendar_feed_tokens", "user_id = ?", "user_id"),
+        new TenantTable("documents", "user_id = ?"),
+        new TenantTable("statistics", "user_id = ?"),
+        new TenantTable("statistics_backfill_checkpoints", "user_id = ?"));
+
+    private final ShardDirectory directory;
+    private final ShardDataSources shards;
+    private final int batchSize;
+
+    public ShardMoveService(ShardDirectory directory, ShardDataSources shards, int batchSize) {
+        this.directory = directory;
+        this.shards = shards;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Un seul déplacement à la fois par instance ; l'annuaire empêche deux déplacements simultanés d'un même utilisateur
+     */
+    public synchronized Map<String, Object> move(Long userId, String target) {
+        if (!shards.contains(target)) {
+            throw new IllegalArgumentException("Shard inconnu: " + target);
+        }
+        String source = directory.shardFor(userId);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("userId", userId);
+        result.put("from", source);
+        result.put("to", target);
+        if (source.equals(target)) {
+            result.put("moved", false);
+            return result;
+        }
+
+        long start = System.currentTimeMillis();
+        directory.beginMove(userId, source, target);
+        Map<String, Long> rows;
+        try {
+            directory.awaitPropagation();
+            rows = copy(userId, source, target);
+            directory.completeMove(userId, target);
+        } catch (RuntimeException e) {
+            logger.error("Déplacement de l'utilisateur {} de {} vers {} abandonné", userId, source, target, e);
+            directory.abortMove(userId, source);
+            throw e;
+        }
+        logger.info("Utilisateur {} déplacé de {} vers {} : {}", userId, source, target, rows);
+
+        // Les autres instances lisent encore l'origine jusqu'à leur prochain rafraîchissement
+        boolean sourceDeleted;
+        try {
+            directory.awaitPropagation();
+            delete(userId, source);
+            sourceDeleted = true;
+        } catch (RuntimeException e) {
+            logger.error("Lignes de l'utilisateur {} non supprimées de {} après déplacement", userId, source, e);
+            sourceDeleted = false;
+        }
+
+        result.put("moved", true);
+        result.put("rows", rows);
+        result.put("sourceDeleted", sourceDeleted);
+        result.put("durationMs", System.currentTimeMillis() - start);
+        return result;
+    }
+
+    private Map<String, Long> copy(Long userId, String source, String target) {
+        DataSource targetDataSource = shards.get(target);
+        JdbcTemplate sourceJdbc = new JdbcTemplate(shards.get(source));
+        sourceJdbc.setFetchSize(batchSize);
+        JdbcTemplate targetJdbc = new JdbcTemplate(targetDataSource);
+        TransactionTemplate sourceTransaction = readOnlyTransaction(shards.get(source));
+
+        return new TransactionTemplate(new DataSourceTransactionManager(targetDataSource)).execute(status -> {
+            // Restes d'une tentative précédente interrompue
+            deleteRows(targetJdbc, userId);
+
+            Map<String, Long> copied = new LinkedHashMap<>();
+            for (TenantTable table : TABLES) {
+                long count = sourceTransaction.execute(readStatus -> copyTable(sourceJdbc, targetJdbc, table, userId));
+                Long expected = sourceJdbc.queryForObject(
+                    "SELECT COUNT(*) FROM " + table.name + " WHERE " + table.filter, Long.class, userId);
+                Long actual = targetJdbc.queryForObject(
+                    "SELECT COUNT(*) FROM " + table.name + " WHERE " + table.filter, Long.class, userId);
+                if (expected == null || actual == null || expected != count || actual != count) {
+                    throw new IllegalStateException("Copie incomplète de " + table.name + " : " + expected
+                        + " lignes à l'origine, " + actual + " sur la cible");
+                }
+                copied.put(table.name, count);
+            }
+            return copied;
+        });
+    }
+
+    private long copyTable(JdbcTemplate sourceJdbc, JdbcTemplate targetJdbc, TenantTable table, Long userId) {
+        ResultSetExtractor<Long> extractor = rs -> {
+            ResultSetMetaData metaData = rs.getMetaData();
+            int columnCount = metaData.getColumnCount();
+            StringJoiner columns = new StringJoiner(", ");
+            StringJoiner placeholders = new StringJoiner(", ");
+            for (int i = 1; i <= columnCount; i++) {
+                columns.add(metaData.getColumnName(i));
+                placeholders.add("?");
+            }
+            String insertSql = "INSERT INTO " + table.name + " (" + columns + ") VALUES (" + placeholders + ")";
+
+            List<Object[]> batch = new ArrayList<>(batchSize);
+            long count = 0;
+            while (rs.next()) {
+                Object[] row = new Object[columnCount];
+                for (int i = 0; i < columnCount; i++) {
+                    row[i] = rs.getObject(i + 1);
+                }
+                batch.add(row);
+                if (batch.size() == batchSize) {
+                    targetJdbc.batchUpdate(insertSql, batch);
+                    count += batch.size();
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                targetJdbc.batchUpdate(insertSql, batch);
+                count += batch.size();
+            }
+            return count;
+        };
+        Long count = sourceJdbc.query("SELECT * FROM " + table.name + " WHERE " + table.filter + " ORDER BY " + table.orderBy,
+            extractor, userId);
+        return count != null ? count : 0;
+    }
+
+    private void delete(Long userId, String shard) {
+        DataSource dataSource = shards.get(shard);
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        new TransactionTemplate(new DataSourceTransactionManager(dataSource))
+            .executeWithoutResult(status -> deleteRows(jdbc, userId));
+    }
+
+    // Enfants avant parents
+    private void deleteRows(JdbcTemplate jdbc, Long userId) {
+        for (int i = TABLES.size() - 1; i >= 0; i--) {
+            TenantTable table = TABLES.get(i);
+            jdbc.update("DELETE FROM " + table.name + " WHERE " + table.filter, userId);
+        }
+    }
+
+    private static TransactionTemplate readOnlyTransaction(DataSource dataSource) {
+        TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        transaction.setReadOnly(true);
+        return transaction;
+    }
+
+    /**
+     * Shards dont l'utilisateur n'est pas sur la position de l'anneau, à déplacer pour rééquilibrer
+     * (après l'ajout d'un shard, ou pour les utilisateurs antérieurs au sharding)
+     */
+    public List<Map<String, Object>> rebalancePlan(int limit) {
+        JdbcTemplate jdbc = new JdbcTemplate(shards.get(shards.getDefaultShard()));
+        List<Map<String, Object>> plan = new ArrayList<>();
+        for (Long userId : jdbc.queryForList("SELECT id FROM users ORDER BY id", Long.class)) {
+            if (plan.size() >= limit) {
+                break;
+            }
+            String current = directory.shardFor(userId);
+            String ring = directory.ringShardFor(userId);
+            if (!current.equals(ring)) {
+                Map<String, Object> move = new HashMap<>();
+                move.put("userId", userId);
+                move.put("from", current);
+                move.put("to", ring);
+                plan.add(move);
+            }
+        }
+        return plan;
+    }
+
+    private static final class TenantTable {
+        private final String name;
+        private final String filter;
+        private final String orderBy;
+
+        private TenantTable(String name, String filter) {
+            this(name, filter, "id");
+        }
+
+        private TenantTable(String name, String filter, String orderBy) {
+            this.name = name;
+            this.filter = filter;
+            this.orderBy = orderBy;
+        }
+    }
+}
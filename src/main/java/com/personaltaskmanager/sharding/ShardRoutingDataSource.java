@@ -0,0 +1,49 @@
+package com.personaltaskmanager.sharding;
+
+import com.personaltaskmanager.exception.ShardMoveInProgressException;
+import com.personaltaskmanager.security.CurrentUser;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Aiguillage des connexions vers le shard nommé dans {@link ShardContext}, sinon vers celui de l'utilisateur :
+ * l'utilisateur de {@link ShardContext} s'il est posé, sinon l'utilisateur authentifié de la requête. Sans utilisateur (authentification, tâches planifiées
+ * des tables globales), la connexion part sur le shard par défaut.
+ *
+ * Pendant le déplacement d'un utilisateur, ses transactions en écriture sont refusées : seules les lectures
+ * continuent sur le shard d'origine. Enveloppée dans un LazyConnectionDataSourceProxy pour que le caractère
+ * readOnly de la transaction soit connu au moment du choix.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+    private final ShardDirectory directory;
+    private final long retryAfterSeconds;
+
+    public ShardRoutingDataSource(ShardDirectory directory, long retryAfterSeconds) {
+        this.directory = directory;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String shard = ShardContext.getShard();
+        if (shard != null) {
+            return shard;
+        }
+        Long userId = ShardContext.getUserId();
+        if (userId == null) {
+            userId = CurrentUser.getUserId();
+        }
+        if (userId == null) {
+            return directory.getDefaultShard();
+        }
+
+        ShardDirectory.Placement placement = directory.placementOf(userId);
+        if (placement.isMoving()
+                && TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            throw new ShardMoveInProgressException(
+                "Données de l'utilisateur en cours de déplacement, réessayez dans quelques secondes", retryAfterSeconds);
+        }
+        return placement.getShard();
+    }
+}
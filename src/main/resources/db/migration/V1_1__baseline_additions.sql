@@ -0,0 +1,39 @@
+-- Colonnes, tables et index ajoutés aux entités avant l'arrivée de Flyway. Une instance de cette période
+-- a pu les créer elle-même (ddl-auto=update) : tout est en IF NOT EXISTS.
+-- Version 1.1 : doit passer avant V2, dont les index portent sur ces objets.
+
+-- Statistiques par utilisateur (StatisticsService, StatisticsBackfillService)
+ALTER TABLE statistics ADD COLUMN IF NOT EXISTS user_id BIGINT;
+
+CREATE TABLE IF NOT EXISTS statistics_backfill_checkpoints (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    partition_start DATE NOT NULL,
+    partition_end DATE NOT NULL,
+    rows_written INTEGER,
+    completed_at TIMESTAMP(6)
+);
+
+-- Versions du contenu (patchs de NoteService / DocumentService) : 0 pour les lignes existantes
+ALTER TABLE notes ADD COLUMN IF NOT EXISTS content_version BIGINT DEFAULT 0;
+ALTER TABLE documents ADD COLUMN IF NOT EXISTS content_version BIGINT DEFAULT 0;
+
+-- Liste des notes d'un utilisateur (épinglées d'abord, puis par date de modification) et filtre par type
+CREATE INDEX IF NOT EXISTS idx_notes_user_pinned_updated ON notes (user_id, is_pinned, updated_at);
+CREATE INDEX IF NOT EXISTS idx_notes_user_type ON notes (user_id, note_type);
+
+-- File d'envoi des emails (EmailOutboxDispatcher)
+CREATE TABLE IF NOT EXISTS email_outbox (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    recipient VARCHAR(100) NOT NULL,
+    subject VARCHAR(255) NOT NULL,
+    body VARCHAR(5000) NOT NULL,
+    status VARCHAR(255) NOT NULL,
+    attempts INTEGER NOT NULL,
+    next_attempt_at TIMESTAMP(6) NOT NULL,
+    last_error VARCHAR(1000),
+    created_at TIMESTAMP(6),
+    sent_at TIMESTAMP(6)
+);
+
+CREATE INDEX IF NOT EXISTS idx_email_outbox_status_next_attempt ON email_outbox (status, next_attempt_at);
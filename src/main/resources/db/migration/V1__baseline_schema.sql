@@ -0,0 +1,103 @@
+-- Schéma de départ, exactement celui que spring.jpa.hibernate.ddl-auto=update produisait avec les entités
+-- d'origine (Hibernate 6.4, PostgreSQL) : mêmes types, mêmes contraintes.
+-- Les bases déjà créées par Hibernate sont marquées à cette version sans l'exécuter
+-- (spring.flyway.baseline-on-migrate) : tout ce qui a été ajouté depuis va dans les migrations suivantes.
+
+CREATE TABLE users (
+    id BIGSERIAL NOT NULL,
+    username VARCHAR(50) NOT NULL UNIQUE,
+    email VARCHAR(100) NOT NULL UNIQUE,
+    password VARCHAR(255) NOT NULL,
+    first_name VARCHAR(255),
+    last_name VARCHAR(255),
+    created_at TIMESTAMP(6),
+    last_login TIMESTAMP(6),
+    reset_code VARCHAR(6),
+    reset_code_expiry TIMESTAMP(6),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE tasks (
+    id BIGSERIAL NOT NULL,
+    title VARCHAR(255) NOT NULL,
+    description VARCHAR(1000),
+    status VARCHAR(255) NOT NULL CHECK (status IN ('PENDING', 'IN_PROGRESS', 'COMPLETED')),
+    difficulty VARCHAR(255) NOT NULL CHECK (difficulty IN ('EASY', 'MEDIUM', 'HARD')),
+    priority VARCHAR(255) NOT NULL CHECK (priority IN ('LOW', 'MEDIUM', 'HIGH', 'URGENT')),
+    due_date DATE,
+    created_at TIMESTAMP(6),
+    updated_at TIMESTAMP(6),
+    user_id BIGINT NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE comments (
+    id BIGSERIAL NOT NULL,
+    content VARCHAR(2000) NOT NULL,
+    author_name VARCHAR(255),
+    file_path VARCHAR(255),
+    file_name VARCHAR(255),
+    created_at TIMESTAMP(6),
+    user_id BIGINT,
+    task_id BIGINT NOT NULL,
+    PRIMARY KEY (id)
+);
+
+-- Nom généré par Hibernate, conservé pour que les bases marquées et les bases migrées se ressemblent
+ALTER TABLE comments ADD CONSTRAINT FKi7pp0331nbiwd2844kg78kfwb FOREIGN KEY (task_id) REFERENCES tasks;
+
+CREATE TABLE notes (
+    id BIGSERIAL NOT NULL,
+    title VARCHAR(255) NOT NULL,
+    content VARCHAR(5000),
+    is_pinned BOOLEAN,
+    note_type VARCHAR(255) CHECK (note_type IN ('TEXT', 'VOICE', 'IMAGE')),
+    media_path VARCHAR(255),
+    created_at TIMESTAMP(6),
+    updated_at TIMESTAMP(6),
+    user_id BIGINT,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE schedules (
+    id BIGSERIAL NOT NULL,
+    day_of_week VARCHAR(255) NOT NULL
+        CHECK (day_of_week IN ('MONDAY', 'TUESDAY', 'WEDNESDAY', 'THURSDAY', 'FRIDAY', 'SATURDAY', 'SUNDAY')),
+    start_time TIME(6) NOT NULL,
+    end_time TIME(6) NOT NULL,
+    title VARCHAR(255) NOT NULL,
+    description VARCHAR(1000),
+    is_work_schedule BOOLEAN,
+    created_at TIMESTAMP(6),
+    updated_at TIMESTAMP(6),
+    user_id BIGINT,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE documents (
+    id BIGSERIAL NOT NULL,
+    name VARCHAR(255) NOT NULL,
+    type VARCHAR(255) NOT NULL CHECK (type IN ('FOLDER', 'FILE')),
+    file_type VARCHAR(255) CHECK (file_type IN ('TEXT', 'IMAGE', 'PDF', 'VIDEO', 'AUDIO', 'DOCUMENT', 'OTHER')),
+    parent_id BIGINT,
+    content VARCHAR(10000),
+    file_url VARCHAR(255),
+    file_path VARCHAR(255),
+    file_size BIGINT,
+    mime_type VARCHAR(255),
+    created_at TIMESTAMP(6),
+    updated_at TIMESTAMP(6),
+    user_id BIGINT NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE statistics (
+    id BIGSERIAL NOT NULL,
+    date DATE NOT NULL,
+    productive_time_minutes INTEGER,
+    tasks_completed INTEGER,
+    notes_created INTEGER,
+    tasks_by_difficulty VARCHAR(255),
+    notes_by_type VARCHAR(255),
+    PRIMARY KEY (id)
+);
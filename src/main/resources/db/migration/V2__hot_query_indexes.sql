@@ -0,0 +1,36 @@
+-- Index composites alignés sur les requêtes des repositories et des services JDBC.
+-- IF NOT EXISTS : sur une grosse base, un index peut être construit à l'avance avec
+-- CREATE INDEX CONCURRENTLY sous le même nom, cette migration le laisse alors en place.
+
+-- TaskRepository.findByUserId, findByStatusAndUserId, findActivityByUserIdAndStatusAndCreatedAtBetween,
+-- StatisticsBackfillService (tâches complétées d'un utilisateur sur une période)
+CREATE INDEX IF NOT EXISTS idx_tasks_user_status_created ON tasks (user_id, status, created_at);
+-- TaskRepository.findByStatusAndCreatedAtBetween, findActivityByStatusAndCreatedAtBetween (tableau de bord)
+CREATE INDEX IF NOT EXISTS idx_tasks_status_created ON tasks (status, created_at);
+-- TaskRepository.findByDifficultyAndUserId
+CREATE INDEX IF NOT EXISTS idx_tasks_user_difficulty ON tasks (user_id, difficulty);
+-- TaskRepository.findByUserIdAndStatusNotAndDueDateBetween, CalendarService (échéances)
+CREATE INDEX IF NOT EXISTS idx_tasks_user_due_date ON tasks (user_id, due_date);
+
+-- CommentRepository.findByTaskIdOrderByCreatedAtDesc (sert aussi la clé étrangère vers tasks)
+CREATE INDEX IF NOT EXISTS idx_comments_task_created ON comments (task_id, created_at);
+
+-- DocumentRepository.findByUserId, findByUserIdAndParentId, findByUserIdAndParentIdIsNull
+CREATE INDEX IF NOT EXISTS idx_documents_user_parent ON documents (user_id, parent_id);
+-- DocumentRepository.findByParentId (suppression récursive d'un dossier)
+CREATE INDEX IF NOT EXISTS idx_documents_parent ON documents (parent_id);
+
+-- ScheduleRepository.findByDayOfWeekAndUserId, findByUserId, CalendarService
+CREATE INDEX IF NOT EXISTS idx_schedules_user_day ON schedules (user_id, day_of_week);
+
+-- NoteRepository.findByCreatedAtBetween, findActivityByCreatedAtBetween (tableau de bord)
+CREATE INDEX IF NOT EXISTS idx_notes_created ON notes (created_at);
+-- NoteRepository.findActivityByUserIdAndCreatedAtBetween, StatisticsBackfillService
+CREATE INDEX IF NOT EXISTS idx_notes_user_created ON notes (user_id, created_at);
+
+-- StatisticsRepository.findByDate, findByDateBetween ; purge du backfill par utilisateur et période
+CREATE INDEX IF NOT EXISTS idx_statistics_date ON statistics (date);
+CREATE INDEX IF NOT EXISTS idx_statistics_user_date ON statistics (user_id, date);
+
+-- StatisticsBackfillCheckpointRepository.findByPartitionStartBetween
+CREATE INDEX IF NOT EXISTS idx_backfill_checkpoints_partition_start ON statistics_backfill_checkpoints (partition_start);
@@ -0,0 +1,11 @@
+-- Annuaire utilisateur → shard (voir ShardDirectory). Créé sur tous les shards pour qu'ils gardent
+-- le même schéma, seul celui du shard par défaut est utilisé.
+CREATE TABLE shard_directory (
+    user_id BIGINT PRIMARY KEY,
+    shard VARCHAR(64) NOT NULL,
+    moving_to VARCHAR(64),
+    updated_at TIMESTAMP(6) NOT NULL
+);
+
+-- Rafraîchissement incrémental du cache de chaque instance
+CREATE INDEX idx_shard_directory_updated ON shard_directory (updated_at);
@@ -0,0 +1,6 @@
+-- Export de l'espace de travail (WorkspaceArchiveService) : pagination par clé
+-- WHERE user_id = ? AND id > ? ORDER BY id, sans tri de toutes les lignes de l'utilisateur à chaque lot
+CREATE INDEX IF NOT EXISTS idx_tasks_user_id_id ON tasks (user_id, id);
+CREATE INDEX IF NOT EXISTS idx_notes_user_id_id ON notes (user_id, id);
+CREATE INDEX IF NOT EXISTS idx_schedules_user_id_id ON schedules (user_id, id);
+CREATE INDEX IF NOT EXISTS idx_documents_user_id_id ON documents (user_id, id);
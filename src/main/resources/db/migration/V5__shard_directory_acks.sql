@@ -0,0 +1,7 @@
+-- Dernier rafraîchissement de l'annuaire par chaque instance (voir ShardDirectory.awaitRefreshedSince) :
+-- un déplacement ne copie les données qu'une fois que toutes les instances actives ont vu son marquage.
+-- Comme shard_directory, seule la table du shard par défaut est utilisée.
+CREATE TABLE shard_directory_acks (
+    node_id INTEGER PRIMARY KEY,
+    refreshed_at TIMESTAMP(6) NOT NULL
+);
@@ -0,0 +1,7 @@
+-- Version des créneaux de chaque utilisateur (voir ScheduleVersions), sur le shard de l'utilisateur comme ses créneaux.
+-- Incrémentée dans la transaction de chaque écriture : la ligne verrouillée fait passer l'une après l'autre les
+-- écritures d'un même utilisateur, quelle que soit l'instance, et les caches la comparent à celle qu'ils ont lue.
+CREATE TABLE schedule_versions (
+    user_id BIGINT PRIMARY KEY,
+    version BIGINT NOT NULL
+);
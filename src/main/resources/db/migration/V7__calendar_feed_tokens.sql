@@ -0,0 +1,7 @@
+-- Jeton d'abonnement au flux iCalendar (voir CalendarFeedTokens), un par utilisateur, sur le shard de l'utilisateur.
+-- Seule l'empreinte SHA-256 du secret est conservée ; supprimer la ligne révoque l'abonnement.
+CREATE TABLE calendar_feed_tokens (
+    user_id BIGINT PRIMARY KEY,
+    token_hash VARCHAR(64) NOT NULL,
+    created_at TIMESTAMP NOT NULL
+);
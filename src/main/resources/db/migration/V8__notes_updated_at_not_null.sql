@@ -0,0 +1,10 @@
+-- Pagination des notes par clé sur (is_pinned, updated_at, id) : une valeur NULL sortait la ligne de toutes les pages
+-- (comparaison < toujours fausse) et produisait un curseur illisible. Les lignes anciennes prennent leur date de création.
+UPDATE notes SET updated_at = COALESCE(created_at, CURRENT_TIMESTAMP) WHERE updated_at IS NULL;
+ALTER TABLE notes ALTER COLUMN updated_at SET DEFAULT CURRENT_TIMESTAMP;
+ALTER TABLE notes ALTER COLUMN updated_at SET NOT NULL;
+
+-- Même chose pour le segment épinglé / non épinglé : une note sans valeur n'apparaissait dans aucun des deux
+UPDATE notes SET is_pinned = FALSE WHERE is_pinned IS NULL;
+ALTER TABLE notes ALTER COLUMN is_pinned SET DEFAULT FALSE;
+ALTER TABLE notes ALTER COLUMN is_pinned SET NOT NULL;
@@ -0,0 +1,183 @@
+package com.personaltaskmanager.startup;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.stream.Collectors;
+
+/**
+ * Prépare un lancement AppCDS à partir du jar Spring Boot.
+ * La JVM n'archive pas les classes lues dans les jars imbriqués du fat jar : celui-ci est d'abord éclaté en
+ * application.jar (classes de l'application, manifeste pointant vers lib/) et lib/*.jar. Un démarrage
+ * d'entraînement s'arrête ensuite juste après le rafraîchissement du contexte (spring.context.exit=onRefresh)
+ * et la JVM écrit les classes chargées dans l'archive.
+ *
+ * Lancement, depuis le répertoire de sortie (l'archive retient le classpath relatif) :
+ *   java -XX:SharedArchiveFile=application.jsa [-Dspring.aot.enabled=true] -jar application.jar
+ *
+ * Arguments : jar Spring Boot, répertoire de sortie.
+ * Propriété système cds.training-args : arguments de l'application pendant l'entraînement
+ * (--spring.profiles.active=startup, base H2 en mémoire).
+ */
+public final class CdsArchiveBuilder {
+    static final String APPLICATION_JAR = "application.jar";
+    static final String ARCHIVE = "application.jsa";
+    private static final String CLASSES = "BOOT-INF/classes/";
+    private static final String LIB = "BOOT-INF/lib/";
+    private static final String CLASSPATH_INDEX = "BOOT-INF/classpath.idx";
+    // Initialiseur généré par le traitement AOT (profil Maven aot)
+    private static final String AOT_INITIALIZER =
+        CLASSES + "com/personaltaskmanager/PersonalTaskManagerApplication__ApplicationContextInitializer.class";
+
+    private CdsArchiveBuilder() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length != 2) {
+            throw new IllegalArgumentException("Usage : CdsArchiveBuilder <jar Spring Boot> <répertoire de sortie>");
+        }
+        Path bootJar = Paths.get(args[0]);
+        Path directory = Paths.get(args[1]);
+        boolean aot = hasAotClasses(bootJar);
+        extract(bootJar, directory);
+        long startNanos = System.nanoTime();
+        train(directory, ARCHIVE, aot, trainingArguments());
+        System.out.printf("Archive %s (%s) créée en %d ms%n", directory.resolve(ARCHIVE),
+            aot ? "AOT" : "sans AOT", (System.nanoTime() - startNanos) / 1_000_000);
+    }
+
+    static boolean hasAotClasses(Path bootJar) throws IOException {
+        try (JarFile jar = new JarFile(bootJar.toFile())) {
+            return jar.getEntry(AOT_INITIALIZER) != null;
+        }
+    }
+
+    static List<String> trainingArguments() {
+        String arguments = System.getProperty("cds.training-args", "--spring.profiles.active=startup").trim();
+        return arguments.isEmpty() ? List.of() : Arrays.asList(arguments.split("\\s+"));
+    }
+
+    /**
+     * Éclate le jar : les classes dans application.jar, les dépendances dans lib/ dans l'ordre de classpath.idx
+     */
+    static void extract(Path bootJar, Path directory) throws IOException {
+        Path lib = directory.resolve("lib");
+        Files.createDirectories(lib);
+        try (JarFile jar = new JarFile(bootJar.toFile())) {
+            Attributes bootAttributes = jar.getManifest().getMainAttributes();
+            List<String> libraries = classpathOrder(jar);
+
+            Manifest manifest = new Manifest();
+            Attributes attributes = manifest.getMainAttributes();
+            attributes.put(Attributes.Name.MANIFEST_VERSION, "1.0");
+            attributes.put(Attributes.Name.MAIN_CLASS, bootAttributes.getValue("Start-Class"));
+            attributes.put(Attributes.Name.CLASS_PATH, libraries.stream()
+                .map(name -> "lib/" + name)
+                .collect(Collectors.joining(" ")));
+
+            try (JarOutputStream application = new JarOutputStream(
+                    Files.newOutputStream(directory.resolve(APPLICATION_JAR)), manifest)) {
+                Enumeration<JarEntry> entries = jar.entries();
+                while (entries.hasMoreElements()) {
+                    JarEntry entry = entries.nextElement();
+                    String name = entry.getName();
+                    String applicationName = name.startsWith(CLASSES) ? name.substring(CLASSES.length()) : null;
+                    if (applicationName != null && !applicationName.isEmpty()
+                            && !applicationName.equals(JarFile.MANIFEST_NAME)) {
+                        application.putNextEntry(new JarEntry(applicationName));
+                        if (!entry.isDirectory()) {
+                            copy(jar, entry, application);
+                        }
+                        application.closeEntry();
+                    } else if (name.startsWith(LIB) && !entry.isDirectory()) {
+                        try (OutputStream out = Files.newOutputStream(lib.resolve(name.substring(LIB.length())))) {
+                            copy(jar, entry, out);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Démarrage d'entraînement dans directory ; l'archive est écrite à la sortie de la JVM
+     */
+    static void train(Path directory, String archive, boolean aot, List<String> applicationArguments)
+            throws IOException, InterruptedException {
+        Files.deleteIfExists(directory.resolve(archive));
+        List<String> command = new ArrayList<>();
+        command.add(javaExecutable());
+        command.add("-XX:ArchiveClassesAtExit=" + archive);
+        command.add("-Dspring.context.exit=onRefresh");
+        if (aot) {
+            command.add("-Dspring.aot.enabled=true");
+        }
+        command.add("-jar");
+        command.add(APPLICATION_JAR);
+        command.addAll(applicationArguments);
+
+        Process process = new ProcessBuilder(command)
+            .directory(directory.toFile())
+            .redirectErrorStream(true)
+            .redirectOutput(directory.resolve(archive + ".log").toFile())
+            .start();
+        int exitCode = process.waitFor();
+        if (!Files.exists(directory.resolve(archive))) {
+            throw new IllegalStateException("Entraînement AppCDS en échec (code " + exitCode + "), voir "
+                + directory.resolve(archive + ".log"));
+        }
+    }
+
+    static String javaExecutable() {
+        return Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+    }
+
+    // Lignes de la forme - "BOOT-INF/lib/nom.jar" ; à défaut d'index, l'ordre des entrées du jar
+    private static List<String> classpathOrder(JarFile jar) throws IOException {
+        List<String> libraries = new ArrayList<>();
+        JarEntry index = jar.getJarEntry(CLASSPATH_INDEX);
+        if (index != null) {
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(jar.getInputStream(index), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    int start = line.indexOf(LIB);
+                    int end = line.lastIndexOf('"');
+                    if (start >= 0 && end > start) {
+                        libraries.add(line.substring(start + LIB.length(), end));
+                    }
+                }
+            }
+            return libraries;
+        }
+        Enumeration<JarEntry> entries = jar.entries();
+        while (entries.hasMoreElements()) {
+            String name = entries.nextElement().getName();
+            if (name.startsWith(LIB) && name.endsWith(".jar")) {
+                libraries.add(name.substring(LIB.length()));
+            }
+        }
+        return libraries;
+    }
+
+    private static void copy(JarFile jar, JarEntry entry, OutputStream out) throws IOException {
+        try (InputStream in = jar.getInputStream(entry)) {
+            in.transferTo(out);
+        }
+    }
+}
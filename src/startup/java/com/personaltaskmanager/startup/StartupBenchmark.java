@@ -0,0 +1,329 @@
+package com.personaltaskmanager.startup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compare le démarrage à froid selon le mode de lancement. Chaque mode est lancé plusieurs fois avec le profil
+ * Spring startup (H2 en mémoire) et l'on mesure :
+ *   readyMs         du lancement du processus à la première réponse HTTP de /actuator/health
+ *   startedMs       le temps annoncé par Spring (« Started ... in »), sans le démarrage de la JVM
+ *   firstRequestMs  la première requête applicative (GET /api/tasks), qui paie encore chargement de classes et JIT
+ * ainsi que deux coûts propres à l'application, relevés dans le journal de chaque lancement :
+ *   identityIndexMs    reconstruction de l'index des identifiants (UserIdentityIndex, @PostConstruct)
+ *   bcryptCalibrationMs calibrage du coût BCrypt, absent avec le coût fixé par le profil startup
+ *
+ * Modes :
+ *   jar        java -jar sur le jar Spring Boot (référence)
+ *   extracted  jar éclaté par CdsArchiveBuilder, sans archive
+ *   cds        jar éclaté + archive AppCDS
+ *   aot        jar Spring Boot avec -Dspring.aot.enabled=true (jar construit avec le profil Maven aot)
+ *   aot-cds    jar éclaté + AOT + archive entraînée en mode AOT
+ *   native     exécutable GraalVM (mvn -Pnative native:compile)
+ * Les modes aot et native sont ignorés si le jar n'a pas été traité par l'AOT ou si l'exécutable n'existe pas.
+ *
+ * Paramètres (propriétés système) :
+ *   startup.jar       jar Spring Boot
+ *   startup.native    exécutable natif (target/personal-task-manager)
+ *   startup.work-dir  jar éclaté, archives et journaux des lancements (target/startup-benchmark)
+ *   startup.modes     modes à mesurer, séparés par des virgules (tous les modes disponibles)
+ *   startup.runs      lancements par mode (5)
+ *   startup.port      port HTTP des lancements (18080)
+ *   startup.timeout   délai maximal d'un démarrage en secondes (120)
+ *   startup.report    fichier JSON du rapport (target/startup-report.json)
+ *   startup.bcrypt-calibration  true pour lancer avec le calibrage BCrypt de production (false)
+ */
+public final class StartupBenchmark {
+    private static final List<String> ALL_MODES = List.of("jar", "extracted", "cds", "aot", "aot-cds", "native");
+    private static final String JIT_ARCHIVE = "jit.jsa";
+    private static final String AOT_ARCHIVE = "aot.jsa";
+    private static final Pattern STARTED = Pattern.compile("Started \\S+ in ([0-9.]+) seconds");
+    private static final Pattern IDENTITY_INDEX = Pattern.compile("Index des identifiants reconstruit : \\d+ comptes en (\\d+) ms");
+    private static final Pattern BCRYPT_CALIBRATION = Pattern.compile("Calibrage BCrypt : .* en (\\d+) ms");
+
+    private final Path bootJar;
+    private final Path nativeExecutable;
+    private final Path workDirectory;
+    private final Path extracted;
+    private final int runs;
+    private final int port;
+    private final long timeoutNanos;
+    private final boolean bcryptCalibration;
+    private final HttpClient client;
+
+    private StartupBenchmark() {
+        this.bootJar = Paths.get(required("startup.jar"));
+        this.nativeExecutable = Paths.get(System.getProperty("startup.native", "target/personal-task-manager"));
+        this.workDirectory = Paths.get(System.getProperty("startup.work-dir", "target/startup-benchmark"));
+        this.extracted = workDirectory.resolve("extracted");
+        this.runs = Integer.getInteger("startup.runs", 5);
+        this.port = Integer.getInteger("startup.port", 18080);
+        this.timeoutNanos = Duration.ofSeconds(Long.getLong("startup.timeout", 120)).toNanos();
+        this.bcryptCalibration = Boolean.getBoolean("startup.bcrypt-calibration");
+        this.client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(1))
+            .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        StartupBenchmark benchmark = new StartupBenchmark();
+        Map<String, Object> report = benchmark.run(benchmark.modes());
+        Path reportPath = Paths.get(System.getProperty("startup.report", "target/startup-report.json"));
+        Files.createDirectories(reportPath.toAbsolutePath().getParent());
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(reportPath.toFile(), report);
+    }
+
+    private List<String> modes() throws IOException {
+        String requested = System.getProperty("startup.modes", "").trim();
+        List<String> modes = new ArrayList<>(requested.isEmpty() ? ALL_MODES : Arrays.asList(requested.split("\\s*,\\s*")));
+        boolean aot = CdsArchiveBuilder.hasAotClasses(bootJar);
+        if (!aot && (modes.remove("aot") | modes.remove("aot-cds"))) {
+            System.out.println("Modes aot ignorés : jar construit sans le profil Maven aot");
+        }
+        if (!Files.isExecutable(nativeExecutable) && modes.remove("native")) {
+            System.out.println("Mode native ignoré : " + nativeExecutable + " introuvable");
+        }
+        return modes;
+    }
+
+    private Map<String, Object> run(List<String> modes) throws Exception {
+        prepare(modes);
+        Files.createDirectories(workDirectory.resolve("logs"));
+
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (String mode : modes) {
+            List<Long> ready = new ArrayList<>();
+            List<Long> started = new ArrayList<>();
+            List<Long> firstRequest = new ArrayList<>();
+            List<Long> identityIndex = new ArrayList<>();
+            List<Long> calibration = new ArrayList<>();
+            int failures = 0;
+            for (int run = 1; run <= runs; run++) {
+                Measurement measurement = launch(mode, workDirectory.resolve("logs").resolve(mode + "-" + run + ".log"));
+                if (measurement == null) {
+                    failures++;
+                    continue;
+                }
+                ready.add(measurement.readyMs);
+                if (measurement.startedMs >= 0) {
+                    started.add(measurement.startedMs);
+                }
+                firstRequest.add(measurement.firstRequestMs);
+                if (measurement.identityIndexMs >= 0) {
+                    identityIndex.add(measurement.identityIndexMs);
+                }
+                if (measurement.bcryptCalibrationMs >= 0) {
+                    calibration.add(measurement.bcryptCalibrationMs);
+                }
+            }
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("mode", mode);
+            row.put("runs", ready.size());
+            row.put("failures", failures);
+            row.put("readyMsMedian", median(ready));
+            row.put("readyMsMin", ready.isEmpty() ? null : Collections.min(ready));
+            row.put("readyMsMax", ready.isEmpty() ? null : Collections.max(ready));
+            row.put("startedMsMedian", median(started));
+            row.put("firstRequestMsMedian", median(firstRequest));
+            row.put("identityIndexMsMedian", median(identityIndex));
+            row.put("bcryptCalibrationMsMedian", median(calibration));
+            rows.add(row);
+        }
+        print(rows);
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("java", System.getProperty("java.version"));
+        report.put("processors", Runtime.getRuntime().availableProcessors());
+        report.put("runsPerMode", runs);
+        report.put("bcryptCalibration", bcryptCalibration);
+        report.put("modes", rows);
+        return report;
+    }
+
+    // Jar éclaté et archives, refaits à chaque mesure : ils dépendent du jar construit juste avant
+    private void prepare(List<String> modes) throws IOException, InterruptedException {
+        if (modes.stream().noneMatch(mode -> mode.equals("extracted") || mode.endsWith("cds"))) {
+            return;
+        }
+        CdsArchiveBuilder.extract(bootJar, extracted);
+        List<String> trainingArguments = List.of("--spring.profiles.active=startup", "--server.port=" + port);
+        if (modes.contains("cds")) {
+            System.out.println("Entraînement AppCDS...");
+            CdsArchiveBuilder.train(extracted, JIT_ARCHIVE, false, trainingArguments);
+        }
+        if (modes.contains("aot-cds")) {
+            System.out.println("Entraînement AppCDS en mode AOT...");
+            CdsArchiveBuilder.train(extracted, AOT_ARCHIVE, true, trainingArguments);
+        }
+    }
+
+    private List<String> command(String mode) {
+        List<String> command = new ArrayList<>();
+        if (mode.equals("native")) {
+            command.add(nativeExecutable.toAbsolutePath().toString());
+        } else {
+            command.add(CdsArchiveBuilder.javaExecutable());
+            if (mode.equals("cds")) {
+                command.add("-XX:SharedArchiveFile=" + JIT_ARCHIVE);
+            } else if (mode.equals("aot-cds")) {
+                command.add("-XX:SharedArchiveFile=" + AOT_ARCHIVE);
+            }
+            if (mode.startsWith("aot")) {
+                command.add("-Dspring.aot.enabled=true");
+            }
+            command.add("-jar");
+            command.add(mode.equals("jar") || mode.equals("aot")
+                ? bootJar.toAbsolutePath().toString()
+                : CdsArchiveBuilder.APPLICATION_JAR);
+        }
+        command.add("--spring.profiles.active=startup");
+        command.add("--server.port=" + port);
+        if (bcryptCalibration) {
+            // Coût 0 : calibrage au démarrage, comme en production sans BCRYPT_STRENGTH
+            command.add("--app.auth.bcrypt.strength=0");
+        }
+        return command;
+    }
+
+    /**
+     * Un lancement mesuré, ou null si l'application n'a pas répondu dans le délai
+     */
+    private Measurement launch(String mode, Path log) throws IOException, InterruptedException {
+        // Les archives et le jar éclaté sont désignés par des chemins relatifs au répertoire d'extraction
+        Path directory = mode.equals("jar") || mode.equals("aot") || mode.equals("native") ? workDirectory : extracted;
+        long startNanos = System.nanoTime();
+        Process process = new ProcessBuilder(command(mode))
+            .directory(directory.toFile())
+            .redirectErrorStream(true)
+            .redirectOutput(log.toFile())
+            .start();
+        try {
+            long readyNanos = waitUntilReady(process, startNanos);
+            if (readyNanos < 0) {
+                System.out.printf("%-10s échec, voir %s%n", mode, log);
+                return null;
+            }
+            long requestStart = System.nanoTime();
+            send("/api/tasks");
+            long firstRequestNanos = System.nanoTime() - requestStart;
+            String output = Files.readString(log);
+            return new Measurement(
+                TimeUnit.NANOSECONDS.toMillis(readyNanos - startNanos),
+                startedMillis(output),
+                TimeUnit.NANOSECONDS.toMillis(firstRequestNanos),
+                loggedMillis(IDENTITY_INDEX, output),
+                loggedMillis(BCRYPT_CALIBRATION, output));
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    // Toute réponse HTTP compte : le serveur accepte et traite les requêtes
+    private long waitUntilReady(Process process, long startNanos) throws InterruptedException {
+        while (System.nanoTime() - startNanos < timeoutNanos) {
+            if (!process.isAlive()) {
+                return -1;
+            }
+            try {
+                send("/actuator/health");
+                return System.nanoTime();
+            } catch (IOException e) {
+                Thread.sleep(10);
+            }
+        }
+        return -1;
+    }
+
+    private void send(String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+            .timeout(Duration.ofSeconds(30))
+            // En-tête de transition accepté par le profil startup : évite de créer un compte pour la mesure
+            .header("X-User-Id", "1")
+            .GET()
+            .build();
+        client.send(request, HttpResponse.BodyHandlers.discarding());
+    }
+
+    private static long startedMillis(String output) {
+        Matcher matcher = STARTED.matcher(output);
+        return matcher.find() ? Math.round(Double.parseDouble(matcher.group(1)) * 1000) : -1;
+    }
+
+    // Durée en ms du premier groupe de la ligne de journal, ou -1 si elle n'y est pas
+    private static long loggedMillis(Pattern pattern, String output) {
+        Matcher matcher = pattern.matcher(output);
+        return matcher.find() ? Long.parseLong(matcher.group(1)) : -1;
+    }
+
+    private void print(List<Map<String, Object>> rows) {
+        System.out.printf("%nDémarrage à froid, %d lancements par mode%n", runs);
+        System.out.printf("%-10s %6s %8s %12s %10s %10s %14s %12s %14s%n",
+            "mode", "runs", "échecs", "prêt p50 ms", "min ms", "max ms", "1re requête ms", "index ms", "calibrage ms");
+        for (Map<String, Object> row : rows) {
+            System.out.printf("%-10s %6s %8s %12s %10s %10s %14s %12s %14s%n",
+                row.get("mode"), row.get("runs"), row.get("failures"), row.get("readyMsMedian"),
+                row.get("readyMsMin"), row.get("readyMsMax"), row.get("firstRequestMsMedian"),
+                row.get("identityIndexMsMedian"), orDash(row.get("bcryptCalibrationMsMedian")));
+        }
+    }
+
+    private static Object orDash(Object value) {
+        return value != null ? value : "-";
+    }
+
+    private static Long median(List<Long> values) {
+        if (values.isEmpty()) {
+            return null;
+        }
+        List<Long> sorted = new ArrayList<>(values);
+        Collections.sort(sorted);
+        return sorted.get(sorted.size() / 2);
+    }
+
+    private static String required(String property) {
+        String value = System.getProperty(property);
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException("Propriété système manquante : " + property);
+        }
+        return value;
+    }
+
+    private static final class Measurement {
+        private final long readyMs;
+        private final long startedMs;
+        private final long firstRequestMs;
+        private final long identityIndexMs;
+        private final long bcryptCalibrationMs;
+
+        private Measurement(long readyMs, long startedMs, long firstRequestMs, long identityIndexMs,
+                            long bcryptCalibrationMs) {
+            this.readyMs = readyMs;
+            this.startedMs = startedMs;
+            this.firstRequestMs = firstRequestMs;
+            this.identityIndexMs = identityIndexMs;
+            this.bcryptCalibrationMs = bcryptCalibrationMs;
+        }
+    }
+}
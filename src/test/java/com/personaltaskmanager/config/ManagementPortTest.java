@@ -0,0 +1,41 @@
+package com.personaltaskmanager.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalManagementPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Métriques servies uniquement sur le port de gestion : le port de l'application ne répond rien sous /actuator.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = "management.server.port=0")
+@ActiveProfiles("test")
+class ManagementPortTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @LocalManagementPort
+    private int managementPort;
+
+    @Test
+    void actuatorIsOnlyServedOnTheManagementPort() {
+        for (String path : new String[] {"/actuator/prometheus", "/actuator/metrics", "/actuator/health"}) {
+            ResponseEntity<String> response = restTemplate.getForEntity(path, String.class);
+            assertThat(response.getStatusCode()).as(path).isNotEqualTo(HttpStatus.OK);
+        }
+
+        // L'export Prometheus est désactivé dans les tests Spring Boot : /actuator/metrics en tient lieu
+        ResponseEntity<String> metrics = restTemplate.getForEntity(
+            "http://localhost:" + managementPort + "/actuator/metrics", String.class);
+        assertThat(metrics.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(metrics.getBody()).contains("http.server.requests");
+    }
+}
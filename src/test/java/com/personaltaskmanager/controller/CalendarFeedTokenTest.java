@@ -0,0 +1,66 @@
+package com.personaltaskmanager.controller;
+
+import com.personaltaskmanager.security.TokenService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Abonnement iCalendar : l'URL porte un jeton propre au flux, révocable, et plus le jeton d'accès à l'API
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class CalendarFeedTokenTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private TokenService tokenService;
+
+    @Test
+    void feedTokenOpensOnlyTheFeedAndCanBeRevoked() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(tokenService.issue(61L));
+        String first = issue(headers);
+        String second = issue(headers);
+
+        assertThat(feed(second).getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(feed(second).getBody()).startsWith("BEGIN:VCALENDAR");
+        // Remplacé par le suivant
+        assertThat(feed(first).getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+        // Le jeton d'abonnement n'ouvre pas le reste de l'API
+        assertThat(restTemplate.getForEntity("/api/tasks?token=" + second, String.class).getStatusCode())
+            .isNotEqualTo(HttpStatus.OK);
+        // Le jeton d'accès n'est plus accepté dans l'URL du flux
+        ResponseEntity<String> withAccessToken = restTemplate.getForEntity(
+            "/api/calendar/feed.ics?access_token=" + tokenService.issue(61L), String.class);
+        assertThat(withAccessToken.getStatusCode()).isNotEqualTo(HttpStatus.OK);
+
+        restTemplate.exchange("/api/calendar/feed-token", HttpMethod.DELETE, new HttpEntity<>(headers), Void.class);
+        assertThat(feed(second).getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+    }
+
+    private String issue(HttpHeaders headers) {
+        ResponseEntity<Map<String, String>> response = restTemplate.exchange("/api/calendar/feed-token",
+            HttpMethod.POST, new HttpEntity<>(headers), new ParameterizedTypeReference<>() { });
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        return response.getBody().get("token");
+    }
+
+    private ResponseEntity<String> feed(String token) {
+        return restTemplate.getForEntity("/api/calendar/feed.ics?token=" + token, String.class);
+    }
+}
@@ -0,0 +1,99 @@
+package com.personaltaskmanager.controller;
+
+import com.personaltaskmanager.datasource.ReplicaLagMonitor;
+import com.personaltaskmanager.security.TokenService;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Liste des tâches streamée (StreamingResponseBody) avec une réplique en lecture : la partie asynchrone de la réponse
+ * doit voir l'utilisateur de la requête pour lui servir ses propres écritures depuis la primaire. Garde-fou du
+ * rattachement de la requête au thread d'écriture par Spring MVC, dont dépendent aussi les shards et le bilan SQL.
+ * Primaire et réplique sont deux bases H2 distinctes, sans réplication entre elles.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "app.datasource.replica.enabled=true",
+    "app.datasource.replica.lag-query=SELECT 0",
+    "app.datasource.replica.lag-check-ms=100",
+    "app.datasource.replica.read-your-writes-ms=60000"
+})
+@ActiveProfiles("test")
+class TaskStreamingReplicaTest {
+    private static final String PRIMARY_URL =
+        "jdbc:h2:mem:streaming-primary;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+    private static final String REPLICA_URL =
+        "jdbc:h2:mem:streaming-replica;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private TokenService tokenService;
+
+    @Autowired
+    private ReplicaLagMonitor lagMonitor;
+
+    @DynamicPropertySource
+    static void databases(DynamicPropertyRegistry registry) {
+        // Flyway ne migre que la source principale : la réplique reçoit le même schéma à la main
+        Flyway.configure().dataSource(REPLICA_URL, "sa", "").load().migrate();
+        registry.add("spring.datasource.url", () -> PRIMARY_URL);
+        registry.add("app.datasource.replica.url", () -> REPLICA_URL);
+        registry.add("app.datasource.replica.username", () -> "sa");
+    }
+
+    @Test
+    void streamedListingServesTheUsersOwnWritesFromPrimary() throws InterruptedException {
+        awaitReplicaUsable();
+        new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", "")).update(
+            "INSERT INTO tasks (id, title, status, difficulty, priority, user_id) VALUES (1, 'Sur la réplique', 'PENDING', 'EASY', 'LOW', 43)");
+
+        // Utilisateur sans écriture récente : lecture sur la réplique
+        ResponseEntity<String> replicaListing = listTasks(43L);
+        assertThat(replicaListing.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(replicaListing.getBody()).contains("Sur la réplique");
+
+        HttpHeaders headers = authorized(42L);
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        ResponseEntity<String> created = restTemplate.exchange("/api/tasks", HttpMethod.POST,
+            new HttpEntity<>("{\"title\":\"Écrite à l'instant\",\"difficulty\":\"EASY\",\"priority\":\"MEDIUM\"}", headers),
+            String.class);
+        assertThat(created.getStatusCode()).isEqualTo(HttpStatus.OK);
+
+        // La réplique n'a pas la tâche : seule la primaire peut la renvoyer
+        assertThat(listTasks(42L).getBody()).contains("Écrite à l'instant");
+    }
+
+    private ResponseEntity<String> listTasks(Long userId) {
+        return restTemplate.exchange("/api/tasks", HttpMethod.GET, new HttpEntity<>(authorized(userId)), String.class);
+    }
+
+    private HttpHeaders authorized(Long userId) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(tokenService.issue(userId));
+        return headers;
+    }
+
+    private void awaitReplicaUsable() throws InterruptedException {
+        for (int i = 0; i < 50 && !lagMonitor.isReplicaUsable(); i++) {
+            Thread.sleep(100);
+        }
+        assertThat(lagMonitor.isReplicaUsable()).isTrue();
+    }
+}
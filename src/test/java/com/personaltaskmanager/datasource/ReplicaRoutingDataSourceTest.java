@@ -0,0 +1,145 @@
+package com.personaltaskmanager.datasource;
+
+import com.personaltaskmanager.config.ReadReplicaConfig;
+import com.personaltaskmanager.security.CurrentUser;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Aiguillage primaire / réplique sur deux bases H2 distinctes, chacune marquée par son nom
+ */
+class ReplicaRoutingDataSourceTest {
+    private static final long MAX_LAG_MS = 2000;
+    private static final long MAX_MEASUREMENT_AGE_MS = 150;
+
+    private JdbcTemplate primaryJdbc;
+    private JdbcTemplate replicaJdbc;
+    private ReplicaLagMonitor lagMonitor;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+    private JdbcTemplate routedJdbc;
+
+    @BeforeEach
+    void setUp() {
+        DataSource primary = h2("primary");
+        DataSource replica = h2("replica");
+        primaryJdbc = new JdbcTemplate(primary);
+        replicaJdbc = new JdbcTemplate(replica);
+        for (JdbcTemplate jdbc : new JdbcTemplate[] {primaryJdbc, replicaJdbc}) {
+            jdbc.execute("CREATE TABLE marker (name VARCHAR(20))");
+            jdbc.execute("CREATE TABLE replication_lag (lag_ms BIGINT)");
+            jdbc.update("INSERT INTO replication_lag VALUES (0)");
+        }
+        primaryJdbc.update("INSERT INTO marker VALUES ('primary')");
+        replicaJdbc.update("INSERT INTO marker VALUES ('replica')");
+
+        lagMonitor = new ReplicaLagMonitor(replica, "SELECT lag_ms FROM replication_lag", MAX_LAG_MS, MAX_MEASUREMENT_AGE_MS);
+        DataSource routed = new ReadReplicaConfig().dataSource(primary, replica, lagMonitor,
+            new ReadYourWritesTracker(5000, MAX_LAG_MS));
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(routed);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readWrite = new TransactionTemplate(transactionManager);
+        routedJdbc = new JdbcTemplate(routed);
+    }
+
+    @AfterEach
+    void clearRequest() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void readOnlyTransactionGoesToReplicaOnceLagIsMeasured() {
+        assertThat(readOnlyTarget()).as("avant la première mesure").isEqualTo("primary");
+
+        lagMonitor.check();
+
+        assertThat(readOnlyTarget()).isEqualTo("replica");
+        assertThat(readWriteTarget()).isEqualTo("primary");
+    }
+
+    @Test
+    void replicaBeyondMaxLagIsBypassed() {
+        replicaJdbc.update("UPDATE replication_lag SET lag_ms = ?", MAX_LAG_MS + 1);
+        lagMonitor.check();
+
+        assertThat(lagMonitor.getLagMillis()).isEqualTo(MAX_LAG_MS + 1);
+        assertThat(readOnlyTarget()).isEqualTo("primary");
+    }
+
+    @Test
+    void unreachableReplicaIsBypassed() {
+        lagMonitor.check();
+        replicaJdbc.execute("DROP TABLE replication_lag");
+        lagMonitor.check();
+
+        assertThat(lagMonitor.isReplicaUsable()).isFalse();
+        assertThat(readOnlyTarget()).isEqualTo("primary");
+    }
+
+    @Test
+    void staleMeasurementIsTreatedAsUnknownLag() throws InterruptedException {
+        lagMonitor.check();
+        assertThat(readOnlyTarget()).isEqualTo("replica");
+
+        // Tâche de mesure qui ne passe plus (ordonnanceur bloqué)
+        Thread.sleep(MAX_MEASUREMENT_AGE_MS * 2);
+
+        assertThat(lagMonitor.isReplicaUsable()).isFalse();
+        assertThat(readOnlyTarget()).isEqualTo("primary");
+
+        lagMonitor.check();
+        assertThat(readOnlyTarget()).isEqualTo("replica");
+    }
+
+    @Test
+    void userWhoJustWroteReadsFromPrimary() {
+        lagMonitor.check();
+
+        actAs(7L);
+        readWrite.executeWithoutResult(status -> routedJdbc.update("INSERT INTO marker VALUES ('written')"));
+        assertThat(primaryJdbc.queryForObject("SELECT COUNT(*) FROM marker", Integer.class)).isEqualTo(2);
+        assertThat(readOnlyTarget()).isEqualTo("primary");
+
+        actAs(8L);
+        assertThat(readOnlyTarget()).isEqualTo("replica");
+    }
+
+    private String readOnlyTarget() {
+        return readOnly.execute(status -> markerName());
+    }
+
+    private String readWriteTarget() {
+        return readWrite.execute(status -> markerName());
+    }
+
+    private String markerName() {
+        return routedJdbc.queryForObject("SELECT MIN(name) FROM marker WHERE name IN ('primary', 'replica')", String.class);
+    }
+
+    private static void actAs(Long userId) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAttribute(CurrentUser.ATTRIBUTE, userId);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    private static DataSource h2(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        dataSource.setUser("sa");
+        return dataSource;
+    }
+}
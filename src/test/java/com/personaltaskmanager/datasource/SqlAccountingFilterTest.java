@@ -0,0 +1,67 @@
+package com.personaltaskmanager.datasource;
+
+import com.personaltaskmanager.security.TokenService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Bilan SQL d'une liste streamée : tous ses ordres s'exécutent dans la partie asynchrone de la réponse,
+ * ils doivent pourtant figurer dans la métrique de la route.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class SqlAccountingFilterTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private TokenService tokenService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void statementsOfTheStreamedBodyAreCounted() throws InterruptedException {
+        jdbcTemplate.update("INSERT INTO tasks (title, status, difficulty, priority, user_id) "
+            + "VALUES ('Streamée', 'PENDING', 'EASY', 'LOW', 51)");
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(tokenService.issue(51L));
+
+        ResponseEntity<String> response = restTemplate.exchange("/api/tasks", HttpMethod.GET,
+            new HttpEntity<>(headers), String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).contains("Streamée");
+        // En-tête posé au début de l'écriture, avant que la liste ne soit lue
+        assertThat(response.getHeaders().getFirst(SqlAccountingFilter.QUERY_COUNT_HEADER)).isEqualTo("0");
+
+        // Le bilan est publié par le second passage dans le filtre, qui peut suivre de peu la fin de la réponse
+        DistributionSummary statements = null;
+        for (int i = 0; i < 50 && statements == null; i++) {
+            statements = meterRegistry.find("db.request.statements").tags("method", "GET", "uri", "/api/tasks").summary();
+            if (statements == null) {
+                Thread.sleep(50);
+            }
+        }
+        assertThat(statements).isNotNull();
+        assertThat(statements.count()).isEqualTo(1);
+        assertThat(statements.totalAmount()).isGreaterThanOrEqualTo(1);
+    }
+}
@@ -0,0 +1,60 @@
+package com.personaltaskmanager.ratelimit;
+
+import com.personaltaskmanager.config.RateLimitProperties;
+import com.personaltaskmanager.security.CurrentUser;
+import com.personaltaskmanager.security.TokenAuthenticationFilter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Clé de l'appelant : l'utilisateur d'un jeton vérifié, sinon l'adresse IP, jamais l'identifiant déclaré par X-User-Id
+ */
+class RequestRateLimitFilterTest {
+    private final RequestRateLimitFilter filter = new RequestRateLimitFilter(properties(), new SimpleMeterRegistry());
+
+    @Test
+    void declaredUserIdsShareTheBudgetOfTheirAddress() throws Exception {
+        assertThat(status(declared(1L))).isEqualTo(HttpStatus.OK.value());
+        // Changer d'identifiant déclaré ne rend pas de budget
+        assertThat(status(declared(2L))).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+    }
+
+    @Test
+    void verifiedUsersHaveTheirOwnBudget() throws Exception {
+        assertThat(status(verified(3L))).isEqualTo(HttpStatus.OK.value());
+        assertThat(status(verified(4L))).isEqualTo(HttpStatus.OK.value());
+        assertThat(status(verified(3L))).isEqualTo(HttpStatus.TOO_MANY_REQUESTS.value());
+    }
+
+    private int status(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response.getStatus();
+    }
+
+    // Utilisateur accepté sur la foi de l'en-tête X-User-Id (app.auth.allow-user-id-header)
+    private static MockHttpServletRequest declared(Long userId) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/tasks");
+        request.setRemoteAddr("192.0.2.10");
+        request.setAttribute(CurrentUser.ATTRIBUTE, userId);
+        return request;
+    }
+
+    private static MockHttpServletRequest verified(Long userId) {
+        MockHttpServletRequest request = declared(userId);
+        request.setAttribute(TokenAuthenticationFilter.TOKEN_SUBJECT_ATTRIBUTE, userId);
+        return request;
+    }
+
+    private static RateLimitProperties properties() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setRead(new RateLimitProperties.Budget(1, 0.01, 0));
+        return properties;
+    }
+}
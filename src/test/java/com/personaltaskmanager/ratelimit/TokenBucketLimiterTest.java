@@ -0,0 +1,33 @@
+package com.personaltaskmanager.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Table des seaux pleine de clés actives : une nouvelle clé fait oublier les seaux inactifs depuis le plus longtemps
+ */
+class TokenBucketLimiterTest {
+
+    @Test
+    void fullTableEvictsTheLeastRecentlyUsedBuckets() throws InterruptedException {
+        // Deux jetons, recharge trop lente pour qu'un seau entamé redevienne plein pendant le test
+        TokenBucketLimiter limiter = new TokenBucketLimiter(2, 0.01, 10);
+        for (int i = 0; i < 10; i++) {
+            assertThat(limiter.tryAcquire("cle-" + i)).isZero();
+            Thread.sleep(3);
+        }
+
+        assertThat(limiter.tryAcquire("nouvelle")).isZero();
+        assertThat(limiter.trackedKeys()).isEqualTo(10);
+
+        // Seaux récents conservés : leur dernier jeton passe, le suivant est refusé
+        for (String kept : new String[] {"cle-1", "cle-9"}) {
+            assertThat(limiter.tryAcquire(kept)).isZero();
+            assertThat(limiter.tryAcquire(kept)).isPositive();
+        }
+        // Seau le plus ancien oublié : il repart plein
+        assertThat(limiter.tryAcquire("cle-0")).isZero();
+        assertThat(limiter.tryAcquire("cle-0")).isZero();
+    }
+}
@@ -0,0 +1,64 @@
+package com.personaltaskmanager.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Base de production créée par la version d'origine (Hibernate, ddl-auto=update) : Flyway la marque en V1 sans
+ * exécuter V1, les migrations suivantes doivent suffire pour que Hibernate valide le schéma au démarrage.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = "spring.jpa.hibernate.ddl-auto=validate")
+@ActiveProfiles("test")
+class FlywayBaselineUpgradeTest {
+    private static final String URL = "jdbc:h2:mem:baseline-" + UUID.randomUUID()
+        + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void baselineDatabase(DynamicPropertyRegistry registry) throws SQLException {
+        try (Connection connection = DriverManager.getConnection(URL, "sa", "")) {
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource("db/baseline-hibernate-schema.sql"));
+            connection.createStatement().execute(
+                "INSERT INTO notes (title, is_pinned, created_at, updated_at, user_id) VALUES ('Ancienne', FALSE, NOW(), NOW(), 1)");
+            connection.createStatement().execute(
+                "INSERT INTO notes (title, created_at, user_id) VALUES ('Jamais modifiée', TIMESTAMP '2024-03-01 10:00:00', 1)");
+        }
+        registry.add("spring.datasource.url", () -> URL);
+    }
+
+    @Test
+    void baselineDatabaseIsMarkedThenMigrated() {
+        List<String> applied = jdbcTemplate.queryForList(
+            "SELECT \"version\" || ':' || \"type\" FROM \"flyway_schema_history\" WHERE \"success\" AND \"version\" IS NOT NULL ORDER BY \"installed_rank\"",
+            String.class);
+        assertThat(applied.get(0)).isEqualTo("1:BASELINE");
+        assertThat(applied).contains("1.1:SQL", "2:SQL");
+
+        assertThat(jdbcTemplate.queryForObject("SELECT content_version FROM notes WHERE title = 'Ancienne'", Long.class))
+            .isZero();
+        // Colonnes de la pagination des notes remplies puis rendues obligatoires (V8)
+        assertThat(jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM notes WHERE title = 'Jamais modifiée' AND updated_at = created_at AND NOT is_pinned",
+            Integer.class)).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM email_outbox", Integer.class)).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM statistics_backfill_checkpoints", Integer.class)).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM statistics WHERE user_id IS NULL", Integer.class)).isZero();
+    }
+}
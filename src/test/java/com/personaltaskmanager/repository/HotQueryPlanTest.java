@@ -0,0 +1,257 @@
+package com.personaltaskmanager.repository;
+
+import com.personaltaskmanager.enums.DocumentType;
+import com.personaltaskmanager.enums.NoteType;
+import com.personaltaskmanager.enums.TaskDifficulty;
+import com.personaltaskmanager.enums.TaskStatus;
+import com.zaxxer.hikari.HikariDataSource;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.assertj.core.api.SoftAssertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+/**
+ * Plans d'exécution des requêtes chaudes sur le schéma des migrations Flyway : chaque méthode de repository
+ * est appelée, l'ordre SQL réellement émis par Hibernate est capturé avec ses paramètres, puis passé à EXPLAIN.
+ * Un parcours complet de table (tableScan dans le plan H2) fait échouer le test.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+class HotQueryPlanTest {
+    private static final Long USER_ID = 1L;
+    private static final LocalDateTime FROM = LocalDateTime.of(2026, 1, 1, 0, 0);
+    private static final LocalDateTime TO = FROM.plusDays(7);
+    private static final Pageable PAGE = PageRequest.of(0, 50);
+
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private TaskRepository taskRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
+    private DocumentRepository documentRepository;
+    @Autowired
+    private ScheduleRepository scheduleRepository;
+    @Autowired
+    private NoteRepository noteRepository;
+    @Autowired
+    private StatisticsRepository statisticsRepository;
+    @Autowired
+    private StatisticsBackfillCheckpointRepository checkpointRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CapturedQueries capturedQueries;
+
+    @Test
+    void taskQueriesUseAnIndex() {
+        SoftAssertions softly = new SoftAssertions();
+        assertUsesIndex(softly, "TaskRepository.findByUserId", () -> taskRepository.findByUserId(USER_ID));
+        assertUsesIndex(softly, "TaskRepository.findByStatusAndUserId",
+            () -> taskRepository.findByStatusAndUserId(TaskStatus.PENDING, USER_ID));
+        assertUsesIndex(softly, "TaskRepository.findByDifficultyAndUserId",
+            () -> taskRepository.findByDifficultyAndUserId(TaskDifficulty.EASY, USER_ID));
+        assertUsesIndex(softly, "TaskRepository.findByUserIdAndStatusNotAndDueDateBetween",
+            () -> taskRepository.findByUserIdAndStatusNotAndDueDateBetween(USER_ID, TaskStatus.COMPLETED,
+                FROM.toLocalDate(), TO.toLocalDate()));
+        assertUsesIndex(softly, "TaskRepository.streamByUserId", () -> {
+            try (Stream<?> tasks = taskRepository.streamByUserId(USER_ID)) {
+                tasks.count();
+            }
+        });
+        assertUsesIndex(softly, "TaskRepository.findByUserIdAndIdGreaterThanOrderByIdAsc",
+            () -> taskRepository.findByUserIdAndIdGreaterThanOrderByIdAsc(USER_ID, 0L, PAGE));
+        assertUsesIndex(softly, "TaskRepository.findByStatusAndCreatedAtBetween",
+            () -> taskRepository.findByStatusAndCreatedAtBetween(TaskStatus.COMPLETED, FROM, TO));
+        assertUsesIndex(softly, "TaskRepository.findActivityByStatusAndCreatedAtBetween",
+            () -> taskRepository.findActivityByStatusAndCreatedAtBetween(TaskStatus.COMPLETED, FROM, TO));
+        assertUsesIndex(softly, "TaskRepository.findActivityByUserIdAndStatusAndCreatedAtBetween",
+            () -> taskRepository.findActivityByUserIdAndStatusAndCreatedAtBetween(USER_ID, TaskStatus.COMPLETED, FROM, TO));
+        assertUsesIndex(softly, "CommentRepository.findByTaskIdOrderByCreatedAtDesc",
+            () -> commentRepository.findByTaskIdOrderByCreatedAtDesc(1L));
+        assertUsesIndex(softly, "CommentRepository.findByTaskIdInOrderByIdAsc",
+            () -> commentRepository.findByTaskIdInOrderByIdAsc(List.of(1L, 2L)));
+        softly.assertAll();
+    }
+
+    @Test
+    void documentAndScheduleQueriesUseAnIndex() {
+        SoftAssertions softly = new SoftAssertions();
+        assertUsesIndex(softly, "DocumentRepository.findByUserId", () -> documentRepository.findByUserId(USER_ID));
+        assertUsesIndex(softly, "DocumentRepository.findByUserIdAndParentId",
+            () -> documentRepository.findByUserIdAndParentId(USER_ID, 1L));
+        assertUsesIndex(softly, "DocumentRepository.findByUserIdAndParentIdIsNull",
+            () -> documentRepository.findByUserIdAndParentIdIsNull(USER_ID));
+        assertUsesIndex(softly, "DocumentRepository.findByParentId", () -> documentRepository.findByParentId(1L));
+        assertUsesIndex(softly, "DocumentRepository.findByUserIdAndType",
+            () -> documentRepository.findByUserIdAndType(USER_ID, DocumentType.FILE));
+        assertUsesIndex(softly, "DocumentRepository.findByIdAndUserId", () -> documentRepository.findByIdAndUserId(1L, USER_ID));
+        assertUsesIndex(softly, "DocumentRepository.streamByUserId", () -> {
+            try (Stream<?> documents = documentRepository.streamByUserId(USER_ID)) {
+                documents.count();
+            }
+        });
+        assertUsesIndex(softly, "DocumentRepository.findByUserIdAndIdGreaterThanOrderByIdAsc",
+            () -> documentRepository.findByUserIdAndIdGreaterThanOrderByIdAsc(USER_ID, 0L, PAGE));
+        assertUsesIndex(softly, "DocumentRepository.findFilePathsAfter",
+            () -> documentRepository.findFilePathsAfter(USER_ID, 0L, PAGE));
+        assertUsesIndex(softly, "ScheduleRepository.findByUserId", () -> scheduleRepository.findByUserId(USER_ID));
+        assertUsesIndex(softly, "ScheduleRepository.findByDayOfWeekAndUserId",
+            () -> scheduleRepository.findByDayOfWeekAndUserId(DayOfWeek.MONDAY, USER_ID));
+        assertUsesIndex(softly, "ScheduleRepository.findByUserIdAndIdGreaterThanOrderByIdAsc",
+            () -> scheduleRepository.findByUserIdAndIdGreaterThanOrderByIdAsc(USER_ID, 0L, PAGE));
+        softly.assertAll();
+    }
+
+    @Test
+    void noteQueriesUseAnIndex() {
+        SoftAssertions softly = new SoftAssertions();
+        assertUsesIndex(softly, "NoteRepository.findByUserId", () -> noteRepository.findByUserId(USER_ID));
+        assertUsesIndex(softly, "NoteRepository.findFirstPage", () -> noteRepository.findFirstPage(USER_ID, false, PAGE));
+        assertUsesIndex(softly, "NoteRepository.findPageAfter",
+            () -> noteRepository.findPageAfter(USER_ID, false, TO, 1L, PAGE));
+        assertUsesIndex(softly, "NoteRepository.findFirstPageByType",
+            () -> noteRepository.findFirstPageByType(USER_ID, NoteType.TEXT, true, PAGE));
+        assertUsesIndex(softly, "NoteRepository.findPageByTypeAfter",
+            () -> noteRepository.findPageByTypeAfter(USER_ID, NoteType.TEXT, true, TO, 1L, PAGE));
+        assertUsesIndex(softly, "NoteRepository.findByUserIdAndIdGreaterThanOrderByIdAsc",
+            () -> noteRepository.findByUserIdAndIdGreaterThanOrderByIdAsc(USER_ID, 0L, PAGE));
+        assertUsesIndex(softly, "NoteRepository.findMediaPathsAfter", () -> noteRepository.findMediaPathsAfter(USER_ID, 0L, PAGE));
+        assertUsesIndex(softly, "NoteRepository.findByCreatedAtBetween", () -> noteRepository.findByCreatedAtBetween(FROM, TO));
+        assertUsesIndex(softly, "NoteRepository.findActivityByCreatedAtBetween",
+            () -> noteRepository.findActivityByCreatedAtBetween(FROM, TO));
+        assertUsesIndex(softly, "NoteRepository.findActivityByUserIdAndCreatedAtBetween",
+            () -> noteRepository.findActivityByUserIdAndCreatedAtBetween(USER_ID, FROM, TO));
+        softly.assertAll();
+    }
+
+    @Test
+    void statisticsAndUserQueriesUseAnIndex() {
+        SoftAssertions softly = new SoftAssertions();
+        assertUsesIndex(softly, "StatisticsRepository.findByDate", () -> statisticsRepository.findByDate(FROM.toLocalDate()));
+        assertUsesIndex(softly, "StatisticsRepository.findByDateBetween",
+            () -> statisticsRepository.findByDateBetween(FROM.toLocalDate(), TO.toLocalDate()));
+        assertUsesIndex(softly, "StatisticsBackfillCheckpointRepository.findByPartitionStartBetween",
+            () -> checkpointRepository.findByPartitionStartBetween(LocalDate.of(2026, 1, 1), LocalDate.of(2026, 2, 1)));
+        assertUsesIndex(softly, "UserRepository.findByUsername", () -> userRepository.findByUsername("alice"));
+        assertUsesIndex(softly, "UserRepository.findByEmail", () -> userRepository.findByEmail("alice@example.com"));
+        assertUsesIndex(softly, "UserRepository.existsByUsername", () -> userRepository.existsByUsername("alice"));
+        assertUsesIndex(softly, "UserRepository.existsByEmail", () -> userRepository.existsByEmail("alice@example.com"));
+        softly.assertAll();
+    }
+
+    private void assertUsesIndex(SoftAssertions softly, String name, Runnable repositoryCall) {
+        capturedQueries.clear();
+        repositoryCall.run();
+        List<QueryInfo> selects = capturedQueries.selects();
+        softly.assertThat(selects).as("%s : aucun SELECT émis", name).isNotEmpty();
+        for (QueryInfo query : selects) {
+            String plan = explain(query);
+            softly.assertThat(plan).as("%s\n%s\n%s", name, query.getQuery(), plan).doesNotContain("tableScan");
+        }
+    }
+
+    /**
+     * EXPLAIN de l'ordre capturé, avec les mêmes paramètres liés par Hibernate
+     */
+    private String explain(QueryInfo query) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("EXPLAIN " + query.getQuery())) {
+            if (!query.getParametersList().isEmpty()) {
+                for (ParameterSetOperation operation : query.getParametersList().get(0)) {
+                    operation.getMethod().invoke(statement, operation.getArgs());
+                }
+            }
+            List<String> lines = new ArrayList<>();
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    lines.add(resultSet.getString(1));
+                }
+            }
+            return String.join("\n", lines);
+        } catch (SQLException | IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("EXPLAIN impossible pour " + query.getQuery(), e);
+        }
+    }
+
+    /**
+     * Ordres SQL émis par les repositories, capturés par un proxy datasource-proxy autour du pool
+     */
+    static class CapturedQueries implements QueryExecutionListener {
+        private final List<QueryInfo> queries = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            // Seuls les ordres exécutés avec succès sont retenus
+        }
+
+        @Override
+        public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            queries.addAll(queryInfoList);
+        }
+
+        void clear() {
+            queries.clear();
+        }
+
+        List<QueryInfo> selects() {
+            return queries.stream()
+                .filter(query -> query.getQuery().trim().toLowerCase(Locale.ROOT).startsWith("select"))
+                .toList();
+        }
+    }
+
+    @TestConfiguration
+    static class CapturingDataSourceConfig {
+
+        @Bean
+        CapturedQueries capturedQueries() {
+            return new CapturedQueries();
+        }
+
+        @Bean
+        static BeanPostProcessor capturingDataSourcePostProcessor(ObjectProvider<CapturedQueries> capturedQueries) {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (!(bean instanceof HikariDataSource)) {
+                        return bean;
+                    }
+                    return ProxyDataSourceBuilder.create((HikariDataSource) bean)
+                        .listener(capturedQueries.getObject())
+                        .build();
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.personaltaskmanager.security;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Secret JWT livré avec le dépôt : refusé sauf autorisation explicite (poste de développement, tests)
+ */
+class TokenServiceTest {
+    private static final String DEFAULT_SECRET = "change-this-secret-key-in-production-min-256-bits";
+
+    @Test
+    void defaultSecretIsRefusedUnlessExplicitlyAllowed() {
+        assertThatThrownBy(() -> new TokenService(DEFAULT_SECRET, 60_000, 10, false))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("JWT_SECRET");
+
+        TokenService allowed = new TokenService(DEFAULT_SECRET, 60_000, 10, true);
+        assertThat(allowed.verify(allowed.issue(7L))).isEqualTo(7L);
+    }
+
+    @Test
+    void ownSecretIsAccepted() {
+        TokenService service = new TokenService("un-secret-propre-a-cette-installation-de-test", 60_000, 10, false);
+
+        assertThat(service.verify(service.issue(8L))).isEqualTo(8L);
+    }
+}
@@ -0,0 +1,205 @@
+package com.personaltaskmanager.service;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import com.personaltaskmanager.enums.EmailStatus;
+import com.personaltaskmanager.model.EmailOutbox;
+import com.personaltaskmanager.repository.EmailOutboxRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * File d'envoi des emails contre un serveur SMTP local (GreenMail) et une base H2 migrée par Flyway
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class EmailOutboxDispatcherTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @Autowired
+    private EmailOutboxRepository emailOutboxRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void clearOutbox() {
+        emailOutboxRepository.deleteAll();
+    }
+
+    @Test
+    void sendsDueEmailsOverOneConnectionAndMarksThemSent() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            emailOutboxRepository.save(email("user" + i + "@example.com"));
+        }
+
+        dispatcher(mailSender(greenMail.getSmtp().getPort()), 6).dispatch();
+
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        assertThat(received).hasSize(3);
+        assertThat(received[0].getSubject()).isEqualTo("Sujet");
+        assertThat(emailOutboxRepository.findAll())
+            .allSatisfy(email -> {
+                assertThat(email.getStatus()).isEqualTo(EmailStatus.SENT);
+                assertThat(email.getAttempts()).isEqualTo(1);
+                assertThat(email.getSentAt()).isNotNull();
+                // Plus besoin du corps une fois envoyé
+                assertThat(email.getBody()).isEmpty();
+            });
+    }
+
+    @Test
+    void sendsOutsideAnyTransactionOnceTheBatchIsClaimed() {
+        emailOutboxRepository.save(email("claimed@example.com"));
+        List<EmailStatus> statusesDuringSend = new ArrayList<>();
+        List<Boolean> transactionDuringSend = new ArrayList<>();
+        JavaMailSenderImpl observing = new JavaMailSenderImpl() {
+            @Override
+            public void send(SimpleMailMessage... messages) throws MailException {
+                transactionDuringSend.add(TransactionSynchronizationManager.isActualTransactionActive());
+                // Lu par une autre connexion : la réservation est déjà validée, aucun verrou n'est gardé
+                emailOutboxRepository.findAll().forEach(email -> statusesDuringSend.add(email.getStatus()));
+                super.send(messages);
+            }
+        };
+        observing.setHost("localhost");
+        observing.setPort(greenMail.getSmtp().getPort());
+
+        dispatcher(observing, 6).dispatch();
+
+        assertThat(transactionDuringSend).containsExactly(false);
+        assertThat(statusesDuringSend).containsExactly(EmailStatus.SENDING);
+        assertThat(emailOutboxRepository.findAll()).singleElement()
+            .extracting(EmailOutbox::getStatus).isEqualTo(EmailStatus.SENT);
+    }
+
+    @Test
+    void schedulesRetryWhenSmtpIsUnreachable() throws IOException {
+        emailOutboxRepository.save(email("retry@example.com"));
+        LocalDateTime before = LocalDateTime.now();
+
+        EmailOutboxDispatcher dispatcher = dispatcher(mailSender(closedPort()), 6);
+        dispatcher.dispatch();
+
+        EmailOutbox email = emailOutboxRepository.findAll().get(0);
+        assertThat(email.getStatus()).isEqualTo(EmailStatus.PENDING);
+        assertThat(email.getAttempts()).isEqualTo(1);
+        assertThat(email.getNextAttemptAt()).isAfterOrEqualTo(before.plusSeconds(30));
+        assertThat(email.getLastError()).isNotBlank();
+        Map<String, Object> stats = dispatcher.getStats();
+        assertThat(stats.get("pending")).isEqualTo(1L);
+        assertThat((String) stats.get("lastError")).isNotBlank().doesNotContain("retry@example.com");
+    }
+
+    @Test
+    void abandonsEmailAfterMaxAttempts() throws IOException {
+        emailOutboxRepository.save(email("abandon@example.com"));
+
+        dispatcher(mailSender(closedPort()), 1).dispatch();
+
+        EmailOutbox email = emailOutboxRepository.findAll().get(0);
+        assertThat(email.getStatus()).isEqualTo(EmailStatus.FAILED);
+        assertThat(email.getAttempts()).isEqualTo(1);
+        assertThat(email.getBody()).isEmpty();
+    }
+
+    @Test
+    void purgesFinishedEmailsOlderThanTheRetention() {
+        LocalDateTime old = LocalDateTime.now().minusDays(8);
+        EmailOutbox oldSent = email("old-sent@example.com");
+        oldSent.setStatus(EmailStatus.SENT);
+        oldSent.setCreatedAt(old);
+        EmailOutbox oldFailed = email("old-failed@example.com");
+        oldFailed.setStatus(EmailStatus.FAILED);
+        oldFailed.setCreatedAt(old);
+        EmailOutbox oldPending = email("old-pending@example.com");
+        oldPending.setCreatedAt(old);
+        oldPending.setNextAttemptAt(LocalDateTime.now().plusHours(1));
+        EmailOutbox recentSent = email("recent-sent@example.com");
+        recentSent.setStatus(EmailStatus.SENT);
+        emailOutboxRepository.saveAll(List.of(oldSent, oldFailed, oldPending, recentSent));
+
+        dispatcher(mailSender(greenMail.getSmtp().getPort()), 6).purge();
+
+        assertThat(emailOutboxRepository.findAll()).extracting(EmailOutbox::getRecipient)
+            .containsExactlyInAnyOrder("old-pending@example.com", "recent-sent@example.com");
+    }
+
+    @Test
+    void reclaimsBatchWhoseLeaseExpiredButNotOneStillLeased() {
+        EmailOutbox expired = email("expired@example.com");
+        expired.setStatus(EmailStatus.SENDING);
+        expired.setAttempts(1);
+        expired.setNextAttemptAt(LocalDateTime.now().minusMinutes(1));
+        EmailOutbox leased = email("leased@example.com");
+        leased.setStatus(EmailStatus.SENDING);
+        leased.setAttempts(1);
+        leased.setNextAttemptAt(LocalDateTime.now().plusMinutes(5));
+        emailOutboxRepository.saveAll(List.of(expired, leased));
+
+        dispatcher(mailSender(greenMail.getSmtp().getPort()), 6).dispatch();
+
+        assertThat(greenMail.getReceivedMessages()).hasSize(1);
+        assertThat(emailOutboxRepository.findById(expired.getId())).get()
+            .satisfies(email -> {
+                assertThat(email.getStatus()).isEqualTo(EmailStatus.SENT);
+                assertThat(email.getAttempts()).isEqualTo(2);
+            });
+        assertThat(emailOutboxRepository.findById(leased.getId())).get()
+            .extracting(EmailOutbox::getStatus).isEqualTo(EmailStatus.SENDING);
+    }
+
+    private EmailOutboxDispatcher dispatcher(JavaMailSenderImpl mailSender, int maxAttempts) {
+        return new EmailOutboxDispatcher(mailSender, emailOutboxRepository, transactionManager, new SimpleMeterRegistry(),
+            "memento@example.com", 50, maxAttempts, 30, 3600, 300, 7);
+    }
+
+    private static JavaMailSenderImpl mailSender(int port) {
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(port);
+        mailSender.getJavaMailProperties().put("mail.smtp.connectiontimeout", "2000");
+        return mailSender;
+    }
+
+    private static EmailOutbox email(String recipient) {
+        EmailOutbox email = new EmailOutbox();
+        email.setRecipient(recipient);
+        email.setSubject("Sujet");
+        email.setBody("Corps du message");
+        return email;
+    }
+
+    private static int closedPort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
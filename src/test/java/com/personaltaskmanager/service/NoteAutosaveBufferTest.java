@@ -0,0 +1,65 @@
+package com.personaltaskmanager.service;
+
+import com.personaltaskmanager.exception.ConflictException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Écriture différée de l'autosave : conditionnée à la version lue à la première frappe, elle n'écrase pas
+ * une modification faite ailleurs pendant la rafale
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = "app.notes.autosave.idle-ms=600000")
+@ActiveProfiles("test")
+class NoteAutosaveBufferTest {
+
+    @Autowired
+    private NoteAutosaveBuffer autosaveBuffer;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void burstIsWrittenOnlyOverTheVersionItStartedFrom() {
+        Long userId = 81L;
+        jdbcTemplate.update("INSERT INTO notes (id, title, content, is_pinned, note_type, user_id, content_version) "
+            + "VALUES (8100001, 'Note', 'Début', FALSE, 'TEXT', ?, 3)", userId);
+
+        autosaveBuffer.bufferEdit(8100001L, userId, null, "Première rafale");
+        autosaveBuffer.bufferEdit(8100001L, userId, null, "Première rafale, suite");
+        assertThat(autosaveBuffer.flush(8100001L)).isTrue();
+        assertThat(content()).isEqualTo("Première rafale, suite");
+        assertThat(version()).isEqualTo(4);
+
+        // Modification faite ailleurs (autre instance, patch) pendant la rafale suivante
+        autosaveBuffer.bufferEdit(8100001L, userId, null, "Seconde rafale");
+        jdbcTemplate.update("UPDATE notes SET content = 'Modifiée ailleurs', content_version = 5 WHERE id = 8100001");
+
+        assertThatThrownBy(() -> autosaveBuffer.flush(8100001L))
+            .isInstanceOf(ConflictException.class)
+            .hasMessageContaining("version 4");
+        assertThat(content()).isEqualTo("Modifiée ailleurs");
+        assertThat(autosaveBuffer.getPending(8100001L)).isNull();
+
+        // Conflit signalé une fois à la frappe suivante, puis nouvelle rafale sur la version courante
+        assertThatThrownBy(() -> autosaveBuffer.bufferEdit(8100001L, userId, null, "Après rechargement"))
+            .isInstanceOf(ConflictException.class);
+        autosaveBuffer.bufferEdit(8100001L, userId, null, "Après rechargement");
+        assertThat(autosaveBuffer.flush(8100001L)).isTrue();
+        assertThat(content()).isEqualTo("Après rechargement");
+        assertThat(version()).isEqualTo(6);
+    }
+
+    private String content() {
+        return jdbcTemplate.queryForObject("SELECT content FROM notes WHERE id = 8100001", String.class);
+    }
+
+    private long version() {
+        return jdbcTemplate.queryForObject("SELECT content_version FROM notes WHERE id = 8100001", Long.class);
+    }
+}
@@ -0,0 +1,82 @@
+package com.personaltaskmanager.service;
+
+import com.personaltaskmanager.exception.ConflictException;
+import com.personaltaskmanager.model.Schedule;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Créneaux écrits par une autre instance (ici directement en base) : les chevauchements sont vérifiés contre la base
+ * et les disponibilités en cache sont recalculées au changement de version
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+class ScheduleServiceTest {
+
+    @Autowired
+    private ScheduleService scheduleService;
+
+    @Autowired
+    private ScheduleVersions scheduleVersions;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void overlapWithAScheduleWrittenElsewhereIsRejected() {
+        Long userId = 71L;
+        assertThat(scheduleService.getConflicts(userId)).isEmpty();
+        insertElsewhere(9_000_001L, userId, "09:00:00", "11:00:00");
+
+        assertThatThrownBy(() -> scheduleService.createSchedule(schedule(userId, "10:00", "12:00")))
+            .isInstanceOf(ConflictException.class)
+            .hasMessageContaining("9000001");
+
+        Schedule created = scheduleService.createSchedule(schedule(userId, "11:00", "12:00"));
+        assertThat(scheduleVersions.current(userId)).isEqualTo(1);
+
+        // Créneau supprimé ailleurs : il ne bloque plus rien
+        jdbcTemplate.update("DELETE FROM schedules WHERE id = 9000001");
+        Schedule moved = schedule(userId, "09:30", "11:00");
+        assertThat(scheduleService.updateSchedule(created.getId(), moved).getStartTime()).isEqualTo(LocalTime.of(9, 30));
+        assertThat(scheduleVersions.current(userId)).isEqualTo(2);
+    }
+
+    @Test
+    void availabilityFollowsWritesMadeElsewhere() {
+        Long userId = 72L;
+        assertThat(scheduleService.getFreeSlots(userId, DayOfWeek.MONDAY, 60))
+            .singleElement().satisfies(slot -> assertThat(slot.getDurationMinutes()).isEqualTo(24 * 60));
+
+        // Écriture d'une autre instance : créneau et nouvelle version
+        insertElsewhere(9_000_002L, userId, "08:00:00", "12:00:00");
+        scheduleVersions.lockAndIncrement(userId);
+
+        assertThat(scheduleService.getFreeSlots(userId, DayOfWeek.MONDAY, 60))
+            .extracting(slot -> slot.getStartTime()).containsExactly(LocalTime.MIDNIGHT, LocalTime.NOON);
+    }
+
+    private void insertElsewhere(long id, Long userId, String start, String end) {
+        jdbcTemplate.update("INSERT INTO schedules (id, day_of_week, start_time, end_time, title, is_work_schedule, user_id) "
+            + "VALUES (?, 'MONDAY', CAST(? AS TIME), CAST(? AS TIME), 'Ailleurs', FALSE, ?)", id, start, end, userId);
+    }
+
+    private static Schedule schedule(Long userId, String start, String end) {
+        Schedule schedule = new Schedule();
+        schedule.setDayOfWeek(DayOfWeek.MONDAY);
+        schedule.setStartTime(LocalTime.parse(start));
+        schedule.setEndTime(LocalTime.parse(end));
+        schedule.setTitle("Créneau");
+        schedule.setUserId(userId);
+        return schedule;
+    }
+}
@@ -0,0 +1,196 @@
+package com.personaltaskmanager.service;
+
+import com.personaltaskmanager.dto.FreeSlot;
+import com.personaltaskmanager.enums.DocumentType;
+import com.personaltaskmanager.exception.ConflictException;
+import com.personaltaskmanager.model.Document;
+import com.personaltaskmanager.model.Schedule;
+import com.personaltaskmanager.repository.DocumentRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Archive d'un espace de travail : l'export ne sort rien de hors du dossier des dépôts, l'import refuse un fichier
+ * trop gros une fois décompressé, une ligne trop longue, trop d'entrées et des créneaux qui se chevauchent,
+ * et met à jour les disponibilités
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE,
+    properties = {
+        "app.workspace.archive.max-entry-bytes=1024",
+        "app.workspace.archive.max-line-length=2048",
+        "app.workspace.archive.max-entries=20"
+    })
+@ActiveProfiles("test")
+class WorkspaceArchiveServiceTest {
+    private static final Path ROOT = createRoot();
+    private static final Path UPLOAD_DIR = ROOT.resolve("uploads");
+
+    @Autowired
+    private WorkspaceArchiveService archiveService;
+
+    @Autowired
+    private DocumentRepository documentRepository;
+
+    @Autowired
+    private ScheduleService scheduleService;
+
+    @DynamicPropertySource
+    static void uploadDir(DynamicPropertyRegistry registry) {
+        registry.add("app.upload.dir", UPLOAD_DIR::toString);
+    }
+
+    @Test
+    void exportSkipsFilesOutsideTheUploadDirectory() throws IOException {
+        Files.createDirectories(UPLOAD_DIR);
+        Path uploaded = Files.writeString(UPLOAD_DIR.resolve("rapport.txt"), "contenu déposé");
+        Path secret = Files.writeString(ROOT.resolve("secret.txt"), "hors du dossier des dépôts");
+        Files.createSymbolicLink(UPLOAD_DIR.resolve("lien.txt"), secret);
+        document(61L, uploaded.toString());
+        document(61L, secret.toString());
+        document(61L, UPLOAD_DIR.resolve("../secret.txt").toString());
+        document(61L, UPLOAD_DIR.resolve("lien.txt").toString());
+
+        ByteArrayOutputStream archive = new ByteArrayOutputStream();
+        archiveService.exportWorkspace(61L, archive);
+
+        assertThat(fileEntries(archive.toByteArray())).containsExactly("files/documents/rapport.txt");
+    }
+
+    @Test
+    void importRejectsAnEntryLargerThanTheLimitOnceInflated() throws IOException {
+        ByteArrayOutputStream archive = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(archive)) {
+            manifest(zip);
+            zip.putNextEntry(new ZipEntry("files/documents/bombe.bin"));
+            // Quelques octets compressés, 4 Ko une fois décompressés
+            zip.write(new byte[4096]);
+            zip.closeEntry();
+        }
+
+        assertThatThrownBy(() -> archiveService.importWorkspace(62L, new ByteArrayInputStream(archive.toByteArray())))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("bombe.bin");
+        // Fichier partiel supprimé avec le reste de l'import
+        try (var files = Files.list(UPLOAD_DIR)) {
+            assertThat(files.map(path -> path.getFileName().toString())).noneMatch(name -> name.endsWith("bombe.bin"));
+        }
+    }
+
+    @Test
+    void importRejectsAnOverlongLineAndTooManyEntries() throws IOException {
+        ByteArrayOutputStream longLine = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(longLine)) {
+            manifest(zip);
+            zip.putNextEntry(new ZipEntry("notes.ndjson"));
+            // Une seule « ligne » sans fin de ligne, au-delà de la limite
+            zip.write(("{\"title\":\"" + "x".repeat(4096) + "\"}").getBytes(StandardCharsets.UTF_8));
+        }
+        assertThatThrownBy(() -> archiveService.importWorkspace(64L, new ByteArrayInputStream(longLine.toByteArray())))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("ligne");
+
+        ByteArrayOutputStream manyEntries = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(manyEntries)) {
+            manifest(zip);
+            for (int i = 0; i < 30; i++) {
+                zip.putNextEntry(new ZipEntry("vide-" + i + "/"));
+            }
+        }
+        assertThatThrownBy(() -> archiveService.importWorkspace(64L, new ByteArrayInputStream(manyEntries.toByteArray())))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("entrées");
+    }
+
+    @Test
+    void importedSchedulesAreCheckedForOverlapsAndFreeSlotsFollow() throws IOException {
+        scheduleService.createSchedule(schedule(63L, "09:00", "11:00"));
+        assertThat(scheduleService.getFreeSlots(63L, DayOfWeek.MONDAY, 60)).hasSize(2);
+
+        assertThatThrownBy(() -> archiveService.importWorkspace(63L, schedulesArchive("10:00", "12:00")))
+            .isInstanceOf(ConflictException.class);
+        assertThat(scheduleService.getSchedulesByUserId(63L)).hasSize(1);
+
+        archiveService.importWorkspace(63L, schedulesArchive("14:00", "15:00"));
+        assertThat(scheduleService.getFreeSlots(63L, DayOfWeek.MONDAY, 60))
+            .extracting(FreeSlot::getStartTime)
+            .containsExactly(LocalTime.MIDNIGHT, LocalTime.of(11, 0), LocalTime.of(15, 0));
+    }
+
+    private static ByteArrayInputStream schedulesArchive(String start, String end) throws IOException {
+        ByteArrayOutputStream archive = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(archive)) {
+            manifest(zip);
+            zip.putNextEntry(new ZipEntry("schedules.ndjson"));
+            zip.write(("{\"dayOfWeek\":\"MONDAY\",\"startTime\":\"" + start + "\",\"endTime\":\"" + end
+                + "\",\"title\":\"Importé\"}\n").getBytes(StandardCharsets.UTF_8));
+        }
+        return new ByteArrayInputStream(archive.toByteArray());
+    }
+
+    private static void manifest(ZipOutputStream zip) throws IOException {
+        zip.putNextEntry(new ZipEntry("manifest.json"));
+        zip.write(("{\"format\":\"" + WorkspaceArchiveService.FORMAT + "\",\"version\":1}").getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Schedule schedule(Long userId, String start, String end) {
+        Schedule schedule = new Schedule();
+        schedule.setDayOfWeek(DayOfWeek.MONDAY);
+        schedule.setStartTime(LocalTime.parse(start));
+        schedule.setEndTime(LocalTime.parse(end));
+        schedule.setTitle("Existant");
+        schedule.setUserId(userId);
+        return schedule;
+    }
+
+    private void document(Long userId, String filePath) {
+        Document document = new Document();
+        document.setName(Path.of(filePath).getFileName().toString());
+        document.setType(DocumentType.FILE);
+        document.setFilePath(filePath);
+        document.setUserId(userId);
+        documentRepository.save(document);
+    }
+
+    private static List<String> fileEntries(byte[] archive) throws IOException {
+        List<String> names = new ArrayList<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(archive))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                if (entry.getName().startsWith("files/")) {
+                    names.add(entry.getName());
+                }
+            }
+        }
+        return names;
+    }
+
+    private static Path createRoot() {
+        try {
+            return Files.createTempDirectory("workspace-archive");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
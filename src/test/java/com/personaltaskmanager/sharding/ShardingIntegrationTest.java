@@ -0,0 +1,232 @@
+package com.personaltaskmanager.sharding;
+
+import com.personaltaskmanager.security.AdminAuthenticationFilter;
+import com.personaltaskmanager.security.TokenService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Sharding de bout en bout sur deux bases H2 : aiguillage des requêtes (réponses streamées comprises),
+ * identifiants globaux et déplacement d'un utilisateur par l'API d'administration.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "app.sharding.enabled=true",
+    "app.sharding.shards.shard-1.url=jdbc:h2:mem:sharding-shard-1;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+    "app.sharding.shards.shard-1.username=sa",
+    "app.sharding.directory-refresh-ms=200",
+    "app.ids.node-id=5",
+    "app.admin.api-key=" + ShardingIntegrationTest.ADMIN_KEY
+})
+@ActiveProfiles("test")
+class ShardingIntegrationTest {
+    static final String ADMIN_KEY = "cle-d-administration-des-tests-de-sharding";
+    private static final String DEFAULT_SHARD = "shard-0";
+    private static final String OTHER_SHARD = "shard-1";
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private TokenService tokenService;
+
+    @Autowired
+    private ShardDirectory directory;
+
+    @Autowired
+    private ShardDataSources shards;
+
+    @Autowired
+    private ShardMoveService moveService;
+
+    @Test
+    void requestsAreRoutedToTheUsersShardWithGlobalIds() {
+        Long onDefault = newUserOn(DEFAULT_SHARD, 1000);
+        Long onOther = newUserOn(OTHER_SHARD, 1000);
+
+        long defaultTaskId = createTask(onDefault, "Tâche du shard par défaut");
+        long otherTaskId = createTask(onOther, "Tâche de l'autre shard");
+
+        assertThat(countTasks(DEFAULT_SHARD, onDefault)).isEqualTo(1);
+        assertThat(countTasks(OTHER_SHARD, onDefault)).isZero();
+        assertThat(countTasks(OTHER_SHARD, onOther)).isEqualTo(1);
+        assertThat(countTasks(DEFAULT_SHARD, onOther)).isZero();
+
+        // Liste streamée : écrite hors du thread de la requête, elle doit pourtant lire le bon shard
+        assertThat(listTasks(onOther).getBody()).contains("Tâche de l'autre shard").doesNotContain("shard par défaut");
+        assertThat(listTasks(onDefault).getBody()).contains("Tâche du shard par défaut");
+
+        // 41 bits de temps, 5 bits d'instance (app.ids.node-id=5), 7 bits de compteur
+        assertThat(defaultTaskId).isNotEqualTo(otherTaskId);
+        assertThat(defaultTaskId).isLessThan(1L << 53).isGreaterThan(1L << 12);
+        assertThat((defaultTaskId >> 7) & 31).isEqualTo(5);
+        assertThat((otherTaskId >> 7) & 31).isEqualTo(5);
+    }
+
+    @Test
+    void moveRequiresTheAdminKey() throws Exception {
+        Long userId = newUserOn(DEFAULT_SHARD, 2000);
+
+        // Client du JDK : HttpURLConnection ne sait pas rendre un 401 reçu sur un POST
+        HttpResponse<String> response = HttpClient.newHttpClient().send(HttpRequest.newBuilder(
+                URI.create(restTemplate.getRootUri() + "/api/admin/shards/users/" + userId + "/move?target=" + OTHER_SHARD))
+            .POST(HttpRequest.BodyPublishers.noBody())
+            .build(), HttpResponse.BodyHandlers.ofString());
+
+        assertThat(response.statusCode()).isEqualTo(HttpStatus.UNAUTHORIZED.value());
+        assertThat(directory.shardFor(userId)).isEqualTo(DEFAULT_SHARD);
+    }
+
+    @Test
+    void moveCopiesEveryRowThenDeletesTheSource() {
+        Long userId = newUserOn(DEFAULT_SHARD, 3000);
+        long firstTaskId = createTask(userId, "Première");
+        long secondTaskId = createTask(userId, "Deuxième");
+        createTask(userId, "Troisième");
+        jdbc(DEFAULT_SHARD).update("INSERT INTO comments (content, task_id, user_id) VALUES ('Commentaire', ?, ?)",
+            firstTaskId, userId);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(AdminAuthenticationFilter.HEADER, ADMIN_KEY);
+        ResponseEntity<Map<String, Object>> response = restTemplate.exchange(
+            "/api/admin/shards/users/{id}/move?target={target}", HttpMethod.POST, new HttpEntity<>(headers),
+            new ParameterizedTypeReference<>() { }, userId, OTHER_SHARD);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        Map<String, Object> result = response.getBody();
+        assertThat(result).containsEntry("moved", true).containsEntry("sourceDeleted", true);
+        assertThat((Map<String, Object>) result.get("rows"))
+            .containsEntry("tasks", 3)
+            .containsEntry("comments", 1)
+            .containsEntry("notes", 0);
+
+        assertThat(directory.shardFor(userId)).isEqualTo(OTHER_SHARD);
+        assertThat(countTasks(OTHER_SHARD, userId)).isEqualTo(3);
+        assertThat(countTasks(DEFAULT_SHARD, userId)).isZero();
+        assertThat(jdbc(OTHER_SHARD).queryForObject("SELECT COUNT(*) FROM comments WHERE task_id = ?",
+            Integer.class, firstTaskId)).isEqualTo(1);
+        assertThat(jdbc(DEFAULT_SHARD).queryForObject("SELECT COUNT(*) FROM comments WHERE task_id = ?",
+            Integer.class, firstTaskId)).isZero();
+        // Identifiants conservés : les liens (commentaires, URL du frontend) restent valides
+        assertThat(jdbc(OTHER_SHARD).queryForObject("SELECT title FROM tasks WHERE id = ?", String.class, firstTaskId))
+            .isEqualTo("Première");
+        // Cette instance a acquitté le marquage avant la copie
+        assertThat(jdbc(DEFAULT_SHARD).queryForObject("SELECT COUNT(*) FROM shard_directory_acks WHERE node_id = 5",
+            Integer.class)).isEqualTo(1);
+
+        ResponseEntity<String> afterMove = restTemplate.exchange("/api/tasks/{id}", HttpMethod.GET,
+            new HttpEntity<>(authorized(userId)), String.class, secondTaskId);
+        assertThat(afterMove.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(afterMove.getBody()).contains("Deuxième");
+    }
+
+    @Test
+    void moveWaitsUntilAnotherLiveInstanceStopsAcknowledging() {
+        Long userId = newUserOn(DEFAULT_SHARD, 4000);
+        // Instance 9 : vivante mais bloquée, son dernier rafraîchissement précède le marquage du déplacement
+        jdbc(DEFAULT_SHARD).update("INSERT INTO shard_directory_acks (node_id, refreshed_at) VALUES (9, CURRENT_TIMESTAMP)");
+        try {
+            Map<String, Object> result = moveService.move(userId, OTHER_SHARD);
+
+            assertThat(result).containsEntry("moved", true);
+            // La copie n'a commencé qu'une fois l'instance tenue pour arrêtée : trois intervalles de rafraîchissement
+            assertThat((Long) result.get("durationMs")).isGreaterThanOrEqualTo(600);
+        } finally {
+            jdbc(DEFAULT_SHARD).update("DELETE FROM shard_directory_acks WHERE node_id = 9");
+        }
+    }
+
+    @Test
+    void globalStatisticsAddUpEveryShard() {
+        Long onDefault = newUserOn(DEFAULT_SHARD, 4000);
+        Long onOther = newUserOn(OTHER_SHARD, 4000);
+        String today = LocalDate.now().toString();
+        int before = tasksCompletedOn(today, onOther);
+
+        for (Long userId : new Long[] {onDefault, onOther}) {
+            String shard = directory.placementOf(userId).getShard();
+            jdbc(shard).update("INSERT INTO tasks (title, status, difficulty, priority, user_id, created_at) "
+                + "VALUES ('Terminée', 'COMPLETED', 'HARD', 'LOW', ?, CURRENT_TIMESTAMP)", userId);
+        }
+
+        // La requête d'un utilisateur du second shard voit aussi les tâches du shard par défaut
+        assertThat(tasksCompletedOn(today, onOther)).isEqualTo(before + 2);
+        ResponseEntity<Map<String, Object>> dashboard = restTemplate.exchange("/api/statistics/dashboard",
+            HttpMethod.GET, new HttpEntity<>(authorized(onOther)), new ParameterizedTypeReference<>() { });
+        @SuppressWarnings("unchecked")
+        Map<String, Object> todayStats = (Map<String, Object>) dashboard.getBody().get("todayStats");
+        assertThat(todayStats.get("tasksCompleted")).isEqualTo(before + 2);
+    }
+
+    /**
+     * Premier identifiant libre à partir de from que l'anneau place sur le shard voulu, enregistré dans l'annuaire
+     */
+    private Long newUserOn(String shard, long from) {
+        for (long userId = from; ; userId++) {
+            if (directory.ringShardFor(userId).equals(shard) && directory.placementOf(userId).getShard().equals(DEFAULT_SHARD)
+                    && countTasks(shard, userId) == 0
+                    && jdbc(DEFAULT_SHARD).queryForObject("SELECT COUNT(*) FROM shard_directory WHERE user_id = ?",
+                        Integer.class, userId) == 0) {
+                directory.assign(userId);
+                return userId;
+            }
+        }
+    }
+
+    private long createTask(Long userId, String title) {
+        HttpHeaders headers = authorized(userId);
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        ResponseEntity<Map<String, Object>> created = restTemplate.exchange("/api/tasks", HttpMethod.POST,
+            new HttpEntity<>("{\"title\":\"" + title + "\",\"difficulty\":\"EASY\",\"priority\":\"MEDIUM\"}", headers),
+            new ParameterizedTypeReference<>() { });
+        assertThat(created.getStatusCode()).isEqualTo(HttpStatus.OK);
+        return ((Number) created.getBody().get("id")).longValue();
+    }
+
+    private int tasksCompletedOn(String date, Long userId) {
+        ResponseEntity<Map<String, Object>> response = restTemplate.exchange("/api/statistics/date/" + date,
+            HttpMethod.GET, new HttpEntity<>(authorized(userId)), new ParameterizedTypeReference<>() { });
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        return (Integer) response.getBody().get("tasksCompleted");
+    }
+
+    private ResponseEntity<String> listTasks(Long userId) {
+        ResponseEntity<String> response = restTemplate.exchange("/api/tasks", HttpMethod.GET,
+            new HttpEntity<>(authorized(userId)), String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        return response;
+    }
+
+    private HttpHeaders authorized(Long userId) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(tokenService.issue(userId));
+        return headers;
+    }
+
+    private int countTasks(String shard, Long userId) {
+        return jdbc(shard).queryForObject("SELECT COUNT(*) FROM tasks WHERE user_id = ?", Integer.class, userId);
+    }
+
+    private JdbcTemplate jdbc(String shard) {
+        return new JdbcTemplate(shards.get(shard));
+    }
+}
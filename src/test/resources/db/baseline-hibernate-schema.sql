@@ -0,0 +1,10 @@
+-- Schéma créé par spring.jpa.hibernate.ddl-auto=update avec les entités d'origine (Hibernate 6.4.4, PostgreSQLDialect),
+-- tel quel : point de départ de FlywayBaselineUpgradeTest.
+create table comments (created_at timestamp(6), id bigserial not null, task_id bigint not null, user_id bigint, content varchar(2000) not null, author_name varchar(255), file_name varchar(255), file_path varchar(255), primary key (id));
+create table documents (created_at timestamp(6), file_size bigint, id bigserial not null, parent_id bigint, updated_at timestamp(6), user_id bigint not null, content varchar(10000), file_path varchar(255), file_type varchar(255) check (file_type in ('TEXT','IMAGE','PDF','VIDEO','AUDIO','DOCUMENT','OTHER')), file_url varchar(255), mime_type varchar(255), name varchar(255) not null, type varchar(255) not null check (type in ('FOLDER','FILE')), primary key (id));
+create table notes (is_pinned boolean, created_at timestamp(6), id bigserial not null, updated_at timestamp(6), user_id bigint, content varchar(5000), media_path varchar(255), note_type varchar(255) check (note_type in ('TEXT','VOICE','IMAGE')), title varchar(255) not null, primary key (id));
+create table schedules (end_time time(6) not null, is_work_schedule boolean, start_time time(6) not null, created_at timestamp(6), id bigserial not null, updated_at timestamp(6), user_id bigint, description varchar(1000), day_of_week varchar(255) not null check (day_of_week in ('MONDAY','TUESDAY','WEDNESDAY','THURSDAY','FRIDAY','SATURDAY','SUNDAY')), title varchar(255) not null, primary key (id));
+create table statistics (date date not null, notes_created integer, productive_time_minutes integer, tasks_completed integer, id bigserial not null, notes_by_type varchar(255), tasks_by_difficulty varchar(255), primary key (id));
+create table tasks (due_date date, created_at timestamp(6), id bigserial not null, updated_at timestamp(6), user_id bigint not null, description varchar(1000), difficulty varchar(255) not null check (difficulty in ('EASY','MEDIUM','HARD')), priority varchar(255) not null check (priority in ('LOW','MEDIUM','HIGH','URGENT')), status varchar(255) not null check (status in ('PENDING','IN_PROGRESS','COMPLETED')), title varchar(255) not null, primary key (id));
+create table users (reset_code varchar(6), created_at timestamp(6), id bigserial not null, last_login timestamp(6), reset_code_expiry timestamp(6), username varchar(50) not null unique, email varchar(100) not null unique, first_name varchar(255), last_name varchar(255), password varchar(255) not null, primary key (id));
+alter table if exists comments add constraint FKi7pp0331nbiwd2844kg78kfwb foreign key (task_id) references tasks;